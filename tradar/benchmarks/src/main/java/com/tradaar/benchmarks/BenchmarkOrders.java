@@ -0,0 +1,76 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import com.tradar.matching.engine.InstrumentScale;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the orders and engines shared by the benchmarks. Orders are created up
+ * front, outside the measured code, and reused across invocations: the engine
+ * only reads their fields, so an order can be submitted again once it has left
+ * the book.
+ */
+final class BenchmarkOrders {
+    /**
+     * Cent ticks and whole lots, so a price ladder covers a realistic range of
+     * levels around the mid.
+     */
+    static final InstrumentScale SCALE = new InstrumentScale(new BigDecimal("0.01"), BigDecimal.ONE);
+
+    /**
+     * Mid price in cents.
+     */
+    static final long MID = 10_000L;
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 2, 9, 30);
+
+    private BenchmarkOrders() {
+    }
+
+    static MatchingEngine engine(OrderBookType bookType, String... symbols) {
+        MatchingEngine engine = new MatchingEngine(symbol -> SCALE);
+        for (String symbol : symbols) {
+            engine.setOrderBookType(symbol, bookType);
+        }
+        return engine;
+    }
+
+    static String[] symbols(int count) {
+        String[] symbols = new String[count];
+        for (int i = 0; i < count; i++) {
+            symbols[i] = "SYM" + i;
+        }
+        return symbols;
+    }
+
+    static Order limit(String orderId, String symbol, OrderSide side, long quantity, long priceCents) {
+        return order(orderId, symbol, side, OrderType.LIMIT, quantity, BigDecimal.valueOf(priceCents, 2));
+    }
+
+    static Order market(String orderId, String symbol, OrderSide side, long quantity) {
+        return order(orderId, symbol, side, OrderType.MARKET, quantity, null);
+    }
+
+    private static Order order(String orderId, String symbol, OrderSide side, OrderType type,
+                               long quantity, BigDecimal price) {
+        return Order.builder()
+                .orderId(orderId)
+                .symbol(symbol)
+                .side(side)
+                .type(type)
+                .quantity(BigDecimal.valueOf(quantity))
+                .price(price)
+                .timeInForce(TimeInForce.DAY)
+                .timestamp(TIMESTAMP)
+                .status(OrderStatus.NEW)
+                .build();
+    }
+}
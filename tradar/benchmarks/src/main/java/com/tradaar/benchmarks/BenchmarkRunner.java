@@ -0,0 +1,67 @@
+package com.tradar.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so runs of different
+ * builds can be compared side by side or loaded into a JMH results visualizer.
+ * <p>
+ * Accepts the usual JMH command line, for example
+ * {@code java -jar benchmarks/target/benchmarks.jar Matching -p bookType=LADDER}.
+ * Unless {@code -rff} is given, results go to
+ * {@code jmh-results/<label>-<timestamp>.json}, where the label is taken from the
+ * {@code benchmark.label} system property and defaults to {@code run}. The GC
+ * profiler is always added, so allocation per operation is recorded with the
+ * timings.
+ */
+public final class BenchmarkRunner {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON);
+        Path result;
+        if (commandLine.getResult().hasValue()) {
+            result = Paths.get(commandLine.getResult().get());
+        } else {
+            String label = System.getProperty("benchmark.label", "run");
+            result = Paths.get("jmh-results", label + "-" + LocalDateTime.now().format(TIMESTAMP) + ".json");
+            options.result(result.toString());
+        }
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+
+        new Runner(options.build()).run();
+        System.out.println("Benchmark results written to " + result.toAbsolutePath());
+    }
+}
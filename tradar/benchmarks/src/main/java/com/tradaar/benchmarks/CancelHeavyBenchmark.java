@@ -0,0 +1,76 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote churn typical of market makers, where most orders are cancelled rather
+ * than filled. The book holds a fixed population of non-crossing orders spread
+ * over many levels; each operation cancels one of them, picked at random so
+ * cancels hit the middle of queues, and enters it again at the back of its level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CancelHeavyBenchmark {
+    private static final String SYMBOL = "CANCEL";
+    private static final int LEVELS_PER_SIDE = 200;
+
+    @Param({"TREE", "LADDER"})
+    private OrderBookType bookType;
+
+    @Param({"1000", "100000"})
+    private int restingOrders;
+
+    private MatchingEngine engine;
+    private Order[] orders;
+    // Pre-drawn random order indexes, so the random generator is not measured
+    private int[] picks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildBook() {
+        engine = BenchmarkOrders.engine(bookType, SYMBOL);
+        orders = new Order[restingOrders];
+        Random random = new Random(42);
+        for (int i = 0; i < restingOrders; i++) {
+            boolean buy = (i & 1) == 0;
+            long offset = 1 + random.nextInt(LEVELS_PER_SIDE);
+            orders[i] = BenchmarkOrders.limit("C" + i, SYMBOL, buy ? OrderSide.BUY : OrderSide.SELL,
+                1 + random.nextInt(100), buy ? BenchmarkOrders.MID - offset : BenchmarkOrders.MID + offset);
+            engine.processOrder(orders[i]);
+        }
+        picks = new int[1 << 16];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = random.nextInt(restingOrders);
+        }
+    }
+
+    @Benchmark
+    public Order cancelAndReplace() {
+        Order order = orders[picks[next++ & (picks.length - 1)]];
+        Order cancelled = engine.cancelOrder(SYMBOL, order.getOrderId());
+        engine.processOrder(order);
+        return cancelled;
+    }
+}
@@ -0,0 +1,79 @@
+package com.tradar.benchmarks;
+
+import com.tradar.refdata.limit.DailyLimitLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily limit accounting with several threads trading for one actor: each
+ * operation reserves an order's value, then commits it as a fill or releases it
+ * as a cancel. Compared with a check-then-add on a BigDecimal running total in a
+ * concurrent map, as the actor manager used to keep, which all threads update
+ * through the same map entry. The limit is set high enough never to be reached.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class DailyLimitBenchmark {
+    private static final String ACTOR = "TRADER1";
+    private static final BigDecimal LIMIT = new BigDecimal("1000000000000");
+    private static final BigDecimal ORDER_VALUE = new BigDecimal("18725.00");
+
+    private DailyLimitLedger.Account account;
+    private long orderValue;
+    private Map<String, BigDecimal> totals;
+
+    @Setup(Level.Iteration)
+    public void createLedger() {
+        DailyLimitLedger ledger = new DailyLimitLedger(Map.of(ACTOR, LIMIT), 4);
+        account = ledger.getAccount(ACTOR);
+        orderValue = ledger.toNotional(ORDER_VALUE);
+        totals = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public long reserveCommit() {
+        long token = account.reserve(orderValue);
+        if (token != DailyLimitLedger.REJECTED) {
+            account.commit(token, orderValue, orderValue);
+        }
+        return token;
+    }
+
+    @Benchmark
+    public long reserveRelease() {
+        long token = account.reserve(orderValue);
+        if (token != DailyLimitLedger.REJECTED) {
+            account.release(token, orderValue);
+        }
+        return token;
+    }
+
+    @Benchmark
+    public boolean bigDecimalTotal() {
+        boolean allowed = totals.getOrDefault(ACTOR, BigDecimal.ZERO).add(ORDER_VALUE).compareTo(LIMIT) <= 0;
+        if (allowed) {
+            totals.merge(ACTOR, ORDER_VALUE, BigDecimal::add);
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One aggressive order sweeping an entire side of a deep book: every resting
+ * order is filled and every level emptied. The book is rebuilt before each
+ * invocation, so only the sweep itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DeepBookSweepBenchmark {
+    private static final String SYMBOL = "SWEEP";
+
+    @Param({"TREE", "LADDER"})
+    private OrderBookType bookType;
+
+    @Param({"100", "1000"})
+    private int levels;
+
+    @Param({"1", "10"})
+    private int ordersPerLevel;
+
+    private Order[] resting;
+    private Order marketSweep;
+    private Order limitSweep;
+    private MatchingEngine engine;
+
+    @Setup(Level.Trial)
+    public void createOrders() {
+        resting = new Order[levels * ordersPerLevel];
+        for (int level = 0, i = 0; level < levels; level++) {
+            for (int k = 0; k < ordersPerLevel; k++, i++) {
+                resting[i] = BenchmarkOrders.limit("S" + i, SYMBOL, OrderSide.SELL, 10, BenchmarkOrders.MID + level);
+            }
+        }
+        long total = 10L * resting.length;
+        marketSweep = BenchmarkOrders.market("MKT", SYMBOL, OrderSide.BUY, total);
+        limitSweep = BenchmarkOrders.limit("LMT", SYMBOL, OrderSide.BUY, total, BenchmarkOrders.MID + levels);
+    }
+
+    @Setup(Level.Invocation)
+    public void buildBook() {
+        engine = BenchmarkOrders.engine(bookType, SYMBOL);
+        for (Order order : resting) {
+            engine.processOrder(order);
+        }
+    }
+
+    @Benchmark
+    public List<Trade> marketOrderSweep() {
+        return engine.processOrder(marketSweep);
+    }
+
+    @Benchmark
+    public List<Trade> limitOrderSweep() {
+        return engine.processOrder(limitSweep);
+    }
+}
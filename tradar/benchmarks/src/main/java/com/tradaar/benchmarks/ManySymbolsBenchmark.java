@@ -0,0 +1,78 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order flow spread over many symbols, so book lookups and the working set of
+ * books, rather than a single hot book, dominate. Every symbol carries five
+ * levels of standing depth per side; the flow alternates a resting bid at the
+ * mid with a sell that fills it, leaving each book as it was once a pass over
+ * all symbols completes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ManySymbolsBenchmark {
+    private static final int DEPTH = 5;
+
+    @Param({"TREE", "LADDER"})
+    private OrderBookType bookType;
+
+    @Param({"10", "1000", "10000"})
+    private int symbolCount;
+
+    private MatchingEngine engine;
+    private Order[] flow;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildBooks() {
+        String[] symbols = BenchmarkOrders.symbols(symbolCount);
+        engine = BenchmarkOrders.engine(bookType, symbols);
+        flow = new Order[2 * symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            String symbol = symbols[s];
+            for (int level = 1; level <= DEPTH; level++) {
+                engine.processOrder(BenchmarkOrders.limit(symbol + "B" + level, symbol, OrderSide.BUY,
+                    100, BenchmarkOrders.MID - level));
+                engine.processOrder(BenchmarkOrders.limit(symbol + "A" + level, symbol, OrderSide.SELL,
+                    100, BenchmarkOrders.MID + level));
+            }
+            // Interleave symbols so consecutive orders rarely hit the same book
+            flow[s] = BenchmarkOrders.limit(symbol + "-bid", symbol, OrderSide.BUY, 10, BenchmarkOrders.MID);
+            flow[symbolCount + s] = BenchmarkOrders.limit(symbol + "-hit", symbol, OrderSide.SELL, 10,
+                BenchmarkOrders.MID);
+        }
+    }
+
+    @Benchmark
+    public List<Trade> processOrder() {
+        List<Trade> trades = engine.processOrder(flow[next]);
+        if (++next == flow.length) {
+            next = 0;
+        }
+        return trades;
+    }
+}
@@ -0,0 +1,118 @@
+package com.tradar.benchmarks;
+
+import com.tradar.marketdata.cache.MarketDataCache;
+import com.tradar.marketdata.cache.MarketDataUpdateListener;
+import com.tradar.marketdata.model.MarketDataEntry;
+import com.tradar.marketdata.model.MarketDataRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Market data cache updates across many symbols, as applied by the FIX client:
+ * immutable entries delivered to listeners called inline or through a
+ * conflating dispatcher, and mutable records updated in place. Reads of the
+ * latest entry are measured alongside.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataCacheBenchmark {
+    @Param({"100", "10000"})
+    private int symbolCount;
+
+    @Param({"NONE", "INLINE", "CONFLATING"})
+    private String listener;
+
+    private final MarketDataUpdateListener sink = entry -> delivered = entry;
+    private volatile MarketDataEntry delivered;
+    private MarketDataRecord updated;
+    private MarketDataCache cache;
+    private MarketDataEntry[] entries;
+    private MarketDataRecord[] records;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createCache() {
+        cache = new MarketDataCache();
+        switch (listener) {
+            case "INLINE" -> cache.addListener(sink);
+            case "CONFLATING" -> cache.addConflatingListener(sink);
+            default -> { }
+        }
+        cache.addRecordListener(record -> updated = record);
+
+        String[] symbols = BenchmarkOrders.symbols(symbolCount);
+        entries = new MarketDataEntry[symbolCount];
+        records = new MarketDataRecord[symbolCount];
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < symbolCount; i++) {
+            entries[i] = MarketDataEntry.builder()
+                    .symbol(symbols[i])
+                    .bidPrice(new BigDecimal("100.25"))
+                    .askPrice(new BigDecimal("100.50"))
+                    .bidSize(new BigDecimal("1500"))
+                    .askSize(new BigDecimal("1200"))
+                    .lastPrice(new BigDecimal("100.375"))
+                    .lastSize(new BigDecimal("300"))
+                    .timestamp(now)
+                    .build();
+            cache.updateMarketData(entries[i]);
+            records[i] = cache.getOrCreateRecord(symbols[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void removeListeners() {
+        // Stops the dispatcher thread of a conflating listener
+        cache.removeListener(sink);
+    }
+
+    @Benchmark
+    public MarketDataEntry updateEntry() {
+        MarketDataEntry entry = entries[nextIndex()];
+        cache.updateMarketData(entry);
+        return entry;
+    }
+
+    @Benchmark
+    public MarketDataRecord updateRecord() {
+        MarketDataRecord record = records[nextIndex()];
+        record.beginUpdate();
+        record.setBid(10_025_000_000L, 150_000_000_000L);
+        record.setAsk(10_050_000_000L, 120_000_000_000L);
+        record.endUpdate(System.nanoTime());
+        cache.recordUpdated(record);
+        return record;
+    }
+
+    @Benchmark
+    public MarketDataEntry readEntry() {
+        return cache.getMarketData(entries[nextIndex()].getSymbol());
+    }
+
+    private int nextIndex() {
+        int index = next;
+        if (++next == symbolCount) {
+            next = 0;
+        }
+        return index;
+    }
+}
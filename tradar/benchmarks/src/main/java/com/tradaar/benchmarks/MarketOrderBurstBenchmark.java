@@ -0,0 +1,86 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of market orders, as after a news event, walking both sides of a book
+ * of small resting orders. Each market order takes a few resting orders, so the
+ * burst empties levels as it goes. The book is rebuilt before each burst and
+ * results are reported per market order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketOrderBurstBenchmark {
+    private static final String SYMBOL = "BURST";
+    private static final int BURST = 1000;
+    private static final int LEVELS_PER_SIDE = 500;
+    private static final int ORDERS_PER_LEVEL = 5;
+
+    @Param({"TREE", "LADDER"})
+    private OrderBookType bookType;
+
+    @Param({"10", "50"})
+    private int marketOrderQuantity;
+
+    private Order[] resting;
+    private Order[] burst;
+    private MatchingEngine engine;
+
+    @Setup(Level.Trial)
+    public void createOrders() {
+        resting = new Order[2 * LEVELS_PER_SIDE * ORDERS_PER_LEVEL];
+        int i = 0;
+        for (int level = 1; level <= LEVELS_PER_SIDE; level++) {
+            for (int k = 0; k < ORDERS_PER_LEVEL; k++) {
+                resting[i] = BenchmarkOrders.limit("B" + i, SYMBOL, OrderSide.BUY, 10, BenchmarkOrders.MID - level);
+                i++;
+                resting[i] = BenchmarkOrders.limit("A" + i, SYMBOL, OrderSide.SELL, 10, BenchmarkOrders.MID + level);
+                i++;
+            }
+        }
+        burst = new Order[BURST];
+        for (int k = 0; k < BURST; k++) {
+            burst[k] = BenchmarkOrders.market("M" + k, SYMBOL, (k & 1) == 0 ? OrderSide.BUY : OrderSide.SELL,
+                marketOrderQuantity);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void buildBook() {
+        engine = BenchmarkOrders.engine(bookType, SYMBOL);
+        for (Order order : resting) {
+            engine.processOrder(order);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void marketOrderBurst(Blackhole blackhole) {
+        for (Order order : burst) {
+            blackhole.consume(engine.processOrder(order));
+        }
+    }
+}
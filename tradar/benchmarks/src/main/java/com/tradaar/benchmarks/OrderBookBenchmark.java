@@ -0,0 +1,98 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.book.OrderBookType;
+import com.tradar.matching.engine.book.PriceLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book operations in isolation, without the engine's order conversion and
+ * matching: adding and removing resting orders, and best-price lookups, on each
+ * book implementation. With one order per level every add and remove also
+ * creates or drops a level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+    private static final String SYMBOL = "BOOK";
+    private static final int ORDERS = 10_000;
+
+    @Param({"TREE", "LADDER"})
+    private OrderBookType bookType;
+
+    @Param({"1", "100"})
+    private int ordersPerLevel;
+
+    private OrderBook book;
+    private BookOrder[] orders;
+    private int[] picks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildBook() {
+        book = bookType.create(SYMBOL, BenchmarkOrders.SCALE);
+        orders = new BookOrder[ORDERS];
+        int levels = ORDERS / ordersPerLevel;
+        for (int i = 0; i < ORDERS; i++) {
+            boolean buy = (i & 1) == 0;
+            // Levels fill outward from the mid on both sides
+            long offset = 1 + (i / 2) % (levels / 2);
+            long price = BenchmarkOrders.MID + (buy ? -offset : offset);
+            orders[i] = new BookOrder(BenchmarkOrders.limit("O" + i, SYMBOL, buy ? OrderSide.BUY : OrderSide.SELL,
+                10, price), price, 10);
+            book.addOrder(orders[i]);
+        }
+        Random random = new Random(42);
+        picks = new int[1 << 16];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = random.nextInt(ORDERS);
+        }
+    }
+
+    @Benchmark
+    public BookOrder removeAndAdd() {
+        BookOrder order = orders[picks[next++ & (picks.length - 1)]];
+        book.removeOrder(order);
+        book.addOrder(order);
+        return order;
+    }
+
+    @Benchmark
+    public BookOrder cancelById() {
+        BookOrder order = orders[picks[next++ & (picks.length - 1)]];
+        BookOrder cancelled = book.cancelOrder(order.getOrderId());
+        book.addOrder(order);
+        return cancelled;
+    }
+
+    @Benchmark
+    public PriceLevel bestBid() {
+        return book.getBestLevel(OrderSide.BUY);
+    }
+
+    @Benchmark
+    public PriceLevel levelLookup() {
+        BookOrder order = orders[picks[next++ & (picks.length - 1)]];
+        return book.getLevel(order.getOrder().getSide(), order.getPrice());
+    }
+}
@@ -0,0 +1,98 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.codec.OrderDecoder;
+import com.tradar.core.codec.OrderEncoder;
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of {@link Order} as sent over UDP between order entry and
+ * the matching engine. The binary codec is measured writing to and reading from a
+ * direct buffer, as the gateway does, both through the {@code Order} model and
+ * field by field; Java serialization, the previous wire format, is kept as the
+ * baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderCodecBenchmark {
+    private final OrderEncoder encoder = new OrderEncoder();
+    private final OrderDecoder decoder = new OrderDecoder();
+    private final StringBuilder symbol = new StringBuilder(16);
+    private ByteBuffer buffer;
+    private Order order;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void encodeOrder() throws IOException {
+        order = BenchmarkOrders.limit("3f2a9c1e-5b7d-4e08-9a61-c2d4f0b8e713", "AAPL", OrderSide.BUY, 250, 18_725L);
+        buffer = ByteBuffer.allocateDirect(OrderEncoder.ENCODED_LENGTH);
+        encoder.wrap(buffer, 0).encode(order);
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public int encode() {
+        return encoder.wrap(buffer, 0).encode(order);
+    }
+
+    @Benchmark
+    public Order decodeToOrder() {
+        return decoder.wrap(buffer, 0).toOrder();
+    }
+
+    @Benchmark
+    public void decodeFields(Blackhole blackhole) {
+        decoder.wrap(buffer, 0);
+        symbol.setLength(0);
+        blackhole.consume(decoder.symbol(symbol));
+        blackhole.consume(decoder.side());
+        blackhole.consume(decoder.type());
+        blackhole.consume(decoder.priceMantissa());
+        blackhole.consume(decoder.quantityMantissa());
+        blackhole.consume(decoder.timestamp());
+    }
+
+    @Benchmark
+    public byte[] serializationEncode() throws IOException {
+        return serialize();
+    }
+
+    @Benchmark
+    public Object serializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(order);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.OrderBookType;
+import com.tradar.matching.engine.pool.PooledMatchingEngine;
+import com.tradar.matching.engine.pool.TradeEntryListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state matching in the object engine and in the garbage-free
+ * {@link PooledMatchingEngine}, on the same ladder book and order flow: each
+ * operation rests an order inside the spread and fills it with an opposing one,
+ * leaving the book as it was. The GC profiler's allocation per operation is the
+ * figure to watch; the pooled engine should show none. The matching engine's
+ * {@code PooledMatchingEngineAllocationTest} checks the same flow pass/fail.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PooledMatchingBenchmark {
+    private static final String SYMBOL = "POOLED";
+    private static final int LEVELS_PER_SIDE = 100;
+
+    private MatchingEngine engine;
+    private Order bid;
+    private Order offer;
+
+    private PooledMatchingEngine pooledEngine;
+    private int symbolId;
+    private long nextOrderId;
+
+    @Setup(Level.Trial)
+    public void buildBooks() {
+        engine = BenchmarkOrders.engine(OrderBookType.LADDER, SYMBOL);
+        for (int level = 2; level < 2 + LEVELS_PER_SIDE; level++) {
+            engine.processOrder(BenchmarkOrders.limit("B" + level, SYMBOL, OrderSide.BUY, 10,
+                BenchmarkOrders.MID - level));
+            engine.processOrder(BenchmarkOrders.limit("A" + level, SYMBOL, OrderSide.SELL, 10,
+                BenchmarkOrders.MID + level));
+        }
+        bid = BenchmarkOrders.limit("BID", SYMBOL, OrderSide.BUY, 10, BenchmarkOrders.MID);
+        offer = BenchmarkOrders.limit("OFFER", SYMBOL, OrderSide.SELL, 10, BenchmarkOrders.MID);
+
+        pooledEngine = buildPooledEngine();
+        symbolId = pooledEngine.getDirectory().idOf(SYMBOL);
+        nextOrderId = 2L * LEVELS_PER_SIDE + 1;
+    }
+
+    /**
+     * @return a pooled engine holding the same book as the object engine
+     */
+    private static PooledMatchingEngine buildPooledEngine() {
+        SymbolDirectory directory = new SymbolDirectory();
+        int symbolId = directory.intern(SYMBOL);
+        PooledMatchingEngine engine = new PooledMatchingEngine(symbol -> BenchmarkOrders.SCALE, directory,
+            PooledMatchingEngine.DEFAULT_POOL_SIZE, TradeEntryListener.NONE);
+        long orderId = 1L;
+        for (int level = 2; level < 2 + LEVELS_PER_SIDE; level++) {
+            engine.submit(symbolId, orderId++, OrderSide.BUY, OrderType.LIMIT, BenchmarkOrders.MID - level, 10, 0L);
+            engine.submit(symbolId, orderId++, OrderSide.SELL, OrderType.LIMIT, BenchmarkOrders.MID + level, 10, 0L);
+        }
+        return engine;
+    }
+
+    @Benchmark
+    public void objectEngine(Blackhole blackhole) {
+        blackhole.consume(engine.processOrder(bid));
+        blackhole.consume(engine.processOrder(offer));
+    }
+
+    @Benchmark
+    public long pooledEngine() {
+        long rested = pooledEngine.submit(symbolId, nextOrderId++, OrderSide.BUY, OrderType.LIMIT,
+            BenchmarkOrders.MID, 10, 0L);
+        return rested + pooledEngine.submit(symbolId, nextOrderId++, OrderSide.SELL, OrderType.LIMIT,
+            BenchmarkOrders.MID, 10, 0L);
+    }
+}
@@ -0,0 +1,189 @@
+package com.tradar.benchmarks;
+
+import com.tradar.core.model.ExecutionReport;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TradeCaptureReport;
+import com.tradar.reporting.repository.ReportRepository;
+import com.tradar.reporting.repository.ReportStoreConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Report repository queries over a trading day of reports: lookups by order id
+ * and symbol, and one-minute time windows as paged through by the report viewer.
+ * Each order has three execution reports (new, partial fill, fill) and each fill
+ * a trade capture report; transact times are spread over the session. The
+ * repository either keeps reports on the heap or in memory-mapped segments in a
+ * temporary directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportRepositoryBenchmark {
+    private static final int SYMBOLS = 100;
+    private static final LocalDateTime OPEN = LocalDateTime.of(2024, 1, 2, 9, 30);
+    private static final long SESSION_SECONDS = 390 * 60;
+
+    @Param({"10000", "100000"})
+    private int orders;
+
+    @Param({"HEAP", "MAPPED"})
+    private String storage;
+
+    private Path directory;
+    private ReportRepository repository;
+    private String[] symbols;
+    private ExecutionReport[] executionReports;
+    private int[] picks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fillRepository() throws IOException {
+        if (storage.equals("MAPPED")) {
+            directory = Files.createTempDirectory("report-benchmark");
+            repository = new ReportRepository(ReportStoreConfig.builder().directory(directory).build());
+        } else {
+            repository = new ReportRepository();
+        }
+        symbols = BenchmarkOrders.symbols(SYMBOLS);
+        executionReports = new ExecutionReport[3 * orders];
+        List<TradeCaptureReport> tradeReports = new ArrayList<>(2 * orders);
+        Random random = new Random(42);
+        for (int i = 0; i < orders; i++) {
+            String orderId = "ORD" + i;
+            String symbol = symbols[random.nextInt(SYMBOLS)];
+            LocalDateTime time = OPEN.plusSeconds(random.nextInt((int) SESSION_SECONDS - 2));
+            executionReports[3 * i] = executionReport(orderId, symbol, OrderStatus.NEW, 0, time);
+            executionReports[3 * i + 1] = executionReport(orderId, symbol, OrderStatus.PARTIALLY_FILLED, 40,
+                time.plusSeconds(1));
+            executionReports[3 * i + 2] = executionReport(orderId, symbol, OrderStatus.FILLED, 100,
+                time.plusSeconds(2));
+            tradeReports.add(tradeReport(i, orderId, symbol, 40, time.plusSeconds(1)));
+            tradeReports.add(tradeReport(i, orderId, symbol, 60, time.plusSeconds(2)));
+        }
+        // Added in transact time order, as they are when reported live
+        Arrays.stream(executionReports)
+            .sorted(Comparator.comparing(ExecutionReport::getTransactTime))
+            .forEach(repository::addExecutionReport);
+        tradeReports.sort(Comparator.comparing(TradeCaptureReport::getTransactTime));
+        tradeReports.forEach(repository::addTradeCaptureReport);
+        picks = new int[1 << 12];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = random.nextInt(orders);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSegments() throws IOException {
+        repository.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ExecutionReport> executionReportsByOrderId() {
+        return repository.getExecutionReportsByOrderId("ORD" + nextPick());
+    }
+
+    @Benchmark
+    public List<TradeCaptureReport> tradeReportsBySymbol() {
+        return repository.getTradeReportsBySymbol(symbols[nextPick() % SYMBOLS]);
+    }
+
+    @Benchmark
+    public List<ExecutionReport> executionReportsInMinute() {
+        LocalDateTime from = minute(nextPick());
+        return repository.getExecutionReports(from, from.plusMinutes(1));
+    }
+
+    @Benchmark
+    public List<TradeCaptureReport> tradeReportsInMinute() {
+        LocalDateTime from = minute(nextPick());
+        return repository.getTradeReports(from, from.plusMinutes(1));
+    }
+
+    @Benchmark
+    public ExecutionReport addExecutionReport() {
+        // Re-adds a stored report: the heap repository replaces it and keeps its
+        // size, the mapped one appends it again
+        ExecutionReport report = executionReports[nextPick()];
+        repository.addExecutionReport(report);
+        return report;
+    }
+
+    private int nextPick() {
+        return picks[next++ & (picks.length - 1)];
+    }
+
+    private static LocalDateTime minute(int pick) {
+        return OPEN.plusMinutes(pick % (SESSION_SECONDS / 60));
+    }
+
+    private static ExecutionReport executionReport(String orderId, String symbol, OrderStatus status,
+                                                   long filled, LocalDateTime time) {
+        return ExecutionReport.builder()
+                .execId(orderId + "-" + status)
+                .orderId(orderId)
+                .symbol(symbol)
+                .side(OrderSide.BUY)
+                .orderType(OrderType.LIMIT)
+                .orderQty(BigDecimal.valueOf(100))
+                .leavesQty(BigDecimal.valueOf(100 - filled))
+                .cumQty(BigDecimal.valueOf(filled))
+                .avgPx(filled == 0 ? BigDecimal.ZERO : new BigDecimal("187.25"))
+                .orderStatus(status)
+                .transactTime(time)
+                .text(status.name())
+                .build();
+    }
+
+    private static TradeCaptureReport tradeReport(int order, String orderId, String symbol, long quantity,
+                                                  LocalDateTime time) {
+        String tradeId = "T" + order + "-" + quantity;
+        return TradeCaptureReport.builder()
+                .tradeReportId(tradeId + "-TCR")
+                .tradeId(tradeId)
+                .symbol(symbol)
+                .buyOrderId(orderId)
+                .sellOrderId("CP" + order)
+                .price(new BigDecimal("187.25"))
+                .quantity(BigDecimal.valueOf(quantity))
+                .tradeDate(time.toLocalDate().atStartOfDay())
+                .transactTime(time)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.tradar.benchmarks;
+
+import com.tradar.marketdata.cache.MarketDataCache;
+import com.tradar.marketdata.fix.MarketDataClient;
+import com.tradar.marketdata.fix.SnapshotDecoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.FieldNotFound;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.Symbol;
+import quickfix.fix44.MarketDataSnapshotFullRefresh;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIX market data snapshots applied by {@link MarketDataClient} in each
+ * {@link SnapshotDecoding} mode. Prices and sizes are set as raw text, as
+ * received on the wire. Run with the GC profiler to compare bytes allocated per
+ * message.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotDecodingBenchmark {
+    private static final int SYMBOLS = 100;
+
+    @Param({"ENTRY", "RECORD"})
+    private SnapshotDecoding decoding;
+
+    private MarketDataClient client;
+    private MarketDataSnapshotFullRefresh[] snapshots;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createSnapshots() {
+        client = new MarketDataClient(new MarketDataCache());
+        client.setSnapshotDecoding(decoding);
+        snapshots = new MarketDataSnapshotFullRefresh[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            snapshots[i] = snapshot("SYM" + i, i);
+        }
+    }
+
+    @Benchmark
+    public void applySnapshot() throws FieldNotFound {
+        client.onMessage(snapshots[next], null);
+        if (++next == SYMBOLS) {
+            next = 0;
+        }
+    }
+
+    private static MarketDataSnapshotFullRefresh snapshot(String symbol, int seed) {
+        MarketDataSnapshotFullRefresh message = new MarketDataSnapshotFullRefresh();
+        message.set(new Symbol(symbol));
+        addEntry(message, MDEntryType.BID, (100 + seed) + ".25", "1500");
+        addEntry(message, MDEntryType.OFFER, (100 + seed) + ".50", "1200");
+        addEntry(message, MDEntryType.TRADE, (100 + seed) + ".375", "300");
+        return message;
+    }
+
+    private static void addEntry(MarketDataSnapshotFullRefresh message, char type, String price, String size) {
+        MarketDataSnapshotFullRefresh.NoMDEntries group = new MarketDataSnapshotFullRefresh.NoMDEntries();
+        group.set(new MDEntryType(type));
+        group.setString(MDEntryPx.FIELD, price);
+        group.setString(MDEntrySize.FIELD, size);
+        message.addGroup(group);
+    }
+}
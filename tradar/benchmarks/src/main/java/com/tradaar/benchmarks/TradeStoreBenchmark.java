@@ -0,0 +1,82 @@
+package com.tradar.benchmarks;
+
+import com.tradar.reporting.analytics.TradeStats;
+import com.tradar.reporting.analytics.TradeStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade analytics over a session of trades spread evenly across symbols and
+ * time: VWAP and OHLC of every symbol over the whole session, over a window
+ * whose ends cut through chunks, and five-minute bars of one symbol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class TradeStoreBenchmark {
+    private static final int SYMBOLS = 100;
+    private static final LocalDateTime OPEN = LocalDateTime.of(2024, 1, 2, 9, 30);
+    private static final LocalDateTime CLOSE = OPEN.plusMinutes(390);
+
+    @Param({"1000000", "50000000"})
+    private int trades;
+
+    private TradeStore store;
+    private String[] symbols;
+
+    @Setup(Level.Trial)
+    public void fillStore() {
+        store = new TradeStore();
+        symbols = BenchmarkOrders.symbols(SYMBOLS);
+        Random random = new Random(42);
+        long open = OPEN.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L;
+        long spacing = Duration.between(OPEN, CLOSE).toNanos() / trades;
+        for (int i = 0; i < trades; i++) {
+            // Prices around 187.25 at six decimals, 1 to 500 shares at four
+            long price = 187_250_000L + random.nextInt(2_000_001) - 1_000_000;
+            long quantity = (1 + random.nextInt(500)) * 10_000L;
+            store.add(symbols[random.nextInt(SYMBOLS)], price, quantity, open + i * spacing);
+        }
+    }
+
+    @Benchmark
+    public Map<String, TradeStats> sessionStatsBySymbol() {
+        return store.statsBySymbol(OPEN, CLOSE);
+    }
+
+    @Benchmark
+    public Map<String, TradeStats> unalignedStatsBySymbol() {
+        return store.statsBySymbol(OPEN.plusSeconds(30).plusNanos(123_456_789), CLOSE.minusSeconds(29).minusNanos(987_654_321));
+    }
+
+    @Benchmark
+    public TradeStats vwapOfOneSymbol() {
+        return store.stats(symbols[7], OPEN.plusNanos(500_000_000), CLOSE.minusNanos(500_000_000));
+    }
+
+    @Benchmark
+    public List<TradeStats> fiveMinuteBars() {
+        return store.bars(symbols[7], OPEN, CLOSE, Duration.ofMinutes(5));
+    }
+}
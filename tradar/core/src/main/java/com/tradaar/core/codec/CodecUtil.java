@@ -0,0 +1,118 @@
+package com.tradar.core.codec;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Absolute-offset field helpers shared by the flyweight codecs. Text fields are
+ * fixed-width ASCII padded with zero bytes; decimals are a long mantissa plus a
+ * one-byte scale; timestamps are UTC epoch nanoseconds.
+ */
+final class CodecUtil {
+    /** Mantissa marking a null decimal. */
+    static final long NULL_MANTISSA = Long.MIN_VALUE;
+    /** Value marking a null timestamp. */
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    /** Value marking a null enum. */
+    static final byte NULL_ENUM = -1;
+
+    private CodecUtil() {
+    }
+
+    static void putAscii(ByteBuffer buffer, int index, CharSequence value, int length) {
+        int size = value == null ? 0 : value.length();
+        if (size > length) {
+            throw new IllegalArgumentException(String.format(
+                "Value '%s' exceeds field length %d", value, length));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.put(index + i, (byte) value.charAt(i));
+        }
+        for (int i = size; i < length; i++) {
+            buffer.put(index + i, (byte) 0);
+        }
+    }
+
+    static int asciiLength(ByteBuffer buffer, int index, int length) {
+        int size = 0;
+        while (size < length && buffer.get(index + size) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    static String getAscii(ByteBuffer buffer, int index, int length) {
+        int size = asciiLength(buffer, index, length);
+        if (size == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[size];
+        buffer.get(index, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Appends the field to the given builder without allocating.
+     *
+     * @return number of characters appended
+     */
+    static int getAscii(ByteBuffer buffer, int index, int length, StringBuilder into) {
+        int size = asciiLength(buffer, index, length);
+        for (int i = 0; i < size; i++) {
+            into.append((char) buffer.get(index + i));
+        }
+        return size;
+    }
+
+    static void putDecimal(ByteBuffer buffer, int mantissaIndex, int scaleIndex, BigDecimal value) {
+        if (value == null) {
+            buffer.putLong(mantissaIndex, NULL_MANTISSA);
+            buffer.put(scaleIndex, (byte) 0);
+            return;
+        }
+        int scale = value.scale();
+        if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+            value = value.stripTrailingZeros();
+            scale = value.scale();
+        }
+        buffer.putLong(mantissaIndex, value.unscaledValue().longValueExact());
+        buffer.put(scaleIndex, (byte) scale);
+    }
+
+    static BigDecimal getDecimal(ByteBuffer buffer, int mantissaIndex, int scaleIndex) {
+        long mantissa = buffer.getLong(mantissaIndex);
+        return mantissa == NULL_MANTISSA ? null : BigDecimal.valueOf(mantissa, buffer.get(scaleIndex));
+    }
+
+    static void putTimestamp(ByteBuffer buffer, int index, LocalDateTime value) {
+        buffer.putLong(index, value == null ? NULL_TIMESTAMP
+            : value.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + value.getNano());
+    }
+
+    static LocalDateTime getTimestamp(ByteBuffer buffer, int index) {
+        long nanos = buffer.getLong(index);
+        return nanos == NULL_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(
+            Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    static byte ordinal(Enum<?> value) {
+        return value == null ? NULL_ENUM : (byte) value.ordinal();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the ordinal is outside the enum's values
+     */
+    static <E> E value(E[] values, byte ordinal) {
+        if (ordinal == NULL_ENUM) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid %s ordinal %d", values.getClass().getComponentType().getSimpleName(), ordinal));
+        }
+        return values[ordinal];
+    }
+}
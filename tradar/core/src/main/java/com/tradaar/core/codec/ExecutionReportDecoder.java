@@ -0,0 +1,107 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.ExecutionReport;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.ExecutionReportLayout.*;
+
+/**
+ * Flyweight that reads an execution report message in place from a
+ * {@link ByteBuffer}. Reuse one instance per thread.
+ */
+public final class ExecutionReportDecoder {
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold an execution report
+     */
+    public ExecutionReportDecoder wrap(ByteBuffer buffer, int offset) {
+        header.wrap(buffer, offset).verify(TemplateId.EXECUTION_REPORT, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        return this;
+    }
+
+    public String execId() {
+        return CodecUtil.getAscii(buffer, offset + EXEC_ID, ID_LENGTH);
+    }
+
+    public String orderId() {
+        return CodecUtil.getAscii(buffer, offset + ORDER_ID, ID_LENGTH);
+    }
+
+    public int orderId(StringBuilder into) {
+        return CodecUtil.getAscii(buffer, offset + ORDER_ID, ID_LENGTH, into);
+    }
+
+    public String symbol() {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public OrderSide side() {
+        return CodecUtil.value(SIDES, buffer.get(offset + SIDE));
+    }
+
+    public OrderType orderType() {
+        return CodecUtil.value(TYPES, buffer.get(offset + ORDER_TYPE));
+    }
+
+    public OrderStatus orderStatus() {
+        return CodecUtil.value(STATUSES, buffer.get(offset + ORDER_STATUS));
+    }
+
+    public long leavesQtyMantissa() {
+        return buffer.getLong(offset + LEAVES_QTY);
+    }
+
+    public int leavesQtyScale() {
+        return buffer.get(offset + LEAVES_QTY_SCALE);
+    }
+
+    public long cumQtyMantissa() {
+        return buffer.getLong(offset + CUM_QTY);
+    }
+
+    public int cumQtyScale() {
+        return buffer.get(offset + CUM_QTY_SCALE);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, or {@code Long.MIN_VALUE} if absent
+     */
+    public long transactTime() {
+        return buffer.getLong(offset + TRANSACT_TIME);
+    }
+
+    public ExecutionReport toExecutionReport() {
+        return ExecutionReport.builder()
+            .execId(execId())
+            .orderId(orderId())
+            .symbol(symbol())
+            .side(side())
+            .orderType(orderType())
+            .orderStatus(orderStatus())
+            .orderQty(decimal(ORDER_QTY, ORDER_QTY_SCALE))
+            .leavesQty(decimal(LEAVES_QTY, LEAVES_QTY_SCALE))
+            .cumQty(decimal(CUM_QTY, CUM_QTY_SCALE))
+            .avgPx(decimal(AVG_PX, AVG_PX_SCALE))
+            .transactTime(CodecUtil.getTimestamp(buffer, offset + TRANSACT_TIME))
+            .text(CodecUtil.getAscii(buffer, offset + TEXT, TEXT_LENGTH))
+            .build();
+    }
+
+    private BigDecimal decimal(int mantissa, int scale) {
+        return CodecUtil.getDecimal(buffer, offset + mantissa, offset + scale);
+    }
+}
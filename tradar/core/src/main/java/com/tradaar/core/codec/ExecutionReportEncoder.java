@@ -0,0 +1,49 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.ExecutionReport;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.ExecutionReportLayout.*;
+
+/**
+ * Flyweight that writes an execution report message directly into a
+ * {@link ByteBuffer} at fixed offsets. Text longer than the field is truncated.
+ * Reuse one instance per thread.
+ */
+public final class ExecutionReportEncoder {
+    /** Encoded size of an execution report message including its header. */
+    public static final int ENCODED_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    public ExecutionReportEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        header.wrap(buffer, offset).write(TemplateId.EXECUTION_REPORT, BLOCK_LENGTH);
+        return this;
+    }
+
+    /**
+     * @return the encoded length including the header
+     */
+    public int encode(ExecutionReport report) {
+        CodecUtil.putAscii(buffer, offset + EXEC_ID, report.getExecId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + ORDER_ID, report.getOrderId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + SYMBOL, report.getSymbol(), SYMBOL_LENGTH);
+        buffer.put(offset + SIDE, CodecUtil.ordinal(report.getSide()));
+        buffer.put(offset + ORDER_TYPE, CodecUtil.ordinal(report.getOrderType()));
+        buffer.put(offset + ORDER_STATUS, CodecUtil.ordinal(report.getOrderStatus()));
+        CodecUtil.putDecimal(buffer, offset + ORDER_QTY, offset + ORDER_QTY_SCALE, report.getOrderQty());
+        CodecUtil.putDecimal(buffer, offset + LEAVES_QTY, offset + LEAVES_QTY_SCALE, report.getLeavesQty());
+        CodecUtil.putDecimal(buffer, offset + CUM_QTY, offset + CUM_QTY_SCALE, report.getCumQty());
+        CodecUtil.putDecimal(buffer, offset + AVG_PX, offset + AVG_PX_SCALE, report.getAvgPx());
+        CodecUtil.putTimestamp(buffer, offset + TRANSACT_TIME, report.getTransactTime());
+        String text = report.getText();
+        CodecUtil.putAscii(buffer, offset + TEXT,
+            text != null && text.length() > TEXT_LENGTH ? text.subSequence(0, TEXT_LENGTH) : text, TEXT_LENGTH);
+        return ENCODED_LENGTH;
+    }
+}
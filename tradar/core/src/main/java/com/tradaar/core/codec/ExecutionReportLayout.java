@@ -0,0 +1,32 @@
+package com.tradar.core.codec;
+
+/**
+ * Fixed field offsets of the execution report message body, relative to the end of
+ * the header.
+ */
+final class ExecutionReportLayout {
+    static final int ID_LENGTH = OrderLayout.ID_LENGTH;
+    static final int SYMBOL_LENGTH = OrderLayout.SYMBOL_LENGTH;
+    static final int TEXT_LENGTH = 64;
+
+    static final int EXEC_ID = 0;
+    static final int ORDER_ID = EXEC_ID + ID_LENGTH;
+    static final int SYMBOL = ORDER_ID + ID_LENGTH;
+    static final int SIDE = SYMBOL + SYMBOL_LENGTH;
+    static final int ORDER_TYPE = SIDE + 1;
+    static final int ORDER_STATUS = ORDER_TYPE + 1;
+    static final int ORDER_QTY_SCALE = ORDER_STATUS + 1;
+    static final int LEAVES_QTY_SCALE = ORDER_QTY_SCALE + 1;
+    static final int CUM_QTY_SCALE = LEAVES_QTY_SCALE + 1;
+    static final int AVG_PX_SCALE = CUM_QTY_SCALE + 1;
+    static final int ORDER_QTY = AVG_PX_SCALE + 2;
+    static final int LEAVES_QTY = ORDER_QTY + 8;
+    static final int CUM_QTY = LEAVES_QTY + 8;
+    static final int AVG_PX = CUM_QTY + 8;
+    static final int TRANSACT_TIME = AVG_PX + 8;
+    static final int TEXT = TRANSACT_TIME + 8;
+    static final int BLOCK_LENGTH = TEXT + TEXT_LENGTH;
+
+    private ExecutionReportLayout() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.tradar.core.codec;
+
+/**
+ * Entry types carried in a market data packet.
+ */
+public final class MarketDataEntryType {
+    /** New state of one price level; a quantity of zero deletes the level. */
+    public static final byte LEVEL = 1;
+    /** A trade print. */
+    public static final byte TRADE = 2;
+    /** Drops all levels of a symbol; starts each symbol of a snapshot. */
+    public static final byte CLEAR_BOOK = 3;
+
+    private MarketDataEntryType() {
+    }
+}
@@ -0,0 +1,138 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.symbol.SymbolDirectory;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.MarketDataPacketLayout.*;
+
+/**
+ * Flyweight that reads a market data packet in place. Entries are addressed by
+ * index, from zero to {@link #count()} exclusive. Reuse one instance per thread.
+ */
+public final class MarketDataPacketDecoder {
+    private static final OrderSide[] SIDES = OrderSide.values();
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+    private int count;
+
+    /**
+     * Wraps a received packet of the given length and checks it is complete.
+     *
+     * @throws IllegalArgumentException if the bytes are not a whole market data packet
+     */
+    public MarketDataPacketDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        if (length < MarketDataPacketEncoder.HEADER_LENGTH) {
+            throw new IllegalArgumentException("Short market data packet of " + length + " bytes");
+        }
+        header.wrap(buffer, offset).verify(TemplateId.MARKET_DATA_PACKET, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        this.count = buffer.getShort(this.offset + MESSAGE_COUNT);
+        if (count < 0 || MarketDataPacketEncoder.HEADER_LENGTH + count * ENTRY_LENGTH > length) {
+            throw new IllegalArgumentException(String.format(
+                "Market data packet of %d bytes cannot hold %d entries", length, count));
+        }
+        return this;
+    }
+
+    public int channelId() {
+        return buffer.getInt(offset + CHANNEL_ID);
+    }
+
+    public int flags() {
+        return buffer.getShort(offset + FLAGS);
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags() & flag) != 0;
+    }
+
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    public long referenceSequence() {
+        return buffer.getLong(offset + REFERENCE_SEQUENCE);
+    }
+
+    public long sendTime() {
+        return buffer.getLong(offset + SEND_TIME);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return bytes covered by the packet, including all headers
+     */
+    public int length() {
+        return MarketDataPacketEncoder.HEADER_LENGTH + count * ENTRY_LENGTH;
+    }
+
+    /**
+     * @return one of the {@link MarketDataEntryType} constants
+     */
+    public byte type(int index) {
+        return buffer.get(entry(index) + ENTRY_TYPE);
+    }
+
+    public String symbol(int index) {
+        return CodecUtil.getAscii(buffer, entry(index) + ENTRY_SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public int symbol(int index, StringBuilder into) {
+        return CodecUtil.getAscii(buffer, entry(index) + ENTRY_SYMBOL, SYMBOL_LENGTH, into);
+    }
+
+    /**
+     * Resolves the entry's symbol in place, without decoding it.
+     *
+     * @return the symbol's id in the directory, or {@link SymbolDirectory#UNKNOWN}
+     */
+    public int symbolId(int index, SymbolDirectory directory) {
+        return directory.idOf(buffer, entry(index) + ENTRY_SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public OrderSide side(int index) {
+        return CodecUtil.value(SIDES, buffer.get(entry(index) + ENTRY_SIDE));
+    }
+
+    public long priceMantissa(int index) {
+        return buffer.getLong(entry(index) + ENTRY_PRICE);
+    }
+
+    public int priceScale(int index) {
+        return buffer.get(entry(index) + ENTRY_PRICE_SCALE);
+    }
+
+    public long quantityMantissa(int index) {
+        return buffer.getLong(entry(index) + ENTRY_QUANTITY);
+    }
+
+    public int quantityScale(int index) {
+        return buffer.get(entry(index) + ENTRY_QUANTITY_SCALE);
+    }
+
+    public int orderCount(int index) {
+        return buffer.getInt(entry(index) + ENTRY_ORDER_COUNT);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds of a trade, or {@code Long.MIN_VALUE} for other entries
+     */
+    public long timestamp(int index) {
+        return buffer.getLong(entry(index) + ENTRY_TIMESTAMP);
+    }
+
+    private int entry(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Entry " + index + " of " + count);
+        }
+        return offset + BLOCK_LENGTH + index * ENTRY_LENGTH;
+    }
+}
@@ -0,0 +1,141 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.OrderSide;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.MarketDataPacketLayout.*;
+
+/**
+ * Flyweight that packs market data entries into one datagram. Wrap a buffer, add
+ * entries while {@link #hasCapacity()} holds, then stamp the sequence and send
+ * {@link #length()} bytes. Reuse one instance per thread.
+ */
+public final class MarketDataPacketEncoder {
+    /** Largest packet written, sized to fit an Ethernet MTU without fragmenting. */
+    public static final int MAX_PACKET_LENGTH = 1400;
+    public static final int HEADER_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+    public static final int MAX_ENTRIES = (MAX_PACKET_LENGTH - HEADER_LENGTH) / ENTRY_LENGTH;
+
+    /** Set on packets of the snapshot channel. */
+    public static final byte FLAG_SNAPSHOT = 1;
+    /** Set on the first packet of a snapshot cycle. */
+    public static final byte FLAG_SNAPSHOT_BEGIN = 2;
+    /** Set on the last packet of a snapshot cycle. */
+    public static final byte FLAG_SNAPSHOT_END = 4;
+    /** Set on empty incremental packets that repeat the last sequence sent, so tail loss is noticed. */
+    public static final byte FLAG_HEARTBEAT = 8;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+    private int count;
+
+    public MarketDataPacketEncoder wrap(ByteBuffer buffer, int offset, int channelId) {
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        this.count = 0;
+        header.wrap(buffer, offset).write(TemplateId.MARKET_DATA_PACKET, BLOCK_LENGTH);
+        buffer.putInt(this.offset + CHANNEL_ID, channelId);
+        buffer.putShort(this.offset + FLAGS, (short) 0);
+        buffer.putShort(this.offset + MESSAGE_COUNT, (short) 0);
+        buffer.putLong(this.offset + SEQUENCE, 0L);
+        buffer.putLong(this.offset + REFERENCE_SEQUENCE, 0L);
+        buffer.putLong(this.offset + SEND_TIME, 0L);
+        return this;
+    }
+
+    public MarketDataPacketEncoder sequence(long sequence) {
+        buffer.putLong(offset + SEQUENCE, sequence);
+        return this;
+    }
+
+    /**
+     * For snapshot packets, the last incremental sequence the snapshot reflects.
+     */
+    public MarketDataPacketEncoder referenceSequence(long sequence) {
+        buffer.putLong(offset + REFERENCE_SEQUENCE, sequence);
+        return this;
+    }
+
+    public MarketDataPacketEncoder flags(int flags) {
+        buffer.putShort(offset + FLAGS, (short) flags);
+        return this;
+    }
+
+    /**
+     * @param epochNanos UTC epoch nanoseconds
+     */
+    public MarketDataPacketEncoder sendTime(long epochNanos) {
+        buffer.putLong(offset + SEND_TIME, epochNanos);
+        return this;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean hasCapacity() {
+        return count < MAX_ENTRIES;
+    }
+
+    /**
+     * @return bytes written so far, including all headers
+     */
+    public int length() {
+        return HEADER_LENGTH + count * ENTRY_LENGTH;
+    }
+
+    public void addLevel(CharSequence symbol, OrderSide side, long priceMantissa, int priceScale,
+                         long quantityMantissa, int quantityScale, int orderCount) {
+        int entry = addEntry(MarketDataEntryType.LEVEL, symbol);
+        buffer.put(entry + ENTRY_SIDE, CodecUtil.ordinal(side));
+        buffer.put(entry + ENTRY_PRICE_SCALE, (byte) priceScale);
+        buffer.put(entry + ENTRY_QUANTITY_SCALE, (byte) quantityScale);
+        buffer.putInt(entry + ENTRY_ORDER_COUNT, orderCount);
+        buffer.putLong(entry + ENTRY_PRICE, priceMantissa);
+        buffer.putLong(entry + ENTRY_QUANTITY, quantityMantissa);
+        buffer.putLong(entry + ENTRY_TIMESTAMP, CodecUtil.NULL_TIMESTAMP);
+    }
+
+    /**
+     * @param epochNanos UTC epoch nanoseconds of the trade
+     */
+    public void addTrade(CharSequence symbol, long priceMantissa, int priceScale,
+                         long quantityMantissa, int quantityScale, long epochNanos) {
+        int entry = addEntry(MarketDataEntryType.TRADE, symbol);
+        buffer.put(entry + ENTRY_SIDE, CodecUtil.NULL_ENUM);
+        buffer.put(entry + ENTRY_PRICE_SCALE, (byte) priceScale);
+        buffer.put(entry + ENTRY_QUANTITY_SCALE, (byte) quantityScale);
+        buffer.putInt(entry + ENTRY_ORDER_COUNT, 0);
+        buffer.putLong(entry + ENTRY_PRICE, priceMantissa);
+        buffer.putLong(entry + ENTRY_QUANTITY, quantityMantissa);
+        buffer.putLong(entry + ENTRY_TIMESTAMP, epochNanos);
+    }
+
+    public void addClearBook(CharSequence symbol) {
+        int entry = addEntry(MarketDataEntryType.CLEAR_BOOK, symbol);
+        buffer.put(entry + ENTRY_SIDE, CodecUtil.NULL_ENUM);
+        buffer.put(entry + ENTRY_PRICE_SCALE, (byte) 0);
+        buffer.put(entry + ENTRY_QUANTITY_SCALE, (byte) 0);
+        buffer.putInt(entry + ENTRY_ORDER_COUNT, 0);
+        buffer.putLong(entry + ENTRY_PRICE, CodecUtil.NULL_MANTISSA);
+        buffer.putLong(entry + ENTRY_QUANTITY, CodecUtil.NULL_MANTISSA);
+        buffer.putLong(entry + ENTRY_TIMESTAMP, CodecUtil.NULL_TIMESTAMP);
+    }
+
+    private int addEntry(byte type, CharSequence symbol) {
+        if (count >= MAX_ENTRIES) {
+            throw new IllegalStateException("Market data packet is full");
+        }
+        int entry = offset + BLOCK_LENGTH + count * ENTRY_LENGTH;
+        buffer.put(entry + ENTRY_TYPE, type);
+        CodecUtil.putAscii(buffer, entry + ENTRY_SYMBOL, symbol, SYMBOL_LENGTH);
+        buffer.putShort(offset + MESSAGE_COUNT, (short) ++count);
+        return entry;
+    }
+}
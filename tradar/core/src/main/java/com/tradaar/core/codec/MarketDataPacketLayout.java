@@ -0,0 +1,32 @@
+package com.tradar.core.codec;
+
+/**
+ * Fixed offsets of a market data packet: a packet header after the message header,
+ * followed by {@code messageCount} fixed-size entries.
+ */
+final class MarketDataPacketLayout {
+    static final int SYMBOL_LENGTH = OrderLayout.SYMBOL_LENGTH;
+
+    static final int CHANNEL_ID = 0;
+    static final int FLAGS = CHANNEL_ID + 4;
+    static final int MESSAGE_COUNT = FLAGS + 2;
+    static final int SEQUENCE = MESSAGE_COUNT + 2;
+    static final int REFERENCE_SEQUENCE = SEQUENCE + 8;
+    static final int SEND_TIME = REFERENCE_SEQUENCE + 8;
+    static final int BLOCK_LENGTH = SEND_TIME + 8;
+
+    // Entry fields, relative to the start of each entry
+    static final int ENTRY_TYPE = 0;
+    static final int ENTRY_SIDE = ENTRY_TYPE + 1;
+    static final int ENTRY_PRICE_SCALE = ENTRY_SIDE + 1;
+    static final int ENTRY_QUANTITY_SCALE = ENTRY_PRICE_SCALE + 1;
+    static final int ENTRY_ORDER_COUNT = ENTRY_QUANTITY_SCALE + 1;
+    static final int ENTRY_SYMBOL = ENTRY_ORDER_COUNT + 4;
+    static final int ENTRY_PRICE = ENTRY_SYMBOL + SYMBOL_LENGTH;
+    static final int ENTRY_QUANTITY = ENTRY_PRICE + 8;
+    static final int ENTRY_TIMESTAMP = ENTRY_QUANTITY + 8;
+    static final int ENTRY_LENGTH = ENTRY_TIMESTAMP + 8;
+
+    private MarketDataPacketLayout() {
+    }
+}
@@ -0,0 +1,69 @@
+package com.tradar.core.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over the 8-byte header that starts every binary message:
+ * {@code [short templateId][short version][short blockLength][short reserved]}.
+ * Like all message fields, values use the byte order of the wrapped buffer.
+ */
+public final class MessageHeader {
+    public static final int LENGTH = 8;
+    /**
+     * Wire format version written by this build, the only one it reads. Bumped
+     * whenever a message layout changes; version 2 added the order send time.
+     */
+    public static final short VERSION = 2;
+
+    private static final int TEMPLATE_ID_OFFSET = 0;
+    private static final int VERSION_OFFSET = 2;
+    private static final int BLOCK_LENGTH_OFFSET = 4;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    public MessageHeader wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public MessageHeader write(int templateId, int blockLength) {
+        buffer.putShort(offset + TEMPLATE_ID_OFFSET, (short) templateId);
+        buffer.putShort(offset + VERSION_OFFSET, VERSION);
+        buffer.putShort(offset + BLOCK_LENGTH_OFFSET, (short) blockLength);
+        buffer.putShort(offset + 6, (short) 0);
+        return this;
+    }
+
+    public int templateId() {
+        return buffer.getShort(offset + TEMPLATE_ID_OFFSET);
+    }
+
+    public int version() {
+        return buffer.getShort(offset + VERSION_OFFSET);
+    }
+
+    public int blockLength() {
+        return buffer.getShort(offset + BLOCK_LENGTH_OFFSET);
+    }
+
+    /**
+     * Checks the header announces the expected message at a version this build reads.
+     *
+     * @throws IllegalArgumentException if it does not
+     */
+    public void verify(int expectedTemplateId, int minimumBlockLength) {
+        if (templateId() != expectedTemplateId) {
+            throw new IllegalArgumentException(String.format(
+                "Expected template %d but found %d", expectedTemplateId, templateId()));
+        }
+        if (version() != VERSION) {
+            throw new IllegalArgumentException("Unsupported wire version " + version());
+        }
+        if (blockLength() < minimumBlockLength) {
+            throw new IllegalArgumentException(String.format(
+                "Block length %d shorter than %d", blockLength(), minimumBlockLength));
+        }
+    }
+}
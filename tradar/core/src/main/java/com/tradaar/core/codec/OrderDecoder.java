@@ -0,0 +1,129 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import com.tradar.core.symbol.SymbolDirectory;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.OrderLayout.*;
+
+/**
+ * Flyweight that reads an order message in place from a {@link ByteBuffer}.
+ * Primitive accessors read straight from the buffer; {@link #toOrder()} builds an
+ * {@link Order} for callers that need the model object. Reuse one instance per thread.
+ */
+public final class OrderDecoder {
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final TimeInForce[] TIME_IN_FORCES = TimeInForce.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Wraps the message starting at the given offset and verifies its header.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold an order message
+     */
+    public OrderDecoder wrap(ByteBuffer buffer, int offset) {
+        header.wrap(buffer, offset).verify(TemplateId.ORDER, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        return this;
+    }
+
+    public String orderId() {
+        return CodecUtil.getAscii(buffer, offset + ORDER_ID, ID_LENGTH);
+    }
+
+    public int orderId(StringBuilder into) {
+        return CodecUtil.getAscii(buffer, offset + ORDER_ID, ID_LENGTH, into);
+    }
+
+    public String symbol() {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public int symbol(StringBuilder into) {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH, into);
+    }
+
+    /**
+     * Resolves the symbol in place, without decoding it.
+     *
+     * @return the symbol's id in the directory, or {@link SymbolDirectory#UNKNOWN}
+     */
+    public int symbolId(SymbolDirectory directory) {
+        return directory.idOf(buffer, offset + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public OrderSide side() {
+        return CodecUtil.value(SIDES, buffer.get(offset + SIDE));
+    }
+
+    public OrderType type() {
+        return CodecUtil.value(TYPES, buffer.get(offset + TYPE));
+    }
+
+    public TimeInForce timeInForce() {
+        return CodecUtil.value(TIME_IN_FORCES, buffer.get(offset + TIME_IN_FORCE));
+    }
+
+    public OrderStatus status() {
+        return CodecUtil.value(STATUSES, buffer.get(offset + STATUS));
+    }
+
+    public long quantityMantissa() {
+        return buffer.getLong(offset + QUANTITY);
+    }
+
+    public int quantityScale() {
+        return buffer.get(offset + QUANTITY_SCALE);
+    }
+
+    /**
+     * @return the unscaled price, or {@code Long.MIN_VALUE} if the order has none
+     */
+    public long priceMantissa() {
+        return buffer.getLong(offset + PRICE);
+    }
+
+    public int priceScale() {
+        return buffer.get(offset + PRICE_SCALE);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, or {@code Long.MIN_VALUE} if absent
+     */
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds at which the sender sent the message, or
+     *         {@code Long.MIN_VALUE} if it was not stamped
+     */
+    public long sendTime() {
+        return buffer.getLong(offset + SEND_TIME);
+    }
+
+    public Order toOrder() {
+        return Order.builder()
+            .orderId(orderId())
+            .symbol(symbol())
+            .side(side())
+            .type(type())
+            .timeInForce(timeInForce())
+            .status(status())
+            .quantity(CodecUtil.getDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE))
+            .price(CodecUtil.getDecimal(buffer, offset + PRICE, offset + PRICE_SCALE))
+            .timestamp(CodecUtil.getTimestamp(buffer, offset + TIMESTAMP))
+            .build();
+    }
+}
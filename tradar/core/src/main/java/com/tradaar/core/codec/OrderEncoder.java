@@ -0,0 +1,123 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.OrderLayout.*;
+
+/**
+ * Flyweight that writes an order message directly into a {@link ByteBuffer} at
+ * fixed offsets, without touching the buffer's position or creating objects.
+ * Reuse one instance per thread.
+ */
+public final class OrderEncoder {
+    /** Encoded size of an order message including its header. */
+    public static final int ENCODED_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Wraps the buffer and writes the message header at the given offset.
+     */
+    public OrderEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        header.wrap(buffer, offset).write(TemplateId.ORDER, BLOCK_LENGTH);
+        return this;
+    }
+
+    /**
+     * Writes every field of the order, leaving the send time unset.
+     *
+     * @return the encoded length including the header
+     */
+    public int encode(Order order) {
+        orderId(order.getOrderId());
+        symbol(order.getSymbol());
+        side(order.getSide());
+        type(order.getType());
+        timeInForce(order.getTimeInForce());
+        status(order.getStatus());
+        CodecUtil.putDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE, order.getQuantity());
+        CodecUtil.putDecimal(buffer, offset + PRICE, offset + PRICE_SCALE, order.getPrice());
+        CodecUtil.putTimestamp(buffer, offset + TIMESTAMP, order.getTimestamp());
+        buffer.putLong(offset + SEND_TIME, CodecUtil.NULL_TIMESTAMP);
+        return ENCODED_LENGTH;
+    }
+
+    public OrderEncoder orderId(CharSequence orderId) {
+        CodecUtil.putAscii(buffer, offset + ORDER_ID, orderId, ID_LENGTH);
+        return this;
+    }
+
+    public OrderEncoder symbol(CharSequence symbol) {
+        CodecUtil.putAscii(buffer, offset + SYMBOL, symbol, SYMBOL_LENGTH);
+        return this;
+    }
+
+    public OrderEncoder side(OrderSide side) {
+        buffer.put(offset + SIDE, CodecUtil.ordinal(side));
+        return this;
+    }
+
+    public OrderEncoder type(OrderType type) {
+        buffer.put(offset + TYPE, CodecUtil.ordinal(type));
+        return this;
+    }
+
+    public OrderEncoder timeInForce(TimeInForce timeInForce) {
+        buffer.put(offset + TIME_IN_FORCE, CodecUtil.ordinal(timeInForce));
+        return this;
+    }
+
+    public OrderEncoder status(OrderStatus status) {
+        buffer.put(offset + STATUS, CodecUtil.ordinal(status));
+        return this;
+    }
+
+    /**
+     * @param mantissa unscaled quantity
+     * @param scale number of decimal places
+     */
+    public OrderEncoder quantity(long mantissa, int scale) {
+        buffer.putLong(offset + QUANTITY, mantissa);
+        buffer.put(offset + QUANTITY_SCALE, (byte) scale);
+        return this;
+    }
+
+    /**
+     * @param mantissa unscaled price, or {@code Long.MIN_VALUE} for no price
+     * @param scale number of decimal places
+     */
+    public OrderEncoder price(long mantissa, int scale) {
+        buffer.putLong(offset + PRICE, mantissa);
+        buffer.put(offset + PRICE_SCALE, (byte) scale);
+        return this;
+    }
+
+    /**
+     * @param epochNanos UTC epoch nanoseconds
+     */
+    public OrderEncoder timestamp(long epochNanos) {
+        buffer.putLong(offset + TIMESTAMP, epochNanos);
+        return this;
+    }
+
+    /**
+     * Stamps the time the message is sent, as late as possible before sending, so
+     * the receiver can measure time on the wire. Not part of the order itself.
+     *
+     * @param epochNanos UTC epoch nanoseconds
+     */
+    public OrderEncoder sendTime(long epochNanos) {
+        buffer.putLong(offset + SEND_TIME, epochNanos);
+        return this;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tradar.core.codec;
+
+/**
+ * Fixed field offsets of the order message body, relative to the end of the header.
+ */
+final class OrderLayout {
+    static final int ID_LENGTH = 40;
+    static final int SYMBOL_LENGTH = 16;
+
+    static final int ORDER_ID = 0;
+    static final int SYMBOL = ORDER_ID + ID_LENGTH;
+    static final int SIDE = SYMBOL + SYMBOL_LENGTH;
+    static final int TYPE = SIDE + 1;
+    static final int TIME_IN_FORCE = TYPE + 1;
+    static final int STATUS = TIME_IN_FORCE + 1;
+    static final int QUANTITY_SCALE = STATUS + 1;
+    static final int PRICE_SCALE = QUANTITY_SCALE + 1;
+    static final int QUANTITY = PRICE_SCALE + 3;
+    static final int PRICE = QUANTITY + 8;
+    static final int TIMESTAMP = PRICE + 8;
+    static final int SEND_TIME = TIMESTAMP + 8;
+    static final int BLOCK_LENGTH = SEND_TIME + 8;
+
+    private OrderLayout() {
+    }
+}
@@ -0,0 +1,55 @@
+package com.tradar.core.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight for the request a market data subscriber sends to recover missed
+ * packets: {@code [int channelId][int count][long fromSequence]} after the message
+ * header. A count of zero asks for a fresh snapshot instead of a replay.
+ */
+public final class RetransmitRequestCodec {
+    private static final int CHANNEL_ID = 0;
+    private static final int COUNT = CHANNEL_ID + 4;
+    private static final int FROM_SEQUENCE = COUNT + 4;
+    private static final int BLOCK_LENGTH = FROM_SEQUENCE + 8;
+
+    public static final int ENCODED_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @return the encoded length including the header
+     */
+    public int encode(ByteBuffer buffer, int offset, int channelId, long fromSequence, int count) {
+        header.wrap(buffer, offset).write(TemplateId.RETRANSMIT_REQUEST, BLOCK_LENGTH);
+        int body = offset + MessageHeader.LENGTH;
+        buffer.putInt(body + CHANNEL_ID, channelId);
+        buffer.putInt(body + COUNT, count);
+        buffer.putLong(body + FROM_SEQUENCE, fromSequence);
+        return ENCODED_LENGTH;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold a retransmit request
+     */
+    public RetransmitRequestCodec wrap(ByteBuffer buffer, int offset) {
+        header.wrap(buffer, offset).verify(TemplateId.RETRANSMIT_REQUEST, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        return this;
+    }
+
+    public int channelId() {
+        return buffer.getInt(offset + CHANNEL_ID);
+    }
+
+    public long fromSequence() {
+        return buffer.getLong(offset + FROM_SEQUENCE);
+    }
+
+    public int count() {
+        return buffer.getInt(offset + COUNT);
+    }
+}
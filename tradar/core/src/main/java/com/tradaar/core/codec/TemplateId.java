@@ -0,0 +1,16 @@
+package com.tradar.core.codec;
+
+/**
+ * Template ids identifying each binary message type in the {@link MessageHeader}.
+ */
+public final class TemplateId {
+    public static final int ORDER = 1;
+    public static final int EXECUTION_REPORT = 2;
+    public static final int TRADE = 3;
+    public static final int MARKET_DATA_PACKET = 4;
+    public static final int RETRANSMIT_REQUEST = 5;
+    public static final int TRADE_CAPTURE_REPORT = 6;
+
+    private TemplateId() {
+    }
+}
@@ -0,0 +1,76 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.TradeCaptureReport;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.TradeCaptureReportLayout.*;
+
+/**
+ * Flyweight that reads a trade capture report message in place from a
+ * {@link ByteBuffer}. Reuse one instance per thread.
+ */
+public final class TradeCaptureReportDecoder {
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold a trade capture report
+     */
+    public TradeCaptureReportDecoder wrap(ByteBuffer buffer, int offset) {
+        header.wrap(buffer, offset).verify(TemplateId.TRADE_CAPTURE_REPORT, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        return this;
+    }
+
+    public String tradeReportId() {
+        return CodecUtil.getAscii(buffer, offset + TRADE_REPORT_ID, ID_LENGTH);
+    }
+
+    public String symbol() {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public int symbol(StringBuilder into) {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH, into);
+    }
+
+    public long priceMantissa() {
+        return buffer.getLong(offset + PRICE);
+    }
+
+    public int priceScale() {
+        return buffer.get(offset + PRICE_SCALE);
+    }
+
+    public long quantityMantissa() {
+        return buffer.getLong(offset + QUANTITY);
+    }
+
+    public int quantityScale() {
+        return buffer.get(offset + QUANTITY_SCALE);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, or {@code Long.MIN_VALUE} if absent
+     */
+    public long transactTime() {
+        return buffer.getLong(offset + TRANSACT_TIME);
+    }
+
+    public TradeCaptureReport toTradeCaptureReport() {
+        return TradeCaptureReport.builder()
+            .tradeReportId(tradeReportId())
+            .tradeId(CodecUtil.getAscii(buffer, offset + TRADE_ID, ID_LENGTH))
+            .symbol(symbol())
+            .buyOrderId(CodecUtil.getAscii(buffer, offset + BUY_ORDER_ID, ID_LENGTH))
+            .sellOrderId(CodecUtil.getAscii(buffer, offset + SELL_ORDER_ID, ID_LENGTH))
+            .price(CodecUtil.getDecimal(buffer, offset + PRICE, offset + PRICE_SCALE))
+            .quantity(CodecUtil.getDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE))
+            .tradeDate(CodecUtil.getTimestamp(buffer, offset + TRADE_DATE))
+            .transactTime(CodecUtil.getTimestamp(buffer, offset + TRANSACT_TIME))
+            .build();
+    }
+}
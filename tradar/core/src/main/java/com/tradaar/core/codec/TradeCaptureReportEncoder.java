@@ -0,0 +1,43 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.TradeCaptureReport;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.TradeCaptureReportLayout.*;
+
+/**
+ * Flyweight that writes a trade capture report message directly into a
+ * {@link ByteBuffer} at fixed offsets. Reuse one instance per thread.
+ */
+public final class TradeCaptureReportEncoder {
+    /** Encoded size of a trade capture report message including its header. */
+    public static final int ENCODED_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    public TradeCaptureReportEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        header.wrap(buffer, offset).write(TemplateId.TRADE_CAPTURE_REPORT, BLOCK_LENGTH);
+        return this;
+    }
+
+    /**
+     * @return the encoded length including the header
+     */
+    public int encode(TradeCaptureReport report) {
+        CodecUtil.putAscii(buffer, offset + TRADE_REPORT_ID, report.getTradeReportId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + TRADE_ID, report.getTradeId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + BUY_ORDER_ID, report.getBuyOrderId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + SELL_ORDER_ID, report.getSellOrderId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + SYMBOL, report.getSymbol(), SYMBOL_LENGTH);
+        CodecUtil.putDecimal(buffer, offset + PRICE, offset + PRICE_SCALE, report.getPrice());
+        CodecUtil.putDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE, report.getQuantity());
+        CodecUtil.putTimestamp(buffer, offset + TRADE_DATE, report.getTradeDate());
+        CodecUtil.putTimestamp(buffer, offset + TRANSACT_TIME, report.getTransactTime());
+        return ENCODED_LENGTH;
+    }
+}
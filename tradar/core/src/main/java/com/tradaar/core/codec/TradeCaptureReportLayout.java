@@ -0,0 +1,26 @@
+package com.tradar.core.codec;
+
+/**
+ * Fixed field offsets of the trade capture report message body, relative to the
+ * end of the header.
+ */
+final class TradeCaptureReportLayout {
+    static final int ID_LENGTH = OrderLayout.ID_LENGTH;
+    static final int SYMBOL_LENGTH = OrderLayout.SYMBOL_LENGTH;
+
+    static final int TRADE_REPORT_ID = 0;
+    static final int TRADE_ID = TRADE_REPORT_ID + ID_LENGTH;
+    static final int BUY_ORDER_ID = TRADE_ID + ID_LENGTH;
+    static final int SELL_ORDER_ID = BUY_ORDER_ID + ID_LENGTH;
+    static final int SYMBOL = SELL_ORDER_ID + ID_LENGTH;
+    static final int PRICE_SCALE = SYMBOL + SYMBOL_LENGTH;
+    static final int QUANTITY_SCALE = PRICE_SCALE + 1;
+    static final int PRICE = QUANTITY_SCALE + 7;
+    static final int QUANTITY = PRICE + 8;
+    static final int TRADE_DATE = QUANTITY + 8;
+    static final int TRANSACT_TIME = TRADE_DATE + 8;
+    static final int BLOCK_LENGTH = TRANSACT_TIME + 8;
+
+    private TradeCaptureReportLayout() {
+    }
+}
@@ -0,0 +1,74 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.Trade;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.TradeLayout.*;
+
+/**
+ * Flyweight that reads a trade message in place from a {@link ByteBuffer}.
+ * Reuse one instance per thread.
+ */
+public final class TradeDecoder {
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @throws IllegalArgumentException if the buffer does not hold a trade message
+     */
+    public TradeDecoder wrap(ByteBuffer buffer, int offset) {
+        header.wrap(buffer, offset).verify(TemplateId.TRADE, BLOCK_LENGTH);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        return this;
+    }
+
+    public String tradeId() {
+        return CodecUtil.getAscii(buffer, offset + TRADE_ID, ID_LENGTH);
+    }
+
+    public String symbol() {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public int symbol(StringBuilder into) {
+        return CodecUtil.getAscii(buffer, offset + SYMBOL, SYMBOL_LENGTH, into);
+    }
+
+    public long priceMantissa() {
+        return buffer.getLong(offset + PRICE);
+    }
+
+    public int priceScale() {
+        return buffer.get(offset + PRICE_SCALE);
+    }
+
+    public long quantityMantissa() {
+        return buffer.getLong(offset + QUANTITY);
+    }
+
+    public int quantityScale() {
+        return buffer.get(offset + QUANTITY_SCALE);
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, or {@code Long.MIN_VALUE} if absent
+     */
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    public Trade toTrade() {
+        return Trade.builder()
+            .tradeId(tradeId())
+            .buyOrderId(CodecUtil.getAscii(buffer, offset + BUY_ORDER_ID, ID_LENGTH))
+            .sellOrderId(CodecUtil.getAscii(buffer, offset + SELL_ORDER_ID, ID_LENGTH))
+            .symbol(symbol())
+            .price(CodecUtil.getDecimal(buffer, offset + PRICE, offset + PRICE_SCALE))
+            .quantity(CodecUtil.getDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE))
+            .timestamp(CodecUtil.getTimestamp(buffer, offset + TIMESTAMP))
+            .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.Trade;
+
+import java.nio.ByteBuffer;
+
+import static com.tradar.core.codec.TradeLayout.*;
+
+/**
+ * Flyweight that writes a trade message directly into a {@link ByteBuffer} at
+ * fixed offsets. Reuse one instance per thread.
+ */
+public final class TradeEncoder {
+    /** Encoded size of a trade message including its header. */
+    public static final int ENCODED_LENGTH = MessageHeader.LENGTH + BLOCK_LENGTH;
+
+    private final MessageHeader header = new MessageHeader();
+    private ByteBuffer buffer;
+    private int offset;
+
+    public TradeEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset + MessageHeader.LENGTH;
+        header.wrap(buffer, offset).write(TemplateId.TRADE, BLOCK_LENGTH);
+        return this;
+    }
+
+    /**
+     * @return the encoded length including the header
+     */
+    public int encode(Trade trade) {
+        CodecUtil.putAscii(buffer, offset + TRADE_ID, trade.getTradeId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + BUY_ORDER_ID, trade.getBuyOrderId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + SELL_ORDER_ID, trade.getSellOrderId(), ID_LENGTH);
+        CodecUtil.putAscii(buffer, offset + SYMBOL, trade.getSymbol(), SYMBOL_LENGTH);
+        CodecUtil.putDecimal(buffer, offset + PRICE, offset + PRICE_SCALE, trade.getPrice());
+        CodecUtil.putDecimal(buffer, offset + QUANTITY, offset + QUANTITY_SCALE, trade.getQuantity());
+        CodecUtil.putTimestamp(buffer, offset + TIMESTAMP, trade.getTimestamp());
+        return ENCODED_LENGTH;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tradar.core.codec;
+
+/**
+ * Fixed field offsets of the trade message body, relative to the end of the header.
+ */
+final class TradeLayout {
+    static final int ID_LENGTH = OrderLayout.ID_LENGTH;
+    static final int SYMBOL_LENGTH = OrderLayout.SYMBOL_LENGTH;
+
+    static final int TRADE_ID = 0;
+    static final int BUY_ORDER_ID = TRADE_ID + ID_LENGTH;
+    static final int SELL_ORDER_ID = BUY_ORDER_ID + ID_LENGTH;
+    static final int SYMBOL = SELL_ORDER_ID + ID_LENGTH;
+    static final int PRICE_SCALE = SYMBOL + SYMBOL_LENGTH;
+    static final int QUANTITY_SCALE = PRICE_SCALE + 1;
+    static final int PRICE = QUANTITY_SCALE + 7;
+    static final int QUANTITY = PRICE + 8;
+    static final int TIMESTAMP = QUANTITY + 8;
+    static final int BLOCK_LENGTH = TIMESTAMP + 8;
+
+    private TradeLayout() {
+    }
+}
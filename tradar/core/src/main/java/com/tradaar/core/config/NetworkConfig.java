@@ -1,5 +1,11 @@
 package com.tradar.core.config;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Enumeration;
+
 /**
  * Configuration constants for network communication between system components.
  * Defines multicast groups and ports for various services including order entry,
@@ -13,4 +19,30 @@ public class NetworkConfig {
     public static final int MARKET_DATA_PORT = 5002;
     public static final int EXECUTION_REPORT_PORT = 5003;
     public static final int TRADE_REPORT_PORT = 5004;
-} 
\ No newline at end of file
+    public static final int MARKET_DATA_SNAPSHOT_PORT = 5005;
+    public static final int MARKET_DATA_RETRANSMIT_PORT = 5006;
+
+    /**
+     * Resolves the interface used to send and join multicast groups.
+     *
+     * @param name interface name, or null for the first multicast-capable interface
+     *             that is up, falling back to loopback
+     */
+    public static NetworkInterface multicastInterface(String name) throws IOException {
+        if (name != null) {
+            NetworkInterface named = NetworkInterface.getByName(name);
+            if (named == null) {
+                throw new SocketException("No network interface " + name);
+            }
+            return named;
+        }
+        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements()) {
+            NetworkInterface candidate = interfaces.nextElement();
+            if (candidate.isUp() && candidate.supportsMulticast() && !candidate.isLoopback()) {
+                return candidate;
+            }
+        }
+        return NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+    }
+}
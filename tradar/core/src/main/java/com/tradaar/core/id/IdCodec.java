@@ -0,0 +1,60 @@
+package com.tradar.core.id;
+
+import java.util.Arrays;
+
+/**
+ * Compact string form of 64-bit ids: 13 characters of Crockford base-32
+ * ({@code 0-9} and {@code A-Z} without {@code I}, {@code L}, {@code O} and
+ * {@code U}), most significant first and zero-padded, so strings sort in the same
+ * order as the ids as unsigned numbers. Ids travel as strings only at the edges,
+ * such as FIX sessions, the wire format and user interfaces.
+ */
+public final class IdCodec {
+    /** Length of every encoded id. */
+    public static final int LENGTH = 13;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private IdCodec() {
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parses an id encoded by {@link #encode}, ignoring case.
+     *
+     * @throws IllegalArgumentException if the text is not an encoded id
+     */
+    public static long decode(CharSequence text) {
+        if (text == null || text.length() != LENGTH) {
+            throw new IllegalArgumentException("Not an encoded id: " + text);
+        }
+        long id = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            // The leading character holds only the top 4 of the 64 bits
+            if (value < 0 || (i == 0 && value > 15)) {
+                throw new IllegalArgumentException("Not an encoded id: " + text);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,22 @@
+package com.tradar.core.id;
+
+/**
+ * Source of unique ids for orders, trades, reports and requests. Implementations
+ * must be safe to call from any thread.
+ *
+ * @see Ids for the process-wide generator used by the model factories
+ */
+public interface IdGenerator {
+
+    /**
+     * @return an id never returned before by this generator
+     */
+    long nextId();
+
+    /**
+     * @return the next id in its base-32 string form, see {@link IdCodec}
+     */
+    default String nextIdString() {
+        return IdCodec.encode(nextId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.tradar.core.id;
+
+/**
+ * The process-wide {@link IdGenerator} behind the model factories, such as
+ * {@code Order.createNewOrder} and {@code Trade.createTrade}.
+ * <p>
+ * By default it is a {@link SnowflakeIdGenerator} for the node id in the
+ * {@value #NODE_ID_PROPERTY} system property. Every process generating ids for
+ * the same system must be given its own node id; without the property the node
+ * id is taken from the process id, which keeps processes on one host apart only
+ * most of the time.
+ */
+public final class Ids {
+    public static final String NODE_ID_PROPERTY = "tradar.node.id";
+
+    private static volatile IdGenerator generator = new SnowflakeIdGenerator(defaultNodeId());
+
+    private Ids() {
+    }
+
+    public static IdGenerator generator() {
+        return generator;
+    }
+
+    /**
+     * Replaces the generator, for example with one whose node id comes from
+     * deployment configuration. Ids already handed out are not checked against
+     * the new generator's.
+     */
+    public static void setGenerator(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Id generator must not be null");
+        }
+        Ids.generator = generator;
+    }
+
+    public static long next() {
+        return generator.nextId();
+    }
+
+    /**
+     * @return the next id in its base-32 string form, see {@link IdCodec}
+     */
+    public static String nextString() {
+        return generator.nextIdString();
+    }
+
+    private static int defaultNodeId() {
+        String configured = System.getProperty(NODE_ID_PROPERTY);
+        if (configured == null) {
+            return (int) (ProcessHandle.current().pid() & SnowflakeIdGenerator.MAX_NODE_ID);
+        }
+        try {
+            return Integer.parseInt(configured.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + NODE_ID_PROPERTY + ": " + configured, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tradar.core.model;
 
+import com.tradar.core.id.Ids;
 import lombok.Builder;
 import lombok.Data;
 
@@ -22,6 +23,10 @@ public class ExecutionReport {
     private final LocalDateTime transactTime;
     private final String text;
 
+    public static ExecutionReport fromOrder(Order order) {
+        return fromOrder(order, Ids.nextString());
+    }
+
     public static ExecutionReport fromOrder(Order order, String execId) {
         return ExecutionReport.builder()
                 .execId(execId)
@@ -1,15 +1,15 @@
 package com.tradar.core.model;
 
+import com.tradar.core.id.Ids;
 import lombok.Builder;
 import lombok.Data;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Order implements Serializable {
     private final String orderId;
     private final String symbol;
@@ -24,7 +24,7 @@ public class Order implements Serializable {
     public static Order createNewOrder(String symbol, OrderSide side, OrderType type, 
                                      BigDecimal quantity, BigDecimal price, TimeInForce timeInForce) {
         return Order.builder()
-                .orderId(UUID.randomUUID().toString())
+                .orderId(Ids.nextString())
                 .symbol(symbol)
                 .side(side)
                 .type(type)
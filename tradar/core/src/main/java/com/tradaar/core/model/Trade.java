@@ -1,11 +1,11 @@
 package com.tradar.core.model;
 
+import com.tradar.core.id.Ids;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
 @Builder
@@ -19,12 +19,16 @@ public class Trade {
     private final LocalDateTime timestamp;
 
     public static Trade createTrade(Order buyOrder, Order sellOrder, BigDecimal matchedQuantity) {
+        return createTrade(buyOrder, sellOrder, sellOrder.getPrice(), matchedQuantity);
+    }
+
+    public static Trade createTrade(Order buyOrder, Order sellOrder, BigDecimal price, BigDecimal matchedQuantity) {
         return Trade.builder()
-                .tradeId(UUID.randomUUID().toString())
+                .tradeId(Ids.nextString())
                 .buyOrderId(buyOrder.getOrderId())
                 .sellOrderId(sellOrder.getOrderId())
                 .symbol(buyOrder.getSymbol())
-                .price(sellOrder.getPrice())
+                .price(price)
                 .quantity(matchedQuantity)
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -1,5 +1,6 @@
 package com.tradar.core.model;
 
+import com.tradar.core.id.Ids;
 import lombok.Builder;
 import lombok.Data;
 
@@ -21,7 +22,7 @@ public class TradeCaptureReport {
 
     public static TradeCaptureReport fromTrade(Trade trade) {
         return TradeCaptureReport.builder()
-                .tradeReportId(trade.getTradeId() + "-TCR")
+                .tradeReportId(Ids.nextString())
                 .tradeId(trade.getTradeId())
                 .symbol(trade.getSymbol())
                 .buyOrderId(trade.getBuyOrderId())
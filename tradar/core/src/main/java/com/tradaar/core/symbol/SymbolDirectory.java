@@ -0,0 +1,201 @@
+package com.tradar.core.symbol;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dense int ids for symbols, so the order path can carry a symbol as an int and
+ * index arrays with it instead of hashing and comparing strings at every hop.
+ * Ids are assigned from 0 in the order symbols are interned and never change or
+ * get reused; symbols are resolved back to strings only at the edges, such as
+ * FIX sessions and user interfaces.
+ * <p>
+ * Lookups take no locks and allocate nothing, including straight from the
+ * NUL-padded ASCII symbol field of an encoded message. Interning a new symbol
+ * copies the directory's tables, so seed it in bulk with {@link #internAll}
+ * rather than one symbol at a time on a hot path.
+ * <p>
+ * Ids are local to a directory: processes agree on them only if they intern the
+ * same symbols in the same order, so they are not written to the wire.
+ */
+public final class SymbolDirectory {
+    /** Id returned for a symbol the directory does not know. */
+    public static final int UNKNOWN = -1;
+
+    private volatile Table table = new Table(new String[0]);
+
+    /**
+     * @return the symbol's id, or {@link #UNKNOWN}
+     */
+    public int idOf(CharSequence symbol) {
+        if (symbol == null) {
+            return UNKNOWN;
+        }
+        Table current = table;
+        int slot = mix(hash(symbol)) & current.mask;
+        int id;
+        while ((id = current.slotIds[slot]) != 0) {
+            String candidate = current.slotNames[slot];
+            if (candidate == symbol || candidate.contentEquals(symbol)) {
+                return id - 1;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Resolves a NUL-padded ASCII field in place, without decoding it.
+     *
+     * @return the symbol's id, or {@link #UNKNOWN}
+     */
+    public int idOf(ByteBuffer buffer, int index, int length) {
+        int size = 0;
+        int hash = 0;
+        byte b;
+        while (size < length && (b = buffer.get(index + size)) != 0) {
+            hash = 31 * hash + (b & 0xFF);
+            size++;
+        }
+        if (size == 0) {
+            return UNKNOWN;
+        }
+        Table current = table;
+        int slot = mix(hash) & current.mask;
+        int id;
+        while ((id = current.slotIds[slot]) != 0) {
+            if (matches(current.slotNames[slot], buffer, index, size)) {
+                return id - 1;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return the symbol of the id, or null if none was assigned
+     */
+    public String nameOf(int id) {
+        String[] names = table.names;
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * @return the number of symbols interned, one more than the highest id
+     */
+    public int size() {
+        return table.names.length;
+    }
+
+    /**
+     * @return the symbol's id, assigning the next one if it is new
+     * @throws IllegalArgumentException if the symbol is null or empty
+     */
+    public int intern(String symbol) {
+        int id = idOf(symbol);
+        if (id != UNKNOWN) {
+            return id;
+        }
+        synchronized (this) {
+            internAll(List.of(symbol));
+            return idOf(symbol);
+        }
+    }
+
+    /**
+     * Interns symbols in order, copying the directory's tables once.
+     *
+     * @throws IllegalArgumentException if a symbol is null or empty
+     */
+    public synchronized void internAll(Collection<String> symbols) {
+        Table current = table;
+        String[] names = Arrays.copyOf(current.names, current.names.length + symbols.size());
+        int size = current.names.length;
+        Set<String> added = new HashSet<>();
+        for (String symbol : symbols) {
+            if (symbol == null || symbol.isEmpty()) {
+                throw new IllegalArgumentException("Symbol must not be empty: " + symbol);
+            }
+            if (current.find(symbol) == UNKNOWN && added.add(symbol)) {
+                names[size++] = symbol;
+            }
+        }
+        if (size > current.names.length) {
+            table = new Table(Arrays.copyOf(names, size));
+        }
+    }
+
+    private static boolean matches(String name, ByteBuffer buffer, int index, int size) {
+        if (name.length() != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (name.charAt(i) != (buffer.get(index + i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link String#hashCode()}, which strings cache.
+     */
+    private static int hash(CharSequence symbol) {
+        if (symbol instanceof String string) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0, n = symbol.length(); i < n; i++) {
+            hash = 31 * hash + symbol.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Names by id and an open-addressing table at most half full, whose slots
+     * hold an id plus one, zero marking a free slot.
+     */
+    private static final class Table {
+        final String[] names;
+        final String[] slotNames;
+        final int[] slotIds;
+        final int mask;
+
+        Table(String[] names) {
+            this.names = names;
+            int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+            this.slotNames = new String[capacity];
+            this.slotIds = new int[capacity];
+            this.mask = capacity - 1;
+            for (int id = 0; id < names.length; id++) {
+                int slot = mix(names[id].hashCode()) & mask;
+                while (slotIds[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slotNames[slot] = names[id];
+                slotIds[slot] = id + 1;
+            }
+        }
+
+        int find(String symbol) {
+            int slot = mix(symbol.hashCode()) & mask;
+            int id;
+            while ((id = slotIds[slot]) != 0) {
+                if (slotNames[slot].equals(symbol)) {
+                    return id - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return UNKNOWN;
+        }
+    }
+}
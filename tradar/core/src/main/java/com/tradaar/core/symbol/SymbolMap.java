@@ -0,0 +1,88 @@
+package com.tradar.core.symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * A concurrent map from {@link SymbolDirectory} ids to values, held in pages of
+ * an array that are allocated as ids reach them and never copied, so a lookup is
+ * two array reads and writes are never lost to a resize.
+ *
+ * @param <V> the value type
+ */
+public final class SymbolMap<V> {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    /** Room for about four million symbols. */
+    private static final int MAX_PAGES = 1 << 12;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<V>> pages = new AtomicReferenceArray<>(MAX_PAGES);
+
+    /**
+     * @return the id's value, or null
+     */
+    public V get(int id) {
+        if (id < 0 || id >>> PAGE_BITS >= MAX_PAGES) {
+            return null;
+        }
+        AtomicReferenceArray<V> page = pages.get(id >>> PAGE_BITS);
+        return page != null ? page.get(id & PAGE_MASK) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the id is negative or beyond the map's range
+     */
+    public void put(int id, V value) {
+        page(id).set(id & PAGE_MASK, value);
+    }
+
+    /**
+     * @return the id's value, created and stored by the factory if absent; racing
+     *         callers may each create one, but all get the one stored
+     */
+    public V computeIfAbsent(int id, IntFunction<? extends V> factory) {
+        V value = get(id);
+        if (value != null) {
+            return value;
+        }
+        AtomicReferenceArray<V> page = page(id);
+        V created = factory.apply(id);
+        return page.compareAndSet(id & PAGE_MASK, null, created) ? created : page.get(id & PAGE_MASK);
+    }
+
+    /**
+     * @return the values in id order
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (int p = 0; p < MAX_PAGES; p++) {
+            AtomicReferenceArray<V> page = pages.get(p);
+            if (page == null) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                V value = page.get(i);
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    private AtomicReferenceArray<V> page(int id) {
+        if (id < 0 || id >>> PAGE_BITS >= MAX_PAGES) {
+            throw new IllegalArgumentException("Symbol id out of range: " + id);
+        }
+        int index = id >>> PAGE_BITS;
+        AtomicReferenceArray<V> page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get(index);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tradar.core.time;
+
+import java.time.Instant;
+
+/**
+ * Wall-clock time in UTC epoch nanoseconds, for timestamps compared across
+ * processes such as the send time of an order message. Reads are derived from
+ * {@link System#nanoTime()} plus an offset, so they are cheap and do not allocate.
+ * Once a second the offset is checked against the system clock, and re-taken
+ * only if the two have drifted more than a millisecond apart, so clock
+ * adjustments are followed without allocating in the steady state.
+ * Differences between two hosts are only as accurate as their clock
+ * synchronization.
+ */
+public final class EpochClock {
+    private static final long CALIBRATION_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long MAX_DRIFT_MILLIS = 1L;
+
+    private static volatile long offset;
+    private static volatile long calibratedAt;
+
+    static {
+        calibrate(System.nanoTime());
+    }
+
+    private EpochClock() {
+    }
+
+    /**
+     * @return the current time in UTC epoch nanoseconds
+     */
+    public static long nanos() {
+        long now = System.nanoTime();
+        if (now - calibratedAt >= CALIBRATION_INTERVAL_NANOS) {
+            recalibrate(now);
+        }
+        return now + offset;
+    }
+
+    private static void recalibrate(long nanoTime) {
+        // The millisecond clock reads without allocating; Instant.now() is only
+        // needed for a precise offset once the estimate has drifted
+        long estimatedMillis = Math.floorDiv(nanoTime + offset, 1_000_000L);
+        if (Math.abs(System.currentTimeMillis() - estimatedMillis) > MAX_DRIFT_MILLIS) {
+            calibrate(nanoTime);
+        } else {
+            calibratedAt = nanoTime;
+        }
+    }
+
+    private static void calibrate(long nanoTime) {
+        Instant now = Instant.now();
+        long epochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        offset = epochNanos - System.nanoTime();
+        calibratedAt = nanoTime;
+    }
+}
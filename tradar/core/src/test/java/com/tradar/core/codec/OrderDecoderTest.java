@@ -0,0 +1,69 @@
+package com.tradar.core.codec;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderDecoderTest {
+    private final ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+    private final OrderDecoder decoder = new OrderDecoder();
+
+    @Test
+    void decodesEncodedOrder() {
+        Order order = order();
+        new OrderEncoder().wrap(buffer, 0).encode(order);
+
+        Order decoded = decoder.wrap(buffer, 0).toOrder();
+
+        assertEquals(order.getOrderId(), decoded.getOrderId());
+        assertEquals(OrderSide.SELL, decoded.getSide());
+        assertEquals(OrderType.LIMIT, decoded.getType());
+    }
+
+    @Test
+    void rejectsOutOfRangeEnumOrdinals() {
+        new OrderEncoder().wrap(buffer, 0).encode(order());
+
+        for (byte ordinal : new byte[] {(byte) OrderSide.values().length, Byte.MAX_VALUE, -2, Byte.MIN_VALUE}) {
+            buffer.put(MessageHeader.LENGTH + OrderLayout.SIDE, ordinal);
+            assertThrows(IllegalArgumentException.class, () -> decoder.wrap(buffer, 0).toOrder());
+        }
+        buffer.put(MessageHeader.LENGTH + OrderLayout.SIDE, (byte) OrderSide.BUY.ordinal());
+        buffer.put(MessageHeader.LENGTH + OrderLayout.TYPE, (byte) 100);
+        assertThrows(IllegalArgumentException.class, () -> decoder.wrap(buffer, 0).toOrder());
+    }
+
+    @Test
+    void rejectsOtherWireVersions() {
+        new OrderEncoder().wrap(buffer, 0).encode(order());
+        // A version 1 order ended at the timestamp, before the send time
+        buffer.putShort(2, (short) 1).putShort(4, (short) OrderLayout.SEND_TIME);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> decoder.wrap(buffer, 0));
+        assertEquals("Unsupported wire version 1", e.getMessage());
+    }
+
+    private static Order order() {
+        return Order.builder()
+            .orderId("ORD-1")
+            .symbol("AAPL")
+            .side(OrderSide.SELL)
+            .type(OrderType.LIMIT)
+            .quantity(new BigDecimal("100"))
+            .price(new BigDecimal("150.25"))
+            .timeInForce(TimeInForce.DAY)
+            .timestamp(LocalDateTime.of(2024, 1, 2, 9, 30))
+            .status(OrderStatus.NEW)
+            .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tradar.marketdata.cache;
+
+import com.tradar.marketdata.model.MarketDataEntry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers updates to one listener on its own executor, keeping only the latest
+ * undelivered update per symbol. The feed thread never waits for the listener: it
+ * stores the update and, if the symbol was not already pending, queues the symbol.
+ * A slow listener therefore sees the current state of each symbol rather than a
+ * growing backlog, and the queue is bounded by the number of distinct symbols.
+ */
+@Slf4j
+class ConflatingDispatcher implements MarketDataUpdateListener {
+    private final MarketDataUpdateListener target;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final Map<String, MarketDataEntry> latest = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> pendingSymbols;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drain;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    ConflatingDispatcher(MarketDataUpdateListener target, Executor executor, boolean ownsExecutor, int capacity) {
+        this.target = target;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.pendingSymbols = new ArrayBlockingQueue<>(capacity);
+    }
+
+    MarketDataUpdateListener getTarget() {
+        return target;
+    }
+
+    @Override
+    public void onMarketDataUpdate(MarketDataEntry entry) {
+        String symbol = entry.getSymbol();
+        if (latest.put(symbol, entry) != null) {
+            conflated.increment();
+            return;
+        }
+        if (!pendingSymbols.offer(symbol)) {
+            latest.remove(symbol, entry);
+            dropped.increment();
+            return;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.warn("Listener executor rejected dispatch: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            String symbol;
+            while ((symbol = pendingSymbols.poll()) != null) {
+                MarketDataEntry entry = latest.remove(symbol);
+                if (entry == null) {
+                    continue;
+                }
+                delivered.increment();
+                try {
+                    target.onMarketDataUpdate(entry);
+                } catch (Exception e) {
+                    log.error("Error notifying listener: {}", e.getMessage(), e);
+                }
+            }
+            scheduled.set(false);
+            // An update queued after the last poll but before the flag cleared would otherwise wait
+        } while (!pendingSymbols.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+
+    ListenerStats getStats() {
+        return new ListenerStats(delivered.sum(), conflated.sum(), dropped.sum(), pendingSymbols.size());
+    }
+
+    void shutdown() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tradar.marketdata.cache;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.core.symbol.SymbolMap;
+import com.tradar.marketdata.model.DepthBook;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the {@link DepthBook} of every symbol subscribed for depth and forwards the
+ * levels changed by each update to listeners. Books are updated in place on the
+ * feed thread, which is also the thread listeners are called on. Books are held
+ * by symbol id in a {@link SymbolDirectory}, like the records of a
+ * {@link MarketDataCache}.
+ */
+@Slf4j
+public class DepthBookCache {
+    @Getter
+    private final SymbolDirectory directory;
+    private final SymbolMap<DepthBook> books;
+    private final List<DepthUpdateListener> listeners;
+
+    public DepthBookCache() {
+        this(new SymbolDirectory());
+    }
+
+    public DepthBookCache(SymbolDirectory directory) {
+        this.directory = directory;
+        this.books = new SymbolMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    public DepthBook getOrCreate(String symbol, int depth) {
+        return getOrCreate(directory.intern(symbol), depth);
+    }
+
+    /**
+     * @param symbolId the symbol's id in the cache's directory
+     */
+    public DepthBook getOrCreate(int symbolId, int depth) {
+        DepthBook book = books.get(symbolId);
+        return book != null ? book : books.computeIfAbsent(symbolId, id -> new DepthBook(directory.nameOf(id), depth));
+    }
+
+    /**
+     * @return the symbol's book, or null if it is not subscribed for depth
+     */
+    public DepthBook getDepthBook(String symbol) {
+        return books.get(directory.idOf(symbol));
+    }
+
+    /**
+     * @return the book of the symbol id, or null if it is not subscribed for depth
+     */
+    public DepthBook getDepthBook(int symbolId) {
+        return books.get(symbolId);
+    }
+
+    public void addListener(DepthUpdateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DepthUpdateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sends the book's pending changes to listeners and resets them.
+     */
+    public void publishChanges(DepthBook book) {
+        if (!book.hasChanges()) {
+            return;
+        }
+        for (DepthUpdateListener listener : listeners) {
+            try {
+                notify(listener, book, OrderSide.BUY);
+                notify(listener, book, OrderSide.SELL);
+                if (book.isTradeChanged()) {
+                    listener.onTrade(book);
+                }
+            } catch (Exception e) {
+                log.error("Error notifying depth listener: {}", e.getMessage(), e);
+            }
+        }
+        book.clearChanges();
+    }
+
+    private static void notify(DepthUpdateListener listener, DepthBook book, OrderSide side) {
+        int from = book.getChangedFrom(side);
+        if (from >= 0) {
+            listener.onDepthUpdate(book, side, from, book.getChangedTo(side));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tradar.marketdata.cache;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.marketdata.model.DepthBook;
+
+/**
+ * Receives the levels of a {@link DepthBook} that changed with one market data
+ * message. The book is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface DepthUpdateListener {
+    /**
+     * @param fromLevel first changed level, zero-based
+     * @param toLevel last changed level, inclusive; levels at or beyond the side's
+     *                current level count were removed
+     */
+    void onDepthUpdate(DepthBook book, OrderSide side, int fromLevel, int toLevel);
+
+    default void onTrade(DepthBook book) {}
+}
@@ -0,0 +1,18 @@
+package com.tradar.marketdata.cache;
+
+import lombok.Value;
+
+/**
+ * Point-in-time dispatch counters of one asynchronous market data listener.
+ */
+@Value
+public class ListenerStats {
+    /** Updates handed to the listener. */
+    long delivered;
+    /** Updates replaced by a newer update for the same symbol before delivery. */
+    long conflated;
+    /** Updates discarded because the listener's queue was full. */
+    long dropped;
+    /** Symbols with an update waiting for the listener, i.e. how far it lags. */
+    int pending;
+}
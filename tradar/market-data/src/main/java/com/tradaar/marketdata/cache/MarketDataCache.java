@@ -1,28 +1,70 @@
 package com.tradar.marketdata.cache;
 
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.core.symbol.SymbolMap;
 import com.tradar.marketdata.model.MarketDataEntry;
+import com.tradar.marketdata.model.MarketDataRecord;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Caches market data updates and manages market data state for all symbols.
  * Provides functionality to update market data and notify listeners of changes.
  * Thread-safe implementation using concurrent collections.
+ * <p>
+ * Listeners added with {@link #addListener(MarketDataUpdateListener)} are called
+ * synchronously on the feed thread. Listeners added with
+ * {@link #addConflatingListener} are called on their own executor from a bounded,
+ * per-symbol conflating queue, so a slow listener cannot stall the feed.
+ * <p>
+ * Hot-path feeds can instead update a mutable {@link MarketDataRecord} per symbol
+ * in place and announce it through {@link #recordUpdated(MarketDataRecord)}.
+ * Records are held by symbol id in a {@link SymbolDirectory}, so a feed that
+ * resolves ids from the wire bytes, see
+ * {@link com.tradar.core.codec.MarketDataPacketDecoder#symbolId}, reaches the
+ * record without decoding or hashing the symbol string.
  *
  * @author Vrushank Patel
  */
 @Slf4j
 public class MarketDataCache {
+    /** Default number of distinct symbols an asynchronous listener can lag behind on. */
+    public static final int DEFAULT_LISTENER_CAPACITY = 4096;
+
+    private static final AtomicInteger LISTENER_THREADS = new AtomicInteger();
+
     private final Map<String, MarketDataEntry> cache;
     private final List<MarketDataUpdateListener> listeners;
+    @Getter
+    private final SymbolDirectory directory;
+    private final SymbolMap<MarketDataRecord> records;
+    // Copied on write; an array so the hot path iterates without allocating
+    private volatile MarketDataRecordListener[] recordListeners = new MarketDataRecordListener[0];
 
     public MarketDataCache() {
+        this(new SymbolDirectory());
+    }
+
+    /**
+     * @param directory the directory of the symbol ids records are looked up by;
+     *        symbols it does not know are interned as their records are created
+     */
+    public MarketDataCache(SymbolDirectory directory) {
         this.cache = new ConcurrentHashMap<>();
-        this.listeners = new ArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.directory = directory;
+        this.records = new SymbolMap<>();
     }
 
     public void updateMarketData(MarketDataEntry entry) {
@@ -39,12 +81,110 @@ public class MarketDataCache {
         return new ArrayList<>(cache.values());
     }
 
+    /**
+     * @return the symbol's record, created on first use
+     */
+    public MarketDataRecord getOrCreateRecord(String symbol) {
+        return getOrCreateRecord(directory.intern(symbol));
+    }
+
+    /**
+     * @param symbolId the symbol's id in the cache's directory
+     * @return the symbol's record, created on first use
+     */
+    public MarketDataRecord getOrCreateRecord(int symbolId) {
+        MarketDataRecord record = records.get(symbolId);
+        return record != null ? record
+                              : records.computeIfAbsent(symbolId, id -> new MarketDataRecord(directory.nameOf(id), id));
+    }
+
+    /**
+     * @return the symbol's record, or null if no record update was received for it
+     */
+    public MarketDataRecord getRecord(String symbol) {
+        return records.get(directory.idOf(symbol));
+    }
+
+    /**
+     * @return the record of the symbol id, or null if no record update was received for it
+     */
+    public MarketDataRecord getRecord(int symbolId) {
+        return records.get(symbolId);
+    }
+
+    public void recordUpdated(MarketDataRecord record) {
+        for (MarketDataRecordListener listener : recordListeners) {
+            try {
+                listener.onRecordUpdate(record);
+            } catch (Exception e) {
+                log.error("Error notifying record listener: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    public synchronized void addRecordListener(MarketDataRecordListener listener) {
+        MarketDataRecordListener[] updated = Arrays.copyOf(recordListeners, recordListeners.length + 1);
+        updated[updated.length - 1] = listener;
+        recordListeners = updated;
+    }
+
+    public synchronized void removeRecordListener(MarketDataRecordListener listener) {
+        recordListeners = Arrays.stream(recordListeners)
+            .filter(registered -> registered != listener)
+            .toArray(MarketDataRecordListener[]::new);
+    }
+
     public void addListener(MarketDataUpdateListener listener) {
         listeners.add(listener);
     }
 
+    /**
+     * Adds a listener that is called on a dedicated thread, receiving only the latest
+     * update of each symbol it has not consumed yet.
+     */
+    public void addConflatingListener(MarketDataUpdateListener listener) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "market-data-listener-" + LISTENER_THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        listeners.add(new ConflatingDispatcher(listener, executor, true, DEFAULT_LISTENER_CAPACITY));
+    }
+
+    /**
+     * Adds a listener that is called on the given executor, for example
+     * {@code SwingUtilities::invokeLater}, receiving only the latest update of each
+     * symbol it has not consumed yet.
+     *
+     * @param capacity maximum number of symbols with an undelivered update; updates
+     *                 for further symbols are dropped and counted
+     */
+    public void addConflatingListener(MarketDataUpdateListener listener, Executor executor, int capacity) {
+        listeners.add(new ConflatingDispatcher(listener, executor, false, capacity));
+    }
+
     public void removeListener(MarketDataUpdateListener listener) {
-        listeners.remove(listener);
+        for (MarketDataUpdateListener registered : listeners) {
+            if (registered == listener) {
+                listeners.remove(registered);
+            } else if (registered instanceof ConflatingDispatcher dispatcher && dispatcher.getTarget() == listener) {
+                listeners.remove(dispatcher);
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return dispatch counters of a listener added with {@code addConflatingListener},
+     *         or null if it is not registered as one
+     */
+    public ListenerStats getListenerStats(MarketDataUpdateListener listener) {
+        for (MarketDataUpdateListener registered : listeners) {
+            if (registered instanceof ConflatingDispatcher dispatcher && dispatcher.getTarget() == listener) {
+                return dispatcher.getStats();
+            }
+        }
+        return null;
     }
 
     private void notifyListeners(MarketDataEntry entry) {
@@ -56,4 +196,4 @@ public class MarketDataCache {
             }
         }
     }
-} 
\ No newline at end of file
+}
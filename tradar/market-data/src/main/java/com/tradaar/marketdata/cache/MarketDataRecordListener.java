@@ -0,0 +1,13 @@
+package com.tradar.marketdata.cache;
+
+import com.tradar.marketdata.model.MarketDataRecord;
+
+/**
+ * Notified on the feed thread after a {@link MarketDataRecord} was updated in place.
+ * The record keeps changing after the call returns; listeners on other threads must
+ * read it with {@link MarketDataRecord#copyTo(MarketDataRecord)}.
+ */
+@FunctionalInterface
+public interface MarketDataRecordListener {
+    void onRecordUpdate(MarketDataRecord record);
+}
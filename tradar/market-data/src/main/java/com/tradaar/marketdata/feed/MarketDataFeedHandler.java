@@ -0,0 +1,23 @@
+package com.tradar.marketdata.feed;
+
+import com.tradar.core.codec.MarketDataPacketDecoder;
+
+/**
+ * Receives the market data entries of a {@link MarketDataSubscriber} in sequence
+ * order, on the subscriber's thread.
+ */
+@FunctionalInterface
+public interface MarketDataFeedHandler {
+    /**
+     * @param packet the packet holding the entry; only valid for the duration of the call
+     * @param index the entry's index within the packet
+     */
+    void onEntry(MarketDataPacketDecoder packet, int index);
+
+    /**
+     * Called once a snapshot has been applied and incremental processing resumes
+     * after the given sequence. Entries received before are superseded by the
+     * snapshot's {@code CLEAR_BOOK} and level entries.
+     */
+    default void onRecovered(long sequence) {}
+}
@@ -0,0 +1,348 @@
+package com.tradar.marketdata.feed;
+
+import com.tradar.core.codec.MarketDataPacketDecoder;
+import com.tradar.core.codec.MarketDataPacketEncoder;
+import com.tradar.core.codec.RetransmitRequestCodec;
+import com.tradar.core.config.NetworkConfig;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consumes one sequenced multicast market data channel and delivers its entries to
+ * a {@link MarketDataFeedHandler} strictly in sequence order.
+ * <p>
+ * In-order packets are applied straight from the receive buffer. When a sequence
+ * gap opens, later packets are held back and the missing range is requested from
+ * the publisher over unicast. If the replay does not arrive in time, or the gap is
+ * too large to buffer, the subscriber falls back to the snapshot channel: it waits
+ * for a complete snapshot cycle, applies it, and resumes with the held-back
+ * incremental packets that follow the snapshot's reference sequence. A subscriber
+ * starts out in this recovery state, since it has no book state to apply
+ * increments to.
+ */
+@Slf4j
+public class MarketDataSubscriber implements Runnable, AutoCloseable {
+    private final MarketDataSubscriberConfig config;
+    private final MarketDataFeedHandler handler;
+    private final Selector selector;
+    private final DatagramChannel incremental;
+    private final DatagramChannel snapshot;
+    private final DatagramChannel unicast;
+    private final InetSocketAddress publisher;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MarketDataPacketEncoder.MAX_PACKET_LENGTH);
+    private final ByteBuffer request = ByteBuffer.allocate(RetransmitRequestCodec.ENCODED_LENGTH);
+    private final MarketDataPacketDecoder decoder = new MarketDataPacketDecoder();
+    private final RetransmitRequestCodec requestCodec = new RetransmitRequestCodec();
+    private final long retransmitTimeoutNanos;
+    private final long snapshotTimeoutNanos;
+
+    // Incremental packets held back while a gap is open or a snapshot is awaited
+    private final TreeMap<Long, byte[]> pending = new TreeMap<>();
+    private final List<byte[]> snapshotPackets = new ArrayList<>();
+    private long expectedSequence;
+    private boolean recovering = true;
+    private long deadline;
+    // End, exclusive, of the range most recently requested for replay
+    private long requestedUntil;
+    private long snapshotReference;
+    private long lastSnapshotSequence;
+    private boolean collectingSnapshot;
+    private volatile boolean running = true;
+
+    @Getter
+    private volatile long packetCount;
+    @Getter
+    private volatile long gapCount;
+    @Getter
+    private volatile long snapshotRecoveryCount;
+
+    public MarketDataSubscriber(MarketDataSubscriberConfig config, MarketDataFeedHandler handler) throws IOException {
+        this.config = config;
+        this.handler = handler;
+        this.retransmitTimeoutNanos = config.getRetransmitTimeout().toNanos();
+        this.snapshotTimeoutNanos = config.getSnapshotTimeout().toNanos();
+        this.publisher = new InetSocketAddress(config.getPublisherHost(), config.getRetransmitPort());
+
+        InetAddress group = InetAddress.getByName(config.getGroup());
+        NetworkInterface networkInterface = NetworkConfig.multicastInterface(config.getNetworkInterface());
+        this.selector = Selector.open();
+        this.incremental = join(group, config.getIncrementalPort(), networkInterface);
+        this.snapshot = join(group, config.getSnapshotPort(), networkInterface);
+        this.unicast = DatagramChannel.open(StandardProtocolFamily.INET);
+        unicast.bind(null);
+        unicast.configureBlocking(false);
+        unicast.register(selector, SelectionKey.OP_READ);
+    }
+
+    private DatagramChannel join(InetAddress group, int port, NetworkInterface networkInterface) throws IOException {
+        DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, config.getSocketReceiveBufferBytes());
+        channel.bind(new InetSocketAddress(port));
+        channel.join(group, networkInterface);
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+        return channel;
+    }
+
+    @Override
+    public void run() {
+        log.info("Subscribed to market data channel {} on {}:{}",
+            config.getChannelId(), config.getGroup(), config.getIncrementalPort());
+        try {
+            requestSnapshot();
+            while (running) {
+                selector.select(10L);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    DatagramChannel channel = (DatagramChannel) keys.next().channel();
+                    keys.remove();
+                    drain(channel);
+                }
+                checkDeadline();
+            }
+        } catch (ClosedSelectorException e) {
+            // close() was called
+        } catch (IOException e) {
+            if (running) {
+                log.error("Market data subscriber failed", e);
+            }
+        }
+        log.info("Market data subscriber stopped after {} packets ({} gaps, {} snapshot recoveries)",
+            packetCount, gapCount, snapshotRecoveryCount);
+    }
+
+    private void drain(DatagramChannel channel) throws IOException {
+        while (true) {
+            buffer.clear();
+            if (channel.receive(buffer) == null) {
+                return;
+            }
+            int length = buffer.position();
+            try {
+                decoder.wrap(buffer, 0, length);
+            } catch (IllegalArgumentException e) {
+                log.debug("Dropping malformed market data packet: {}", e.getMessage());
+                continue;
+            }
+            if (decoder.channelId() != config.getChannelId()) {
+                continue;
+            }
+            packetCount++;
+            if (channel == snapshot) {
+                onSnapshotPacket(length);
+            } else {
+                onIncrementalPacket(length);
+            }
+        }
+    }
+
+    private void onIncrementalPacket(int length) throws IOException {
+        long sequence = decoder.sequence();
+        if (decoder.hasFlag(MarketDataPacketEncoder.FLAG_HEARTBEAT)) {
+            onHeartbeat(sequence);
+            return;
+        }
+        if (recovering) {
+            hold(sequence, length);
+            return;
+        }
+        if (sequence < expectedSequence) {
+            return;
+        }
+        if (sequence == expectedSequence) {
+            apply(decoder);
+            expectedSequence++;
+            drainPending();
+            return;
+        }
+
+        hold(sequence, length);
+        if (deadline == 0L) {
+            gapCount++;
+            if (sequence - expectedSequence > config.getMaxRetransmitPackets()) {
+                log.warn("Gap of {} packets at {}, recovering from snapshot",
+                    sequence - expectedSequence, expectedSequence);
+                startRecovery();
+            } else {
+                requestRetransmit(pending.firstKey());
+            }
+        }
+    }
+
+    /**
+     * A heartbeat repeats the last sequence sent; anything up to it not yet seen was lost.
+     */
+    private void onHeartbeat(long lastSequence) throws IOException {
+        if (recovering || lastSequence < expectedSequence || deadline != 0L) {
+            return;
+        }
+        gapCount++;
+        long until = pending.isEmpty() ? lastSequence + 1 : pending.firstKey();
+        if (until - expectedSequence > config.getMaxRetransmitPackets()) {
+            startRecovery();
+        } else {
+            requestRetransmit(until);
+        }
+    }
+
+    private void hold(long sequence, int length) {
+        if (pending.size() >= config.getMaxBufferedPackets()) {
+            pending.pollFirstEntry();
+        }
+        byte[] copy = new byte[length];
+        buffer.get(0, copy);
+        pending.put(sequence, copy);
+    }
+
+    /**
+     * Applies held-back packets that have become contiguous, then re-requests any
+     * gap that is still open.
+     */
+    private void drainPending() throws IOException {
+        while (!pending.isEmpty()) {
+            Map.Entry<Long, byte[]> first = pending.firstEntry();
+            long sequence = first.getKey();
+            if (sequence > expectedSequence) {
+                if (expectedSequence >= requestedUntil) {
+                    requestRetransmit(sequence);
+                } else {
+                    // The replay is making progress
+                    deadline = System.nanoTime() + retransmitTimeoutNanos;
+                }
+                return;
+            }
+            pending.pollFirstEntry();
+            if (sequence == expectedSequence) {
+                byte[] bytes = first.getValue();
+                apply(decoder.wrap(ByteBuffer.wrap(bytes), 0, bytes.length));
+                expectedSequence++;
+            }
+        }
+        deadline = 0L;
+    }
+
+    private void onSnapshotPacket(int length) {
+        if (!recovering) {
+            return;
+        }
+        long sequence = decoder.sequence();
+        if (decoder.hasFlag(MarketDataPacketEncoder.FLAG_SNAPSHOT_BEGIN)) {
+            snapshotPackets.clear();
+            snapshotReference = decoder.referenceSequence();
+            collectingSnapshot = true;
+        } else if (!collectingSnapshot || sequence != lastSnapshotSequence + 1
+                   || decoder.referenceSequence() != snapshotReference) {
+            // Lost part of this cycle; wait for the next one
+            collectingSnapshot = false;
+            return;
+        }
+        lastSnapshotSequence = sequence;
+        byte[] copy = new byte[length];
+        buffer.get(0, copy);
+        snapshotPackets.add(copy);
+
+        if (decoder.hasFlag(MarketDataPacketEncoder.FLAG_SNAPSHOT_END)) {
+            applySnapshot();
+        }
+    }
+
+    private void applySnapshot() {
+        for (byte[] bytes : snapshotPackets) {
+            apply(decoder.wrap(ByteBuffer.wrap(bytes), 0, bytes.length));
+        }
+        snapshotPackets.clear();
+        collectingSnapshot = false;
+        recovering = false;
+        expectedSequence = snapshotReference + 1;
+        deadline = 0L;
+        log.info("Applied market data snapshot at sequence {}", snapshotReference);
+        handler.onRecovered(snapshotReference);
+        try {
+            drainPending();
+        } catch (IOException e) {
+            log.error("Failed to request retransmission", e);
+        }
+    }
+
+    private void apply(MarketDataPacketDecoder packet) {
+        for (int i = 0, count = packet.count(); i < count; i++) {
+            try {
+                handler.onEntry(packet, i);
+            } catch (RuntimeException e) {
+                log.error("Error handling market data entry", e);
+            }
+        }
+    }
+
+    private void checkDeadline() throws IOException {
+        if (deadline == 0L || System.nanoTime() < deadline) {
+            return;
+        }
+        if (recovering) {
+            requestSnapshot();
+        } else {
+            log.warn("Retransmission of {} timed out, recovering from snapshot", expectedSequence);
+            startRecovery();
+        }
+    }
+
+    private void startRecovery() throws IOException {
+        recovering = true;
+        collectingSnapshot = false;
+        snapshotRecoveryCount++;
+        requestSnapshot();
+    }
+
+    /**
+     * Requests the packets from the expected sequence up to, exclusive, the given one.
+     */
+    private void requestRetransmit(long until) throws IOException {
+        int count = (int) Math.min(until - expectedSequence, config.getMaxRetransmitPackets());
+        sendRequest(expectedSequence, count);
+        requestedUntil = expectedSequence + count;
+        deadline = System.nanoTime() + retransmitTimeoutNanos;
+    }
+
+    private void requestSnapshot() throws IOException {
+        sendRequest(0L, 0);
+        deadline = System.nanoTime() + snapshotTimeoutNanos;
+    }
+
+    private void sendRequest(long fromSequence, int count) throws IOException {
+        request.clear();
+        request.limit(requestCodec.encode(request, 0, config.getChannelId(), fromSequence, count));
+        unicast.send(request, publisher);
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        selector.close();
+        incremental.close();
+        snapshot.close();
+        unicast.close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.tradar.marketdata.feed;
+
+import com.tradar.core.config.NetworkConfig;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link MarketDataSubscriber}.
+ */
+@Data
+@Builder
+public class MarketDataSubscriberConfig {
+    @Builder.Default
+    private final int channelId = 0;
+    @Builder.Default
+    private final String group = NetworkConfig.MULTICAST_GROUP;
+    @Builder.Default
+    private final int incrementalPort = NetworkConfig.MARKET_DATA_PORT;
+    @Builder.Default
+    private final int snapshotPort = NetworkConfig.MARKET_DATA_SNAPSHOT_PORT;
+    /** Host of the publisher, to which retransmission requests are sent. */
+    @Builder.Default
+    private final String publisherHost = "localhost";
+    @Builder.Default
+    private final int retransmitPort = NetworkConfig.MARKET_DATA_RETRANSMIT_PORT;
+    /** Interface name to join on; null picks one, see {@link NetworkConfig#multicastInterface}. */
+    private final String networkInterface;
+    @Builder.Default
+    private final int socketReceiveBufferBytes = 4 * 1024 * 1024;
+    /** How long to wait for a requested replay before falling back to a snapshot. */
+    @Builder.Default
+    private final Duration retransmitTimeout = Duration.ofMillis(50);
+    /** How long to wait for a snapshot before asking for one again. */
+    @Builder.Default
+    private final Duration snapshotTimeout = Duration.ofSeconds(2);
+    /** Longest gap requested for replay; longer gaps go straight to a snapshot. */
+    @Builder.Default
+    private final int maxRetransmitPackets = 1_024;
+    /** Out-of-order packets held while a gap is open; exceeding it forces a snapshot. */
+    @Builder.Default
+    private final int maxBufferedPackets = 16_384;
+}
@@ -0,0 +1,67 @@
+package com.tradar.marketdata.fix;
+
+/**
+ * Parses FIX decimal field values straight into scaled longs, without going
+ * through {@code double} or {@code BigDecimal}. Digits beyond the requested scale
+ * are rounded half up.
+ */
+final class FixDecimalParser {
+    private FixDecimalParser() {
+    }
+
+    /**
+     * @throws NumberFormatException if the value is not a plain decimal
+     * @throws ArithmeticException if the scaled value does not fit in a long
+     */
+    static long parse(CharSequence value, int scale) {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            throw new NumberFormatException("Not a decimal: '" + value + "'");
+        }
+
+        long result = 0L;
+        int decimals = -1;
+        boolean roundUp = false;
+        boolean digits = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal: '" + value + "'");
+            }
+            digits = true;
+            if (decimals >= scale) {
+                // First dropped digit decides the rounding
+                if (decimals == scale) {
+                    roundUp = c >= '5';
+                }
+                decimals++;
+                continue;
+            }
+            result = Math.addExact(Math.multiplyExact(result, 10L), c - '0');
+            if (decimals >= 0) {
+                decimals++;
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a decimal: '" + value + "'");
+        }
+
+        for (int d = Math.max(decimals, 0); d < scale; d++) {
+            result = Math.multiplyExact(result, 10L);
+        }
+        if (roundUp) {
+            result = Math.addExact(result, 1L);
+        }
+        return negative ? -result : result;
+    }
+}
@@ -1,37 +1,140 @@
 package com.tradar.marketdata.fix;
 
+import com.tradar.core.id.Ids;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.time.EpochClock;
+import com.tradar.marketdata.cache.DepthBookCache;
 import com.tradar.marketdata.cache.MarketDataCache;
+import com.tradar.marketdata.model.DepthBook;
 import com.tradar.marketdata.model.MarketDataEntry;
+import com.tradar.marketdata.model.MarketDataRecord;
 import lombok.extern.slf4j.Slf4j;
 import quickfix.*;
 import quickfix.field.*;
+import quickfix.fix44.MarketDataIncrementalRefresh;
 import quickfix.fix44.MarketDataRequest;
 import quickfix.fix44.MarketDataSnapshotFullRefresh;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * FIX market data session handler. Symbols subscribed with
+ * {@link #subscribeMarketData(String)} receive top-of-book full refreshes into the
+ * {@link MarketDataCache}. Symbols subscribed with
+ * {@link #subscribeMarketDepth(String, int)} receive N-level incremental refreshes,
+ * applied in place to the symbol's {@link DepthBook}; only the changed levels are
+ * forwarded to depth listeners, and the flat cache entry is rebuilt only when the
+ * top of book or the last trade changes.
+ * <p>
+ * In {@link SnapshotDecoding#RECORD} mode top-of-book full refreshes are decoded
+ * without allocation: entries are read from the parsed message in place, prices
+ * are parsed straight into scaled longs and the symbol's {@link MarketDataRecord}
+ * is updated in place.
+ * <p>
+ * {@link #connect()} starts an initiator for the session in the bundled
+ * {@code quickfix.cfg}; the client can also be added to an initiator started
+ * elsewhere.
+ */
 @Slf4j
 public class MarketDataClient extends MessageCracker implements Application {
     private final MarketDataCache cache;
+    private final DepthBookCache depthCache;
     private Session session;
+    private Initiator initiator;
     private final List<String> subscribedSymbols;
+    private final Map<String, Integer> subscribedDepths;
+    // Reused across messages, which are all handled on the session thread
+    private final MarketDataIncrementalRefresh.NoMDEntries incrementalGroup =
+        new MarketDataIncrementalRefresh.NoMDEntries();
+    private final MarketDataSnapshotFullRefresh.NoMDEntries snapshotGroup =
+        new MarketDataSnapshotFullRefresh.NoMDEntries();
+    private final List<DepthBook> touchedBooks = new ArrayList<>();
+    private volatile SnapshotDecoding snapshotDecoding = SnapshotDecoding.ENTRY;
 
     public MarketDataClient(MarketDataCache cache) {
+        this(cache, new DepthBookCache(cache.getDirectory()));
+    }
+
+    public MarketDataClient(MarketDataCache cache, DepthBookCache depthCache) {
         this.cache = cache;
+        this.depthCache = depthCache;
         this.subscribedSymbols = new ArrayList<>();
+        this.subscribedDepths = new ConcurrentHashMap<>();
+    }
+
+    public DepthBookCache getDepthCache() {
+        return depthCache;
+    }
+
+    public SnapshotDecoding getSnapshotDecoding() {
+        return snapshotDecoding;
+    }
+
+    public void setSnapshotDecoding(SnapshotDecoding snapshotDecoding) {
+        this.snapshotDecoding = snapshotDecoding;
+    }
+
+    /**
+     * Starts an initiator that logs on to the market data server configured in the
+     * bundled {@code quickfix.cfg} and keeps reconnecting until {@link #disconnect()}.
+     */
+    public synchronized void connect() throws ConfigError, IOException {
+        if (initiator != null) {
+            throw new IllegalStateException("Already connected");
+        }
+        SessionSettings settings;
+        try (InputStream config = MarketDataClient.class.getClassLoader().getResourceAsStream("quickfix.cfg")) {
+            if (config == null) {
+                throw new ConfigError("quickfix.cfg not found on the classpath");
+            }
+            settings = new SessionSettings(config);
+        }
+        initiator = new SocketInitiator(this, new FileStoreFactory(settings), settings,
+            new SLF4JLogFactory(settings), new DefaultMessageFactory());
+        initiator.start();
+        log.info("Connecting to market data server");
+    }
+
+    public synchronized void disconnect() {
+        if (initiator != null) {
+            initiator.stop();
+            initiator = null;
+        }
     }
 
     public void subscribeMarketData(String symbol) {
+        if (sendRequest(symbol, 1, 0)) { // Full refresh
+            subscribedSymbols.add(symbol);
+            log.info("Subscribed to market data for symbol: {}", symbol);
+        }
+    }
+
+    /**
+     * Subscribes to the given number of price levels per side as incremental
+     * refreshes (MDUpdateType=1).
+     */
+    public void subscribeMarketDepth(String symbol, int levels) {
+        depthCache.getOrCreate(symbol, levels);
+        subscribedDepths.put(symbol, levels);
+        if (sendRequest(symbol, levels, 1)) { // Incremental refresh
+            log.info("Subscribed to {} levels of market depth for symbol: {}", levels, symbol);
+        }
+    }
+
+    private boolean sendRequest(String symbol, int depth, int updateType) {
         if (session != null && session.isLoggedOn()) {
             MarketDataRequest request = new MarketDataRequest();
-            request.set(new MDReqID(UUID.randomUUID().toString()));
+            request.set(new MDReqID(Ids.nextString()));
             request.set(new SubscriptionRequestType('1')); // Snapshot + Updates
-            request.set(new MarketDepth(1));
-            request.set(new MDUpdateType(0)); // Full refresh
+            request.set(new MarketDepth(depth));
+            request.set(new MDUpdateType(updateType));
 
             MarketDataRequest.NoMDEntryTypes types = new MarketDataRequest.NoMDEntryTypes();
             types.set(new MDEntryType(MDEntryType.BID));
@@ -48,15 +151,23 @@ public class MarketDataClient extends MessageCracker implements Application {
             boolean sent = session.send(request);
             if (!sent) {
                 log.error("Failed to send market data request for symbol: {}", symbol);
-                return;
             }
-            subscribedSymbols.add(symbol);
-            log.info("Subscribed to market data for symbol: {}", symbol);
+            return sent;
         }
+        return false;
     }
 
     public void onMessage(MarketDataSnapshotFullRefresh message, SessionID sessionID) throws FieldNotFound {
-        String symbol = message.get(new Symbol()).getValue();
+        String symbol = message.getString(Symbol.FIELD);
+        DepthBook book = depthCache.getDepthBook(symbol);
+        if (book != null) {
+            onDepthSnapshot(message, book);
+            return;
+        }
+        if (snapshotDecoding == SnapshotDecoding.RECORD) {
+            onRecordSnapshot(message, symbol);
+            return;
+        }
         MarketDataEntry.MarketDataEntryBuilder builder = MarketDataEntry.builder()
                 .symbol(symbol)
                 .timestamp(LocalDateTime.now());
@@ -86,6 +197,146 @@ public class MarketDataClient extends MessageCracker implements Application {
         cache.updateMarketData(builder.build());
     }
 
+    private void onRecordSnapshot(MarketDataSnapshotFullRefresh message, String symbol) throws FieldNotFound {
+        MarketDataRecord record = cache.getOrCreateRecord(symbol);
+        List<Group> groups = message.getGroups(NoMDEntries.FIELD);
+        record.beginUpdate();
+        try {
+            // A full refresh is the whole state: sides it leaves out are empty
+            record.clear();
+            for (int i = 0, n = groups.size(); i < n; i++) {
+                Group group = groups.get(i);
+                long price = FixDecimalParser.parse(group.getString(MDEntryPx.FIELD), MarketDataRecord.SCALE);
+                long size = FixDecimalParser.parse(group.getString(MDEntrySize.FIELD), MarketDataRecord.SCALE);
+                switch (group.getChar(MDEntryType.FIELD)) {
+                    case MDEntryType.BID:
+                        record.setBid(price, size);
+                        break;
+                    case MDEntryType.OFFER:
+                        record.setAsk(price, size);
+                        break;
+                    case MDEntryType.TRADE:
+                        record.setLast(price, size);
+                        break;
+                }
+            }
+        } finally {
+            record.endUpdate(EpochClock.nanos());
+        }
+        cache.recordUpdated(record);
+    }
+
+    private void onDepthSnapshot(MarketDataSnapshotFullRefresh message, DepthBook book) throws FieldNotFound {
+        book.clear();
+        int entries = message.getGroupCount(NoMDEntries.FIELD);
+        for (int i = 1; i <= entries; i++) {
+            message.getGroup(i, snapshotGroup);
+            char type = snapshotGroup.getChar(MDEntryType.FIELD);
+            long price = FixDecimalParser.parse(snapshotGroup.getString(MDEntryPx.FIELD), MarketDataRecord.SCALE);
+            long size = FixDecimalParser.parse(snapshotGroup.getString(MDEntrySize.FIELD), MarketDataRecord.SCALE);
+            if (type == MDEntryType.TRADE) {
+                book.setTrade(price, size);
+            } else if (type == MDEntryType.BID || type == MDEntryType.OFFER) {
+                book.newLevel(side(type), -1, price, size);
+            }
+        }
+        publish(book);
+    }
+
+    public void onMessage(MarketDataIncrementalRefresh message, SessionID sessionID) throws FieldNotFound {
+        String messageSymbol = message.isSetField(Symbol.FIELD) ? message.getString(Symbol.FIELD) : null;
+        int entries = message.getGroupCount(NoMDEntries.FIELD);
+        for (int i = 1; i <= entries; i++) {
+            message.getGroup(i, incrementalGroup);
+            String symbol = incrementalGroup.isSetField(Symbol.FIELD)
+                ? incrementalGroup.getString(Symbol.FIELD) : messageSymbol;
+            DepthBook book = symbol != null ? depthCache.getDepthBook(symbol) : null;
+            if (book == null) {
+                continue;
+            }
+            if (!book.hasChanges()) {
+                touchedBooks.add(book);
+            }
+            apply(incrementalGroup, book);
+        }
+        for (int i = 0; i < touchedBooks.size(); i++) {
+            publish(touchedBooks.get(i));
+        }
+        touchedBooks.clear();
+    }
+
+    private static void apply(MarketDataIncrementalRefresh.NoMDEntries group, DepthBook book) throws FieldNotFound {
+        char type = group.getChar(MDEntryType.FIELD);
+        long price = group.isSetField(MDEntryPx.FIELD)
+            ? FixDecimalParser.parse(group.getString(MDEntryPx.FIELD), MarketDataRecord.SCALE)
+            : MarketDataRecord.NULL_VALUE;
+        long size = group.isSetField(MDEntrySize.FIELD)
+            ? FixDecimalParser.parse(group.getString(MDEntrySize.FIELD), MarketDataRecord.SCALE) : 0L;
+        if (type == MDEntryType.TRADE) {
+            book.setTrade(price, size);
+            return;
+        }
+        if (type != MDEntryType.BID && type != MDEntryType.OFFER) {
+            return;
+        }
+        OrderSide side = side(type);
+        // MDPriceLevel is one-based; without it levels are located by price
+        int level = group.isSetField(MDPriceLevel.FIELD) ? group.getInt(MDPriceLevel.FIELD) - 1 : -1;
+        switch (group.getChar(MDUpdateAction.FIELD)) {
+            case MDUpdateAction.NEW:
+                book.newLevel(side, level, price, size);
+                break;
+            case MDUpdateAction.CHANGE:
+                book.changeLevel(side, level, price, size);
+                break;
+            case MDUpdateAction.DELETE:
+                book.deleteLevel(side, level, price);
+                break;
+            default:
+                log.debug("Ignoring update action {} for {}", group.getChar(MDUpdateAction.FIELD), book.getSymbol());
+        }
+    }
+
+    /**
+     * Forwards the book's changed levels and refreshes the flat cache entry when the
+     * top of book or the last trade moved.
+     */
+    private void publish(DepthBook book) {
+        boolean topChanged = book.getChangedFrom(OrderSide.BUY) == 0 || book.getChangedFrom(OrderSide.SELL) == 0
+            || book.isTradeChanged();
+        depthCache.publishChanges(book);
+        if (topChanged) {
+            cache.updateMarketData(toEntry(book));
+        }
+    }
+
+    private static MarketDataEntry toEntry(DepthBook book) {
+        MarketDataEntry.MarketDataEntryBuilder builder = MarketDataEntry.builder()
+                .symbol(book.getSymbol())
+                .timestamp(LocalDateTime.now());
+        if (book.getLevelCount(OrderSide.BUY) > 0) {
+            builder.bidPrice(decimal(book.getPrice(OrderSide.BUY, 0)))
+                   .bidSize(decimal(book.getSize(OrderSide.BUY, 0)));
+        }
+        if (book.getLevelCount(OrderSide.SELL) > 0) {
+            builder.askPrice(decimal(book.getPrice(OrderSide.SELL, 0)))
+                   .askSize(decimal(book.getSize(OrderSide.SELL, 0)));
+        }
+        if (book.getLastPrice() != MarketDataRecord.NULL_VALUE) {
+            builder.lastPrice(decimal(book.getLastPrice()))
+                   .lastSize(decimal(book.getLastSize()));
+        }
+        return builder.build();
+    }
+
+    private static BigDecimal decimal(long scaled) {
+        return scaled == MarketDataRecord.NULL_VALUE ? null : BigDecimal.valueOf(scaled, MarketDataRecord.SCALE);
+    }
+
+    private static OrderSide side(char entryType) {
+        return entryType == MDEntryType.BID ? OrderSide.BUY : OrderSide.SELL;
+    }
+
     // QuickFIX Application interface methods
     @Override
     public void onCreate(SessionID sessionID) {
@@ -97,9 +348,10 @@ public class MarketDataClient extends MessageCracker implements Application {
         log.info("Logged on: {}", sessionID);
         this.session = Session.lookupSession(sessionID);
         // Resubscribe to symbols after reconnect
-        for (String symbol : subscribedSymbols) {
-            subscribeMarketData(symbol);
+        for (String symbol : new ArrayList<>(subscribedSymbols)) {
+            sendRequest(symbol, 1, 0);
         }
+        subscribedDepths.forEach(this::subscribeMarketDepth);
     }
 
     @Override
@@ -0,0 +1,11 @@
+package com.tradar.marketdata.fix;
+
+/**
+ * How {@link MarketDataClient} decodes top-of-book full refreshes.
+ */
+public enum SnapshotDecoding {
+    /** Build an immutable {@code MarketDataEntry} per message and publish it to the cache's listeners. */
+    ENTRY,
+    /** Update the symbol's mutable {@code MarketDataRecord} in place, without allocating. */
+    RECORD
+}
@@ -0,0 +1,246 @@
+package com.tradar.marketdata.model;
+
+import com.tradar.core.model.OrderSide;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable N-level depth of one symbol, held in primitive arrays ordered best price
+ * first. Prices and sizes are longs scaled by {@link MarketDataRecord#SCALE}
+ * decimal places, as in a {@link MarketDataRecord}, so levels are found by exact
+ * price. Incremental updates insert, change or delete single levels in place and
+ * record which level range of each side changed, so listeners can be sent only the
+ * levels that moved. Not thread-safe: it is updated and read on the feed thread.
+ */
+public class DepthBook {
+    private static final int NONE = Integer.MAX_VALUE;
+
+    @Getter
+    private final String symbol;
+    @Getter
+    private final int maxDepth;
+    private final Side bids;
+    private final Side asks;
+    /** Scaled price of the last trade, or {@link MarketDataRecord#NULL_VALUE}. */
+    @Getter
+    private long lastPrice = MarketDataRecord.NULL_VALUE;
+    @Getter
+    private long lastSize = MarketDataRecord.NULL_VALUE;
+    private boolean tradeChanged;
+
+    public DepthBook(String symbol, int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Depth must be positive: " + maxDepth);
+        }
+        this.symbol = symbol;
+        this.maxDepth = maxDepth;
+        this.bids = new Side(maxDepth, true);
+        this.asks = new Side(maxDepth, false);
+    }
+
+    public int getLevelCount(OrderSide side) {
+        return side(side).count;
+    }
+
+    public long getPrice(OrderSide side, int level) {
+        return side(side).prices[checkLevel(side, level)];
+    }
+
+    public long getSize(OrderSide side, int level) {
+        return side(side).sizes[checkLevel(side, level)];
+    }
+
+    /**
+     * Inserts a level, shifting worse levels down and dropping any pushed beyond the
+     * book's depth.
+     *
+     * @param level zero-based position, or -1 to place it by price
+     */
+    public void newLevel(OrderSide side, int level, long price, long size) {
+        side(side).insert(level, price, size);
+    }
+
+    /**
+     * Updates the size of an existing level. A level that cannot be found is inserted.
+     *
+     * @param level zero-based position, or -1 to find it by price
+     */
+    public void changeLevel(OrderSide side, int level, long price, long size) {
+        side(side).change(level, price, size);
+    }
+
+    /**
+     * Removes a level, shifting worse levels up.
+     *
+     * @param level zero-based position, or -1 to find it by price
+     */
+    public void deleteLevel(OrderSide side, int level, long price) {
+        side(side).delete(level, price);
+    }
+
+    public void setTrade(long price, long size) {
+        lastPrice = price;
+        lastSize = size;
+        tradeChanged = true;
+    }
+
+    /**
+     * Empties both sides, ahead of a full refresh.
+     */
+    public void clear() {
+        bids.clear();
+        asks.clear();
+    }
+
+    public boolean hasChanges() {
+        return bids.changedFrom != NONE || asks.changedFrom != NONE || tradeChanged;
+    }
+
+    /**
+     * @return first changed level of the side since the last {@link #clearChanges()},
+     *         or -1 if none changed
+     */
+    public int getChangedFrom(OrderSide side) {
+        Side s = side(side);
+        return s.changedFrom == NONE ? -1 : s.changedFrom;
+    }
+
+    /**
+     * @return last changed level of the side, inclusive, or -1 if none changed
+     */
+    public int getChangedTo(OrderSide side) {
+        Side s = side(side);
+        return s.changedFrom == NONE ? -1 : s.changedTo;
+    }
+
+    public boolean isTradeChanged() {
+        return tradeChanged;
+    }
+
+    public void clearChanges() {
+        bids.changedFrom = NONE;
+        bids.changedTo = -1;
+        asks.changedFrom = NONE;
+        asks.changedTo = -1;
+        tradeChanged = false;
+    }
+
+    private Side side(OrderSide side) {
+        return side == OrderSide.BUY ? bids : asks;
+    }
+
+    private int checkLevel(OrderSide side, int level) {
+        if (level < 0 || level >= side(side).count) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Level %d of %d on %s side of %s", level, side(side).count, side, symbol));
+        }
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DepthBook{symbol='%s', bids=%s, asks=%s}", symbol, bids, asks);
+    }
+
+    private static String decimal(long scaled) {
+        return BigDecimal.valueOf(scaled, MarketDataRecord.SCALE).stripTrailingZeros().toPlainString();
+    }
+
+    private static final class Side {
+        private final long[] prices;
+        private final long[] sizes;
+        private final boolean descending;
+        private int count;
+        private int changedFrom = NONE;
+        private int changedTo = -1;
+
+        private Side(int depth, boolean descending) {
+            this.prices = new long[depth];
+            this.sizes = new long[depth];
+            this.descending = descending;
+        }
+
+        void insert(int level, long price, long size) {
+            int index = level >= 0 ? Math.min(level, count) : insertionPoint(price);
+            if (index >= prices.length) {
+                return;
+            }
+            int moved = Math.min(count, prices.length - 1) - index;
+            if (moved > 0) {
+                System.arraycopy(prices, index, prices, index + 1, moved);
+                System.arraycopy(sizes, index, sizes, index + 1, moved);
+            }
+            prices[index] = price;
+            sizes[index] = size;
+            count = Math.min(count + 1, prices.length);
+            changed(index, count - 1);
+        }
+
+        void change(int level, long price, long size) {
+            int index = level >= 0 && level < count && prices[level] == price ? level : find(price);
+            if (index < 0) {
+                insert(-1, price, size);
+                return;
+            }
+            sizes[index] = size;
+            changed(index, index);
+        }
+
+        void delete(int level, long price) {
+            int index = level >= 0 && level < count ? level : find(price);
+            if (index < 0) {
+                return;
+            }
+            int moved = count - index - 1;
+            if (moved > 0) {
+                System.arraycopy(prices, index + 1, prices, index, moved);
+                System.arraycopy(sizes, index + 1, sizes, index, moved);
+            }
+            count--;
+            // The vacated last level changed too
+            changed(index, count);
+        }
+
+        void clear() {
+            if (count > 0) {
+                changed(0, count - 1);
+            }
+            count = 0;
+        }
+
+        private int find(long price) {
+            for (int i = 0; i < count; i++) {
+                if (prices[i] == price) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int insertionPoint(long price) {
+            int i = 0;
+            while (i < count && (descending ? prices[i] > price : prices[i] < price)) {
+                i++;
+            }
+            return i;
+        }
+
+        private void changed(int from, int to) {
+            changedFrom = Math.min(changedFrom, from);
+            changedTo = Math.max(changedTo, to);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(decimal(sizes[i])).append('@').append(decimal(prices[i]));
+            }
+            return sb.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tradar.marketdata.model;
+
+import lombok.Getter;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Mutable top-of-book state of one symbol, updated in place by the feed thread.
+ * Prices and sizes are longs scaled by {@link #SCALE} decimal places, with
+ * {@link #NULL_VALUE} for absent values.
+ * <p>
+ * Writes are bracketed by {@link #beginUpdate()} and {@link #endUpdate(long)} and
+ * must come from a single thread. Other threads read a consistent copy with
+ * {@link #copyTo(MarketDataRecord)}, which retries while an update is in progress.
+ */
+public class MarketDataRecord {
+    /** Decimal places of all scaled values. */
+    public static final int SCALE = 8;
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+
+    @Getter
+    private final String symbol;
+    /** The symbol's id in the cache's symbol directory, or -1. */
+    @Getter
+    private final int symbolId;
+    // Odd while an update is in progress
+    private volatile long version;
+    @Getter
+    private long bidPrice = NULL_VALUE;
+    @Getter
+    private long bidSize = NULL_VALUE;
+    @Getter
+    private long askPrice = NULL_VALUE;
+    @Getter
+    private long askSize = NULL_VALUE;
+    @Getter
+    private long lastPrice = NULL_VALUE;
+    @Getter
+    private long lastSize = NULL_VALUE;
+    /** UTC epoch nanoseconds of the last update. */
+    @Getter
+    private long updateTime;
+
+    public MarketDataRecord(String symbol) {
+        this(symbol, -1);
+    }
+
+    public MarketDataRecord(String symbol, int symbolId) {
+        this.symbol = symbol;
+        this.symbolId = symbolId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void beginUpdate() {
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Sets the bid, ask and last trade to {@link #NULL_VALUE}, for an update that
+     * replaces the whole record, such as a full refresh.
+     */
+    public void clear() {
+        bidPrice = NULL_VALUE;
+        bidSize = NULL_VALUE;
+        askPrice = NULL_VALUE;
+        askSize = NULL_VALUE;
+        lastPrice = NULL_VALUE;
+        lastSize = NULL_VALUE;
+    }
+
+    public void setBid(long price, long size) {
+        bidPrice = price;
+        bidSize = size;
+    }
+
+    public void setAsk(long price, long size) {
+        askPrice = price;
+        askSize = size;
+    }
+
+    public void setLast(long price, long size) {
+        lastPrice = price;
+        lastSize = size;
+    }
+
+    /**
+     * @param epochNanos UTC epoch nanoseconds of the update
+     */
+    public void endUpdate(long epochNanos) {
+        updateTime = epochNanos;
+        version++;
+    }
+
+    /**
+     * Copies a consistent view of this record into another instance owned by the
+     * reading thread.
+     */
+    public void copyTo(MarketDataRecord target) {
+        while (true) {
+            long before = version;
+            if ((before & 1L) == 0L) {
+                target.bidPrice = bidPrice;
+                target.bidSize = bidSize;
+                target.askPrice = askPrice;
+                target.askSize = askSize;
+                target.lastPrice = lastPrice;
+                target.lastSize = lastSize;
+                target.updateTime = updateTime;
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    target.version = before;
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Materialises the record as an immutable entry, for consumers of
+     * {@link MarketDataEntry}. Allocates; not for the hot path.
+     */
+    public MarketDataEntry toEntry() {
+        Instant time = Instant.ofEpochSecond(0L, updateTime);
+        return MarketDataEntry.builder()
+            .symbol(symbol)
+            .bidPrice(decimal(bidPrice))
+            .bidSize(decimal(bidSize))
+            .askPrice(decimal(askPrice))
+            .askSize(decimal(askSize))
+            .lastPrice(decimal(lastPrice))
+            .lastSize(decimal(lastSize))
+            .timestamp(LocalDateTime.ofInstant(time, ZoneOffset.UTC))
+            .build();
+    }
+
+    private static BigDecimal decimal(long scaled) {
+        return scaled == NULL_VALUE ? null : BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return toEntry().toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.tradar.marketdata.ui;
+
+import com.tradar.marketdata.cache.MarketDataCache;
+import com.tradar.marketdata.cache.MarketDataUpdateListener;
+import com.tradar.marketdata.model.MarketDataEntry;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Table model with one row per symbol, in the order symbols first updated, that
+ * reads each cell from the {@link MarketDataCache} when the table paints it
+ * rather than copying entries into rows.
+ * <p>
+ * Updates arrive on the feed thread and only mark their symbol changed. At most
+ * once per frame the model turns the changed symbols into row insertion events
+ * for new symbols and update events for contiguous runs of changed rows, so a
+ * burst of updates costs one repaint of the rows it touched.
+ */
+class MarketDataTableModel extends AbstractTableModel implements MarketDataUpdateListener {
+    static final String[] COLUMNS = {
+        "Symbol", "Bid", "Bid Size", "Ask", "Ask Size",
+        "Last", "Last Size", "Volume", "High", "Low", "Time"
+    };
+    private static final int FRAME_MILLIS = 16;
+
+    private final MarketDataCache cache;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Timer frame;
+    // Event dispatch thread only
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> rows = new HashMap<>();
+    private int[] changedRows = new int[64];
+
+    MarketDataTableModel(MarketDataCache cache) {
+        this.cache = cache;
+        this.frame = new Timer(FRAME_MILLIS, e -> flush());
+        frame.setRepeats(false);
+        for (MarketDataEntry entry : cache.getAllMarketData()) {
+            rows.put(entry.getSymbol(), symbols.size());
+            symbols.add(entry.getSymbol());
+        }
+    }
+
+    /**
+     * Called on the feed thread.
+     */
+    @Override
+    public void onMarketDataUpdate(MarketDataEntry entry) {
+        changed.add(entry.getSymbol());
+        if (pending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frame::restart);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return symbols.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        String symbol = symbols.get(rowIndex);
+        if (columnIndex == 0) {
+            return symbol;
+        }
+        MarketDataEntry entry = cache.getMarketData(symbol);
+        if (entry == null) {
+            return null;
+        }
+        return switch (columnIndex) {
+            case 1 -> entry.getBidPrice();
+            case 2 -> entry.getBidSize();
+            case 3 -> entry.getAskPrice();
+            case 4 -> entry.getAskSize();
+            case 5 -> entry.getLastPrice();
+            case 6 -> entry.getLastSize();
+            case 7 -> entry.getVolume();
+            case 8 -> entry.getHigh();
+            case 9 -> entry.getLow();
+            case 10 -> entry.getTimestamp() != null ? entry.getTimestamp().format(formatter) : null;
+            default -> throw new IllegalArgumentException("No such column: " + columnIndex);
+        };
+    }
+
+    private void flush() {
+        pending.set(false);
+        int firstNew = symbols.size();
+        int count = 0;
+        for (Iterator<String> it = changed.iterator(); it.hasNext(); ) {
+            String symbol = it.next();
+            it.remove();
+            Integer row = rows.get(symbol);
+            if (row == null) {
+                rows.put(symbol, symbols.size());
+                symbols.add(symbol);
+            } else {
+                if (count == changedRows.length) {
+                    changedRows = Arrays.copyOf(changedRows, count * 2);
+                }
+                changedRows[count++] = row;
+            }
+        }
+        if (symbols.size() > firstNew) {
+            fireTableRowsInserted(firstNew, symbols.size() - 1);
+        }
+        Arrays.sort(changedRows, 0, count);
+        for (int start = 0; start < count; ) {
+            int end = start;
+            while (end + 1 < count && changedRows[end + 1] == changedRows[end] + 1) {
+                end++;
+            }
+            fireTableRowsUpdated(changedRows[start], changedRows[end]);
+            start = end + 1;
+        }
+    }
+}
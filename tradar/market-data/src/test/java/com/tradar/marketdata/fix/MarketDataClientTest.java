@@ -0,0 +1,108 @@
+package com.tradar.marketdata.fix;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.marketdata.cache.MarketDataCache;
+import com.tradar.marketdata.model.DepthBook;
+import com.tradar.marketdata.model.MarketDataEntry;
+import com.tradar.marketdata.model.MarketDataRecord;
+import org.junit.jupiter.api.Test;
+import quickfix.FieldNotFound;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDUpdateAction;
+import quickfix.field.Symbol;
+import quickfix.fix44.MarketDataIncrementalRefresh;
+import quickfix.fix44.MarketDataSnapshotFullRefresh;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Full refreshes replace a symbol's whole state, in both snapshot decodings, and
+ * depth keeps prices exact through full and incremental refreshes.
+ */
+class MarketDataClientTest {
+    private static final String SYMBOL = "AAPL";
+
+    private final MarketDataCache cache = new MarketDataCache();
+    private final MarketDataClient client = new MarketDataClient(cache);
+
+    @Test
+    void recordRefreshClearsEntriesItLeavesOut() throws FieldNotFound {
+        client.setSnapshotDecoding(SnapshotDecoding.RECORD);
+
+        client.onMessage(refresh(MDEntryType.BID, "150.25", "100", MDEntryType.OFFER, "150.30", "200",
+            MDEntryType.TRADE, "150.27", "5"), null);
+        MarketDataRecord record = cache.getRecord(SYMBOL);
+        assertEquals(150_30000000L, record.getAskPrice());
+        assertEquals(150_27000000L, record.getLastPrice());
+
+        client.onMessage(refresh(MDEntryType.BID, "150.20", "300"), null);
+        assertEquals(150_20000000L, record.getBidPrice());
+        assertEquals(300_00000000L, record.getBidSize());
+        assertEquals(MarketDataRecord.NULL_VALUE, record.getAskPrice());
+        assertEquals(MarketDataRecord.NULL_VALUE, record.getAskSize());
+        assertEquals(MarketDataRecord.NULL_VALUE, record.getLastPrice());
+        assertEquals(MarketDataRecord.NULL_VALUE, record.getLastSize());
+    }
+
+    @Test
+    void entryRefreshClearsEntriesItLeavesOut() throws FieldNotFound {
+        client.onMessage(refresh(MDEntryType.BID, "150.25", "100", MDEntryType.OFFER, "150.30", "200"), null);
+        assertNotNull(cache.getMarketData(SYMBOL).getAskPrice());
+
+        client.onMessage(refresh(MDEntryType.BID, "150.20", "300"), null);
+        MarketDataEntry entry = cache.getMarketData(SYMBOL);
+        // This path parses through double, so compare at that precision
+        assertEquals(150.20, entry.getBidPrice().doubleValue());
+        assertNull(entry.getAskPrice());
+        assertNull(entry.getLastPrice());
+    }
+
+    @Test
+    void depthKeepsExactPrices() throws FieldNotFound {
+        DepthBook book = client.getDepthCache().getOrCreate(SYMBOL, 5);
+
+        client.onMessage(refresh(MDEntryType.BID, "12345678.12345678", "100", MDEntryType.BID, "12345678.1", "50",
+            MDEntryType.OFFER, "12345678.2", "70"), null);
+        assertEquals(1234567812345678L, book.getPrice(OrderSide.BUY, 0));
+        assertEquals(new BigDecimal("12345678.12345678"), cache.getMarketData(SYMBOL).getBidPrice().stripTrailingZeros());
+
+        // Found by exact price, however the price is written
+        MarketDataIncrementalRefresh update = new MarketDataIncrementalRefresh();
+        MarketDataIncrementalRefresh.NoMDEntries change = new MarketDataIncrementalRefresh.NoMDEntries();
+        change.set(new MDUpdateAction(MDUpdateAction.CHANGE));
+        change.set(new MDEntryType(MDEntryType.BID));
+        change.set(new Symbol(SYMBOL));
+        change.setString(MDEntryPx.FIELD, "12345678.10000000");
+        change.setString(MDEntrySize.FIELD, "75.5");
+        update.addGroup(change);
+        client.onMessage(update, null);
+
+        assertEquals(2, book.getLevelCount(OrderSide.BUY));
+        assertEquals(1234567810000000L, book.getPrice(OrderSide.BUY, 1));
+        assertEquals(75_50000000L, book.getSize(OrderSide.BUY, 1));
+        assertEquals(MarketDataRecord.NULL_VALUE, book.getLastPrice());
+        assertNull(cache.getMarketData(SYMBOL).getLastPrice());
+    }
+
+    /**
+     * @param entries type, price and size of each entry in turn
+     */
+    static MarketDataSnapshotFullRefresh refresh(Object... entries) {
+        MarketDataSnapshotFullRefresh message = new MarketDataSnapshotFullRefresh();
+        message.set(new Symbol(SYMBOL));
+        for (int i = 0; i < entries.length; i += 3) {
+            MarketDataSnapshotFullRefresh.NoMDEntries group = new MarketDataSnapshotFullRefresh.NoMDEntries();
+            group.set(new MDEntryType((Character) entries[i]));
+            group.setString(MDEntryPx.FIELD, (String) entries[i + 1]);
+            group.setString(MDEntrySize.FIELD, (String) entries[i + 2]);
+            message.addGroup(group);
+        }
+        return message;
+    }
+}
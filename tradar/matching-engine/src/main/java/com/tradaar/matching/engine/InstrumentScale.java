@@ -0,0 +1,127 @@
+package com.tradar.matching.engine;
+
+import com.tradar.refdata.model.Symbol;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Converts between the BigDecimal prices and quantities used by {@code Order} and
+ * {@code Trade} and the scaled longs used inside the matching engine. Prices are
+ * expressed in ticks and quantities in lots of the instrument, so all comparisons
+ * and fill arithmetic inside the engine are plain long operations.
+ */
+@Getter
+public final class InstrumentScale {
+    /**
+     * Scale used for symbols without reference data: eight decimal places for both
+     * prices and quantities.
+     */
+    public static final InstrumentScale DEFAULT =
+        new InstrumentScale(BigDecimal.ONE.movePointLeft(8), BigDecimal.ONE.movePointLeft(8));
+
+    private final BigDecimal tickSize;
+    private final BigDecimal lotSize;
+    // Decimal places when the size is a power of ten, -1 otherwise
+    private final int tickDecimals;
+    private final int lotDecimals;
+    // Unscaled tick and lot sizes, for wire mantissas without BigDecimal arithmetic
+    @Getter(AccessLevel.NONE)
+    private final long tickUnscaled;
+    @Getter(AccessLevel.NONE)
+    private final long lotUnscaled;
+
+    public InstrumentScale(BigDecimal tickSize, BigDecimal lotSize) {
+        if (tickSize == null || tickSize.signum() <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        if (lotSize == null || lotSize.signum() <= 0) {
+            throw new IllegalArgumentException("Lot size must be positive: " + lotSize);
+        }
+        this.tickSize = tickSize;
+        this.lotSize = lotSize;
+        this.tickDecimals = powerOfTenDecimals(tickSize);
+        this.lotDecimals = powerOfTenDecimals(lotSize);
+        this.tickUnscaled = tickSize.unscaledValue().longValueExact();
+        this.lotUnscaled = lotSize.unscaledValue().longValueExact();
+    }
+
+    public static InstrumentScale of(Symbol symbol) {
+        return new InstrumentScale(symbol.getTickSize(), symbol.getLotSize());
+    }
+
+    public long toTicks(BigDecimal price) {
+        return toUnits(price, tickSize, tickDecimals, "Price");
+    }
+
+    public long toLots(BigDecimal quantity) {
+        return toUnits(quantity, lotSize, lotDecimals, "Quantity");
+    }
+
+    public BigDecimal fromTicks(long ticks) {
+        return fromUnits(ticks, tickSize, tickDecimals);
+    }
+
+    public BigDecimal fromLots(long lots) {
+        return fromUnits(lots, lotSize, lotDecimals);
+    }
+
+    /**
+     * Returns the unscaled value of a price in ticks, to be read with
+     * {@link #getPriceScale()} decimal places.
+     */
+    public long toPriceMantissa(long ticks) {
+        return Math.multiplyExact(ticks, tickUnscaled);
+    }
+
+    public int getPriceScale() {
+        return tickSize.scale();
+    }
+
+    /**
+     * Returns the unscaled value of a quantity in lots, to be read with
+     * {@link #getQuantityScale()} decimal places.
+     */
+    public long toQuantityMantissa(long lots) {
+        return Math.multiplyExact(lots, lotUnscaled);
+    }
+
+    public int getQuantityScale() {
+        return lotSize.scale();
+    }
+
+    private static long toUnits(BigDecimal value, BigDecimal unit, int decimals, String name) {
+        try {
+            if (decimals >= 0) {
+                // Power-of-ten unit: a decimal shift instead of a division
+                return value.movePointRight(decimals).longValueExact();
+            }
+            BigDecimal[] quotient = value.divideAndRemainder(unit);
+            if (quotient[1].signum() != 0) {
+                throw new ArithmeticException("remainder " + quotient[1]);
+            }
+            return quotient[0].longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                String.format("%s %s is not a multiple of %s", name, value, unit), e);
+        }
+    }
+
+    private static BigDecimal fromUnits(long units, BigDecimal unit, int decimals) {
+        return decimals >= 0 ? BigDecimal.valueOf(units, decimals)
+                             : unit.multiply(BigDecimal.valueOf(units));
+    }
+
+    private static int powerOfTenDecimals(BigDecimal size) {
+        BigDecimal stripped = size.stripTrailingZeros();
+        return stripped.unscaledValue().equals(BigInteger.ONE) && stripped.scale() >= 0
+            ? stripped.scale() : -1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InstrumentScale{tickSize=%s, lotSize=%s}", tickSize, lotSize);
+    }
+}
@@ -5,119 +5,492 @@ import com.tradar.core.model.OrderSide;
 import com.tradar.core.model.OrderStatus;
 import com.tradar.core.model.OrderType;
 import com.tradar.core.model.Trade;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.core.symbol.SymbolMap;
+import com.tradar.matching.engine.book.BookListener;
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.command.OrderCommand;
 import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.book.OrderBookType;
 import com.tradar.matching.engine.book.PriceLevel;
+import com.tradar.matching.engine.latency.LatencyRecorder;
+import com.tradar.matching.engine.latency.LatencyStage;
+import com.tradar.matching.engine.risk.PreTradeRisk;
+import com.tradar.matching.engine.risk.RejectCode;
+import com.tradar.matching.engine.risk.RiskRules;
+import com.tradar.matching.engine.risk.SymbolRiskRules;
+import com.tradar.refdata.manager.SymbolManager;
+import com.tradar.refdata.model.Symbol;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.TreeMap;
+import java.util.function.Function;
 
 /**
  * Core matching engine that processes incoming orders and generates trades.
  * Implements price-time priority matching algorithm for market and limit orders.
  * Maintains separate order books for each trading symbol.
+ * Prices and quantities are converted to ticks and lots once, when an order enters
+ * the engine, and back to BigDecimal only when trades are produced.
+ * The book implementation is chosen per symbol, see {@link OrderBookType}.
+ * An engine and its books are not thread-safe: they must be driven by a single
+ * thread, see {@link com.tradar.matching.engine.shard.ShardedMatchingEngine}.
+ * New order commands can be put through {@link PreTradeRisk} checks first; the
+ * daily limit reservation of an order that passes follows its open quantity,
+ * committed on every fill and released when the order is cancelled, reduced or
+ * leaves the book unfilled.
+ * Books are held by symbol id in the engine's {@link SymbolDirectory}: a command
+ * carrying an id from the same directory finds its book with two array reads,
+ * and any other is looked up by name once.
  *
  * @author Vrushank Patel
  */
 @Slf4j
 public class MatchingEngine {
     private final Map<String, OrderBook> orderBooks;
+    private final SymbolMap<OrderBook> orderBooksById;
+    private final SymbolDirectory directory;
+    private final Map<String, OrderBookType> orderBookTypes;
+    private final Function<String, InstrumentScale> scaleResolver;
+    private BookListener bookListener = BookListener.NONE;
+    private LatencyRecorder latencyRecorder;
+    private PreTradeRisk preTradeRisk;
+    private long matchEndNanos;
 
     public MatchingEngine() {
+        this(symbol -> InstrumentScale.DEFAULT);
+    }
+
+    /**
+     * Creates an engine whose books use the tick and lot sizes configured in
+     * reference data, under the symbol ids of the manager's directory. Symbols
+     * unknown to the manager fall back to {@link InstrumentScale#DEFAULT}.
+     */
+    public MatchingEngine(SymbolManager symbolManager) {
+        this(symbol -> {
+            Symbol sym = symbolManager.getSymbol(symbol);
+            return sym != null ? InstrumentScale.of(sym) : InstrumentScale.DEFAULT;
+        }, symbolManager.getDirectory());
+    }
+
+    public MatchingEngine(Function<String, InstrumentScale> scaleResolver) {
+        this(scaleResolver, new SymbolDirectory());
+    }
+
+    /**
+     * @param directory the directory of the symbol ids commands carry; symbols it
+     *        does not know are interned as their books are created
+     */
+    public MatchingEngine(Function<String, InstrumentScale> scaleResolver, SymbolDirectory directory) {
         this.orderBooks = new ConcurrentHashMap<>();
+        this.orderBooksById = new SymbolMap<>();
+        this.directory = directory;
+        this.orderBookTypes = new ConcurrentHashMap<>();
+        this.scaleResolver = scaleResolver;
+    }
+
+    public SymbolDirectory getSymbolDirectory() {
+        return directory;
+    }
+
+    /**
+     * Selects the book implementation for a symbol. Takes effect when the symbol's
+     * book is created, so it must be called before the first order for the symbol.
+     */
+    public void setOrderBookType(String symbol, OrderBookType type) {
+        if (orderBooks.containsKey(symbol)) {
+            throw new IllegalStateException("Order book already created for " + symbol);
+        }
+        orderBookTypes.put(symbol, type);
+    }
+
+    /**
+     * Reports level changes of all current and future books to the listener, for
+     * example to publish market data. Must be called from the engine's thread.
+     */
+    public void setBookListener(BookListener listener) {
+        this.bookListener = listener != null ? listener : BookListener.NONE;
+        for (OrderBook orderBook : orderBooks.values()) {
+            orderBook.setListener(bookListener);
+        }
+    }
+
+    /**
+     * Times each command processed through {@link #processCommand}, from the
+     * timestamps it carries to the end of publishing its outcome. The recorder must
+     * belong to the engine's thread; null turns timing off.
+     */
+    public void setLatencyRecorder(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * Checks every new order command before it reaches its book, rejecting those
+     * that fail with the reason of their {@link RejectCode}. Orders are checked in
+     * the ticks and lots of their book, so the rules should be compiled from the
+     * same reference data as the engine's scales. Must be called from the engine's
+     * thread; null turns checking off.
+     */
+    public void setPreTradeRisk(PreTradeRisk preTradeRisk) {
+        this.preTradeRisk = preTradeRisk;
+    }
+
+    /**
+     * @return the pre-trade checks, or null if orders are not checked
+     */
+    public PreTradeRisk getPreTradeRisk() {
+        return preTradeRisk;
     }
 
     public List<Trade> processOrder(Order order) {
-        OrderBook orderBook = orderBooks.computeIfAbsent(order.getSymbol(), OrderBook::new);
-        List<Trade> trades = new ArrayList<>();
+        return processOrder(order, orderBook(directory.intern(order.getSymbol())));
+    }
+
+    private List<Trade> processOrder(Order order, OrderBook orderBook) {
+        checkNotResting(order, orderBook);
+        return process(toBookOrder(order, orderBook.getScale()), orderBook);
+    }
+
+    /**
+     * Rejects a new order whose id is already resting in its book. Checked before
+     * the order reaches risk or matching, so a duplicate never trades.
+     */
+    private static void checkNotResting(Order order, OrderBook orderBook) {
+        if (orderBook.getOrder(order.getOrderId()) != null) {
+            throw new IllegalArgumentException("Duplicate order id in book: " + order.getOrderId());
+        }
+    }
 
-        // For market orders, try to match immediately
-        if (order.getType() == OrderType.MARKET) {
-            trades.addAll(matchMarketOrder(order, orderBook));
-        } else {
-            trades.addAll(matchLimitOrder(order, orderBook));
-            
-            // If order is not fully filled, add to book
-            if (order.getStatus() != OrderStatus.FILLED) {
-                orderBook.addOrder(order);
+    /**
+     * Applies an inbound command and reports its outcome to the listener. Rejections
+     * are reported rather than thrown, so one bad command cannot stop the caller's
+     * processing loop.
+     */
+    public void processCommand(OrderCommand command, MatchingEventListener listener) {
+        LatencyRecorder latency = latencyRecorder;
+        long matchStart = latency != null ? System.nanoTime() : 0L;
+        try {
+            switch (command.getType()) {
+                case NEW -> {
+                    if (preTradeRisk != null) {
+                        processCheckedOrder(command, listener);
+                        break;
+                    }
+                    List<Trade> trades = processOrder(command.getOrder(), orderBook(internSymbol(command)));
+                    matched();
+                    if (!trades.isEmpty()) {
+                        listener.onTrades(trades);
+                    }
+                }
+                case CANCEL -> {
+                    Order cancelled = cancelOrder(orderBooksById.get(symbolId(command)), command.getSymbol(),
+                        command.getOrderId());
+                    matched();
+                    if (cancelled != null) {
+                        listener.onOrderCancelled(cancelled);
+                    } else {
+                        listener.onCommandRejected(command, "Unknown order");
+                    }
+                }
+                case AMEND -> {
+                    List<Trade> trades = amendOrder(orderBooksById.get(symbolId(command)), command.getSymbol(),
+                        command.getOrderId(), command.getQuantity(), command.getPrice());
+                    matched();
+                    if (!trades.isEmpty()) {
+                        listener.onTrades(trades);
+                    }
+                }
             }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            matched();
+            log.warn("Rejected {} command {} for order {}: {}",
+                command.getType(), command.getSequence(), command.getOrderId(), e.getMessage());
+            listener.onCommandRejected(command, e.getMessage());
         }
+        if (latency != null) {
+            recordLatency(latency, command, matchStart);
+        }
+    }
 
-        return trades;
+    /**
+     * Runs a new order through the pre-trade checks once it is in its book's ticks
+     * and lots, and matches it if they pass. Unknown symbols are rejected before a
+     * book is created for them, or they are interned.
+     */
+    private void processCheckedOrder(OrderCommand command, MatchingEventListener listener) {
+        Order order = command.getOrder();
+        RiskRules rules = preTradeRisk.getRules();
+        SymbolRiskRules symbol = rules.getDirectory() == directory ? rules.getSymbol(symbolId(command))
+                                                                   : rules.getSymbol(order.getSymbol());
+        RejectCode reject = RejectCode.UNKNOWN_SYMBOL;
+        if (symbol != null) {
+            OrderBook orderBook = orderBook(internSymbol(command));
+            checkNotResting(order, orderBook);
+            BookOrder bookOrder = toBookOrder(order, orderBook.getScale());
+            reject = preTradeRisk.check(command.getActorId(), symbol, order.getType() == OrderType.MARKET,
+                bookOrder.getPrice(), bookOrder.getQuantity(), orderBook.getLastTradePrice());
+            if (reject == RejectCode.NONE) {
+                preTradeRisk.reserve(bookOrder);
+                List<Trade> trades = process(bookOrder, orderBook);
+                matched();
+                if (!trades.isEmpty()) {
+                    listener.onTrades(trades);
+                }
+                return;
+            }
+        }
+        matched();
+        log.debug("Risk rejected order {} of actor {}: {}", command.getOrderId(), command.getActorId(), reject);
+        listener.onCommandRejected(command, reject.getReason());
     }
 
-    private List<Trade> matchMarketOrder(Order order, OrderBook orderBook) {
-        List<Trade> trades = new ArrayList<>();
-        TreeMap<BigDecimal, PriceLevel> opposingLevels = 
-            order.getSide() == OrderSide.BUY ? orderBook.getSellLevels() : orderBook.getBuyLevels();
+    /**
+     * @return the id of the command's symbol in the engine's directory, or
+     *         {@link SymbolDirectory#UNKNOWN}
+     */
+    private int symbolId(OrderCommand command) {
+        return command.getSymbolDirectory() == directory ? command.getSymbolId()
+                                                         : directory.idOf(command.getSymbol());
+    }
 
-        BigDecimal remainingQty = order.getQuantity();
+    /**
+     * @return the id of the command's symbol in the engine's directory, interning
+     *         it if it is new
+     */
+    private int internSymbol(OrderCommand command) {
+        int symbolId = symbolId(command);
+        return symbolId != SymbolDirectory.UNKNOWN ? symbolId : directory.intern(command.getSymbol());
+    }
 
-        while (remainingQty.compareTo(BigDecimal.ZERO) > 0 && !opposingLevels.isEmpty()) {
-            PriceLevel bestLevel = opposingLevels.firstEntry().getValue();
-            trades.addAll(matchOrdersAtLevel(order, bestLevel, remainingQty));
-            remainingQty = order.getQuantity().subtract(
-                trades.stream()
-                    .map(Trade::getQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-            );
+    private void matched() {
+        if (latencyRecorder != null) {
+            matchEndNanos = System.nanoTime();
         }
+    }
 
-        return trades;
+    /**
+     * Records the stages between the command's timestamps. A command handed over
+     * directly, without a ring buffer, has no enqueue time and no queueing stage.
+     */
+    private void recordLatency(LatencyRecorder latency, OrderCommand command, long matchStart) {
+        long published = System.nanoTime();
+        String symbol = command.getSymbol();
+        long enqueued = command.getEnqueueNanos() != 0L ? command.getEnqueueNanos() : matchStart;
+        if (command.getDecodeNanos() != 0L) {
+            latency.record(symbol, LatencyStage.DISPATCH, enqueued - command.getDecodeNanos());
+        }
+        if (command.getEnqueueNanos() != 0L) {
+            latency.record(symbol, LatencyStage.QUEUE, matchStart - enqueued);
+        }
+        latency.record(symbol, LatencyStage.MATCH, matchEndNanos - matchStart);
+        latency.record(symbol, LatencyStage.PUBLISH, published - matchEndNanos);
+        long first = command.getReceiveNanos() != 0L ? command.getReceiveNanos() : enqueued;
+        latency.record(symbol, LatencyStage.TOTAL, published - first);
     }
 
-    private List<Trade> matchLimitOrder(Order order, OrderBook orderBook) {
-        List<Trade> trades = new ArrayList<>();
-        TreeMap<BigDecimal, PriceLevel> opposingLevels = 
-            order.getSide() == OrderSide.BUY ? orderBook.getSellLevels() : orderBook.getBuyLevels();
+    /**
+     * Cancels a resting order by id.
+     *
+     * @return the cancelled order, or null if it is not resting in the symbol's book
+     */
+    public Order cancelOrder(String symbol, String orderId) {
+        return cancelOrder(orderBooksById.get(directory.idOf(symbol)), symbol, orderId);
+    }
 
-        while (!opposingLevels.isEmpty()) {
-            PriceLevel bestLevel = opposingLevels.firstEntry().getValue();
-            
-            // Check if price is acceptable
-            if (order.getSide() == OrderSide.BUY && bestLevel.getPrice().compareTo(order.getPrice()) > 0 ||
-                order.getSide() == OrderSide.SELL && bestLevel.getPrice().compareTo(order.getPrice()) < 0) {
-                break;
-            }
+    private Order cancelOrder(OrderBook orderBook, String symbol, String orderId) {
+        BookOrder cancelled = orderBook == null ? null : orderBook.cancelOrder(orderId);
+        if (cancelled == null) {
+            log.warn("Cancel rejected, order {} not in {} book", orderId, symbol);
+            return null;
+        }
+        PreTradeRisk.release(cancelled, cancelled.getLeavesQuantity());
+        cancelled.getOrder().setStatus(OrderStatus.CANCELLED);
+        return cancelled.getOrder();
+    }
 
-            BigDecimal remainingQty = order.getQuantity().subtract(
-                trades.stream()
-                    .map(Trade::getQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-            );
+    /**
+     * Cancel/replace of a resting order. A pure quantity reduction is applied in
+     * place and keeps time priority; a price change or quantity increase requeues
+     * the order at the back of its new level and may trade immediately.
+     *
+     * @param quantity the new order quantity, including any quantity already filled
+     * @param price the new limit price, or null to keep the current one
+     * @return trades produced if the replaced order crosses the book
+     * @throws IllegalArgumentException if the order is not resting in the book, the
+     *         new quantity does not exceed the filled quantity or the replaced order
+     *         would exceed its actor's daily limit
+     */
+    public List<Trade> amendOrder(String symbol, String orderId, BigDecimal quantity, BigDecimal price) {
+        return amendOrder(orderBooksById.get(directory.idOf(symbol)), symbol, orderId, quantity, price);
+    }
 
-            if (remainingQty.compareTo(BigDecimal.ZERO) <= 0) {
-                break;
-            }
+    private List<Trade> amendOrder(OrderBook orderBook, String symbol, String orderId, BigDecimal quantity,
+                                   BigDecimal price) {
+        BookOrder resting = orderBook == null ? null : orderBook.getOrder(orderId);
+        if (resting == null) {
+            throw new IllegalArgumentException("Order " + orderId + " not in " + symbol + " book");
+        }
 
-            trades.addAll(matchOrdersAtLevel(order, bestLevel, remainingQty));
+        InstrumentScale scale = orderBook.getScale();
+        long newQuantity = scale.toLots(quantity);
+        long newPrice = price != null ? scale.toTicks(price) : resting.getPrice();
+        long newLeaves = newQuantity - resting.getFilledQuantity();
+        if (newLeaves <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Amended quantity %s does not exceed filled quantity of order %s", quantity, orderId));
         }
 
-        return trades;
+        Order amended = resting.getOrder().toBuilder()
+            .quantity(quantity)
+            .price(scale.fromTicks(newPrice))
+            .build();
+        if (newPrice == resting.getPrice() && newQuantity < resting.getQuantity()) {
+            PreTradeRisk.release(resting, resting.getLeavesQuantity() - newLeaves);
+            orderBook.reduceQuantity(resting, amended, newQuantity);
+            return new ArrayList<>();
+        }
+        if (newPrice == resting.getPrice() && newQuantity == resting.getQuantity()) {
+            return new ArrayList<>();
+        }
+
+        BookOrder replacement = new BookOrder(amended, newPrice, newQuantity, newLeaves);
+        PreTradeRisk.replace(resting, replacement);
+        orderBook.removeOrder(resting);
+        return process(replacement, orderBook);
+    }
+
+    public OrderBook getOrderBook(String symbol) {
+        return orderBooksById.get(directory.idOf(symbol));
+    }
+
+    /**
+     * @param symbolId the symbol's id in the engine's directory
+     */
+    public OrderBook getOrderBook(int symbolId) {
+        return orderBooksById.get(symbolId);
     }
 
-    private List<Trade> matchOrdersAtLevel(Order incomingOrder, PriceLevel priceLevel, BigDecimal remainingQty) {
+    public Collection<OrderBook> getOrderBooks() {
+        return orderBooks.values();
+    }
+
+    /**
+     * Puts a resting order straight back into its book without matching, at the back
+     * of its level. Used to rebuild books from a snapshot, which must restore orders
+     * in their original priority order.
+     *
+     * @param leavesQuantity open quantity in lots of the symbol's book
+     * @return the restored entry, to attach its daily limit reservation to
+     */
+    public BookOrder restoreOrder(Order order, long leavesQuantity) {
+        OrderBook orderBook = orderBook(directory.intern(order.getSymbol()));
+        InstrumentScale scale = orderBook.getScale();
+        BookOrder bookOrder = new BookOrder(order, scale.toTicks(order.getPrice()),
+            scale.toLots(order.getQuantity()), leavesQuantity);
+        orderBook.addOrder(bookOrder);
+        return bookOrder;
+    }
+
+    /**
+     * Creates the symbol's book if needed and sets its last trade price, which
+     * pre-trade risk bands prices around. Used to rebuild books from a snapshot.
+     *
+     * @param price price in ticks, or {@link OrderBook#NO_PRICE}
+     */
+    public void restoreLastTradePrice(String symbol, long price) {
+        orderBook(directory.intern(symbol)).restoreLastTradePrice(price);
+    }
+
+    /**
+     * @return the symbol's book, created the first time it is asked for
+     */
+    private OrderBook orderBook(int symbolId) {
+        OrderBook orderBook = orderBooksById.get(symbolId);
+        if (orderBook == null) {
+            String symbol = directory.nameOf(symbolId);
+            orderBook = createOrderBook(symbol);
+            orderBooksById.put(symbolId, orderBook);
+            orderBooks.put(symbol, orderBook);
+        }
+        return orderBook;
+    }
+
+    private OrderBook createOrderBook(String symbol) {
+        OrderBookType type = orderBookTypes.getOrDefault(symbol, OrderBookType.TREE);
+        log.info("Creating {} order book for {}", type, symbol);
+        OrderBook orderBook = type.create(symbol, scaleResolver.apply(symbol));
+        orderBook.setListener(bookListener);
+        return orderBook;
+    }
+
+    private static BookOrder toBookOrder(Order order, InstrumentScale scale) {
+        // Market orders may arrive without a price; it is never compared
+        long price = order.getPrice() != null ? scale.toTicks(order.getPrice()) : 0L;
+        return new BookOrder(order, price, scale.toLots(order.getQuantity()));
+    }
+
+    private List<Trade> process(BookOrder order, OrderBook orderBook) {
         List<Trade> trades = new ArrayList<>();
-        Map<String, Order> ordersAtLevel = priceLevel.getOrders();
-
-        for (Order restingOrder : ordersAtLevel.values()) {
-            BigDecimal matchQty = remainingQty.min(restingOrder.getQuantity());
-            trades.add(Trade.createTrade(
-                incomingOrder.getSide() == OrderSide.BUY ? incomingOrder : restingOrder,
-                incomingOrder.getSide() == OrderSide.SELL ? incomingOrder : restingOrder,
-                matchQty
-            ));
-
-            remainingQty = remainingQty.subtract(matchQty);
-            if (remainingQty.compareTo(BigDecimal.ZERO) <= 0) {
+        boolean limit = !order.isMarket();
+        match(order, orderBook, limit, trades);
+
+        // Unfilled limit quantity rests in the book; market orders never rest
+        if (limit && !order.isFilled()) {
+            orderBook.addOrder(order);
+        } else if (!order.isFilled()) {
+            PreTradeRisk.release(order, order.getLeavesQuantity());
+        }
+        return trades;
+    }
+
+    /**
+     * Matches the incoming order against the opposing side, best level first, until
+     * it is filled, the side is exhausted or, for limit orders, the next level no
+     * longer crosses. Fill accounting is done in place on the leaves quantity of
+     * both orders, so each fill costs O(1) however long the sweep.
+     */
+    private void match(BookOrder incoming, OrderBook orderBook, boolean limit, List<Trade> trades) {
+        Order order = incoming.getOrder();
+        boolean buy = order.getSide() == OrderSide.BUY;
+        OrderSide opposingSide = buy ? OrderSide.SELL : OrderSide.BUY;
+        InstrumentScale scale = orderBook.getScale();
+        PriceLevel bestLevel;
+
+        while (!incoming.isFilled() && (bestLevel = orderBook.getBestLevel(opposingSide)) != null) {
+            // Check if price is acceptable
+            if (limit && (buy ? bestLevel.getPrice() > incoming.getPrice()
+                              : bestLevel.getPrice() < incoming.getPrice())) {
                 break;
             }
+
+            // Trades print at the resting price; convert it once per level
+            BigDecimal price = scale.fromTicks(bestLevel.getPrice());
+            BookOrder resting;
+            while (!incoming.isFilled() && (resting = bestLevel.getHead()) != null) {
+                long matchQty = Math.min(incoming.getLeavesQuantity(), resting.getLeavesQuantity());
+                Order restingOrder = resting.getOrder();
+                trades.add(Trade.createTrade(
+                    buy ? order : restingOrder,
+                    buy ? restingOrder : order,
+                    price,
+                    scale.fromLots(matchQty)
+                ));
+
+                // Pops the resting order, and its level once empty, when filled
+                orderBook.fill(incoming, resting, matchQty);
+                PreTradeRisk.settle(incoming, matchQty, bestLevel.getPrice());
+                PreTradeRisk.settle(resting, matchQty, bestLevel.getPrice());
+                restingOrder.setStatus(resting.isFilled() ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED);
+            }
         }
 
-        return trades;
+        if (incoming.getFilledQuantity() > 0) {
+            order.setStatus(incoming.isFilled() ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED);
+        }
     }
-} 
\ No newline at end of file
+}
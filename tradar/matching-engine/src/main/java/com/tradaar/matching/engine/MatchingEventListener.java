@@ -0,0 +1,28 @@
+package com.tradar.matching.engine;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.command.OrderCommand;
+
+import java.util.List;
+
+/**
+ * Receives the outcome of commands processed by the matching engine. Callbacks run
+ * on the thread that owns the affected order book and must not block it.
+ */
+public interface MatchingEventListener {
+    void onTrades(List<Trade> trades);
+
+    default void onOrderCancelled(Order order) {}
+
+    /**
+     * @param command the rejected command; only valid for the duration of the call
+     */
+    default void onCommandRejected(OrderCommand command, String reason) {}
+
+    /**
+     * Called when the engine thread has drained the commands pending for it, and
+     * periodically while it stays idle. A good point to flush buffered output.
+     */
+    default void onIdle() {}
+}
@@ -0,0 +1,20 @@
+package com.tradar.matching.engine.book;
+
+import com.tradar.core.model.OrderSide;
+
+/**
+ * Observes changes to the price levels of an {@link OrderBook}. Called on the
+ * thread that owns the book, right after each change, so implementations must be
+ * cheap and must not modify the book.
+ */
+@FunctionalInterface
+public interface BookListener {
+    BookListener NONE = (book, side, price, quantity, orderCount) -> {};
+
+    /**
+     * @param price level price in ticks of the book's scale
+     * @param quantity new open quantity in lots; zero when the level was removed
+     * @param orderCount number of orders now resting at the level
+     */
+    void onLevelChanged(OrderBook book, OrderSide side, long price, long quantity, int orderCount);
+}
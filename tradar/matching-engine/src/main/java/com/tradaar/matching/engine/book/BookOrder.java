@@ -0,0 +1,141 @@
+package com.tradar.matching.engine.book;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderType;
+import com.tradar.refdata.limit.DailyLimitLedger;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An order as held by the matching engine. Price and quantity are converted once,
+ * when the order enters the engine, into ticks and lots of the instrument so the
+ * book never touches BigDecimal while matching.
+ * Each entry is also a node of the intrusive FIFO queue of its {@link PriceLevel},
+ * so it can be unlinked in O(1) once found through the book's order-id index.
+ * {@code quantity} is the order quantity and {@code leavesQuantity} the running
+ * open quantity, decremented in place on every fill.
+ * <p>
+ * An entry either wraps an {@link Order} or, in the garbage-free mode of
+ * {@link com.tradar.matching.engine.pool.PooledMatchingEngine}, is a pooled
+ * flyweight holding the order in primitives: a long id, the side and type and
+ * an epoch nanosecond timestamp, with no {@code Order} at all. Pooled entries are
+ * filled in with {@link #reset} and recycled once they leave the book.
+ */
+@Getter
+public class BookOrder {
+    @Setter(AccessLevel.PACKAGE)
+    private Order order;
+    /** Order id of a pooled entry; entries wrapping an {@link Order} use its string id. */
+    private long id;
+    /** Id of the symbol in the engine's symbol directory, or -1. */
+    private int symbolId = -1;
+    private OrderSide side;
+    private OrderType type;
+    /** UTC epoch nanoseconds the order was entered, 0 for entries wrapping an {@link Order}. */
+    private long timestamp;
+    private long price;
+    @Setter(AccessLevel.PACKAGE)
+    private long quantity;
+    @Setter(AccessLevel.PACKAGE)
+    private long leavesQuantity;
+
+    // Intrusive queue links, owned by PriceLevel
+    @Setter(AccessLevel.PACKAGE)
+    private PriceLevel level;
+    @Setter(AccessLevel.PACKAGE)
+    private BookOrder prev;
+    @Setter(AccessLevel.PACKAGE)
+    private BookOrder next;
+
+    // Daily limit reservation of the open quantity, when placed through pre-trade risk
+    private DailyLimitLedger.Account limitAccount;
+    private long limitToken;
+    private long limitNotionalPerLot;
+    private long limitNotionalPerTickLot;
+
+    public BookOrder(Order order, long price, long quantity) {
+        this(order, price, quantity, quantity);
+    }
+
+    public BookOrder(Order order, long price, long quantity, long leavesQuantity) {
+        this.order = order;
+        this.side = order.getSide();
+        this.type = order.getType();
+        this.price = price;
+        this.quantity = quantity;
+        this.leavesQuantity = leavesQuantity;
+    }
+
+    /**
+     * Creates an empty entry for a pool, to be filled in with {@link #reset}.
+     */
+    public BookOrder() {
+    }
+
+    /**
+     * Fills in a pooled entry as a new order, dropping anything left from its
+     * previous use.
+     *
+     * @param price limit price in ticks, ignored for market orders
+     * @param quantity order quantity in lots
+     * @param timestamp UTC epoch nanoseconds the order was entered
+     */
+    public BookOrder reset(long id, int symbolId, OrderSide side, OrderType type, long price, long quantity,
+                           long timestamp) {
+        this.order = null;
+        this.id = id;
+        this.symbolId = symbolId;
+        this.side = side;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.price = price;
+        this.quantity = quantity;
+        this.leavesQuantity = quantity;
+        this.level = null;
+        this.prev = null;
+        this.next = null;
+        this.limitAccount = null;
+        return this;
+    }
+
+    /**
+     * Attaches the daily limit reservation covering the order's open quantity.
+     *
+     * @param notionalPerLot reserved notional per lot of open quantity
+     * @param notionalPerTickLot notional of one tick times one lot, to value fills
+     */
+    public void setReservation(DailyLimitLedger.Account account, long token, long notionalPerLot,
+                               long notionalPerTickLot) {
+        this.limitAccount = account;
+        this.limitToken = token;
+        this.limitNotionalPerLot = notionalPerLot;
+        this.limitNotionalPerTickLot = notionalPerTickLot;
+    }
+
+    /**
+     * @return the id of the wrapped {@link Order}, or null for a pooled entry
+     */
+    public String getOrderId() {
+        return order != null ? order.getOrderId() : null;
+    }
+
+    public boolean isMarket() {
+        return type == OrderType.MARKET;
+    }
+
+    public long getFilledQuantity() {
+        return quantity - leavesQuantity;
+    }
+
+    public boolean isFilled() {
+        return leavesQuantity == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BookOrder{orderId='%s', side=%s, price=%d, quantity=%d, leavesQuantity=%d}",
+            order != null ? order.getOrderId() : Long.toString(id), side, price, quantity, leavesQuantity);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tradar.matching.engine.book;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.InstrumentScale;
+
+import java.util.function.Consumer;
+
+/**
+ * Order book backed by a price ladder: each side is a dense array of levels indexed
+ * by tick offset from a reference price, with the best bid and best ask tracked as
+ * array indexes. Inserting, looking up and removing a level inside the window is a
+ * single array access with no tree node allocation. Prices outside the window spill
+ * into a sparse map, and the window recentres when its side runs empty.
+ * Best suited to liquid symbols trading in a narrow band of ticks.
+ */
+public class LadderOrderBook extends OrderBook {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final PriceLadder bids;
+    private final PriceLadder asks;
+
+    public LadderOrderBook(String symbol, InstrumentScale scale) {
+        this(symbol, scale, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of ticks each side of the book holds in its dense window
+     */
+    public LadderOrderBook(String symbol, InstrumentScale scale, int capacity) {
+        super(symbol, scale);
+        this.bids = new PriceLadder(true, capacity);
+        this.asks = new PriceLadder(false, capacity);
+    }
+
+    @Override
+    public PriceLevel getBestLevel(OrderSide side) {
+        return ladder(side).best();
+    }
+
+    @Override
+    public PriceLevel getLevel(OrderSide side, long price) {
+        return ladder(side).get(price);
+    }
+
+    @Override
+    protected PriceLevel getOrCreateLevel(OrderSide side, long price) {
+        return ladder(side).getOrCreate(price);
+    }
+
+    @Override
+    public void removeLevel(OrderSide side, PriceLevel level) {
+        ladder(side).remove(level);
+    }
+
+    @Override
+    public void forEachLevel(OrderSide side, Consumer<PriceLevel> visitor) {
+        ladder(side).forEach(visitor);
+    }
+
+    private PriceLadder ladder(OrderSide side) {
+        return side == OrderSide.BUY ? bids : asks;
+    }
+}
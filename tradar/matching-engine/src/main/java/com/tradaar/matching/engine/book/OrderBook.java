@@ -2,67 +2,229 @@ package com.tradar.matching.engine.book;
 
 import com.tradar.core.model.Order;
 import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.InstrumentScale;
 import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Implements a limit order book for a single trading symbol.
- * Maintains separate trees for buy and sell orders, sorted by price-time priority.
- * Provides methods to add and remove orders and query best prices.
+ * Keeps buy and sell price levels in price-time priority and provides methods
+ * to add and remove orders and query best prices. Levels are keyed by price in
+ * ticks; {@link InstrumentScale} converts back to BigDecimal for callers.
+ * Subclasses decide how the levels of each side are stored.
+ * Resting orders are indexed by order id, so cancel and amend go straight to the
+ * order's queue node without searching levels: entries wrapping an {@code Order}
+ * by its string id, pooled entries by their long id in an index that allocates
+ * nothing. Every level change is reported to the book's {@link BookListener}.
  *
  * @author Vrushank Patel
  */
 @Slf4j
-public class OrderBook {
+public abstract class OrderBook {
+    /** {@link #getLastTradePrice()} of a book that has not traded. */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    @Getter
     private final String symbol;
     @Getter
-    private final TreeMap<BigDecimal, PriceLevel> buyLevels;
+    private final InstrumentScale scale;
+    private final Map<String, BookOrder> orders;
+    private final OrderIdIndex pooledOrders;
+    @Getter
+    @Setter
+    @NonNull
+    private BookListener listener = BookListener.NONE;
+    /** Price in ticks of the latest fill, or {@link #NO_PRICE}. */
     @Getter
-    private final TreeMap<BigDecimal, PriceLevel> sellLevels;
-    
-    public OrderBook(String symbol) {
+    private long lastTradePrice = NO_PRICE;
+
+    protected OrderBook(String symbol, InstrumentScale scale) {
         this.symbol = symbol;
-        this.buyLevels = new TreeMap<>(Collections.reverseOrder()); // Highest price first for buys
-        this.sellLevels = new TreeMap<>(); // Lowest price first for sells
+        this.scale = scale;
+        this.orders = new HashMap<>();
+        this.pooledOrders = new OrderIdIndex(16);
     }
 
-    public void addOrder(Order order) {
-        TreeMap<BigDecimal, PriceLevel> levels = order.getSide() == OrderSide.BUY ? buyLevels : sellLevels;
-        BigDecimal price = order.getPrice();
-        
-        PriceLevel level = levels.computeIfAbsent(price, k -> new PriceLevel(price));
+    /**
+     * Sets the last trade price of a book being rebuilt from a snapshot.
+     *
+     * @param price price in ticks, or {@link #NO_PRICE}
+     */
+    public void restoreLastTradePrice(long price) {
+        this.lastTradePrice = price;
+    }
+
+    /**
+     * Returns the best level of the given side: highest bid or lowest ask.
+     *
+     * @return the best level, or null if the side is empty
+     */
+    public abstract PriceLevel getBestLevel(OrderSide side);
+
+    /**
+     * @return the level at the given price in ticks, or null if there is none
+     */
+    public abstract PriceLevel getLevel(OrderSide side, long price);
+
+    protected abstract PriceLevel getOrCreateLevel(OrderSide side, long price);
+
+    /**
+     * Drops an empty level from the given side.
+     */
+    public abstract void removeLevel(OrderSide side, PriceLevel level);
+
+    /**
+     * Visits the levels of the given side in priority order, best price first.
+     */
+    public abstract void forEachLevel(OrderSide side, Consumer<PriceLevel> visitor);
+
+    public void addOrder(BookOrder order) {
+        OrderSide side = order.getSide();
+        boolean added = order.getOrder() != null ? orders.putIfAbsent(order.getOrderId(), order) == null
+                                                 : pooledOrders.add(order);
+        if (!added) {
+            throw new IllegalArgumentException("Duplicate order id in book: "
+                + (order.getOrder() != null ? order.getOrderId() : Long.toString(order.getId())));
+        }
+        PriceLevel level = getOrCreateLevel(side, order.getPrice());
         level.addOrder(order);
-        
-        log.info("Added {} order to book: {}", order.getSide(), order);
+        levelChanged(side, level);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Added {} order to book: {}", side, order.getOrder() != null ? order.getOrder() : order);
+        }
     }
 
-    public void removeOrder(Order order) {
-        TreeMap<BigDecimal, PriceLevel> levels = order.getSide() == OrderSide.BUY ? buyLevels : sellLevels;
-        PriceLevel level = levels.get(order.getPrice());
+    public void removeOrder(BookOrder order) {
+        OrderSide side = order.getSide();
+        PriceLevel level = order.getLevel();
         
         if (level != null) {
+            unindex(order);
             level.removeOrder(order);
             if (level.isEmpty()) {
-                levels.remove(order.getPrice());
+                removeLevel(side, level);
+            }
+            levelChanged(side, level);
+            if (log.isDebugEnabled()) {
+                log.debug("Removed {} order from book: {}", side, order.getOrder() != null ? order.getOrder() : order);
+            }
+        }
+    }
+
+    private void unindex(BookOrder order) {
+        if (order.getOrder() != null) {
+            orders.remove(order.getOrderId());
+        } else {
+            pooledOrders.remove(order.getId());
+        }
+    }
+
+    /**
+     * @return the resting order with the given id, or null if it is not in the book
+     */
+    public BookOrder getOrder(String orderId) {
+        return orders.get(orderId);
+    }
+
+    /**
+     * @return the resting pooled entry with the given id, or null if it is not in the book
+     */
+    public BookOrder getOrder(long id) {
+        return pooledOrders.get(id);
+    }
+
+    /**
+     * Removes the resting order with the given id.
+     *
+     * @return the removed order, or null if it is not in the book
+     */
+    public BookOrder cancelOrder(String orderId) {
+        BookOrder order = orders.get(orderId);
+        if (order != null) {
+            removeOrder(order);
+        }
+        return order;
+    }
+
+    /**
+     * Removes the resting pooled entry with the given id.
+     *
+     * @return the removed entry, or null if it is not in the book
+     */
+    public BookOrder cancelOrder(long id) {
+        BookOrder order = pooledOrders.get(id);
+        if (order != null) {
+            removeOrder(order);
+        }
+        return order;
+    }
+
+    /**
+     * Reduces the quantity of a resting order in place, keeping its time priority.
+     *
+     * @param amended the order as amended, replacing the one held by the entry
+     * @param quantity the reduced order quantity in lots, above the filled quantity
+     */
+    public void reduceQuantity(BookOrder order, Order amended, long quantity) {
+        if (quantity <= order.getFilledQuantity() || quantity >= order.getQuantity()) {
+            throw new IllegalArgumentException(String.format(
+                "Quantity %d is not a reduction of %d for order %s", quantity, order.getQuantity(), order.getOrderId()));
+        }
+        order.getLevel().updateQuantity(order, quantity, quantity - order.getFilledQuantity());
+        order.setOrder(amended);
+        levelChanged(order.getSide(), order.getLevel());
+    }
+
+    /**
+     * Applies a fill between an incoming order and a resting order of this book,
+     * decrementing both leaves quantities in place. A resting order that is fully
+     * filled leaves the book, and its level is dropped once empty.
+     */
+    public void fill(BookOrder incoming, BookOrder resting, long quantity) {
+        incoming.setLeavesQuantity(incoming.getLeavesQuantity() - quantity);
+        PriceLevel level = resting.getLevel();
+        OrderSide side = resting.getSide();
+        level.fill(resting, quantity);
+        lastTradePrice = resting.getPrice();
+        if (resting.isFilled()) {
+            unindex(resting);
+            level.removeOrder(resting);
+            if (level.isEmpty()) {
+                removeLevel(side, level);
             }
-            log.info("Removed {} order from book: {}", order.getSide(), order);
         }
+        levelChanged(side, level);
+    }
+
+    private void levelChanged(OrderSide side, PriceLevel level) {
+        listener.onLevelChanged(this, side, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+    }
+
+    public int getOrderCount() {
+        return orders.size() + pooledOrders.size();
     }
 
     public BigDecimal getBestBid() {
-        return buyLevels.isEmpty() ? null : buyLevels.firstKey();
+        PriceLevel level = getBestLevel(OrderSide.BUY);
+        return level == null ? null : scale.fromTicks(level.getPrice());
     }
 
     public BigDecimal getBestAsk() {
-        return sellLevels.isEmpty() ? null : sellLevels.firstKey();
+        PriceLevel level = getBestLevel(OrderSide.SELL);
+        return level == null ? null : scale.fromTicks(level.getPrice());
     }
 
     @Override
     public String toString() {
-        return String.format("OrderBook{symbol='%s', bestBid=%s, bestAsk=%s}", 
-            symbol, getBestBid(), getBestAsk());
+        return String.format("%s{symbol='%s', bestBid=%s, bestAsk=%s}",
+            getClass().getSimpleName(), symbol, getBestBid(), getBestAsk());
     }
-} 
\ No newline at end of file
+}
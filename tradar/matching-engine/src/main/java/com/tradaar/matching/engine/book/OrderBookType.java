@@ -0,0 +1,25 @@
+package com.tradar.matching.engine.book;
+
+import com.tradar.matching.engine.InstrumentScale;
+
+/**
+ * Order book implementations the matching engine can use for a symbol.
+ */
+public enum OrderBookType {
+    /** Sparse tree of levels; the default, suited to illiquid symbols. */
+    TREE {
+        @Override
+        public OrderBook create(String symbol, InstrumentScale scale) {
+            return new TreeOrderBook(symbol, scale);
+        }
+    },
+    /** Dense price ladder; suited to liquid symbols trading in a narrow band. */
+    LADDER {
+        @Override
+        public OrderBook create(String symbol, InstrumentScale scale) {
+            return new LadderOrderBook(symbol, scale);
+        }
+    };
+
+    public abstract OrderBook create(String symbol, InstrumentScale scale);
+}
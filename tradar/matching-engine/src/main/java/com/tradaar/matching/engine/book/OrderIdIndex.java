@@ -0,0 +1,117 @@
+package com.tradar.matching.engine.book;
+
+/**
+ * Resting pooled entries of a book by their long order id: an open-addressing
+ * table with linear probing, at most half full, that stores ids unboxed. Looking
+ * up, adding and removing an entry allocate nothing; only growing the table does.
+ * Removal shifts the entries that follow back into the freed slot, so the table
+ * never fills up with tombstones under cancel-heavy churn.
+ */
+final class OrderIdIndex {
+    private long[] ids;
+    private BookOrder[] entries;
+    private int mask;
+    private int size;
+
+    OrderIdIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        this.ids = new long[capacity];
+        this.entries = new BookOrder[capacity];
+        this.mask = capacity - 1;
+    }
+
+    BookOrder get(long id) {
+        int slot = slot(id);
+        BookOrder entry;
+        while ((entry = entries[slot]) != null) {
+            if (ids[slot] == id) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return false, leaving the index unchanged, if the id is already taken
+     */
+    boolean add(BookOrder order) {
+        if (size * 2 >= entries.length) {
+            grow();
+        }
+        long id = order.getId();
+        int slot = slot(id);
+        while (entries[slot] != null) {
+            if (ids[slot] == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        ids[slot] = id;
+        entries[slot] = order;
+        size++;
+        return true;
+    }
+
+    void remove(long id) {
+        int slot = slot(id);
+        while (entries[slot] != null) {
+            if (ids[slot] == id) {
+                shiftBack(slot);
+                size--;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the slot and moves later entries of its probe run into it where
+     * their lookup would otherwise stop short at the gap.
+     */
+    private void shiftBack(int free) {
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            BookOrder entry = entries[slot];
+            if (entry == null) {
+                break;
+            }
+            int home = slot(ids[slot]);
+            // Move it if its home does not lie cyclically in (free, slot]
+            if (((slot - home) & mask) >= ((slot - free) & mask)) {
+                ids[free] = ids[slot];
+                entries[free] = entry;
+                free = slot;
+            }
+        }
+        entries[free] = null;
+    }
+
+    private void grow() {
+        long[] oldIds = ids;
+        BookOrder[] oldEntries = entries;
+        ids = new long[oldIds.length * 2];
+        entries = new BookOrder[oldEntries.length * 2];
+        mask = entries.length - 1;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i] != null) {
+                int slot = slot(oldIds[i]);
+                while (entries[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[i];
+                entries[slot] = oldEntries[i];
+            }
+        }
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,202 @@
+package com.tradar.matching.engine.book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * One side of a {@link LadderOrderBook}. Levels inside a window of ticks live in a
+ * dense array indexed by {@code price - base}, and the index of the best level is
+ * tracked so best-price lookups are a single array read. Levels outside the window
+ * spill into a sparse tree; the window recentres on the best price whenever it
+ * runs empty.
+ * <p>
+ * Levels removed from the window are kept for reuse by the next level created in
+ * it, so a book whose levels come and go around the touch allocates no levels in
+ * steady state. A removed level is only reused by a later
+ * {@link #getOrCreate(long)}, so callers may still read it right after removing it.
+ */
+final class PriceLadder {
+    private final boolean bids;
+    private final PriceLevel[] levels;
+    private final TreeMap<Long, PriceLevel> overflow;
+    private final PriceLevel[] spare;
+    private int spareCount;
+    private long base;
+    private boolean anchored;
+    private int bestIndex = -1;
+    private int levelCount;
+
+    PriceLadder(boolean bids, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ladder capacity must be positive: " + capacity);
+        }
+        this.bids = bids;
+        this.levels = new PriceLevel[capacity];
+        this.spare = new PriceLevel[Math.min(capacity, 64)];
+        this.overflow = bids ? new TreeMap<>(Collections.reverseOrder()) : new TreeMap<>();
+    }
+
+    PriceLevel best() {
+        PriceLevel inWindow = bestIndex < 0 ? null : levels[bestIndex];
+        if (overflow.isEmpty()) {
+            return inWindow;
+        }
+        PriceLevel spilled = overflow.firstEntry().getValue();
+        if (inWindow == null || isBetter(spilled.getPrice(), inWindow.getPrice())) {
+            return spilled;
+        }
+        return inWindow;
+    }
+
+    PriceLevel get(long price) {
+        int index = indexOf(price);
+        return index >= 0 ? levels[index] : overflow.get(price);
+    }
+
+    PriceLevel getOrCreate(long price) {
+        if (!anchored || (levelCount == 0 && indexOf(price) < 0)) {
+            recentre(price);
+        }
+        int index = indexOf(price);
+        if (index < 0) {
+            return overflow.computeIfAbsent(price, PriceLevel::new);
+        }
+        PriceLevel level = levels[index];
+        if (level == null) {
+            level = newLevel(price);
+            levels[index] = level;
+            levelCount++;
+            if (bestIndex < 0 || (bids ? index > bestIndex : index < bestIndex)) {
+                bestIndex = index;
+            }
+        }
+        return level;
+    }
+
+    void remove(PriceLevel level) {
+        int index = indexOf(level.getPrice());
+        if (index < 0 || levels[index] != level) {
+            overflow.remove(level.getPrice());
+            return;
+        }
+        levels[index] = null;
+        levelCount--;
+        if (spareCount < spare.length) {
+            spare[spareCount++] = level;
+        }
+        if (index == bestIndex) {
+            bestIndex = levelCount == 0 ? -1 : nextBest(index);
+        }
+        if (levelCount == 0 && !overflow.isEmpty()) {
+            recentre(overflow.firstKey());
+        }
+    }
+
+    /**
+     * Visits levels best first, merging the window with the spilled levels that
+     * lie on either side of it.
+     */
+    void forEach(Consumer<PriceLevel> visitor) {
+        Iterator<PriceLevel> spilled = overflow.values().iterator();
+        PriceLevel nextSpilled = spilled.hasNext() ? spilled.next() : null;
+        int step = bids ? -1 : 1;
+        for (int i = bestIndex; i >= 0 && i < levels.length; i += step) {
+            PriceLevel level = levels[i];
+            if (level == null) {
+                continue;
+            }
+            while (nextSpilled != null && isBetter(nextSpilled.getPrice(), level.getPrice())) {
+                visitor.accept(nextSpilled);
+                nextSpilled = spilled.hasNext() ? spilled.next() : null;
+            }
+            visitor.accept(level);
+        }
+        while (nextSpilled != null) {
+            visitor.accept(nextSpilled);
+            nextSpilled = spilled.hasNext() ? spilled.next() : null;
+        }
+    }
+
+    boolean isEmpty() {
+        return levelCount == 0 && overflow.isEmpty();
+    }
+
+    private PriceLevel newLevel(long price) {
+        if (spareCount == 0) {
+            return new PriceLevel(price);
+        }
+        PriceLevel level = spare[--spareCount];
+        spare[spareCount] = null;
+        level.reset(price);
+        return level;
+    }
+
+    private int indexOf(long price) {
+        if (!anchored) {
+            return -1;
+        }
+        long offset = price - base;
+        return offset >= 0 && offset < levels.length ? (int) offset : -1;
+    }
+
+    private int nextBest(int from) {
+        if (bids) {
+            for (int i = from - 1; i >= 0; i--) {
+                if (levels[i] != null) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = from + 1; i < levels.length; i++) {
+                if (levels[i] != null) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isBetter(long price, long than) {
+        return bids ? price > than : price < than;
+    }
+
+    /**
+     * Moves the window so the given price sits in its middle, migrating levels
+     * between the array and the overflow tree as needed.
+     */
+    private void recentre(long centre) {
+        List<PriceLevel> displaced = new ArrayList<>(levelCount);
+        for (int i = 0; i < levels.length && displaced.size() < levelCount; i++) {
+            if (levels[i] != null) {
+                displaced.add(levels[i]);
+                levels[i] = null;
+            }
+        }
+        base = centre - levels.length / 2;
+        anchored = true;
+        levelCount = 0;
+        bestIndex = -1;
+
+        for (PriceLevel level : displaced) {
+            overflow.put(level.getPrice(), level);
+        }
+        Iterator<Map.Entry<Long, PriceLevel>> it = overflow.entrySet().iterator();
+        while (it.hasNext()) {
+            PriceLevel level = it.next().getValue();
+            int index = indexOf(level.getPrice());
+            if (index >= 0) {
+                levels[index] = level;
+                levelCount++;
+                if (bestIndex < 0 || (bids ? index > bestIndex : index < bestIndex)) {
+                    bestIndex = index;
+                }
+                it.remove();
+            }
+        }
+    }
+}
@@ -1,48 +1,96 @@
 package com.tradar.matching.engine.book;
 
-import com.tradar.core.model.Order;
 import lombok.Getter;
 
-import java.math.BigDecimal;
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 /**
  * Represents a price level in the order book, maintaining orders at a specific price.
- * Implements time priority through ordered storage of orders and tracks total quantity
- * at the price level.
+ * Implements time priority with an intrusive doubly linked FIFO queue threaded
+ * through the {@link BookOrder} entries, so appending, unlinking any order and
+ * reading the head are all O(1) without copying. Tracks the total open quantity at
+ * the price level incrementally as orders join, fill and leave. Price is held in
+ * ticks and quantity in lots.
  *
  * @author Vrushank Patel
  */
 public class PriceLevel {
     @Getter
-    private final BigDecimal price;
-    private final Map<String, Order> orders;
+    private long price;
+    @Getter
+    private BookOrder head;
+    private BookOrder tail;
     @Getter
-    private BigDecimal totalQuantity;
+    private int orderCount;
+    @Getter
+    private long totalQuantity;
 
-    public PriceLevel(BigDecimal price) {
+    public PriceLevel(long price) {
         this.price = price;
-        this.orders = new LinkedHashMap<>(); // Maintains insertion order for time priority
-        this.totalQuantity = BigDecimal.ZERO;
     }
 
-    public void addOrder(Order order) {
-        orders.put(order.getOrderId(), order);
-        totalQuantity = totalQuantity.add(order.getQuantity());
+    /**
+     * Reuses an empty level, no longer in any book, at another price.
+     */
+    void reset(long price) {
+        if (head != null) {
+            throw new IllegalStateException("Level at " + this.price + " still holds orders");
+        }
+        this.price = price;
+        this.orderCount = 0;
+        this.totalQuantity = 0L;
     }
 
-    public void removeOrder(Order order) {
-        if (orders.remove(order.getOrderId()) != null) {
-            totalQuantity = totalQuantity.subtract(order.getQuantity());
+    public void addOrder(BookOrder order) {
+        order.setLevel(this);
+        order.setPrev(tail);
+        order.setNext(null);
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.setNext(order);
         }
+        tail = order;
+        orderCount++;
+        totalQuantity += order.getLeavesQuantity();
     }
 
-    public boolean isEmpty() {
-        return orders.isEmpty();
+    public void removeOrder(BookOrder order) {
+        if (order.getLevel() != this) {
+            return;
+        }
+        BookOrder prev = order.getPrev();
+        BookOrder next = order.getNext();
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.setNext(next);
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.setPrev(prev);
+        }
+        order.setLevel(null);
+        order.setPrev(null);
+        order.setNext(null);
+        orderCount--;
+        totalQuantity -= order.getLeavesQuantity();
+    }
+
+    /**
+     * Changes the quantity of a resting order without moving it in the queue.
+     */
+    void updateQuantity(BookOrder order, long quantity, long leavesQuantity) {
+        totalQuantity += leavesQuantity - order.getLeavesQuantity();
+        order.setQuantity(quantity);
+        order.setLeavesQuantity(leavesQuantity);
     }
 
-    public Map<String, Order> getOrders() {
-        return new LinkedHashMap<>(orders); // Return a copy to prevent modification
+    void fill(BookOrder order, long quantity) {
+        order.setLeavesQuantity(order.getLeavesQuantity() - quantity);
+        totalQuantity -= quantity;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.tradar.matching.engine.book;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.InstrumentScale;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Order book keeping each side in a {@link TreeMap} keyed by price in ticks.
+ * Sparse and unbounded, so it suits illiquid symbols whose prices jump around.
+ *
+ * @author Vrushank Patel
+ */
+public class TreeOrderBook extends OrderBook {
+    private final TreeMap<Long, PriceLevel> buyLevels;
+    private final TreeMap<Long, PriceLevel> sellLevels;
+
+    public TreeOrderBook(String symbol) {
+        this(symbol, InstrumentScale.DEFAULT);
+    }
+
+    public TreeOrderBook(String symbol, InstrumentScale scale) {
+        super(symbol, scale);
+        this.buyLevels = new TreeMap<>(Collections.reverseOrder()); // Highest price first for buys
+        this.sellLevels = new TreeMap<>(); // Lowest price first for sells
+    }
+
+    @Override
+    public PriceLevel getBestLevel(OrderSide side) {
+        Map.Entry<Long, PriceLevel> best = levels(side).firstEntry();
+        return best == null ? null : best.getValue();
+    }
+
+    @Override
+    public PriceLevel getLevel(OrderSide side, long price) {
+        return levels(side).get(price);
+    }
+
+    @Override
+    protected PriceLevel getOrCreateLevel(OrderSide side, long price) {
+        return levels(side).computeIfAbsent(price, PriceLevel::new);
+    }
+
+    @Override
+    public void removeLevel(OrderSide side, PriceLevel level) {
+        levels(side).remove(level.getPrice());
+    }
+
+    @Override
+    public void forEachLevel(OrderSide side, Consumer<PriceLevel> visitor) {
+        levels(side).values().forEach(visitor);
+    }
+
+    private TreeMap<Long, PriceLevel> levels(OrderSide side) {
+        return side == OrderSide.BUY ? buyLevels : sellLevels;
+    }
+}
@@ -0,0 +1,7 @@
+package com.tradar.matching.engine.command;
+
+public enum CommandType {
+    NEW,
+    CANCEL,
+    AMEND
+}
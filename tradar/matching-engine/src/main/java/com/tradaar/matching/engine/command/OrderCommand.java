@@ -0,0 +1,112 @@
+package com.tradar.matching.engine.command;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.symbol.SymbolDirectory;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * A mutable inbound command for the matching engine: a new order, a cancel or an
+ * amend. Instances are pre-allocated as ring buffer slots and reused, so a command
+ * must not be retained after it has been processed.
+ */
+@Data
+public class OrderCommand {
+    private long sequence;
+    private CommandType type;
+    private String symbol;
+    /**
+     * The symbol's id in {@link #symbolDirectory}, or -1. An engine sharing the
+     * directory finds the book by id; any other looks the symbol up by name.
+     */
+    private int symbolId = -1;
+    private SymbolDirectory symbolDirectory;
+    private String orderId;
+    /** The new order, for {@link CommandType#NEW}. */
+    private Order order;
+    /** The actor placing the new order, checked by pre-trade risk; may be null. */
+    private String actorId;
+    /** The new order quantity, for {@link CommandType#AMEND}. */
+    private BigDecimal quantity;
+    /** The new limit price, or null to keep it, for {@link CommandType#AMEND}. */
+    private BigDecimal price;
+
+    // Latency timestamps, 0 when not taken. The send time is UTC epoch
+    // nanoseconds from the sender; the others are System.nanoTime() readings.
+    private long sendTime;
+    private long receiveNanos;
+    private long decodeNanos;
+    private long enqueueNanos;
+
+    public OrderCommand newOrder(Order order) {
+        return newOrder(order, null);
+    }
+
+    public OrderCommand newOrder(Order order, String actorId) {
+        clear();
+        this.type = CommandType.NEW;
+        this.symbol = order.getSymbol();
+        this.orderId = order.getOrderId();
+        this.order = order;
+        this.actorId = actorId;
+        return this;
+    }
+
+    public OrderCommand cancel(String symbol, String orderId) {
+        clear();
+        this.type = CommandType.CANCEL;
+        this.symbol = symbol;
+        this.orderId = orderId;
+        return this;
+    }
+
+    public OrderCommand amend(String symbol, String orderId, BigDecimal quantity, BigDecimal price) {
+        clear();
+        this.type = CommandType.AMEND;
+        this.symbol = symbol;
+        this.orderId = orderId;
+        this.quantity = quantity;
+        this.price = price;
+        return this;
+    }
+
+    /**
+     * Sets the symbol's id, resolved in the given directory.
+     */
+    public OrderCommand symbolId(SymbolDirectory directory, int symbolId) {
+        this.symbolDirectory = directory;
+        this.symbolId = symbolId;
+        return this;
+    }
+
+    /**
+     * Drops all references so a recycled slot does not keep orders reachable.
+     */
+    public void clear() {
+        sequence = 0L;
+        type = null;
+        symbol = null;
+        symbolId = -1;
+        symbolDirectory = null;
+        orderId = null;
+        order = null;
+        actorId = null;
+        quantity = null;
+        price = null;
+        sendTime = 0L;
+        receiveNanos = 0L;
+        decodeNanos = 0L;
+        enqueueNanos = 0L;
+    }
+
+    /**
+     * Copies the latency timestamps of another command, when handing it on.
+     */
+    public void copyTimestamps(OrderCommand other) {
+        sendTime = other.sendTime;
+        receiveNanos = other.receiveNanos;
+        decodeNanos = other.decodeNanos;
+        enqueueNanos = other.enqueueNanos;
+    }
+}
@@ -0,0 +1,33 @@
+package com.tradar.matching.engine.gateway;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Settings for {@link OrderGateway}.
+ */
+@Data
+@Builder
+public class GatewayConfig {
+    @Builder.Default
+    private final InetSocketAddress bindAddress = new InetSocketAddress(9876);
+    /** Maximum datagrams drained per wakeup and handed over as one batch. */
+    @Builder.Default
+    private final int batchSize = 256;
+    /** Kernel receive buffer (SO_RCVBUF) requested for the channel. */
+    @Builder.Default
+    private final int socketReceiveBufferBytes = 4 * 1024 * 1024;
+    /** Spin on an idle channel instead of blocking in a selector, for a dedicated core. */
+    @Builder.Default
+    private final boolean busySpin = false;
+    /** How long an idle, non-spinning gateway blocks before re-checking for shutdown. */
+    @Builder.Default
+    private final long selectTimeoutMillis = 100L;
+    /**
+     * Actor that orders received by this gateway are placed for, checked by
+     * pre-trade risk. The wire format does not identify the sender's actor.
+     */
+    private final String actorId;
+}
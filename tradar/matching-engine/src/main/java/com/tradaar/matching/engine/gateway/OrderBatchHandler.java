@@ -0,0 +1,53 @@
+package com.tradar.matching.engine.gateway;
+
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.command.OrderCommand;
+import com.tradar.matching.engine.shard.ShardedMatchingEngine;
+
+/**
+ * Receives the commands decoded by an {@link OrderGateway} from one wakeup. The
+ * array and its commands are reused for the next batch, so implementations must
+ * not retain them after returning.
+ */
+@FunctionalInterface
+public interface OrderBatchHandler {
+    void onBatch(OrderCommand[] commands, int count);
+
+    /**
+     * Called when the gateway has drained its socket, and periodically while no
+     * datagrams arrive.
+     */
+    default void onIdle() {}
+
+    /**
+     * Applies each batch to a single engine on the gateway thread.
+     */
+    static OrderBatchHandler forEngine(MatchingEngine engine, MatchingEventListener listener) {
+        return new OrderBatchHandler() {
+            @Override
+            public void onBatch(OrderCommand[] commands, int count) {
+                for (int i = 0; i < count; i++) {
+                    engine.processCommand(commands[i], listener);
+                }
+            }
+
+            @Override
+            public void onIdle() {
+                listener.onIdle();
+            }
+        };
+    }
+
+    /**
+     * Sequences each batch into a sharded engine, with the gateway thread acting as
+     * its single submitter.
+     */
+    static OrderBatchHandler forShards(ShardedMatchingEngine engine) {
+        return (commands, count) -> {
+            for (int i = 0; i < count; i++) {
+                engine.submit(commands[i]);
+            }
+        };
+    }
+}
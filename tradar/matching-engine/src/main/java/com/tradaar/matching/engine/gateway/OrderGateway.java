@@ -0,0 +1,241 @@
+package com.tradar.matching.engine.gateway;
+
+import com.tradar.core.codec.OrderDecoder;
+import com.tradar.core.codec.OrderEncoder;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.core.time.EpochClock;
+import com.tradar.matching.engine.command.OrderCommand;
+import com.tradar.matching.engine.latency.LatencyRecorder;
+import com.tradar.matching.engine.latency.LatencyStage;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Receives binary order messages over UDP and hands them to the matching engine in
+ * batches. A non-blocking {@link DatagramChannel} is drained into one reused direct
+ * buffer until it is empty or a batch is full, so a burst of datagrams costs a
+ * single wakeup. Each datagram is decoded in place into a pre-allocated
+ * {@link OrderCommand} and the batch is passed to the {@link OrderBatchHandler} on
+ * the gateway thread.
+ * <p>
+ * When idle the gateway either spins, for a dedicated core, or blocks in a
+ * selector. Malformed datagrams are counted and dropped. With a latency recorder
+ * set, commands are stamped on receive and once decoded, for the engine to time
+ * them through to publication. With a symbol directory set, each command carries
+ * its symbol's id, resolved from the encoded bytes, so an engine sharing the
+ * directory finds its book without hashing the symbol string.
+ */
+@Slf4j
+public class OrderGateway implements Runnable, AutoCloseable {
+    private static final int MAX_DATAGRAM_SIZE = 2048;
+    private static final long IDLE_NOTIFY_NANOS = 100_000_000L;
+
+    private final GatewayConfig config;
+    private final OrderBatchHandler handler;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+    private final OrderDecoder decoder = new OrderDecoder();
+    private final OrderCommand[] batch;
+    private LatencyRecorder latencyRecorder;
+    private SymbolDirectory symbolDirectory;
+    private volatile boolean running = true;
+    private boolean drained = true;
+    private long lastIdleNotify;
+    @Getter
+    private volatile long receivedCount;
+    @Getter
+    private volatile long droppedCount;
+    @Getter
+    private volatile long batchCount;
+
+    public OrderGateway(GatewayConfig config, OrderBatchHandler handler) throws IOException {
+        if (config.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + config.getBatchSize());
+        }
+        this.config = config;
+        this.handler = handler;
+        this.batch = new OrderCommand[config.getBatchSize()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new OrderCommand();
+        }
+
+        this.channel = DatagramChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, config.getSocketReceiveBufferBytes());
+            channel.bind(config.getBindAddress());
+            channel.configureBlocking(false);
+            if (config.isBusySpin()) {
+                this.selector = null;
+            } else {
+                this.selector = Selector.open();
+                channel.register(selector, SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records time on the wire and decode time of each order. Must be called
+     * before the gateway is started.
+     */
+    public void setLatencyRecorder(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * Resolves the symbol id of each order in the directory, usually the one of
+     * the engine's {@link com.tradar.refdata.manager.SymbolManager}. Must be
+     * called before the gateway is started.
+     */
+    public void setSymbolDirectory(SymbolDirectory symbolDirectory) {
+        this.symbolDirectory = symbolDirectory;
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return channel.getLocalAddress();
+    }
+
+    @Override
+    public void run() {
+        log.info("Order gateway listening on {} (batch {}, busySpin {})",
+            config.getBindAddress(), batch.length, config.isBusySpin());
+        long received = 0L;
+        long dropped = 0L;
+        long batches = 0L;
+
+        try {
+            while (running) {
+                int count = 0;
+                while (count < batch.length) {
+                    buffer.clear();
+                    SocketAddress sender = channel.receive(buffer);
+                    if (sender == null) {
+                        break;
+                    }
+                    long receiveNanos = latencyRecorder != null ? System.nanoTime() : 0L;
+                    received++;
+                    if (decode(batch[count], sender)) {
+                        if (receiveNanos != 0L) {
+                            stamp(batch[count], receiveNanos);
+                        }
+                        count++;
+                    } else {
+                        dropped++;
+                    }
+                }
+
+                if (count > 0) {
+                    batches++;
+                    drained = false;
+                    dispatch(count);
+                    receivedCount = received;
+                    droppedCount = dropped;
+                    batchCount = batches;
+                } else {
+                    idle();
+                }
+            }
+        } catch (ClosedChannelException | ClosedSelectorException e) {
+            // close() was called
+        } catch (IOException e) {
+            log.error("Order gateway failed", e);
+        } finally {
+            receivedCount = received;
+            droppedCount = dropped;
+            batchCount = batches;
+        }
+        log.info("Order gateway stopped after {} datagrams in {} batches ({} dropped)", received, batches, dropped);
+    }
+
+    private boolean decode(OrderCommand command, SocketAddress sender) {
+        if (buffer.position() < OrderEncoder.ENCODED_LENGTH) {
+            log.debug("Dropping short datagram of {} bytes from {}", buffer.position(), sender);
+            return false;
+        }
+        try {
+            command.newOrder(decoder.wrap(buffer, 0).toOrder(), config.getActorId());
+            if (symbolDirectory != null) {
+                command.symbolId(symbolDirectory, decoder.symbolId(symbolDirectory));
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.debug("Dropping malformed datagram from {}: {}", sender, e.getMessage());
+            return false;
+        }
+    }
+
+    private void stamp(OrderCommand command, long receiveNanos) {
+        long decodeNanos = System.nanoTime();
+        command.setReceiveNanos(receiveNanos);
+        command.setDecodeNanos(decodeNanos);
+        String symbol = command.getSymbol();
+        long sendTime = decoder.sendTime();
+        if (sendTime != Long.MIN_VALUE) {
+            command.setSendTime(sendTime);
+            // Wall-clock receive time, backed out from the monotonic reading
+            long wire = EpochClock.nanos() - (decodeNanos - receiveNanos) - sendTime;
+            latencyRecorder.record(symbol, LatencyStage.WIRE, wire);
+        }
+        latencyRecorder.record(symbol, LatencyStage.DECODE, decodeNanos - receiveNanos);
+    }
+
+    private void dispatch(int count) {
+        try {
+            handler.onBatch(batch, count);
+        } catch (RuntimeException e) {
+            log.error("Error handling batch of {} orders", count, e);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                batch[i].clear();
+            }
+        }
+    }
+
+    private void idle() throws IOException {
+        long now = System.nanoTime();
+        if (!drained || now - lastIdleNotify >= IDLE_NOTIFY_NANOS) {
+            drained = true;
+            lastIdleNotify = now;
+            try {
+                handler.onIdle();
+            } catch (RuntimeException e) {
+                log.error("Error in idle callback", e);
+            }
+        }
+        if (selector == null) {
+            Thread.onSpinWait();
+        } else {
+            selector.select(config.getSelectTimeoutMillis());
+            selector.selectedKeys().clear();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        if (selector != null) {
+            selector.close();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,352 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.matching.engine.command.CommandType;
+import com.tradar.matching.engine.command.OrderCommand;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of inbound engine commands in memory-mapped segment files.
+ * Each segment starts with {@code [int magic][int format version]}, followed by
+ * records of {@code [int length][int crc32][long sequence][byte type][payload]};
+ * a zero length marks the end of a segment and a checksum mismatch marks a torn
+ * write, which ends replay. Opening or replaying a journal with a segment of
+ * another format version fails rather than misread its records.
+ * <p>
+ * Appends only copy into the mapped segment, so they cost a memory copy. A
+ * background flusher forces the segment to disk at a fixed interval, making every
+ * record appended since the previous flush durable with a single fsync (group
+ * commit); {@link #getDurableSequence()} reports how far that has reached.
+ * Appends must come from a single thread.
+ */
+@Slf4j
+public class CommandJournal implements AutoCloseable {
+    static final int MAX_RECORD_SIZE = 64 * 1024;
+    private static final int MAGIC = 0x54524A4C; // "TRJL"
+    /** Version 2 added the actor id to NEW records. */
+    private static final int FORMAT_VERSION = 2;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "commands-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final ByteBuffer scratch;
+    private final CRC32 crc;
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer segment;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile boolean running = true;
+
+    /**
+     * Opens the journal in the given directory. Appends go to a fresh segment that
+     * follows any segments already present, which stay readable for replay.
+     *
+     * @throws IllegalStateException if a segment present is of another format version
+     */
+    public CommandJournal(Path directory, int segmentSize, long flushIntervalMicros) throws IOException {
+        if (segmentSize < MAX_RECORD_SIZE + SEGMENT_HEADER_SIZE + Integer.BYTES) {
+            throw new IllegalArgumentException("Segment size must be at least "
+                + (MAX_RECORD_SIZE + SEGMENT_HEADER_SIZE + Integer.BYTES));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = flushIntervalMicros * 1_000L;
+        this.scratch = ByteBuffer.allocate(MAX_RECORD_SIZE);
+        this.crc = new CRC32();
+        this.appendedSequence = readLastSequence();
+        this.durableSequence = appendedSequence;
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends a command, which must carry a sequence number above every command
+     * appended before it.
+     */
+    public void append(OrderCommand command) {
+        if (command.getSequence() <= appendedSequence) {
+            throw new IllegalArgumentException(String.format(
+                "Sequence %d is not after %d", command.getSequence(), appendedSequence));
+        }
+        scratch.clear();
+        scratch.position(HEADER_SIZE);
+        scratch.putLong(command.getSequence());
+        scratch.put((byte) command.getType().ordinal());
+        switch (command.getType()) {
+            case NEW -> {
+                JournalCodec.putOrder(scratch, command.getOrder());
+                JournalCodec.putString(scratch, command.getActorId());
+            }
+            case CANCEL -> {
+                JournalCodec.putString(scratch, command.getSymbol());
+                JournalCodec.putString(scratch, command.getOrderId());
+            }
+            case AMEND -> {
+                JournalCodec.putString(scratch, command.getSymbol());
+                JournalCodec.putString(scratch, command.getOrderId());
+                JournalCodec.putDecimal(scratch, command.getQuantity());
+                JournalCodec.putDecimal(scratch, command.getPrice());
+            }
+        }
+        int bodyLength = scratch.position() - HEADER_SIZE;
+        crc.reset();
+        crc.update(scratch.array(), HEADER_SIZE, bodyLength);
+        scratch.putInt(0, bodyLength);
+        scratch.putInt(4, (int) crc.getValue());
+        scratch.flip();
+
+        MappedByteBuffer target = segment;
+        // Keep room for the zero length that terminates the segment
+        if (target == null || target.remaining() < scratch.remaining() + Integer.BYTES) {
+            target = roll(command.getSequence());
+        }
+        target.put(scratch);
+        appendedSequence = command.getSequence();
+    }
+
+    public long getAppendedSequence() {
+        return appendedSequence;
+    }
+
+    /**
+     * @return the highest sequence known to be on disk
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public void sync() {
+        long sequence = appendedSequence;
+        MappedByteBuffer target = segment;
+        if (target != null) {
+            target.force();
+        }
+        durableSequence = Math.max(durableSequence, sequence);
+    }
+
+    /**
+     * Replays, in order, every valid record with a sequence above the given one. The
+     * command passed to the handler is reused between records.
+     *
+     * @return the highest sequence replayed, or {@code afterSequence} if none
+     * @throws IllegalStateException if a segment is of another format version, or
+     *         the records replayed do not continue without a gap from
+     *         {@code afterSequence}, for example because the segments holding the
+     *         first of them were deleted
+     */
+    public long replay(long afterSequence, Consumer<OrderCommand> handler) throws IOException {
+        OrderCommand command = new OrderCommand();
+        long last = afterSequence;
+        for (Path file : segments()) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (!readSegmentHeader(file, buffer)) {
+                    continue;
+                }
+                while (readRecord(buffer, command)) {
+                    if (command.getSequence() > last) {
+                        if (command.getSequence() != last + 1) {
+                            throw new IllegalStateException(String.format(
+                                "Journal gap: expected sequence %d but segment %s continues at %d",
+                                last + 1, file.getFileName(), command.getSequence()));
+                        }
+                        handler.accept(command);
+                        last = command.getSequence();
+                    }
+                }
+            }
+        }
+        command.clear();
+        return last;
+    }
+
+    /**
+     * Deletes segments that hold only commands at or below the given sequence, for
+     * example once a snapshot covers them.
+     */
+    public void deleteSegmentsUpTo(long sequence) throws IOException {
+        List<Path> files = segments();
+        // A segment is covered when the next one starts at or below sequence + 1
+        for (int i = 0; i + 1 < files.size(); i++) {
+            if (firstSequence(files.get(i + 1)) <= sequence + 1) {
+                Files.deleteIfExists(files.get(i));
+                log.info("Deleted journal segment {}", files.get(i).getFileName());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private MappedByteBuffer roll(long firstSequence) {
+        try {
+            if (segment != null) {
+                segment.force();
+                durableSequence = appendedSequence;
+                channel.close();
+            }
+            Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            mapped.putInt(MAGIC).putInt(FORMAT_VERSION);
+            segment = mapped;
+            log.info("Opened journal segment {}", file.getFileName());
+            return mapped;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll journal segment", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            // Read the sequence before the segment: a concurrent roll forces the old
+            // segment itself, so whatever segment is seen covers the sequence read
+            long sequence = appendedSequence;
+            if (sequence > durableSequence) {
+                MappedByteBuffer target = segment;
+                if (target != null) {
+                    target.force();
+                }
+                durableSequence = sequence;
+            }
+        }
+    }
+
+    /**
+     * Checks a segment's header, leaving the buffer at its first record.
+     *
+     * @return false for a segment whose header was never written, which holds no
+     *         records
+     * @throws IllegalStateException if the segment is of another format version
+     */
+    private static boolean readSegmentHeader(Path file, ByteBuffer buffer) {
+        if (buffer.remaining() < SEGMENT_HEADER_SIZE) {
+            return false;
+        }
+        int magic = buffer.getInt();
+        int version = buffer.getInt();
+        if (magic == 0 && version == 0) {
+            return false;
+        }
+        if (magic != MAGIC) {
+            // Segments before version 2 had no header and start with a record
+            throw new IllegalStateException(String.format(
+                "Journal segment %s has no format header; expected format version %d",
+                file.getFileName(), FORMAT_VERSION));
+        }
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException(String.format(
+                "Journal segment %s has format version %d; expected %d", file.getFileName(), version, FORMAT_VERSION));
+        }
+        return true;
+    }
+
+    private boolean readRecord(ByteBuffer buffer, OrderCommand command) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.slice(buffer.position(), length));
+        if ((int) crc.getValue() != checksum) {
+            log.warn("Torn journal record at offset {}, ignoring the rest of the segment", start);
+            return false;
+        }
+
+        long sequence = buffer.getLong();
+        switch (CommandType.values()[buffer.get()]) {
+            case NEW -> command.newOrder(JournalCodec.getOrder(buffer), JournalCodec.getString(buffer));
+            case CANCEL -> command.cancel(JournalCodec.getString(buffer), JournalCodec.getString(buffer));
+            case AMEND -> command.amend(JournalCodec.getString(buffer), JournalCodec.getString(buffer),
+                JournalCodec.getDecimal(buffer), JournalCodec.getDecimal(buffer));
+        }
+        command.setSequence(sequence);
+        buffer.position(start + HEADER_SIZE + length);
+        return true;
+    }
+
+    /**
+     * Finds the last valid sequence on disk, dropping trailing segments that never
+     * received a complete record so their names can be reused.
+     */
+    private long readLastSequence() throws IOException {
+        List<Path> files = segments();
+        OrderCommand command = new OrderCommand();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            long last = 0L;
+            try (FileChannel in = FileChannel.open(files.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (readSegmentHeader(files.get(i), buffer)) {
+                    while (readRecord(buffer, command)) {
+                        last = command.getSequence();
+                    }
+                }
+            }
+            if (last > 0L) {
+                return last;
+            }
+            Files.delete(files.get(i));
+            log.info("Deleted empty journal segment {}", files.get(i).getFileName());
+        }
+        return 0L;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero-padded first sequence numbers sort lexicographically
+            return files
+                .filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,131 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding shared by the command journal and book snapshots. Values are
+ * written big-endian with explicit null markers; strings are length-prefixed UTF-8.
+ */
+final class JournalCodec {
+    private static final byte NULL = 0;
+    private static final byte COMPACT = 1;
+    private static final byte WIDE = 2;
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final TimeInForce[] TIME_IN_FORCES = TimeInForce.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private JournalCodec() {
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value.unscaledValue().bitLength() < Long.SIZE) {
+            buffer.put(COMPACT);
+            buffer.putInt(value.scale());
+            buffer.putLong(value.unscaledValue().longValue());
+        } else {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            buffer.put(WIDE);
+            buffer.putInt(value.scale());
+            buffer.putShort((short) unscaled.length);
+            buffer.put(unscaled);
+        }
+    }
+
+    static BigDecimal getDecimal(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        if (kind == NULL) {
+            return null;
+        }
+        int scale = buffer.getInt();
+        if (kind == COMPACT) {
+            return BigDecimal.valueOf(buffer.getLong(), scale);
+        }
+        byte[] unscaled = new byte[buffer.getShort()];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static void putTimestamp(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.putLong(Long.MIN_VALUE);
+            buffer.putInt(0);
+            return;
+        }
+        buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(value.getNano());
+    }
+
+    static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    static void putOrder(ByteBuffer buffer, Order order) {
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getSymbol());
+        buffer.put(ordinal(order.getSide()));
+        buffer.put(ordinal(order.getType()));
+        buffer.put(ordinal(order.getTimeInForce()));
+        buffer.put(ordinal(order.getStatus()));
+        putDecimal(buffer, order.getQuantity());
+        putDecimal(buffer, order.getPrice());
+        putTimestamp(buffer, order.getTimestamp());
+    }
+
+    static Order getOrder(ByteBuffer buffer) {
+        return Order.builder()
+            .orderId(getString(buffer))
+            .symbol(getString(buffer))
+            .side(value(SIDES, buffer.get()))
+            .type(value(TYPES, buffer.get()))
+            .timeInForce(value(TIME_IN_FORCES, buffer.get()))
+            .status(value(STATUSES, buffer.get()))
+            .quantity(getDecimal(buffer))
+            .price(getDecimal(buffer))
+            .timestamp(getTimestamp(buffer))
+            .build();
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+
+    private static <E> E value(E[] values, byte ordinal) {
+        return ordinal < 0 ? null : values[ordinal];
+    }
+}
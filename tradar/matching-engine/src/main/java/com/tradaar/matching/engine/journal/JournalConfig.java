@@ -0,0 +1,33 @@
+package com.tradar.matching.engine.journal;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link JournaledMatchingEngine}.
+ */
+@Data
+@Builder
+public class JournalConfig {
+    private final Path directory;
+    @Builder.Default
+    private final int segmentSize = 256 * 1024 * 1024;
+    /** Group-commit interval of the background fsync. */
+    @Builder.Default
+    private final long flushIntervalMicros = 1_000L;
+    /** Snapshot after this many commands; 0 disables the command trigger. */
+    @Builder.Default
+    private final long snapshotEveryCommands = 1_000_000L;
+    /** Snapshot after this much time; null disables the time trigger. */
+    @Builder.Default
+    private final Duration snapshotInterval = Duration.ofMinutes(5);
+    /**
+     * Snapshots kept on disk. The journal is kept back to the oldest of them, so
+     * recovery falls back to an older snapshot when a newer one is incomplete.
+     */
+    @Builder.Default
+    private final int retainedSnapshots = 2;
+}
@@ -0,0 +1,149 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.core.model.Order;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.command.OrderCommand;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * Event-sourced front end for a {@link MatchingEngine}. Every inbound command gets
+ * the next sequence number and is appended to the {@link CommandJournal} before it
+ * is matched. Snapshots of all books are taken on the engine thread every
+ * configured number of commands or interval, and {@link #recover()} rebuilds the
+ * books after a restart from the latest snapshot plus the journal tail.
+ * <p>
+ * Like the engine it wraps, this class must be driven by a single thread.
+ */
+@Slf4j
+public class JournaledMatchingEngine implements AutoCloseable {
+    private static final MatchingEventListener REPLAY_LISTENER = trades -> {};
+
+    @Getter
+    private final MatchingEngine engine;
+    private final JournalConfig config;
+    private final MatchingEventListener listener;
+    private final CommandJournal journal;
+    private final SnapshotStore snapshots;
+    private final OrderCommand command;
+    @Getter
+    private long sequence;
+    private long snapshotSequence;
+    private long lastSnapshotNanos;
+    private boolean recovered;
+
+    public JournaledMatchingEngine(MatchingEngine engine, JournalConfig config,
+                                   MatchingEventListener listener) throws IOException {
+        this.engine = engine;
+        this.config = config;
+        this.listener = listener;
+        this.journal = new CommandJournal(config.getDirectory().resolve("journal"),
+            config.getSegmentSize(), config.getFlushIntervalMicros());
+        this.snapshots = new SnapshotStore(config.getDirectory().resolve("snapshots"),
+            config.getRetainedSnapshots());
+        this.command = new OrderCommand();
+    }
+
+    /**
+     * Loads the latest snapshot and replays the journal commands after it. Must be
+     * called once, before any new command, on an empty engine whose pre-trade risk,
+     * if any, is already set.
+     *
+     * @return the sequence of the last command recovered
+     */
+    public long recover() throws IOException {
+        long started = System.nanoTime();
+        snapshotSequence = snapshots.load(engine);
+        long[] replayed = {0L};
+        sequence = journal.replay(snapshotSequence, replay -> {
+            engine.processCommand(replay, REPLAY_LISTENER);
+            replayed[0]++;
+        });
+        if (journal.getAppendedSequence() > sequence) {
+            // Journal records may outlive a snapshot that was pruned or lost
+            sequence = journal.getAppendedSequence();
+        }
+        lastSnapshotNanos = System.nanoTime();
+        recovered = true;
+        log.info("Recovered to sequence {} from snapshot {} and {} journal commands in {} ms",
+            sequence, snapshotSequence, replayed[0], (System.nanoTime() - started) / 1_000_000);
+        return sequence;
+    }
+
+    /**
+     * Sequences, journals and matches a command.
+     *
+     * @return the sequence number assigned to the command
+     */
+    public long process(OrderCommand command) {
+        if (!recovered) {
+            throw new IllegalStateException("recover() must be called before processing commands");
+        }
+        command.setSequence(++sequence);
+        journal.append(command);
+        engine.processCommand(command, listener);
+        if (isSnapshotDue()) {
+            snapshot();
+        }
+        return sequence;
+    }
+
+    public long submitOrder(Order order) {
+        return process(command.newOrder(order));
+    }
+
+    public long submitOrder(Order order, String actorId) {
+        return process(command.newOrder(order, actorId));
+    }
+
+    public long submitCancel(String symbol, String orderId) {
+        return process(command.cancel(symbol, orderId));
+    }
+
+    public long submitAmend(String symbol, String orderId, BigDecimal quantity, BigDecimal price) {
+        return process(command.amend(symbol, orderId, quantity, price));
+    }
+
+    /**
+     * @return the highest sequence whose command is known to be on disk
+     */
+    public long getDurableSequence() {
+        return journal.getDurableSequence();
+    }
+
+    /**
+     * Writes a snapshot of all books now and drops the journal segments that every
+     * retained snapshot covers. Segments after the oldest retained snapshot are
+     * kept, so recovery can still fall back to it if a later one is incomplete.
+     */
+    public void snapshot() {
+        try {
+            journal.sync();
+            snapshots.write(sequence, engine);
+            journal.deleteSegmentsUpTo(snapshots.oldestSequence());
+            snapshotSequence = sequence;
+            lastSnapshotNanos = System.nanoTime();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write snapshot at sequence " + sequence, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    private boolean isSnapshotDue() {
+        long commands = sequence - snapshotSequence;
+        if (config.getSnapshotEveryCommands() > 0 && commands >= config.getSnapshotEveryCommands()) {
+            return true;
+        }
+        return config.getSnapshotInterval() != null && commands > 0
+            && System.nanoTime() - lastSnapshotNanos >= config.getSnapshotInterval().toNanos();
+    }
+}
@@ -0,0 +1,258 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.risk.ActorRiskRules;
+import com.tradar.matching.engine.risk.PreTradeRisk;
+import com.tradar.matching.engine.risk.RiskRules;
+import com.tradar.refdata.limit.DailyLimitLedger;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes and loads compact binary snapshots of every order book. A snapshot holds
+ * the sequence of the last command it reflects; the daily limit usage of every
+ * actor the engine's pre-trade risk knows; and, per book, its last trade price
+ * and the resting orders of each side in priority order with their open quantity
+ * and daily limit reservation. Loading it and replaying the journal after that
+ * sequence restores the engine, and the risk decisions it makes, exactly.
+ * <p>
+ * Daily limit usage is saved as a whole, so an engine recovers it exactly only if
+ * its ledger is not shared with other journaled engines.
+ * <p>
+ * Snapshots are written to a temporary file and renamed into place, so a crash
+ * mid-write never leaves a partial snapshot behind.
+ */
+@Slf4j
+public class SnapshotStore {
+    private static final int MAGIC = 0x54525342; // "TRSB"
+    private static final int END_MAGIC = 0x454E4421; // "END!"
+    private static final int VERSION = 2;
+    // Reservation markers of a snapshot order
+    private static final byte NO_RESERVATION = 0;
+    private static final byte CURRENT_RESERVATION = 1;
+    private static final byte PAST_RESERVATION = 2;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String PREFIX = "books-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final int retained;
+
+    /**
+     * @param retained number of most recent snapshots kept on disk
+     */
+    public SnapshotStore(Path directory, int retained) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.retained = Math.max(1, retained);
+    }
+
+    /**
+     * Writes a snapshot of the engine's books and daily limit usage as of the given
+     * command sequence.
+     */
+    public Path write(long sequence, MatchingEngine engine) throws IOException {
+        Collection<OrderBook> books = engine.getOrderBooks();
+        RiskRules rules = engine.getPreTradeRisk() != null ? engine.getPreTradeRisk().getRules() : null;
+        int actorCount = rules != null ? rules.getActorCount() : 0;
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(sequence).putInt(books.size()).putInt(actorCount);
+            for (int a = 0; a < actorCount; a++) {
+                ensureCapacity(out, buffer);
+                DailyLimitLedger.Account account = rules.getActor(a).getDailyLimit();
+                JournalCodec.putString(buffer, account.getActorId());
+                buffer.putLong(account.getUsed()).putLong(account.getReserved());
+            }
+            for (OrderBook book : books) {
+                ensureCapacity(out, buffer);
+                JournalCodec.putString(buffer, book.getSymbol());
+                buffer.putLong(book.getLastTradePrice());
+                buffer.putInt(book.getOrderCount());
+                for (OrderSide side : OrderSide.values()) {
+                    book.forEachLevel(side, level -> {
+                        for (BookOrder order = level.getHead(); order != null; order = order.getNext()) {
+                            ensureCapacity(out, buffer);
+                            JournalCodec.putOrder(buffer, order.getOrder());
+                            buffer.putLong(order.getLeavesQuantity());
+                            putReservation(buffer, order);
+                        }
+                    });
+                }
+            }
+            buffer.putInt(END_MAGIC);
+            drain(out, buffer);
+            out.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Wrote snapshot {} of {} books", target.getFileName(), books.size());
+        prune();
+        return target;
+    }
+
+    /**
+     * Loads the most recent complete snapshot into an empty engine. Daily limit
+     * usage and reservations are restored into the accounts of the engine's
+     * pre-trade risk, which must be set beforehand and must not have been used.
+     *
+     * @return the command sequence the snapshot reflects, or 0 if there is none
+     */
+    public long load(MatchingEngine engine) throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path file = snapshots.get(i);
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (!isComplete(buffer)) {
+                    log.warn("Skipping incomplete snapshot {}", file.getFileName());
+                    continue;
+                }
+                long sequence = buffer.getLong(8);
+                buffer.position(16);
+                int bookCount = buffer.getInt();
+                Map<String, DailyLimitLedger.Account> accounts = restoreUsage(buffer, engine.getPreTradeRisk());
+                long orders = 0L;
+                for (int b = 0; b < bookCount; b++) {
+                    engine.restoreLastTradePrice(JournalCodec.getString(buffer), buffer.getLong());
+                    int orderCount = buffer.getInt();
+                    for (int o = 0; o < orderCount; o++) {
+                        Order order = JournalCodec.getOrder(buffer);
+                        BookOrder bookOrder = engine.restoreOrder(order, buffer.getLong());
+                        restoreReservation(buffer, bookOrder, accounts);
+                    }
+                    orders += orderCount;
+                }
+                log.info("Loaded snapshot {} with {} books and {} orders", file.getFileName(), bookCount, orders);
+                return sequence;
+            }
+        }
+        return 0L;
+    }
+
+    private static void putReservation(ByteBuffer buffer, BookOrder order) {
+        DailyLimitLedger.Account account = order.getLimitAccount();
+        if (account == null) {
+            buffer.put(NO_RESERVATION);
+            return;
+        }
+        buffer.put(order.getLimitToken() == account.getToken() ? CURRENT_RESERVATION : PAST_RESERVATION);
+        JournalCodec.putString(buffer, account.getActorId());
+        buffer.putLong(order.getLimitNotionalPerLot()).putLong(order.getLimitNotionalPerTickLot());
+    }
+
+    /**
+     * @return the restored accounts by actor id
+     */
+    private static Map<String, DailyLimitLedger.Account> restoreUsage(ByteBuffer buffer, PreTradeRisk risk) {
+        int actorCount = buffer.getInt();
+        Map<String, DailyLimitLedger.Account> accounts = new HashMap<>(actorCount * 2);
+        for (int a = 0; a < actorCount; a++) {
+            String actorId = JournalCodec.getString(buffer);
+            long used = buffer.getLong();
+            long reserved = buffer.getLong();
+            ActorRiskRules actor = risk != null ? risk.getRules().getActor(actorId) : null;
+            if (actor == null) {
+                log.warn("Dropping daily limit usage of {}, which the engine's pre-trade risk does not know", actorId);
+                continue;
+            }
+            actor.getDailyLimit().restore(used, reserved);
+            accounts.put(actorId, actor.getDailyLimit());
+        }
+        return accounts;
+    }
+
+    private static void restoreReservation(ByteBuffer buffer, BookOrder order,
+                                           Map<String, DailyLimitLedger.Account> accounts) {
+        byte reservation = buffer.get();
+        if (reservation == NO_RESERVATION) {
+            return;
+        }
+        DailyLimitLedger.Account account = accounts.get(JournalCodec.getString(buffer));
+        long notionalPerLot = buffer.getLong();
+        long notionalPerTickLot = buffer.getLong();
+        if (account != null) {
+            // A past day's token is one no day has, so its release does nothing
+            long token = reservation == CURRENT_RESERVATION ? account.getToken() : DailyLimitLedger.REJECTED;
+            order.setReservation(account, token, notionalPerLot, notionalPerTickLot);
+        }
+    }
+
+    /**
+     * @return the command sequence of the oldest snapshot kept on disk, which
+     *         {@link #load} falls back to if every later one is incomplete, or 0 if
+     *         there is none
+     */
+    public long oldestSequence() throws IOException {
+        List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
+            return 0L;
+        }
+        String name = snapshots.get(0).getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static boolean isComplete(ByteBuffer buffer) {
+        int size = buffer.limit();
+        return size >= 28 && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+            && buffer.getInt(size - Integer.BYTES) == END_MAGIC;
+    }
+
+    private static void ensureCapacity(FileChannel out, ByteBuffer buffer) {
+        if (buffer.remaining() < CommandJournal.MAX_RECORD_SIZE) {
+            try {
+                drain(out, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void prune() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - retained; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(f -> f.getFileName().toString().startsWith(PREFIX))
+                .filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.tradar.matching.engine.latency;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the stage latencies recorded across threads and turns them into
+ * percentile snapshots, per stage across all symbols and per symbol. Recording
+ * threads each write to their own {@link LatencyRecorder}; taking a snapshot
+ * drains the recorders into totals accumulated since the monitor was created or
+ * last reset, without blocking the writers.
+ * <p>
+ * Per-symbol histograms are kept only for the stages chosen at construction, by
+ * default just {@link LatencyStage#TOTAL}, to bound memory with many symbols.
+ */
+public class LatencyMonitor {
+    public static final long DEFAULT_HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    /** Two significant digits: values are reported within 1%. */
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    private static final LatencyStage[] STAGES = LatencyStage.values();
+
+    private final long highestTrackableNanos;
+    private final int significantDigits;
+    private final boolean[] symbolStages = new boolean[STAGES.length];
+    private final List<LatencyRecorder> recorders = new CopyOnWriteArrayList<>();
+    // Accumulated totals; guarded by this
+    private final Histogram[] totals;
+    private final Map<String, Histogram[]> symbolTotals = new TreeMap<>();
+
+    public LatencyMonitor() {
+        this(DEFAULT_HIGHEST_TRACKABLE_NANOS, DEFAULT_SIGNIFICANT_DIGITS, EnumSet.of(LatencyStage.TOTAL));
+    }
+
+    /**
+     * @param highestTrackableNanos largest latency told apart; longer ones are recorded as this
+     * @param significantDigits precision of recorded values, from 0 to 5
+     * @param symbolStages stages also tracked per symbol
+     */
+    public LatencyMonitor(long highestTrackableNanos, int significantDigits, Set<LatencyStage> symbolStages) {
+        if (highestTrackableNanos < 2) {
+            throw new IllegalArgumentException("Highest trackable latency too small: " + highestTrackableNanos);
+        }
+        if (significantDigits < 0 || significantDigits > 5) {
+            throw new IllegalArgumentException("Significant digits must be between 0 and 5: " + significantDigits);
+        }
+        this.highestTrackableNanos = highestTrackableNanos;
+        this.significantDigits = significantDigits;
+        for (LatencyStage stage : symbolStages) {
+            this.symbolStages[stage.ordinal()] = true;
+        }
+        this.totals = newHistograms(null);
+    }
+
+    /**
+     * Creates a recorder for one recording thread.
+     */
+    public LatencyRecorder newRecorder() {
+        LatencyRecorder recorder = new LatencyRecorder(highestTrackableNanos, significantDigits, symbolStages);
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * @return every stage with recorded values across all symbols, followed by the
+     *         per-symbol stages, symbols in alphabetical order
+     */
+    public synchronized List<LatencySnapshot> snapshot() {
+        collect();
+        List<LatencySnapshot> snapshots = new ArrayList<>();
+        addSnapshots(snapshots, null, totals);
+        for (Map.Entry<String, Histogram[]> entry : symbolTotals.entrySet()) {
+            addSnapshots(snapshots, entry.getKey(), entry.getValue());
+        }
+        return snapshots;
+    }
+
+    public synchronized LatencySnapshot snapshot(LatencyStage stage) {
+        collect();
+        return toSnapshot(stage, null, totals[stage.ordinal()]);
+    }
+
+    /**
+     * @return the stage's latencies for the symbol, or null if the stage is not
+     *         tracked per symbol or nothing was recorded for the symbol
+     */
+    public synchronized LatencySnapshot snapshot(LatencyStage stage, String symbol) {
+        collect();
+        Histogram[] histograms = symbolTotals.get(symbol);
+        Histogram histogram = histograms != null ? histograms[stage.ordinal()] : null;
+        return histogram != null ? toSnapshot(stage, symbol, histogram) : null;
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public synchronized void reset() {
+        collect();
+        for (Histogram histogram : totals) {
+            histogram.reset();
+        }
+        symbolTotals.clear();
+    }
+
+    private void collect() {
+        for (LatencyRecorder recorder : recorders) {
+            recorder.drainInto(totals, symbolTotals, this::newHistograms);
+        }
+    }
+
+    private static void addSnapshots(List<LatencySnapshot> snapshots, String symbol, Histogram[] histograms) {
+        for (LatencyStage stage : STAGES) {
+            Histogram histogram = histograms[stage.ordinal()];
+            if (histogram != null && histogram.getTotalCount() > 0) {
+                snapshots.add(toSnapshot(stage, symbol, histogram));
+            }
+        }
+    }
+
+    private static LatencySnapshot toSnapshot(LatencyStage stage, String symbol, Histogram histogram) {
+        return new LatencySnapshot(stage, symbol, histogram.getTotalCount(),
+            histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(99.0),
+            histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+
+    /**
+     * @param symbol null for the all-symbol totals, which cover every stage
+     */
+    private Histogram[] newHistograms(String symbol) {
+        Histogram[] histograms = new Histogram[STAGES.length];
+        for (int i = 0; i < histograms.length; i++) {
+            if (symbol == null || symbolStages[i]) {
+                histograms[i] = new Histogram(highestTrackableNanos, significantDigits);
+            }
+        }
+        return histograms;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tradar.matching.engine.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Records stage latencies from a single thread into HdrHistogram recorders, one
+ * per stage plus, for the stages the monitor tracks per symbol, one per symbol
+ * and stage. Recording is wait-free and does not allocate once a symbol has been
+ * seen; the {@link LatencyMonitor} that created the recorder reads it
+ * concurrently without stopping the writer.
+ * <p>
+ * Each recording thread needs its own recorder, for example one per matching
+ * shard and one for the order gateway.
+ */
+public final class LatencyRecorder {
+    private static final LatencyStage[] STAGES = LatencyStage.values();
+
+    private final long highestTrackableNanos;
+    private final int significantDigits;
+    private final boolean[] symbolStages;
+    private final SingleWriterRecorder[] stages = new SingleWriterRecorder[STAGES.length];
+    private final Map<String, SingleWriterRecorder[]> symbols = new ConcurrentHashMap<>();
+    private final Function<String, SingleWriterRecorder[]> symbolFactory = this::newSymbolRecorders;
+
+    LatencyRecorder(long highestTrackableNanos, int significantDigits, boolean[] symbolStages) {
+        this.highestTrackableNanos = highestTrackableNanos;
+        this.significantDigits = significantDigits;
+        this.symbolStages = symbolStages;
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = newRecorder();
+        }
+    }
+
+    /**
+     * Records one interval. Negative values, from clocks adjusted between the two
+     * timestamps, count as zero and values beyond the trackable range as its maximum.
+     *
+     * @param symbol the command's symbol, or null if it has none
+     */
+    public void record(String symbol, LatencyStage stage, long nanos) {
+        long value = Math.min(Math.max(nanos, 0L), highestTrackableNanos);
+        int index = stage.ordinal();
+        stages[index].recordValue(value);
+        if (symbol != null && symbolStages[index]) {
+            SingleWriterRecorder[] bySymbol = symbols.get(symbol);
+            if (bySymbol == null) {
+                bySymbol = symbols.computeIfAbsent(symbol, symbolFactory);
+            }
+            bySymbol[index].recordValue(value);
+        }
+    }
+
+    /**
+     * Reader side. Adds everything recorded since the previous call to the totals.
+     */
+    void drainInto(Histogram[] totals, Map<String, Histogram[]> symbolTotals, Function<String, Histogram[]> factory) {
+        for (int i = 0; i < stages.length; i++) {
+            totals[i].add(stages[i].getIntervalHistogram());
+        }
+        for (Map.Entry<String, SingleWriterRecorder[]> entry : symbols.entrySet()) {
+            Histogram[] target = symbolTotals.computeIfAbsent(entry.getKey(), factory);
+            SingleWriterRecorder[] bySymbol = entry.getValue();
+            for (int i = 0; i < bySymbol.length; i++) {
+                if (bySymbol[i] != null) {
+                    target[i].add(bySymbol[i].getIntervalHistogram());
+                }
+            }
+        }
+    }
+
+    private SingleWriterRecorder[] newSymbolRecorders(String symbol) {
+        // All created up front, so the array is safely published by the map
+        SingleWriterRecorder[] bySymbol = new SingleWriterRecorder[STAGES.length];
+        for (int i = 0; i < bySymbol.length; i++) {
+            if (symbolStages[i]) {
+                bySymbol[i] = newRecorder();
+            }
+        }
+        return bySymbol;
+    }
+
+    private SingleWriterRecorder newRecorder() {
+        return new SingleWriterRecorder(highestTrackableNanos, significantDigits);
+    }
+}
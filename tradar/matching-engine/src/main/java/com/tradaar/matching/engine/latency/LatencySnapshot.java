@@ -0,0 +1,19 @@
+package com.tradar.matching.engine.latency;
+
+import lombok.Value;
+
+/**
+ * Latency percentiles of one stage, across all symbols or for a single symbol.
+ * All values are in nanoseconds.
+ */
+@Value
+public class LatencySnapshot {
+    LatencyStage stage;
+    /** The symbol, or null for all symbols. */
+    String symbol;
+    long count;
+    long p50;
+    long p99;
+    long p999;
+    long max;
+}
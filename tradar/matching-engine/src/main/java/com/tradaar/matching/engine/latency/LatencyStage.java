@@ -0,0 +1,22 @@
+package com.tradar.matching.engine.latency;
+
+/**
+ * The intervals of an order's path through the system that are timed. Each stage
+ * runs from one timestamp of the command to the next.
+ */
+public enum LatencyStage {
+    /** Sender's send time to gateway receive, across hosts' clocks. */
+    WIRE,
+    /** Gateway receive to the command being decoded. */
+    DECODE,
+    /** Decoded to handed to the engine: batching in the gateway. */
+    DISPATCH,
+    /** Handed to a shard's ring buffer to the start of matching. */
+    QUEUE,
+    /** Start to end of applying the command to the book. */
+    MATCH,
+    /** End of matching to the listener having published the outcome. */
+    PUBLISH,
+    /** First timestamp taken in the process, normally gateway receive, to published. */
+    TOTAL
+}
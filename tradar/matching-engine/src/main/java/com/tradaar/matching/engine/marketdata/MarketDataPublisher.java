@@ -0,0 +1,332 @@
+package com.tradar.matching.engine.marketdata;
+
+import com.tradar.core.codec.MarketDataPacketEncoder;
+import com.tradar.core.codec.RetransmitRequestCodec;
+import com.tradar.core.config.NetworkConfig;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.Trade;
+import com.tradar.core.time.EpochClock;
+import com.tradar.matching.engine.InstrumentScale;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.book.BookListener;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.book.PriceLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Publishes the books and trades of one {@link MatchingEngine} as sequenced
+ * multicast market data. Level changes and trades are packed into packets that are
+ * sent when full or when the engine goes idle, each stamped with the next sequence
+ * number of the publisher's channel.
+ * <p>
+ * Subscribers that detect a sequence gap recover in one of two ways. Short gaps are
+ * replayed on request from a ring of recently sent packets, served over unicast by
+ * a background thread. Subscribers that are too far behind, or just joining, use
+ * the snapshot channel, which periodically carries the full depth of every book
+ * together with the incremental sequence it reflects.
+ * <p>
+ * Apart from {@link #close()}, all methods must be called on the engine's thread:
+ * the publisher registers itself as the engine's {@link BookListener} and must also
+ * be the engine's {@link MatchingEventListener}.
+ */
+@Slf4j
+public class MarketDataPublisher implements MatchingEventListener, BookListener, AutoCloseable {
+    private final MarketDataPublisherConfig config;
+    private final MatchingEngine engine;
+    private final DatagramChannel channel;
+    private final InetSocketAddress incrementalGroup;
+    private final InetSocketAddress snapshotGroup;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(MarketDataPacketEncoder.MAX_PACKET_LENGTH);
+    private final MarketDataPacketEncoder encoder = new MarketDataPacketEncoder();
+
+    // Recently sent packets by sequence, shared with the retransmit thread
+    private final Object ringLock = new Object();
+    private final byte[][] ringPackets;
+    private final int[] ringLengths;
+    private final long[] ringSequences;
+    private final int ringMask;
+
+    private final DatagramChannel retransmitChannel;
+    private final Thread retransmitThread;
+    private final long snapshotIntervalNanos;
+    private final long heartbeatIntervalNanos;
+    private long lastSendNanos;
+    private long lastSnapshotNanos;
+    private int snapshotFlags;
+    private volatile boolean snapshotRequested = true;
+
+    @Getter
+    private long sequence;
+    @Getter
+    private long snapshotSequence;
+
+    public MarketDataPublisher(MarketDataPublisherConfig config, MatchingEngine engine) throws IOException {
+        int ringSize = config.getRetransmitBufferPackets();
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Retransmit buffer must be a power of two: " + ringSize);
+        }
+        this.config = config;
+        this.engine = engine;
+        this.ringPackets = new byte[ringSize][MarketDataPacketEncoder.MAX_PACKET_LENGTH];
+        this.ringLengths = new int[ringSize];
+        this.ringSequences = new long[ringSize];
+        this.ringMask = ringSize - 1;
+        this.snapshotIntervalNanos = config.getSnapshotInterval() != null
+            ? config.getSnapshotInterval().toNanos() : Long.MAX_VALUE;
+        this.heartbeatIntervalNanos = config.getHeartbeatInterval().toNanos();
+
+        InetAddress group = InetAddress.getByName(config.getGroup());
+        this.incrementalGroup = new InetSocketAddress(group, config.getIncrementalPort());
+        this.snapshotGroup = new InetSocketAddress(group, config.getSnapshotPort());
+
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_IF,
+                NetworkConfig.multicastInterface(config.getNetworkInterface()));
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, config.getTtl());
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            this.retransmitChannel = DatagramChannel.open(StandardProtocolFamily.INET);
+            retransmitChannel.bind(new InetSocketAddress(config.getRetransmitPort()));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        encoder.wrap(packet, 0, config.getChannelId());
+        engine.setBookListener(this);
+
+        this.retransmitThread = new Thread(this::serveRetransmits, "market-data-retransmit-" + config.getChannelId());
+        retransmitThread.setDaemon(true);
+        retransmitThread.start();
+        log.info("Publishing market data channel {} to {} (snapshots on {}, retransmits on port {})",
+            config.getChannelId(), incrementalGroup, snapshotGroup, config.getRetransmitPort());
+    }
+
+    @Override
+    public void onLevelChanged(OrderBook book, OrderSide side, long price, long quantity, int orderCount) {
+        if (!encoder.hasCapacity()) {
+            flush();
+        }
+        InstrumentScale scale = book.getScale();
+        encoder.addLevel(book.getSymbol(), side,
+            scale.toPriceMantissa(price), scale.getPriceScale(),
+            scale.toQuantityMantissa(quantity), scale.getQuantityScale(), orderCount);
+    }
+
+    @Override
+    public void onTrades(List<Trade> trades) {
+        for (Trade trade : trades) {
+            if (!encoder.hasCapacity()) {
+                flush();
+            }
+            BigDecimal price = trade.getPrice();
+            BigDecimal quantity = trade.getQuantity();
+            encoder.addTrade(trade.getSymbol(),
+                price.unscaledValue().longValueExact(), price.scale(),
+                quantity.unscaledValue().longValueExact(), quantity.scale(),
+                toEpochNanos(trade.getTimestamp()));
+        }
+    }
+
+    @Override
+    public void onIdle() {
+        long now = System.nanoTime();
+        if (!encoder.isEmpty()) {
+            flush();
+        } else if (now - lastSendNanos >= heartbeatIntervalNanos) {
+            sendHeartbeat();
+        }
+        if (snapshotRequested || now - lastSnapshotNanos >= snapshotIntervalNanos) {
+            snapshotRequested = false;
+            lastSnapshotNanos = now;
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Sends the pending incremental packet, if any.
+     */
+    public void flush() {
+        if (encoder.isEmpty()) {
+            return;
+        }
+        long seq = ++sequence;
+        int length = encoder.sequence(seq).sendTime(EpochClock.nanos()).length();
+        send(length, incrementalGroup);
+        lastSendNanos = System.nanoTime();
+
+        int index = (int) (seq & ringMask);
+        synchronized (ringLock) {
+            packet.get(0, ringPackets[index], 0, length);
+            ringLengths[index] = length;
+            ringSequences[index] = seq;
+        }
+        encoder.wrap(packet, 0, config.getChannelId());
+    }
+
+    private void sendHeartbeat() {
+        int length = encoder.flags(MarketDataPacketEncoder.FLAG_HEARTBEAT)
+            .sequence(sequence)
+            .sendTime(EpochClock.nanos())
+            .length();
+        send(length, incrementalGroup);
+        lastSendNanos = System.nanoTime();
+        encoder.wrap(packet, 0, config.getChannelId());
+    }
+
+    /**
+     * Publishes the full depth of every book on the snapshot channel. The snapshot
+     * reflects all incremental packets up to the current {@link #getSequence()}.
+     */
+    public void publishSnapshot() {
+        flush();
+        long reference = sequence;
+        beginSnapshotPacket(reference, MarketDataPacketEncoder.FLAG_SNAPSHOT_BEGIN);
+        for (OrderBook book : engine.getOrderBooks()) {
+            addSnapshotEntry(reference);
+            encoder.addClearBook(book.getSymbol());
+            InstrumentScale scale = book.getScale();
+            for (OrderSide side : OrderSide.values()) {
+                book.forEachLevel(side, level -> addSnapshotLevel(reference, book, scale, side, level));
+            }
+        }
+        sendSnapshotPacket(MarketDataPacketEncoder.FLAG_SNAPSHOT_END);
+        encoder.wrap(packet, 0, config.getChannelId());
+    }
+
+    private void addSnapshotLevel(long reference, OrderBook book, InstrumentScale scale,
+                                  OrderSide side, PriceLevel level) {
+        addSnapshotEntry(reference);
+        encoder.addLevel(book.getSymbol(), side,
+            scale.toPriceMantissa(level.getPrice()), scale.getPriceScale(),
+            scale.toQuantityMantissa(level.getTotalQuantity()), scale.getQuantityScale(),
+            level.getOrderCount());
+    }
+
+    private void addSnapshotEntry(long reference) {
+        if (!encoder.hasCapacity()) {
+            sendSnapshotPacket(0);
+            beginSnapshotPacket(reference, 0);
+        }
+    }
+
+    private void beginSnapshotPacket(long reference, int flags) {
+        snapshotFlags = MarketDataPacketEncoder.FLAG_SNAPSHOT | flags;
+        encoder.wrap(packet, 0, config.getChannelId()).referenceSequence(reference);
+    }
+
+    private void sendSnapshotPacket(int extraFlags) {
+        int length = encoder.flags(snapshotFlags | extraFlags)
+            .sequence(++snapshotSequence)
+            .sendTime(EpochClock.nanos())
+            .length();
+        send(length, snapshotGroup);
+    }
+
+    private void send(int length, InetSocketAddress target) {
+        packet.limit(length).position(0);
+        try {
+            channel.send(packet, target);
+        } catch (IOException e) {
+            // The packet stays in the retransmit ring, so subscribers can still recover it
+            log.error("Failed to send market data packet to {}", target, e);
+        } finally {
+            packet.clear();
+        }
+    }
+
+    private void serveRetransmits() {
+        ByteBuffer request = ByteBuffer.allocate(256);
+        ByteBuffer response = ByteBuffer.allocate(MarketDataPacketEncoder.MAX_PACKET_LENGTH);
+        RetransmitRequestCodec codec = new RetransmitRequestCodec();
+
+        while (retransmitChannel.isOpen()) {
+            try {
+                request.clear();
+                SocketAddress requester = retransmitChannel.receive(request);
+                if (request.position() < RetransmitRequestCodec.ENCODED_LENGTH) {
+                    continue;
+                }
+                codec.wrap(request, 0);
+                if (codec.channelId() != config.getChannelId()) {
+                    continue;
+                }
+                if (codec.count() <= 0) {
+                    log.info("Snapshot requested by {}", requester);
+                    snapshotRequested = true;
+                    continue;
+                }
+                if (codec.count() > config.getMaxRetransmitPackets()) {
+                    log.info("Replay of {} packets requested by {}, publishing snapshot instead",
+                        codec.count(), requester);
+                    snapshotRequested = true;
+                    continue;
+                }
+                replay(codec.fromSequence(), codec.count(), requester, response);
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring malformed retransmit request: {}", e.getMessage());
+            } catch (IOException e) {
+                log.error("Error serving retransmit request", e);
+            }
+        }
+    }
+
+    private void replay(long fromSequence, int count, SocketAddress requester, ByteBuffer response)
+            throws IOException {
+        for (long seq = fromSequence; seq < fromSequence + count; seq++) {
+            int index = (int) (seq & ringMask);
+            response.clear();
+            synchronized (ringLock) {
+                if (ringSequences[index] != seq) {
+                    // Overwritten or not sent yet: the subscriber has to use a snapshot
+                    log.info("Packet {} no longer retransmittable for {}, publishing snapshot", seq, requester);
+                    snapshotRequested = true;
+                    return;
+                }
+                response.put(ringPackets[index], 0, ringLengths[index]);
+            }
+            response.flip();
+            retransmitChannel.send(response, requester);
+        }
+    }
+
+    private static long toEpochNanos(LocalDateTime timestamp) {
+        return timestamp == null ? Long.MIN_VALUE
+            : timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    /**
+     * Flushes pending output and stops serving retransmits. Call after the engine
+     * thread has stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        engine.setBookListener(null);
+        retransmitChannel.close();
+        channel.close();
+        try {
+            retransmitThread.join(1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.tradar.matching.engine.marketdata;
+
+import com.tradar.core.config.NetworkConfig;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link MarketDataPublisher}.
+ */
+@Data
+@Builder
+public class MarketDataPublisherConfig {
+    /** Identifies the publisher's sequence space; one channel per engine thread. */
+    @Builder.Default
+    private final int channelId = 0;
+    @Builder.Default
+    private final String group = NetworkConfig.MULTICAST_GROUP;
+    @Builder.Default
+    private final int incrementalPort = NetworkConfig.MARKET_DATA_PORT;
+    @Builder.Default
+    private final int snapshotPort = NetworkConfig.MARKET_DATA_SNAPSHOT_PORT;
+    /** Unicast port on which retransmission and snapshot requests are served. */
+    @Builder.Default
+    private final int retransmitPort = NetworkConfig.MARKET_DATA_RETRANSMIT_PORT;
+    /** Interface name to publish on; null picks one, see {@link NetworkConfig#multicastInterface}. */
+    private final String networkInterface;
+    @Builder.Default
+    private final int ttl = 1;
+    /** Number of recent packets kept for retransmission; a power of two. */
+    @Builder.Default
+    private final int retransmitBufferPackets = 8_192;
+    /** Largest replay served for one request; longer gaps are told to use a snapshot. */
+    @Builder.Default
+    private final int maxRetransmitPackets = 1_024;
+    /** Quiet period after which an idle publisher repeats its last sequence in a heartbeat. */
+    @Builder.Default
+    private final Duration heartbeatInterval = Duration.ofMillis(100);
+    /** Period of the full-depth snapshot cycle; null publishes snapshots only on request. */
+    @Builder.Default
+    private final Duration snapshotInterval = Duration.ofSeconds(1);
+}
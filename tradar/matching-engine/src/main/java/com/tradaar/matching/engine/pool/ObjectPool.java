@@ -0,0 +1,68 @@
+package com.tradar.matching.engine.pool;
+
+import lombok.Getter;
+
+import java.util.function.Supplier;
+
+/**
+ * A fixed-capacity pool of reusable objects, filled up front so taking and
+ * returning objects allocates nothing. When the pool runs dry it creates a new
+ * object rather than fail, and counts it as a miss, so a pool sized below the
+ * working set shows up as allocation and a growing miss count rather than as an
+ * error. Objects returned to a full pool are left to the garbage collector.
+ * <p>
+ * Not thread-safe: a pool belongs to the thread of the engine using it.
+ *
+ * @param <T> the pooled type
+ */
+public final class ObjectPool<T> {
+    private final Supplier<T> factory;
+    private final Object[] free;
+    private int available;
+    /** Acquisitions that found the pool empty and allocated. */
+    @Getter
+    private long misses;
+
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive: " + capacity);
+        }
+        this.factory = factory;
+        this.free = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = factory.get();
+        }
+        this.available = capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if (available == 0) {
+            misses++;
+            return factory.get();
+        }
+        T value = (T) free[--available];
+        free[available] = null;
+        return value;
+    }
+
+    /**
+     * Returns an object the caller no longer references.
+     */
+    public void release(T value) {
+        if (available < free.length) {
+            free[available++] = value;
+        }
+    }
+
+    /**
+     * @return the number of objects ready to be acquired
+     */
+    public int available() {
+        return available;
+    }
+
+    public int capacity() {
+        return free.length;
+    }
+}
@@ -0,0 +1,208 @@
+package com.tradar.matching.engine.pool;
+
+import com.tradar.core.id.Ids;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.core.symbol.SymbolMap;
+import com.tradar.core.time.EpochClock;
+import com.tradar.matching.engine.InstrumentScale;
+import com.tradar.matching.engine.book.BookListener;
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.book.OrderBookType;
+import com.tradar.matching.engine.book.PriceLevel;
+import com.tradar.refdata.manager.SymbolManager;
+import com.tradar.refdata.model.Symbol;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Function;
+
+/**
+ * The garbage-free mode of the matching engine: price-time priority matching of
+ * order flow given in primitives, allocating nothing per order once warmed up.
+ * <p>
+ * Orders carry long ids, a symbol's {@link SymbolDirectory} id, price in ticks,
+ * quantity in lots and an epoch nanosecond timestamp, and never become an
+ * {@code Order}. Each is held in a {@link BookOrder} taken from a pool and
+ * returned to it as soon as the order leaves the book: filled, cancelled, or a
+ * market order's unfilled rest. Trades are published as a single reused
+ * {@link TradeEntry}, recycled as soon as the listener returns. Books are price
+ * ladders, whose levels are recycled too, and resting orders are indexed by
+ * their unboxed ids.
+ * <p>
+ * What still allocates: the first order of a symbol, which creates its book;
+ * orders priced outside the ladder window, which spill into a tree; growth of a
+ * book's order index past its largest size so far; and pool misses, counted by
+ * {@link #getOrderPool()}, once more orders rest than the pool holds. Books log
+ * each order at DEBUG, which allocates when enabled.
+ * <p>
+ * Like {@link com.tradar.matching.engine.MatchingEngine}, an engine is driven by
+ * a single thread, and takes trade ids from the process-wide {@link Ids}
+ * generator. It does not run pre-trade risk checks.
+ */
+@Slf4j
+public class PooledMatchingEngine {
+    public static final int DEFAULT_POOL_SIZE = 65_536;
+
+    @Getter
+    private final SymbolDirectory directory;
+    private final Function<String, InstrumentScale> scaleResolver;
+    private final SymbolMap<OrderBook> orderBooks = new SymbolMap<>();
+    @Getter
+    private final ObjectPool<BookOrder> orderPool;
+    private final TradeEntry trade = new TradeEntry();
+    private final TradeEntryListener listener;
+    private BookListener bookListener = BookListener.NONE;
+
+    /**
+     * Creates an engine whose books use the tick and lot sizes configured in
+     * reference data, under the symbol ids of the manager's directory.
+     */
+    public PooledMatchingEngine(SymbolManager symbolManager, TradeEntryListener listener) {
+        this(symbol -> {
+            Symbol sym = symbolManager.getSymbol(symbol);
+            return sym != null ? InstrumentScale.of(sym) : InstrumentScale.DEFAULT;
+        }, symbolManager.getDirectory(), DEFAULT_POOL_SIZE, listener);
+    }
+
+    /**
+     * @param poolSize number of order entries allocated up front, which should
+     *        cover the orders resting across all books at once
+     */
+    public PooledMatchingEngine(Function<String, InstrumentScale> scaleResolver, SymbolDirectory directory,
+                                int poolSize, TradeEntryListener listener) {
+        this.directory = directory;
+        this.scaleResolver = scaleResolver;
+        this.orderPool = new ObjectPool<>(poolSize, BookOrder::new);
+        this.listener = listener;
+    }
+
+    /**
+     * Reports level changes of all current and future books to the listener.
+     * Must be called from the engine's thread.
+     */
+    public void setBookListener(BookListener listener) {
+        this.bookListener = listener != null ? listener : BookListener.NONE;
+        for (OrderBook orderBook : orderBooks.values()) {
+            orderBook.setListener(bookListener);
+        }
+    }
+
+    /**
+     * Matches a new order and rests any unfilled limit quantity, publishing its
+     * trades to the listener as they happen.
+     *
+     * @param price limit price in ticks, ignored for market orders
+     * @param quantity order quantity in lots
+     * @param timestamp UTC epoch nanoseconds the order was entered
+     * @return the open quantity left resting in the book, 0 if the order was
+     *         filled or was a market order
+     * @throws IllegalArgumentException if the symbol id is unknown to the directory,
+     *         the quantity is not positive or an order with the id rests in the book
+     */
+    public long submit(int symbolId, long orderId, OrderSide side, OrderType type, long price, long quantity,
+                       long timestamp) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity of order " + orderId + " must be positive: " + quantity);
+        }
+        OrderBook orderBook = orderBook(symbolId);
+        if (orderBook.getOrder(orderId) != null) {
+            throw new IllegalArgumentException("Duplicate order id in book: " + orderId);
+        }
+        BookOrder order = orderPool.acquire().reset(orderId, symbolId, side, type, price, quantity, timestamp);
+        match(order, orderBook);
+
+        // Unfilled limit quantity rests in the book; market orders never rest
+        if (!order.isMarket() && !order.isFilled()) {
+            orderBook.addOrder(order);
+            return order.getLeavesQuantity();
+        }
+        orderPool.release(order);
+        return 0L;
+    }
+
+    /**
+     * Cancels a resting order.
+     *
+     * @return the open quantity cancelled, or 0 if the order is not resting in the
+     *         symbol's book
+     */
+    public long cancel(int symbolId, long orderId) {
+        OrderBook orderBook = orderBooks.get(symbolId);
+        BookOrder cancelled = orderBook == null ? null : orderBook.cancelOrder(orderId);
+        if (cancelled == null) {
+            return 0L;
+        }
+        long leaves = cancelled.getLeavesQuantity();
+        orderPool.release(cancelled);
+        return leaves;
+    }
+
+    /**
+     * @return the symbol's book, or null if no order was submitted for it
+     */
+    public OrderBook getOrderBook(int symbolId) {
+        return orderBooks.get(symbolId);
+    }
+
+    /**
+     * Matches the incoming order against the opposing side, best level first, until
+     * it is filled, the side is exhausted or, for limit orders, the next level no
+     * longer crosses. Filled resting orders go back to the pool as they leave.
+     */
+    private void match(BookOrder incoming, OrderBook orderBook) {
+        boolean buy = incoming.getSide() == OrderSide.BUY;
+        OrderSide opposingSide = buy ? OrderSide.SELL : OrderSide.BUY;
+        boolean limit = !incoming.isMarket();
+        long now = 0L;
+        PriceLevel bestLevel;
+
+        while (!incoming.isFilled() && (bestLevel = orderBook.getBestLevel(opposingSide)) != null) {
+            long price = bestLevel.getPrice();
+            if (limit && (buy ? price > incoming.getPrice() : price < incoming.getPrice())) {
+                break;
+            }
+            if (now == 0L) {
+                now = EpochClock.nanos();
+            }
+            BookOrder resting;
+            while (!incoming.isFilled() && (resting = bestLevel.getHead()) != null) {
+                long matchQty = Math.min(incoming.getLeavesQuantity(), resting.getLeavesQuantity());
+                // Pops the resting order, and its level once empty, when filled
+                orderBook.fill(incoming, resting, matchQty);
+                trade.set(Ids.next(), buy ? incoming.getId() : resting.getId(),
+                    buy ? resting.getId() : incoming.getId(), incoming.getSymbolId(), incoming.getSide(), price,
+                    matchQty, now);
+                publish();
+                if (resting.isFilled()) {
+                    orderPool.release(resting);
+                }
+            }
+        }
+    }
+
+    private void publish() {
+        try {
+            listener.onTrade(trade);
+        } catch (RuntimeException e) {
+            log.error("Trade listener failed on {}", trade, e);
+        }
+    }
+
+    private OrderBook orderBook(int symbolId) {
+        OrderBook orderBook = orderBooks.get(symbolId);
+        if (orderBook == null) {
+            String symbol = directory.nameOf(symbolId);
+            if (symbol == null) {
+                throw new IllegalArgumentException("Unknown symbol id " + symbolId);
+            }
+            log.info("Creating pooled {} order book for {}", OrderBookType.LADDER, symbol);
+            orderBook = OrderBookType.LADDER.create(symbol, scaleResolver.apply(symbol));
+            orderBook.setListener(bookListener);
+            orderBooks.put(symbolId, orderBook);
+        }
+        return orderBook;
+    }
+}
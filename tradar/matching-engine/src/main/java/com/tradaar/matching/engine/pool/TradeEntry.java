@@ -0,0 +1,74 @@
+package com.tradar.matching.engine.pool;
+
+import com.tradar.core.id.IdCodec;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.InstrumentScale;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A mutable trade in primitives, published by the {@link PooledMatchingEngine}:
+ * long ids, the symbol's directory id, price in ticks, quantity in lots and a
+ * UTC epoch nanosecond timestamp. The engine fills in the same instance for
+ * every trade, so a listener must copy what it keeps, with {@link #copyTo} or
+ * {@link #toTrade}, before returning.
+ */
+@Getter
+public final class TradeEntry {
+    private long tradeId;
+    private long buyOrderId;
+    private long sellOrderId;
+    private int symbolId;
+    /** Side of the incoming order that took liquidity. */
+    private OrderSide aggressorSide;
+    private long price;
+    private long quantity;
+    private long timestamp;
+
+    void set(long tradeId, long buyOrderId, long sellOrderId, int symbolId, OrderSide aggressorSide, long price,
+             long quantity, long timestamp) {
+        this.tradeId = tradeId;
+        this.buyOrderId = buyOrderId;
+        this.sellOrderId = sellOrderId;
+        this.symbolId = symbolId;
+        this.aggressorSide = aggressorSide;
+        this.price = price;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
+
+    public void copyTo(TradeEntry target) {
+        target.set(tradeId, buyOrderId, sellOrderId, symbolId, aggressorSide, price, quantity, timestamp);
+    }
+
+    /**
+     * Materialises the entry as a {@link Trade}, with the trade id in the
+     * {@link IdCodec} form and the caller's order ids in decimal, for consumers at
+     * the edges such as reporting. Allocates; not for the hot path.
+     *
+     * @param symbol the symbol of {@link #getSymbolId()}
+     * @param scale the scale of the symbol's book
+     */
+    public Trade toTrade(String symbol, InstrumentScale scale) {
+        return Trade.builder()
+            .tradeId(IdCodec.encode(tradeId))
+            .buyOrderId(Long.toString(buyOrderId))
+            .sellOrderId(Long.toString(sellOrderId))
+            .symbol(symbol)
+            .price(scale.fromTicks(price))
+            .quantity(scale.fromLots(quantity))
+            .timestamp(LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, timestamp), ZoneOffset.UTC))
+            .build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TradeEntry{tradeId=%d, buyOrderId=%d, sellOrderId=%d, symbolId=%d, aggressor=%s, "
+            + "price=%d, quantity=%d, timestamp=%d}", tradeId, buyOrderId, sellOrderId, symbolId, aggressorSide,
+            price, quantity, timestamp);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tradar.matching.engine.pool;
+
+/**
+ * Receives the trades of a {@link PooledMatchingEngine} on the engine's thread,
+ * one at a time, in the order they happen.
+ */
+@FunctionalInterface
+public interface TradeEntryListener {
+    TradeEntryListener NONE = trade -> {};
+
+    /**
+     * @param trade the trade; only valid for the duration of the call
+     */
+    void onTrade(TradeEntry trade);
+}
@@ -0,0 +1,43 @@
+package com.tradar.matching.engine.risk;
+
+import com.tradar.refdata.limit.DailyLimitLedger;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The pre-trade rules of one actor, with the symbols it may trade as a bitset
+ * over symbol ids, its maximum order value in notional units of the
+ * {@link RiskRules} and its account in the shared {@link DailyLimitLedger}.
+ */
+@Getter
+public final class ActorRiskRules {
+    /** Dense id, for per-actor state kept in arrays. */
+    private final int id;
+    private final String actorId;
+    private final boolean active;
+    @Getter(AccessLevel.NONE)
+    private final long[] allowedSymbols;
+    private final long maxOrderNotional;
+    private final DailyLimitLedger.Account dailyLimit;
+
+    ActorRiskRules(int id, String actorId, boolean active, long[] allowedSymbols, long maxOrderNotional,
+                   DailyLimitLedger.Account dailyLimit) {
+        this.id = id;
+        this.actorId = actorId;
+        this.active = active;
+        this.allowedSymbols = allowedSymbols;
+        this.maxOrderNotional = maxOrderNotional;
+        this.dailyLimit = dailyLimit;
+    }
+
+    public boolean isAllowed(int symbolId) {
+        int word = symbolId >>> 6;
+        return word < allowedSymbols.length && (allowedSymbols[word] & (1L << symbolId)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ActorRiskRules{id=%d, actorId='%s', active=%s, maxOrder=%d, dailyLimit=%d}",
+            id, actorId, active, maxOrderNotional, dailyLimit.getLimit());
+    }
+}
@@ -0,0 +1,173 @@
+package com.tradar.matching.engine.risk;
+
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.refdata.limit.DailyLimitLedger;
+import lombok.Getter;
+
+/**
+ * Pre-trade checks for new orders, run in one pass over compiled {@link RiskRules}
+ * before an order reaches its book: symbol and actor status, the actor's allowed
+ * symbols, the symbol's quantity bounds, a price band around the book's last
+ * trade, the actor's maximum order value and its daily limit. Orders arrive
+ * already in ticks and lots, and every check is long arithmetic on the rules, so
+ * a check allocates nothing.
+ * <p>
+ * The price band applies to limit orders of symbols with a maximum price
+ * deviation, a percentage of the last trade price, once the book has traded.
+ * Market orders are valued at the last trade price, and pass the value checks
+ * before the first trade.
+ * <p>
+ * An accepted order reserves its value in the actor's {@link DailyLimitLedger}
+ * account, shared by every engine. The engine attaches the reservation to the
+ * order with {@link #reserve(BookOrder)}, then commits it fill by fill with
+ * {@link #settle} and releases what is left with {@link #release} when the order
+ * leaves the book unfilled. An instance holds the reservation of its last check,
+ * so it must be driven by a single thread, like the engine it guards.
+ */
+public class PreTradeRisk {
+    @Getter
+    private final RiskRules rules;
+    // Reservation of the last accepted order
+    private DailyLimitLedger.Account account;
+    private long token;
+    private long notionalPerLot;
+    private long notionalPerTickLot;
+
+    public PreTradeRisk(RiskRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * @param price limit price in ticks of the symbol, ignored for market orders
+     * @param quantity order quantity in lots of the symbol
+     * @param lastTradePrice last trade price in ticks, or {@link OrderBook#NO_PRICE}
+     */
+    public RejectCode check(String actorId, SymbolRiskRules symbol, boolean market, long price, long quantity,
+                            long lastTradePrice) {
+        if (symbol == null) {
+            return RejectCode.UNKNOWN_SYMBOL;
+        }
+        ActorRiskRules actor = rules.getActor(actorId);
+        if (actor == null) {
+            return RejectCode.UNKNOWN_ACTOR;
+        }
+        return check(actor, symbol, market, price, quantity, lastTradePrice);
+    }
+
+    /**
+     * Checks an order and, if it passes, reserves its value against the actor's
+     * daily limit, to be attached to the order with {@link #reserve(BookOrder)}.
+     *
+     * @see #check(String, SymbolRiskRules, boolean, long, long, long)
+     */
+    public RejectCode check(ActorRiskRules actor, SymbolRiskRules symbol, boolean market, long price,
+                            long quantity, long lastTradePrice) {
+        if (!symbol.isActive()) {
+            return RejectCode.SYMBOL_INACTIVE;
+        }
+        if (!actor.isActive()) {
+            return RejectCode.ACTOR_INACTIVE;
+        }
+        if (!actor.isAllowed(symbol.getId())) {
+            return RejectCode.SYMBOL_NOT_ALLOWED;
+        }
+        if (quantity < symbol.getMinQuantity()) {
+            return RejectCode.QUANTITY_BELOW_MINIMUM;
+        }
+        if (quantity > symbol.getMaxQuantity()) {
+            return RejectCode.QUANTITY_ABOVE_MAXIMUM;
+        }
+        boolean traded = lastTradePrice != OrderBook.NO_PRICE;
+        if (!market && traded && outsideBand(price, lastTradePrice, symbol.getMaxPriceDeviation())) {
+            return RejectCode.PRICE_OUTSIDE_BAND;
+        }
+        long valuePrice = market ? (traded ? lastTradePrice : 0L) : price;
+        long perLot = multiply(Math.abs(valuePrice), symbol.getNotionalPerTickLot());
+        long notional = multiply(perLot, quantity);
+        if (notional > actor.getMaxOrderNotional()) {
+            return RejectCode.ORDER_VALUE_EXCEEDED;
+        }
+        long reservation = actor.getDailyLimit().reserve(notional);
+        if (reservation == DailyLimitLedger.REJECTED) {
+            return RejectCode.DAILY_LIMIT_EXCEEDED;
+        }
+        account = actor.getDailyLimit();
+        token = reservation;
+        notionalPerLot = perLot;
+        notionalPerTickLot = symbol.getNotionalPerTickLot();
+        return RejectCode.NONE;
+    }
+
+    /**
+     * Hands the reservation of the last accepted order to the order.
+     */
+    public void reserve(BookOrder order) {
+        order.setReservation(account, token, notionalPerLot, notionalPerTickLot);
+        account = null;
+    }
+
+    /**
+     * Commits the reservation of a fill, charging its traded value. Does nothing
+     * for an order without a reservation.
+     *
+     * @param price fill price in ticks
+     */
+    public static void settle(BookOrder order, long quantity, long price) {
+        DailyLimitLedger.Account limit = order.getLimitAccount();
+        if (limit != null) {
+            limit.commit(order.getLimitToken(), multiply(quantity, order.getLimitNotionalPerLot()),
+                multiply(multiply(Math.abs(price), quantity), order.getLimitNotionalPerTickLot()));
+        }
+    }
+
+    /**
+     * Releases the reservation of part of an order's open quantity, for example
+     * when it is cancelled. Does nothing for an order without a reservation.
+     */
+    public static void release(BookOrder order, long quantity) {
+        DailyLimitLedger.Account limit = order.getLimitAccount();
+        if (limit != null) {
+            limit.release(order.getLimitToken(), multiply(quantity, order.getLimitNotionalPerLot()));
+        }
+    }
+
+    /**
+     * Moves the reservation of an order being replaced at another price or larger
+     * quantity to its replacement, reserving the replacement's value before the
+     * original's is released.
+     *
+     * @throws IllegalArgumentException if the replacement would exceed the daily limit
+     */
+    public static void replace(BookOrder original, BookOrder replacement) {
+        DailyLimitLedger.Account limit = original.getLimitAccount();
+        if (limit == null) {
+            return;
+        }
+        long perLot = multiply(Math.abs(replacement.getPrice()), original.getLimitNotionalPerTickLot());
+        long reservation = limit.reserve(multiply(perLot, replacement.getLeavesQuantity()));
+        if (reservation == DailyLimitLedger.REJECTED) {
+            throw new IllegalArgumentException(String.format("Amended order %s exceeds the daily limit of %s",
+                original.getOrderId(), limit.getActorId()));
+        }
+        release(original, original.getLeavesQuantity());
+        replacement.setReservation(limit, reservation, perLot, original.getLimitNotionalPerTickLot());
+    }
+
+    private static boolean outsideBand(long price, long last, double maxDeviation) {
+        if (Double.isNaN(maxDeviation)) {
+            return false;
+        }
+        // Rounded down, so the band never admits more than the deviation
+        long band = (long) (Math.abs(last) * maxDeviation);
+        return price < last - band || price > last + band;
+    }
+
+    /**
+     * Multiplies non-negative longs, saturating at {@code Long.MAX_VALUE}.
+     */
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        return Math.multiplyHigh(a, b) != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+}
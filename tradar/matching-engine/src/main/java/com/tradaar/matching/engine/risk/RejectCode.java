@@ -0,0 +1,28 @@
+package com.tradar.matching.engine.risk;
+
+import lombok.Getter;
+
+/**
+ * Outcome of the pre-trade checks for a new order: {@link #NONE} when it may
+ * proceed to matching, otherwise the first check it failed.
+ */
+@Getter
+public enum RejectCode {
+    NONE("Accepted"),
+    UNKNOWN_SYMBOL("Unknown symbol"),
+    SYMBOL_INACTIVE("Symbol is not active"),
+    UNKNOWN_ACTOR("Unknown actor"),
+    ACTOR_INACTIVE("Actor is not active"),
+    SYMBOL_NOT_ALLOWED("Actor may not trade the symbol"),
+    QUANTITY_BELOW_MINIMUM("Quantity below the symbol's minimum"),
+    QUANTITY_ABOVE_MAXIMUM("Quantity above the symbol's maximum"),
+    PRICE_OUTSIDE_BAND("Price outside the band around the last trade"),
+    ORDER_VALUE_EXCEEDED("Order value above the actor's maximum"),
+    DAILY_LIMIT_EXCEEDED("Order value would exceed the actor's daily limit");
+
+    private final String reason;
+
+    RejectCode(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,205 @@
+package com.tradar.matching.engine.risk;
+
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.matching.engine.InstrumentScale;
+import com.tradar.refdata.limit.DailyLimitLedger;
+import com.tradar.refdata.manager.ActorManager;
+import com.tradar.refdata.manager.SymbolManager;
+import com.tradar.refdata.model.Actor;
+import com.tradar.refdata.model.Symbol;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Symbol and actor reference data compiled for pre-trade checks. Every symbol and
+ * actor gets a dense id and an immutable rules object holding its limits as longs,
+ * so checking an order involves no BigDecimal arithmetic and no lookups beyond
+ * resolving the two names. Symbol ids are those of a {@link SymbolDirectory}, so
+ * an order carrying its symbol id finds its rules with an array read.
+ * <p>
+ * Order values are compared as notionals: price times quantity expressed in units
+ * of {@code 10^-notionalScale} of the currency, the scale of the
+ * {@link DailyLimitLedger} that accounts daily limits. It must be fine enough
+ * for one tick times one lot of every symbol, so every order value is an exact
+ * integer. Maximum order values are rounded down to that scale. Values too large
+ * for a long saturate at {@code Long.MAX_VALUE}.
+ */
+public final class RiskRules {
+    @Getter
+    private final int notionalScale;
+    @Getter
+    private final SymbolDirectory directory;
+    // Indexed by directory id; null for symbols without reference data
+    private final SymbolRiskRules[] symbols;
+    private final int symbolCount;
+    private final ActorRiskRules[] actors;
+    private final Map<String, ActorRiskRules> actorsByName;
+
+    private RiskRules(int notionalScale, SymbolDirectory directory, SymbolRiskRules[] symbols, int symbolCount,
+                      ActorRiskRules[] actors) {
+        this.notionalScale = notionalScale;
+        this.directory = directory;
+        this.symbols = symbols;
+        this.symbolCount = symbolCount;
+        this.actors = actors;
+        this.actorsByName = new HashMap<>(actors.length * 2);
+        for (ActorRiskRules actor : actors) {
+            actorsByName.put(actor.getActorId(), actor);
+        }
+    }
+
+    /**
+     * Compiles the managers' current symbols and actors, accounting daily limits
+     * in the actor manager's ledger. Must be compiled again after actors are loaded.
+     */
+    public static RiskRules compile(SymbolManager symbolManager, ActorManager actorManager) {
+        return compile(symbolManager.getAllSymbols(), actorManager.getAllActors(), actorManager.getDailyLimits(),
+            symbolManager.getDirectory());
+    }
+
+    /**
+     * Compiles symbols under the ids of a directory of their own, interned in name
+     * order.
+     *
+     * @see #compile(Collection, Collection, DailyLimitLedger, SymbolDirectory)
+     */
+    public static RiskRules compile(Collection<Symbol> symbols, Collection<Actor> actors,
+                                    DailyLimitLedger dailyLimits) {
+        return compile(symbols, actors, dailyLimits, new SymbolDirectory());
+    }
+
+    /**
+     * Compiles symbols under their ids in the directory, interning those it does
+     * not know yet.
+     *
+     * @throws IllegalArgumentException if a symbol has no positive tick or lot size,
+     *         tick times lot needs more decimal places than the ledger's notionals,
+     *         or an actor has no account in the ledger
+     */
+    public static RiskRules compile(Collection<Symbol> symbols, Collection<Actor> actors,
+                                    DailyLimitLedger dailyLimits, SymbolDirectory directory) {
+        List<Symbol> sortedSymbols = new ArrayList<>(symbols);
+        sortedSymbols.sort(Comparator.comparing(Symbol::getSymbol));
+        directory.internAll(sortedSymbols.stream().map(Symbol::getSymbol).toList());
+        InstrumentScale[] scales = new InstrumentScale[sortedSymbols.size()];
+        int notionalScale = dailyLimits.getNotionalScale();
+        for (int i = 0; i < scales.length; i++) {
+            scales[i] = InstrumentScale.of(sortedSymbols.get(i));
+            int needed = tickLotValue(scales[i]).stripTrailingZeros().scale();
+            if (needed > notionalScale) {
+                throw new IllegalArgumentException(String.format("Tick times lot of %s needs %d decimal places, "
+                    + "notionals have %d", sortedSymbols.get(i).getSymbol(), needed, notionalScale));
+            }
+        }
+
+        SymbolRiskRules[] symbolRules = new SymbolRiskRules[directory.size()];
+        for (int i = 0; i < scales.length; i++) {
+            Symbol symbol = sortedSymbols.get(i);
+            InstrumentScale scale = scales[i];
+            int id = directory.idOf(symbol.getSymbol());
+            symbolRules[id] = new SymbolRiskRules(id, symbol.getSymbol(), symbol.isActive(), scale,
+                symbol.getMinQty() != null ? lots(symbol.getMinQty(), scale, RoundingMode.CEILING) : 1L,
+                symbol.getMaxQty() != null ? lots(symbol.getMaxQty(), scale, RoundingMode.FLOOR) : Long.MAX_VALUE,
+                symbol.getMaxPriceDeviation() != null ? symbol.getMaxPriceDeviation().doubleValue() / 100.0 : Double.NaN,
+                tickLotValue(scale).movePointRight(notionalScale).longValueExact());
+        }
+
+        List<Actor> sortedActors = new ArrayList<>(actors);
+        sortedActors.sort(Comparator.comparing(Actor::getActorId));
+        ActorRiskRules[] actorRules = new ActorRiskRules[sortedActors.size()];
+        for (int i = 0; i < actorRules.length; i++) {
+            Actor actor = sortedActors.get(i);
+            long[] allowed = new long[(symbolRules.length + 63) >>> 6];
+            if (actor.getAllowedSymbols() != null) {
+                for (String symbol : actor.getAllowedSymbols()) {
+                    int id = directory.idOf(symbol);
+                    if (id != SymbolDirectory.UNKNOWN && symbolRules[id] != null) {
+                        allowed[id >>> 6] |= 1L << id;
+                    }
+                }
+            }
+            DailyLimitLedger.Account account = dailyLimits.getAccount(actor.getActorId());
+            if (account == null) {
+                throw new IllegalArgumentException("No daily limit account for actor " + actor.getActorId());
+            }
+            actorRules[i] = new ActorRiskRules(i, actor.getActorId(), actor.isActive(), allowed,
+                notional(actor.getMaxOrderValue(), notionalScale), account);
+        }
+        return new RiskRules(notionalScale, directory, symbolRules, scales.length, actorRules);
+    }
+
+    /**
+     * @return the symbol's rules, or null if it has no reference data
+     */
+    public SymbolRiskRules getSymbol(String symbol) {
+        return getSymbol(directory.idOf(symbol));
+    }
+
+    /**
+     * @param id the symbol's id in the {@link #getDirectory() directory}
+     * @return the symbol's rules, or null if it has no reference data
+     */
+    public SymbolRiskRules getSymbol(int id) {
+        return id >= 0 && id < symbols.length ? symbols[id] : null;
+    }
+
+    /**
+     * @return the actor's rules, or null if it has no reference data
+     */
+    public ActorRiskRules getActor(String actorId) {
+        return actorId != null ? actorsByName.get(actorId) : null;
+    }
+
+    public ActorRiskRules getActor(int id) {
+        return actors[id];
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public int getActorCount() {
+        return actors.length;
+    }
+
+    /**
+     * Converts a notional back to a currency amount.
+     */
+    public BigDecimal toValue(long notional) {
+        return BigDecimal.valueOf(notional, notionalScale);
+    }
+
+    private static BigDecimal tickLotValue(InstrumentScale scale) {
+        return scale.getTickSize().multiply(scale.getLotSize());
+    }
+
+    private static long lots(BigDecimal quantity, InstrumentScale scale, RoundingMode rounding) {
+        BigDecimal lots = quantity.divide(scale.getLotSize(), 0, rounding);
+        return saturate(lots);
+    }
+
+    /**
+     * A missing limit is no limit.
+     */
+    private static long notional(BigDecimal value, int notionalScale) {
+        if (value == null) {
+            return Long.MAX_VALUE;
+        }
+        return saturate(value.movePointRight(notionalScale).setScale(0, RoundingMode.FLOOR));
+    }
+
+    private static long saturate(BigDecimal integral) {
+        if (integral.signum() < 0) {
+            return 0L;
+        }
+        return integral.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE : integral.longValue();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tradar.matching.engine.risk;
+
+import com.tradar.matching.engine.InstrumentScale;
+import lombok.Getter;
+
+/**
+ * The pre-trade rules of one symbol, resolved from reference data into the ticks
+ * and lots of the symbol's {@link InstrumentScale}.
+ */
+@Getter
+public final class SymbolRiskRules {
+    /** Id in the {@link RiskRules#getDirectory() directory}, the symbol's bit in {@link ActorRiskRules} allowed sets. */
+    private final int id;
+    private final String symbol;
+    private final boolean active;
+    private final InstrumentScale scale;
+    private final long minQuantity;
+    private final long maxQuantity;
+    /** Fraction of the last trade price an order may deviate from it; NaN for no band. */
+    private final double maxPriceDeviation;
+    /** Value of one tick times one lot, in notional units of the {@link RiskRules}. */
+    private final long notionalPerTickLot;
+
+    SymbolRiskRules(int id, String symbol, boolean active, InstrumentScale scale, long minQuantity,
+                    long maxQuantity, double maxPriceDeviation, long notionalPerTickLot) {
+        this.id = id;
+        this.symbol = symbol;
+        this.active = active;
+        this.scale = scale;
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+        this.maxPriceDeviation = maxPriceDeviation;
+        this.notionalPerTickLot = notionalPerTickLot;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SymbolRiskRules{id=%d, symbol='%s', active=%s, lots=[%d, %d], deviation=%s}",
+            id, symbol, active, minQuantity, maxQuantity, maxPriceDeviation);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tradar.matching.engine.shard;
+
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.command.OrderCommand;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A worker thread that exclusively owns a {@link MatchingEngine} and the books of
+ * the symbols pinned to it. Commands arrive through a single-producer ring buffer
+ * and are applied strictly in the order they were published.
+ */
+@Slf4j
+public class MatchingShard implements Runnable {
+    private static final int SPINS_BEFORE_PARK = 10_000;
+    private static final long PARK_NANOS = 50_000L;
+    private static final long IDLE_NOTIFY_NANOS = 100_000_000L;
+
+    @Getter
+    private final int shardId;
+    @Getter
+    private final MatchingEngine engine;
+    private final SpscRingBuffer<OrderCommand> inbound;
+    private final MatchingEventListener listener;
+    private final boolean busySpin;
+    private volatile boolean running = true;
+    @Getter
+    private volatile long processedCount;
+
+    public MatchingShard(int shardId, MatchingEngine engine, int ringCapacity,
+                         MatchingEventListener listener, boolean busySpin) {
+        this.shardId = shardId;
+        this.engine = engine;
+        this.inbound = new SpscRingBuffer<>(ringCapacity, OrderCommand::new);
+        this.listener = listener;
+        this.busySpin = busySpin;
+    }
+
+    /**
+     * Producer only. Returns a free command slot, waiting while the ring is full.
+     */
+    OrderCommand claim() {
+        OrderCommand slot;
+        while ((slot = inbound.claim()) == null) {
+            if (!running) {
+                throw new IllegalStateException("Matching shard " + shardId + " is stopped");
+            }
+            Thread.onSpinWait();
+        }
+        return slot;
+    }
+
+    /**
+     * Producer only. Hands the claimed slot to the shard.
+     */
+    void publish() {
+        inbound.publish();
+    }
+
+    @Override
+    public void run() {
+        log.info("Matching shard {} started", shardId);
+        int idleSpins = 0;
+        long lastIdleNotify = 0L;
+        long processed = 0L;
+
+        while (running || inbound.size() > 0) {
+            OrderCommand command = inbound.poll();
+            if (command == null) {
+                processedCount = processed;
+                long now = System.nanoTime();
+                if (idleSpins == 0 || now - lastIdleNotify >= IDLE_NOTIFY_NANOS) {
+                    lastIdleNotify = now;
+                    notifyIdle();
+                }
+                if (idleSpins < SPINS_BEFORE_PARK) {
+                    idleSpins++;
+                }
+                if (busySpin || idleSpins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                continue;
+            }
+
+            idleSpins = 0;
+            try {
+                engine.processCommand(command, listener);
+            } catch (RuntimeException e) {
+                log.error("Error processing command {} on shard {}", command.getSequence(), shardId, e);
+            } finally {
+                command.clear();
+                inbound.release();
+            }
+            processed++;
+        }
+
+        processedCount = processed;
+        log.info("Matching shard {} stopped after {} commands", shardId, processed);
+    }
+
+    private void notifyIdle() {
+        try {
+            listener.onIdle();
+        } catch (RuntimeException e) {
+            log.error("Error in idle callback on shard {}", shardId, e);
+        }
+    }
+
+    /**
+     * Stops the shard once the commands already published have been processed.
+     */
+    void stop() {
+        running = false;
+    }
+}
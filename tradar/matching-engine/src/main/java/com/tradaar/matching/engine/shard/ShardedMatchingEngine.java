@@ -0,0 +1,183 @@
+package com.tradar.matching.engine.shard;
+
+import com.tradar.core.model.Order;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.book.OrderBookType;
+import com.tradar.matching.engine.command.OrderCommand;
+import com.tradar.matching.engine.latency.LatencyMonitor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs matching across several worker threads. Every symbol is pinned to one
+ * {@link MatchingShard}, which owns that symbol's book exclusively, so books need
+ * no locks and each book sees its commands in a deterministic order while
+ * different symbols match in parallel.
+ * <p>
+ * The thread calling the submit methods acts as the sequencer: it stamps each
+ * command with a global sequence number and writes it into the owning shard's
+ * pre-allocated single-producer ring buffer. Submission must therefore happen
+ * from one thread at a time, typically the order gateway thread.
+ */
+@Slf4j
+public class ShardedMatchingEngine {
+    public static final int DEFAULT_RING_CAPACITY = 65_536;
+
+    private final MatchingShard[] shards;
+    private final List<Thread> threads;
+    private final Map<String, Integer> pinnedSymbols;
+    private long sequence;
+    private boolean stampEnqueue;
+
+    public ShardedMatchingEngine(int shardCount, MatchingEventListener listener) {
+        this(shardCount, DEFAULT_RING_CAPACITY, MatchingEngine::new, listener, false);
+    }
+
+    /**
+     * @param engineFactory creates the engine owned by each shard
+     * @param busySpin whether idle shards spin instead of parking, for dedicated cores
+     */
+    public ShardedMatchingEngine(int shardCount, int ringCapacity, Supplier<MatchingEngine> engineFactory,
+                                 MatchingEventListener listener, boolean busySpin) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shards = new MatchingShard[shardCount];
+        this.threads = new ArrayList<>(shardCount);
+        this.pinnedSymbols = new ConcurrentHashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchingShard(i, engineFactory.get(), ringCapacity, listener, busySpin);
+        }
+    }
+
+    /**
+     * Pins a symbol to a specific shard instead of the hash-based default. Must be
+     * called before the first command for the symbol.
+     */
+    public void pinSymbol(String symbol, int shardId) {
+        if (shardId < 0 || shardId >= shards.length) {
+            throw new IllegalArgumentException("No shard " + shardId);
+        }
+        pinnedSymbols.put(symbol, shardId);
+    }
+
+    /**
+     * Selects the book implementation for a symbol on its owning shard. Must be
+     * called before the engine is started.
+     */
+    public void setOrderBookType(String symbol, OrderBookType type) {
+        shardFor(symbol).getEngine().setOrderBookType(symbol, type);
+    }
+
+    /**
+     * Times commands through the shards: each shard's engine records into its own
+     * recorder of the monitor, and submitted commands are stamped as they enter a
+     * shard's ring buffer. Must be called before the engine is started.
+     */
+    public void setLatencyMonitor(LatencyMonitor monitor) {
+        for (MatchingShard shard : shards) {
+            shard.getEngine().setLatencyRecorder(monitor.newRecorder());
+        }
+        stampEnqueue = true;
+    }
+
+    public void start() {
+        for (MatchingShard shard : shards) {
+            Thread thread = new Thread(shard, "matching-shard-" + shard.getShardId());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Started {} matching shards", shards.length);
+    }
+
+    /**
+     * Stops all shards after they drain the commands already submitted.
+     */
+    public void stop() throws InterruptedException {
+        for (MatchingShard shard : shards) {
+            shard.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        threads.clear();
+    }
+
+    /**
+     * @return the sequence number assigned to the command
+     */
+    public long submitOrder(Order order) {
+        return submitOrder(order, null);
+    }
+
+    /**
+     * @param actorId the actor placing the order, for pre-trade risk checks
+     * @return the sequence number assigned to the command
+     */
+    public long submitOrder(Order order, String actorId) {
+        MatchingShard shard = shardFor(order.getSymbol());
+        return publish(shard, shard.claim().newOrder(order, actorId));
+    }
+
+    /**
+     * Submits a copy of a command, such as one decoded by the order gateway,
+     * keeping its symbol id and latency timestamps. Commands are routed by symbol
+     * name, so a symbol stays on its shard whichever directories know it.
+     *
+     * @return the sequence number assigned to the command
+     */
+    public long submit(OrderCommand command) {
+        MatchingShard shard = shardFor(command.getSymbol());
+        OrderCommand slot = shard.claim();
+        switch (command.getType()) {
+            case NEW -> slot.newOrder(command.getOrder(), command.getActorId());
+            case CANCEL -> slot.cancel(command.getSymbol(), command.getOrderId());
+            case AMEND -> slot.amend(command.getSymbol(), command.getOrderId(),
+                command.getQuantity(), command.getPrice());
+        }
+        slot.symbolId(command.getSymbolDirectory(), command.getSymbolId());
+        slot.copyTimestamps(command);
+        return publish(shard, slot);
+    }
+
+    public long submitCancel(String symbol, String orderId) {
+        MatchingShard shard = shardFor(symbol);
+        return publish(shard, shard.claim().cancel(symbol, orderId));
+    }
+
+    public long submitAmend(String symbol, String orderId, BigDecimal quantity, BigDecimal price) {
+        MatchingShard shard = shardFor(symbol);
+        return publish(shard, shard.claim().amend(symbol, orderId, quantity, price));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardIndexFor(String symbol) {
+        Integer pinned = pinnedSymbols.get(symbol);
+        return pinned != null ? pinned : Math.floorMod(symbol.hashCode(), shards.length);
+    }
+
+    private MatchingShard shardFor(String symbol) {
+        return shards[shardIndexFor(symbol)];
+    }
+
+    private long publish(MatchingShard shard, OrderCommand command) {
+        long seq = ++sequence;
+        command.setSequence(seq);
+        if (stampEnqueue) {
+            command.setEnqueueNanos(System.nanoTime());
+        }
+        shard.publish();
+        return seq;
+    }
+}
@@ -0,0 +1,116 @@
+package com.tradar.matching.engine.shard;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free single-producer/single-consumer ring of pre-allocated slots.
+ * The producer claims a slot, fills it in place and publishes it; the consumer
+ * polls the slot, processes it and releases it for reuse. Nothing is allocated
+ * after construction, and the head and tail counters sit on separate cache lines
+ * with each side caching the other's counter to avoid needless volatile reads.
+ *
+ * @param <E> slot type
+ */
+public final class SpscRingBuffer<E> {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscRingBuffer.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscRingBuffer.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final E[] slots;
+    private final int mask;
+
+    // Each counter is written by its owning side only and read by the other
+    // side through acquire/release VarHandle access
+
+    // Producer side
+    private long p01, p02, p03, p04, p05, p06, p07;
+    private long tail;
+    private long cachedHead;
+
+    // Consumer side
+    private long p11, p12, p13, p14, p15, p16, p17;
+    private long head;
+    private long cachedTail;
+    private long p21, p22, p23, p24, p25, p26, p27;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param slotFactory creates each slot once, up front
+     */
+    @SuppressWarnings("unchecked")
+    public SpscRingBuffer(int capacity, Supplier<E> slotFactory) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = (E[]) new Object[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = slotFactory.get();
+        }
+    }
+
+    /**
+     * Producer only. Returns the next free slot to fill, or null if the ring is full.
+     * The slot becomes visible to the consumer on {@link #publish()}.
+     */
+    public E claim() {
+        long t = tail;
+        if (t - cachedHead >= slots.length) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (t - cachedHead >= slots.length) {
+                return null;
+            }
+        }
+        return slots[(int) t & mask];
+    }
+
+    /**
+     * Producer only. Publishes the slot returned by the last {@link #claim()}.
+     */
+    public void publish() {
+        TAIL.setRelease(this, tail + 1);
+    }
+
+    /**
+     * Consumer only. Returns the next published slot without removing it, or null
+     * if the ring is empty. Call {@link #release()} once done with the slot.
+     */
+    public E poll() {
+        long h = head;
+        if (h >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        return slots[(int) h & mask];
+    }
+
+    /**
+     * Consumer only. Hands the slot returned by the last {@link #poll()} back to
+     * the producer.
+     */
+    public void release() {
+        HEAD.setRelease(this, head + 1);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        return (int) ((long) TAIL.getAcquire(this) - (long) HEAD.getAcquire(this));
+    }
+}
@@ -0,0 +1,83 @@
+package com.tradar.matching.engine;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.command.OrderCommand;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A new order reusing the id of a resting order is rejected before it can trade.
+ */
+class MatchingEngineDuplicateOrderTest {
+    private static final String SYMBOL = "DUP";
+
+    private static final InstrumentScale SCALE = new InstrumentScale(new BigDecimal("0.01"), BigDecimal.ONE);
+
+    private final MatchingEngine engine = new MatchingEngine(symbol -> SCALE);
+
+    @Test
+    void duplicateCommandIsRejectedWithoutTrading() {
+        engine.processOrder(order("A", OrderSide.SELL, 10));
+        List<Trade> published = new ArrayList<>();
+        List<String> rejections = new ArrayList<>();
+
+        engine.processCommand(new OrderCommand().newOrder(order("A", OrderSide.BUY, 4)), new MatchingEventListener() {
+            @Override
+            public void onTrades(List<Trade> trades) {
+                published.addAll(trades);
+            }
+
+            @Override
+            public void onCommandRejected(OrderCommand command, String reason) {
+                rejections.add(reason);
+            }
+        });
+
+        assertTrue(published.isEmpty());
+        assertEquals(List.of("Duplicate order id in book: A"), rejections);
+        assertBookUnchanged();
+    }
+
+    @Test
+    void duplicateOrderThrowsWithoutTrading() {
+        engine.processOrder(order("A", OrderSide.SELL, 10));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.processOrder(order("A", OrderSide.BUY, 4)));
+        assertBookUnchanged();
+    }
+
+    private void assertBookUnchanged() {
+        OrderBook book = engine.getOrderBook(SYMBOL);
+        assertEquals(1, book.getOrderCount());
+        assertEquals(10, book.getOrder("A").getLeavesQuantity());
+        assertEquals(OrderStatus.NEW, book.getOrder("A").getOrder().getStatus());
+    }
+
+    private static Order order(String orderId, OrderSide side, long quantity) {
+        return Order.builder()
+            .orderId(orderId)
+            .symbol(SYMBOL)
+            .side(side)
+            .type(OrderType.LIMIT)
+            .quantity(BigDecimal.valueOf(quantity))
+            .price(new BigDecimal("100.00"))
+            .timeInForce(TimeInForce.DAY)
+            .timestamp(LocalDateTime.of(2024, 1, 2, 9, 30))
+            .status(OrderStatus.NEW)
+            .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.tradar.matching.engine;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.book.BookOrder;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.book.OrderBookType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A single aggressive order sweeping a 10,000-order book, checking the fill
+ * accounting of every trade and the book left behind.
+ */
+class MatchingEngineSweepTest {
+    private static final String SYMBOL = "SWEEP";
+    private static final InstrumentScale SCALE = new InstrumentScale(new BigDecimal("0.01"), BigDecimal.ONE);
+    private static final int LEVELS = 100;
+    private static final int ORDERS_PER_LEVEL = 100;
+    private static final int ORDERS = LEVELS * ORDERS_PER_LEVEL;
+    private static final long BASE_PRICE_CENTS = 10_000L;
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 2, 9, 30);
+
+    @ParameterizedTest
+    @EnumSource(OrderBookType.class)
+    void limitOrderSweepsBookAndLeavesPartialFillResting(OrderBookType bookType) {
+        MatchingEngine engine = engine(bookType);
+        long[] quantities = restOffers(engine);
+        long total = sum(quantities);
+
+        Order sweep = order("SWEEP", OrderSide.BUY, OrderType.LIMIT, total - 3,
+            price(BASE_PRICE_CENTS + LEVELS - 1));
+        List<Trade> trades = engine.processOrder(sweep);
+
+        assertEquals(ORDERS, trades.size());
+        for (int i = 0; i < ORDERS; i++) {
+            Trade trade = trades.get(i);
+            long expected = i == ORDERS - 1 ? quantities[i] - 3 : quantities[i];
+            assertEquals("S" + i, trade.getSellOrderId());
+            assertEquals("SWEEP", trade.getBuyOrderId());
+            assertEquals(0, BigDecimal.valueOf(expected).compareTo(trade.getQuantity()), "quantity of trade " + i);
+            assertEquals(0, price(BASE_PRICE_CENTS + i / ORDERS_PER_LEVEL).compareTo(trade.getPrice()),
+                "price of trade " + i);
+        }
+        assertEquals(OrderStatus.FILLED, sweep.getStatus());
+
+        OrderBook book = engine.getOrderBook(SYMBOL);
+        assertEquals(1, book.getOrderCount());
+        BookOrder partial = book.getOrder("S" + (ORDERS - 1));
+        assertEquals(3, partial.getLeavesQuantity());
+        assertEquals(quantities[ORDERS - 1] - 3, partial.getFilledQuantity());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, partial.getOrder().getStatus());
+        assertEquals(0, price(BASE_PRICE_CENTS + LEVELS - 1).compareTo(book.getBestAsk()));
+        assertNull(book.getBestBid());
+        assertEquals(3, book.getBestLevel(OrderSide.SELL).getTotalQuantity());
+        assertEquals(1, book.getBestLevel(OrderSide.SELL).getOrderCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderBookType.class)
+    void marketOrderLargerThanBookEmptiesIt(OrderBookType bookType) {
+        MatchingEngine engine = engine(bookType);
+        long total = sum(restOffers(engine));
+
+        Order sweep = order("SWEEP", OrderSide.BUY, OrderType.MARKET, total + 50, null);
+        List<Trade> trades = engine.processOrder(sweep);
+
+        assertEquals(ORDERS, trades.size());
+        assertEquals(0, BigDecimal.valueOf(total).compareTo(
+            trades.stream().map(Trade::getQuantity).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, sweep.getStatus());
+
+        OrderBook book = engine.getOrderBook(SYMBOL);
+        assertEquals(0, book.getOrderCount());
+        assertNull(book.getBestLevel(OrderSide.SELL));
+        assertNull(book.getBestLevel(OrderSide.BUY));
+        assertNull(book.getOrder("S0"));
+    }
+
+    private static MatchingEngine engine(OrderBookType bookType) {
+        MatchingEngine engine = new MatchingEngine(symbol -> SCALE);
+        engine.setOrderBookType(SYMBOL, bookType);
+        return engine;
+    }
+
+    /**
+     * Rests 10,000 offers of 5 to 11 lots, 100 per level over 100 levels.
+     *
+     * @return the quantity of each offer, in time priority order
+     */
+    private static long[] restOffers(MatchingEngine engine) {
+        long[] quantities = new long[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            quantities[i] = 5 + i % 7;
+            List<Trade> trades = engine.processOrder(order("S" + i, OrderSide.SELL, OrderType.LIMIT, quantities[i],
+                price(BASE_PRICE_CENTS + i / ORDERS_PER_LEVEL)));
+            assertEquals(0, trades.size());
+        }
+        assertEquals(ORDERS, engine.getOrderBook(SYMBOL).getOrderCount());
+        return quantities;
+    }
+
+    private static long sum(long[] quantities) {
+        long total = 0;
+        for (long quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    private static BigDecimal price(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static Order order(String orderId, OrderSide side, OrderType type, long quantity, BigDecimal price) {
+        return Order.builder()
+            .orderId(orderId)
+            .symbol(SYMBOL)
+            .side(side)
+            .type(type)
+            .quantity(BigDecimal.valueOf(quantity))
+            .price(price)
+            .timeInForce(TimeInForce.DAY)
+            .timestamp(TIMESTAMP)
+            .status(OrderStatus.NEW)
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.matching.engine.command.OrderCommand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Segments carry a format version, and a journal holding segments of another
+ * version is refused on open instead of being misread.
+ */
+class CommandJournalTest {
+    private static final int SEGMENT_SIZE = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedJournalReplaysItsCommands() throws IOException {
+        try (CommandJournal journal = open()) {
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                OrderCommand command = new OrderCommand().cancel("JRN", "C" + sequence);
+                command.setSequence(sequence);
+                journal.append(command);
+            }
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (CommandJournal journal = open()) {
+            assertEquals(3L, journal.getAppendedSequence());
+            assertEquals(3L, journal.replay(1L, command -> replayed.add(command.getOrderId())));
+        }
+        assertEquals(List.of("C2", "C3"), replayed);
+    }
+
+    @Test
+    void replayFailsOnMissingCommands() throws IOException {
+        try (CommandJournal journal = new CommandJournal(directory, 128 * 1024, 1_000L)) {
+            for (long sequence = 1; sequence <= 10_000; sequence++) {
+                OrderCommand command = new OrderCommand().cancel("JRN", "C" + sequence);
+                command.setSequence(sequence);
+                journal.append(command);
+            }
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().toList();
+        }
+        assertTrue(segments.size() > 1, "commands should span several segments");
+        Files.delete(segments.get(0));
+        String second = segments.get(1).getFileName().toString();
+        long secondStart = Long.parseLong(second.substring("commands-".length(), second.indexOf('.')));
+
+        try (CommandJournal journal = open()) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> journal.replay(0L, command -> { }));
+            assertTrue(e.getMessage().contains("expected sequence 1"), e.getMessage());
+            assertEquals(10_000L, journal.replay(secondStart - 1, command -> { }));
+        }
+    }
+
+    @Test
+    void segmentWithoutHeaderIsRejected() throws IOException {
+        // A version 1 segment starts straight with a record: length, crc, sequence...
+        writeSegment(ByteBuffer.allocate(64).putInt(20).putInt(0x1234).putLong(1L));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::open);
+        assertTrue(e.getMessage().contains("no format header"), e.getMessage());
+    }
+
+    @Test
+    void segmentOfAnotherVersionIsRejected() throws IOException {
+        writeSegment(ByteBuffer.allocate(64).putInt(0x54524A4C).putInt(99));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::open);
+        assertTrue(e.getMessage().contains("format version 99"), e.getMessage());
+    }
+
+    @Test
+    void segmentWithoutHeaderWrittenIsDroppedAsEmpty() throws IOException {
+        Path segment = writeSegment(ByteBuffer.allocate(64));
+
+        try (CommandJournal journal = open()) {
+            assertEquals(0L, journal.getAppendedSequence());
+        }
+        assertFalse(Files.exists(segment));
+    }
+
+    private CommandJournal open() throws IOException {
+        return new CommandJournal(directory, SEGMENT_SIZE, 1_000L);
+    }
+
+    private Path writeSegment(ByteBuffer content) throws IOException {
+        Path segment = directory.resolve(String.format("commands-%020d.journal", 1L));
+        Files.write(segment, content.array());
+        return segment;
+    }
+}
@@ -0,0 +1,202 @@
+package com.tradar.matching.engine.journal;
+
+import com.tradar.core.model.Order;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.model.TimeInForce;
+import com.tradar.core.model.Trade;
+import com.tradar.matching.engine.InstrumentScale;
+import com.tradar.matching.engine.MatchingEngine;
+import com.tradar.matching.engine.MatchingEventListener;
+import com.tradar.matching.engine.book.OrderBook;
+import com.tradar.matching.engine.command.OrderCommand;
+import com.tradar.matching.engine.risk.PreTradeRisk;
+import com.tradar.matching.engine.risk.RejectCode;
+import com.tradar.matching.engine.risk.RiskRules;
+import com.tradar.refdata.limit.DailyLimitLedger;
+import com.tradar.refdata.model.Actor;
+import com.tradar.refdata.model.Symbol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Recovering from a snapshot and the journal after it makes the same pre-trade
+ * risk decisions as the engine that wrote them, which depend on the books' last
+ * trade prices and the actors' daily limit usage at the snapshot. A replayed
+ * order that was rejected but now passes would trade, so the recovered books
+ * and usage show any difference. Recovery falling back to an older snapshot
+ * still replays every command after it.
+ */
+class JournaledMatchingEngineRecoveryTest {
+    private static final String SYMBOL = "RCV";
+    private static final String SELLER = "SELLER";
+    private static final String BUYER = "BUYER";
+    private static final int SMALL_SEGMENT_SIZE = 128 * 1024;
+
+    private static final Symbol REFERENCE = Symbol.builder()
+        .symbol(SYMBOL)
+        .tickSize(new BigDecimal("0.01"))
+        .lotSize(BigDecimal.ONE)
+        .maxPriceDeviation(BigDecimal.TEN)
+        .active(true)
+        .build();
+
+    @TempDir
+    Path directory;
+
+    private int nextOrderId;
+
+    @Test
+    void recoveryRestoresLastTradePriceAndDailyLimitUsage() throws IOException {
+        DailyLimitLedger ledger = ledger();
+        List<String> rejections = new ArrayList<>();
+        try (JournaledMatchingEngine journaled = journaledEngine(ledger, rejections)) {
+            journaled.recover();
+            journaled.submitOrder(order(OrderSide.SELL, 5, "100.00"), SELLER);
+            journaled.submitOrder(order(OrderSide.BUY, 2, "100.00"), BUYER);
+            journaled.snapshot();
+
+            // Outside the 10% band around the last trade, which only the snapshot holds
+            journaled.submitOrder(order(OrderSide.BUY, 1, "150.00"), BUYER);
+            // Past the buyer's limit given what it has traded before the snapshot
+            journaled.submitOrder(order(OrderSide.BUY, 9, "100.00"), BUYER);
+            // Fills against the seller's order restored with its reservation
+            journaled.submitOrder(order(OrderSide.BUY, 1, "100.00"), BUYER);
+        }
+        assertEquals(List.of(RejectCode.PRICE_OUTSIDE_BAND.getReason(), RejectCode.DAILY_LIMIT_EXCEEDED.getReason()),
+            rejections);
+        assertUsage(ledger, 300_00L, 200_00L, 300_00L);
+
+        DailyLimitLedger recoveredLedger = ledger();
+        try (JournaledMatchingEngine recovered = journaledEngine(recoveredLedger, new ArrayList<>())) {
+            assertEquals(5L, recovered.recover());
+            OrderBook book = recovered.getEngine().getOrderBook(SYMBOL);
+            assertEquals(10_000L, book.getLastTradePrice());
+            assertEquals(1, book.getOrderCount());
+            assertEquals(2L, book.getBestLevel(OrderSide.SELL).getHead().getLeavesQuantity());
+        }
+        assertUsage(recoveredLedger, 300_00L, 200_00L, 300_00L);
+    }
+
+    @Test
+    void recoveryFallsBackToOlderSnapshotWithoutLosingCommands() throws IOException {
+        try (JournaledMatchingEngine journaled = journaledEngine(SMALL_SEGMENT_SIZE)) {
+            journaled.recover();
+            submitSells(journaled, 3_000);
+            journaled.snapshot();
+            submitSells(journaled, 3_000);
+            journaled.snapshot();
+            submitSells(journaled, 100);
+        }
+        List<Path> segments = list(directory.resolve("journal"));
+        assertFalse(segments.get(0).getFileName().toString().endsWith("00001.journal"),
+            "segments covered by both snapshots should be deleted");
+
+        List<Path> snapshots = list(directory.resolve("snapshots"));
+        assertEquals(2, snapshots.size());
+        Path newest = snapshots.get(1);
+        byte[] content = Files.readAllBytes(newest);
+        Files.write(newest, Arrays.copyOf(content, content.length - 1));
+
+        try (JournaledMatchingEngine recovered = journaledEngine(SMALL_SEGMENT_SIZE)) {
+            assertEquals(6_100L, recovered.recover());
+            assertEquals(6_100, recovered.getEngine().getOrderBook(SYMBOL).getOrderCount());
+        }
+    }
+
+    private void submitSells(JournaledMatchingEngine journaled, int count) {
+        for (int i = 0; i < count; i++) {
+            journaled.submitOrder(order(OrderSide.SELL, 1, "100.00"));
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void assertUsage(DailyLimitLedger ledger, long sellerUsed, long sellerReserved, long buyerUsed) {
+        DailyLimitLedger.Account seller = ledger.getAccount(SELLER);
+        DailyLimitLedger.Account buyer = ledger.getAccount(BUYER);
+        assertEquals(sellerUsed, seller.getUsed());
+        assertEquals(sellerReserved, seller.getReserved());
+        assertEquals(1_000_00L - sellerUsed - sellerReserved, seller.getAvailable());
+        assertEquals(buyerUsed, buyer.getUsed());
+        assertEquals(0L, buyer.getReserved());
+        assertEquals(1_000_00L - buyerUsed, buyer.getAvailable());
+    }
+
+    private JournaledMatchingEngine journaledEngine(int segmentSize) throws IOException {
+        return new JournaledMatchingEngine(new MatchingEngine(symbol -> InstrumentScale.of(REFERENCE)),
+            config(segmentSize), trades -> {});
+    }
+
+    private JournaledMatchingEngine journaledEngine(DailyLimitLedger ledger, List<String> rejections)
+            throws IOException {
+        MatchingEngine engine = new MatchingEngine(symbol -> InstrumentScale.of(REFERENCE));
+        engine.setPreTradeRisk(new PreTradeRisk(RiskRules.compile(List.of(REFERENCE),
+            List.of(actor(SELLER), actor(BUYER)), ledger, engine.getSymbolDirectory())));
+        return new JournaledMatchingEngine(engine, config(1 << 20), new MatchingEventListener() {
+            @Override
+            public void onTrades(List<Trade> trades) {
+            }
+
+            @Override
+            public void onCommandRejected(OrderCommand command, String reason) {
+                rejections.add(reason);
+            }
+        });
+    }
+
+    private JournalConfig config(int segmentSize) {
+        return JournalConfig.builder()
+            .directory(directory)
+            .segmentSize(segmentSize)
+            .snapshotEveryCommands(0L)
+            .snapshotInterval(null)
+            .build();
+    }
+
+    private static DailyLimitLedger ledger() {
+        return new DailyLimitLedger(Map.of(SELLER, new BigDecimal("1000"), BUYER, new BigDecimal("1000")), 2);
+    }
+
+    private static Actor actor(String actorId) {
+        return Actor.builder()
+            .actorId(actorId)
+            .allowedSymbols(Set.of(SYMBOL))
+            .active(true)
+            .build();
+    }
+
+    private Order order(OrderSide side, long quantity, String price) {
+        return Order.builder()
+            .orderId("R" + ++nextOrderId)
+            .symbol(SYMBOL)
+            .side(side)
+            .type(OrderType.LIMIT)
+            .quantity(BigDecimal.valueOf(quantity))
+            .price(new BigDecimal(price))
+            .timeInForce(TimeInForce.DAY)
+            .timestamp(LocalDateTime.of(2024, 1, 2, 9, 30))
+            .status(OrderStatus.NEW)
+            .build();
+    }
+}
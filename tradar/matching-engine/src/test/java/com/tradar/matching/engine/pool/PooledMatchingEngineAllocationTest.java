@@ -0,0 +1,111 @@
+package com.tradar.matching.engine.pool;
+
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderType;
+import com.tradar.core.symbol.SymbolDirectory;
+import com.tradar.matching.engine.InstrumentScale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Steady-state matching in the {@link PooledMatchingEngine} allocates nothing per
+ * order, counted with the JVM's per-thread allocation counter over flows that rest
+ * and fill, rest and cancel, and sweep levels with market orders.
+ * <p>
+ * Each flow is measured over a few passes and the best must allocate nothing: an
+ * allocation per order shows in every pass, while the JIT can charge the odd
+ * one-off allocation to the thread as it recompiles the loop.
+ */
+class PooledMatchingEngineAllocationTest {
+    private static final InstrumentScale SCALE = new InstrumentScale(new BigDecimal("0.01"), BigDecimal.ONE);
+    private static final String SYMBOL = "POOLED";
+    private static final int LEVELS_PER_SIDE = 100;
+    private static final long MID = 10_000L;
+    private static final int WARMUP_ROUNDS = 100_000;
+    private static final int MEASURED_ROUNDS = 500_000;
+    private static final int PASSES = 3;
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final TradeEntry lastTrade = new TradeEntry();
+    private PooledMatchingEngine engine;
+    private int symbolId;
+    private long nextOrderId;
+    private long checksum;
+    private long rounds;
+
+    @BeforeEach
+    void buildBook() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counting is not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        SymbolDirectory directory = new SymbolDirectory();
+        symbolId = directory.intern(SYMBOL);
+        engine = new PooledMatchingEngine(symbol -> SCALE, directory, PooledMatchingEngine.DEFAULT_POOL_SIZE,
+            trade -> trade.copyTo(lastTrade));
+        nextOrderId = 1L;
+        for (int level = 2; level < 2 + LEVELS_PER_SIDE; level++) {
+            submit(OrderSide.BUY, OrderType.LIMIT, MID - level, 10);
+            submit(OrderSide.SELL, OrderType.LIMIT, MID + level, 10);
+        }
+    }
+
+    @Test
+    void restAndFillAllocatesNothing() {
+        assertAllocatesNothing(() -> {
+            checksum += submit(OrderSide.BUY, OrderType.LIMIT, MID, 10);
+            checksum += submit(OrderSide.SELL, OrderType.LIMIT, MID, 10);
+            checksum += lastTrade.getQuantity();
+        });
+        assertEquals(20L * rounds, checksum);
+    }
+
+    @Test
+    void restAndCancelAllocatesNothing() {
+        assertAllocatesNothing(() -> {
+            long orderId = nextOrderId;
+            checksum += submit(OrderSide.SELL, OrderType.LIMIT, MID + 1, 5);
+            checksum += engine.cancel(symbolId, orderId);
+        });
+        assertEquals(10L * rounds, checksum);
+    }
+
+    @Test
+    void marketSweepAllocatesNothing() {
+        assertAllocatesNothing(() -> {
+            // Takes the two best offers and puts them back
+            checksum += submit(OrderSide.BUY, OrderType.MARKET, 0L, 20);
+            checksum += submit(OrderSide.SELL, OrderType.LIMIT, MID + 2, 10);
+            checksum += submit(OrderSide.SELL, OrderType.LIMIT, MID + 3, 10);
+        });
+        assertEquals(20L * rounds, checksum);
+    }
+
+    private void assertAllocatesNothing(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        rounds += WARMUP_ROUNDS;
+        long thread = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < PASSES && best > 0; pass++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                round.run();
+            }
+            rounds += MEASURED_ROUNDS;
+            best = Math.min(best, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        assertEquals(0L, best, "bytes allocated over " + MEASURED_ROUNDS + " rounds");
+        assertEquals(0L, engine.getOrderPool().getMisses(), "order pool misses");
+    }
+
+    private long submit(OrderSide side, OrderType type, long price, long quantity) {
+        return engine.submit(symbolId, nextOrderId++, side, type, price, quantity, 0L);
+    }
+}
@@ -1,12 +1,13 @@
 package com.tradar.order.entry.network;
 
+import com.tradar.core.codec.OrderDecoder;
+import com.tradar.core.codec.OrderEncoder;
 import com.tradar.core.model.Order;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayInputStream;
-import java.io.ObjectInputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.nio.ByteBuffer;
 
 @Slf4j
 public class UDPOrderReceiver implements Runnable {
@@ -21,17 +22,24 @@ public class UDPOrderReceiver implements Runnable {
     @Override
     public void run() {
         byte[] buffer = new byte[4096];
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        OrderDecoder decoder = new OrderDecoder();
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
 
         while (running) {
             try {
-                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                packet.setLength(buffer.length);
                 socket.receive(packet);
+                if (packet.getLength() < OrderEncoder.ENCODED_LENGTH) {
+                    log.warn("Dropping short packet of {} bytes from {}", packet.getLength(), packet.getSocketAddress());
+                    continue;
+                }
 
-                ByteArrayInputStream bais = new ByteArrayInputStream(packet.getData());
-                ObjectInputStream ois = new ObjectInputStream(bais);
-                Order order = (Order) ois.readObject();
+                Order order = decoder.wrap(view, 0).toOrder();
 
                 log.info("Received order: {}", order);
+            } catch (IllegalArgumentException e) {
+                log.warn("Dropping malformed packet from {}: {}", packet.getSocketAddress(), e.getMessage());
             } catch (Exception e) {
                 if (running) {
                     log.error("Error receiving order", e);
@@ -1,33 +1,36 @@
 package com.tradar.order.entry.network;
 
+import com.tradar.core.codec.OrderEncoder;
 import com.tradar.core.model.Order;
+import com.tradar.core.time.EpochClock;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.nio.ByteBuffer;
 
 @Slf4j
 public class UDPOrderSender {
     private static final int PORT = 9876;
     private final DatagramSocket socket;
     private final InetAddress address;
+    // Reused for every send; guarded by the sendOrder monitor
+    private final ByteBuffer buffer = ByteBuffer.allocate(OrderEncoder.ENCODED_LENGTH);
+    private final OrderEncoder encoder = new OrderEncoder();
+    private final DatagramPacket packet;
 
     public UDPOrderSender() throws Exception {
         socket = new DatagramSocket();
         address = InetAddress.getLocalHost();
+        packet = new DatagramPacket(buffer.array(), buffer.capacity(), address, PORT);
     }
 
-    public void sendOrder(Order order) {
+    public synchronized void sendOrder(Order order) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(order);
-            byte[] data = baos.toByteArray();
-
-            DatagramPacket packet = new DatagramPacket(data, data.length, address, PORT);
+            int length = encoder.wrap(buffer, 0).encode(order);
+            encoder.sendTime(EpochClock.nanos());
+            packet.setLength(length);
             socket.send(packet);
             log.info("Order sent: {}", order);
         } catch (Exception e) {
@@ -40,4 +43,4 @@ public class UDPOrderSender {
             socket.close();
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,355 @@
+package com.tradar.refdata.limit;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Daily trading limit accounting for actors, in long notionals: amounts in units
+ * of {@code 10^-notionalScale} of the currency.
+ * <p>
+ * An order reserves its value against the actor's limit when it is accepted. Each
+ * fill commits its share of the reservation, charging what it actually traded for
+ * and returning any difference, and a cancel releases what is left. A reservation
+ * succeeds atomically or not at all, so concurrent orders can never take an actor
+ * past its limit.
+ * <p>
+ * Each actor's remaining headroom is split into stripes on separate cache lines,
+ * and a thread works on the stripe it hashes to, so threads placing orders for
+ * the same actor rarely touch the same counter. A reservation larger than its
+ * stripe's share gathers headroom from the other stripes. Near the limit, two
+ * reservations gathering at once may both fail where one alone would have
+ * succeeded.
+ * <p>
+ * {@link #reset()} starts a new trading day by replacing each account's counters
+ * with fresh ones, without locks. Reservations carry the day they were taken on:
+ * releasing one from a past day does nothing, and committing one charges its
+ * fill to the current day.
+ * <p>
+ * {@link #update(Map)} applies new limits in place: accounts keep what they have
+ * traded and reserved today and their headroom moves by the change of limit, so
+ * reference data can be reloaded mid-session.
+ */
+public final class DailyLimitLedger {
+    /** Returned by {@link Account#reserve(long)} when the limit would be exceeded. */
+    public static final long REJECTED = -1L;
+
+    // Longs per stripe, keeping stripes a cache line or more apart
+    private static final int PADDING = 16;
+
+    @Getter
+    private final int notionalScale;
+    private final int stripes;
+    private volatile Map<String, Account> accounts;
+
+    /**
+     * @param limits daily trading limits by actor id; a null limit is no limit
+     * @param notionalScale decimal places of the notional unit
+     */
+    public DailyLimitLedger(Map<String, BigDecimal> limits, int notionalScale) {
+        this(limits, notionalScale, defaultStripes());
+    }
+
+    public DailyLimitLedger(Map<String, BigDecimal> limits, int notionalScale, int stripes) {
+        if (notionalScale < 0 || notionalScale > 18) {
+            throw new IllegalArgumentException("Notional scale must be within [0, 18]: " + notionalScale);
+        }
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a positive power of two: " + stripes);
+        }
+        this.notionalScale = notionalScale;
+        this.stripes = stripes;
+        Map<String, Account> created = new HashMap<>(limits.size() * 2);
+        limits.forEach((actorId, limit) -> created.put(actorId, new Account(actorId, limitNotional(limit))));
+        this.accounts = created;
+    }
+
+    /**
+     * @return the actor's account, or null for an actor without one
+     */
+    public Account getAccount(String actorId) {
+        return actorId != null ? accounts.get(actorId) : null;
+    }
+
+    /**
+     * Applies new limits: existing accounts change limit in place and accounts are
+     * opened for new actors. Accounts of actors left out are kept, so their open
+     * reservations can still settle, and their limits are unchanged.
+     *
+     * @param limits daily trading limits by actor id; a null limit is no limit
+     */
+    public synchronized void update(Map<String, BigDecimal> limits) {
+        Map<String, Account> updated = new HashMap<>(accounts);
+        limits.forEach((actorId, limit) -> {
+            Account account = updated.get(actorId);
+            if (account != null) {
+                account.setLimit(limitNotional(limit));
+            } else {
+                updated.put(actorId, new Account(actorId, limitNotional(limit)));
+            }
+        });
+        accounts = updated;
+    }
+
+    /**
+     * Starts a new trading day for every account.
+     */
+    public void reset() {
+        for (Account account : accounts.values()) {
+            account.reset();
+        }
+    }
+
+    /**
+     * Converts an amount to notional units, rounding up.
+     */
+    public long toNotional(BigDecimal amount) {
+        return saturate(amount.movePointRight(notionalScale).setScale(0, RoundingMode.CEILING));
+    }
+
+    public BigDecimal toAmount(long notional) {
+        return BigDecimal.valueOf(notional, notionalScale);
+    }
+
+    private long limitNotional(BigDecimal limit) {
+        return limit != null ? saturate(limit.movePointRight(notionalScale).setScale(0, RoundingMode.FLOOR))
+                             : Long.MAX_VALUE;
+    }
+
+    private static long saturate(BigDecimal integral) {
+        if (integral.signum() < 0) {
+            return 0L;
+        }
+        return integral.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE : integral.longValue();
+    }
+
+    private static int defaultStripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(1, processors - 1)) << 1;
+    }
+
+    /**
+     * One actor's limit accounting. The public methods are thread-safe and lock-free.
+     */
+    public final class Account {
+        @Getter
+        private final String actorId;
+        @Getter
+        private volatile long limit;
+        private volatile Day day;
+
+        private Account(String actorId, long limit) {
+            this.actorId = actorId;
+            this.limit = limit;
+            this.day = new Day(0L, limit, stripes);
+        }
+
+        /**
+         * Reserves an amount against the limit.
+         *
+         * @return a token naming the reservation's day, to pass to {@link #commit}
+         *         and {@link #release}, or {@link #REJECTED}
+         */
+        public long reserve(long amount) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("Reservation must not be negative: " + amount);
+            }
+            Day current = day;
+            int home = home();
+            if (current.take(home, amount)) {
+                current.reserved.add(amount);
+                return current.number;
+            }
+            // Gather headroom from every stripe; what is left over stays at home
+            long gathered = 0L;
+            for (int i = 0; i < stripes && gathered < amount; i++) {
+                gathered += current.takeAll((home + i) & (stripes - 1));
+            }
+            if (gathered >= amount) {
+                current.add(home, gathered - amount);
+                current.reserved.add(amount);
+                return current.number;
+            }
+            current.add(home, gathered);
+            return REJECTED;
+        }
+
+        /**
+         * Settles part of a reservation with a fill.
+         *
+         * @param reserved the part of the reservation the fill used up
+         * @param filled the value actually traded, which may exceed the part
+         */
+        public void commit(long token, long reserved, long filled) {
+            Day current = day;
+            if (token == current.number) {
+                current.add(home(), reserved - filled);
+                current.reserved.add(-reserved);
+            } else {
+                current.add(home(), -filled);
+            }
+            current.used.add(filled);
+        }
+
+        /**
+         * Returns an unused part of a reservation, for example on cancel.
+         */
+        public void release(long token, long reserved) {
+            Day current = day;
+            if (token == current.number) {
+                current.add(home(), reserved);
+                current.reserved.add(-reserved);
+            }
+        }
+
+        /**
+         * Charges an amount traded without a reservation.
+         */
+        public void record(long amount) {
+            Day current = day;
+            current.add(home(), -amount);
+            current.used.add(amount);
+        }
+
+        /**
+         * @return the token of reservations taken now, which is that of every
+         *         reservation still open on the current day
+         */
+        public long getToken() {
+            return day.number;
+        }
+
+        /**
+         * Restores usage saved before a restart, for example from a snapshot, on
+         * an account that has traded and reserved nothing since it was opened or
+         * last reset. The restored reservations carry {@link #getToken()}.
+         *
+         * @param used the value traded
+         * @param reserved the value reserved and not yet committed or released
+         */
+        public synchronized void restore(long used, long reserved) {
+            Day current = day;
+            current.spread(-used - reserved);
+            current.used.add(used);
+            current.reserved.add(reserved);
+        }
+
+        /**
+         * @return the value traded today
+         */
+        public long getUsed() {
+            return day.used.sum();
+        }
+
+        /**
+         * @return the value reserved today and not yet committed or released
+         */
+        public long getReserved() {
+            return day.reserved.sum();
+        }
+
+        /**
+         * @return the headroom left under the limit, a moment's snapshot under
+         *         concurrent updates
+         */
+        public long getAvailable() {
+            Day current = day;
+            long available = 0L;
+            for (int i = 0; i < stripes; i++) {
+                available += current.headroom.get(i * PADDING);
+            }
+            return available;
+        }
+
+        // Synchronized with each other, so a new day always starts at the latest limit
+        private synchronized void reset() {
+            day = new Day(day.number + 1, limit, stripes);
+        }
+
+        private synchronized void setLimit(long newLimit) {
+            long change = newLimit - limit;
+            limit = newLimit;
+            day.spread(change);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Account{actorId='%s', limit=%d, used=%d, reserved=%d}",
+                actorId, limit, getUsed(), getReserved());
+        }
+    }
+
+    private int home() {
+        return (int) mix(Thread.currentThread().getId()) & (stripes - 1);
+    }
+
+    private static long mix(long value) {
+        value *= 0x9E3779B97F4A7C15L;
+        return value ^ (value >>> 32);
+    }
+
+    /**
+     * One day's counters of an account. Headroom may go negative when fills cost
+     * more than was reserved for them.
+     */
+    private static final class Day {
+        final long number;
+        final AtomicLongArray headroom;
+        final LongAdder used = new LongAdder();
+        final LongAdder reserved = new LongAdder();
+
+        Day(long number, long limit, int stripes) {
+            this.number = number;
+            this.headroom = new AtomicLongArray(stripes * PADDING);
+            spread(limit);
+        }
+
+        /**
+         * Adds an amount to the headroom, in equal shares across the stripes.
+         */
+        void spread(long amount) {
+            int stripes = headroom.length() / PADDING;
+            long share = amount / stripes;
+            for (int i = 0; i < stripes; i++) {
+                headroom.getAndAdd(i * PADDING, share);
+            }
+            headroom.getAndAdd(0, amount - share * stripes);
+        }
+
+        boolean take(int stripe, long amount) {
+            int index = stripe * PADDING;
+            long available;
+            do {
+                available = headroom.get(index);
+                if (available < amount) {
+                    return false;
+                }
+            } while (!headroom.compareAndSet(index, available, available - amount));
+            return true;
+        }
+
+        /**
+         * @return the positive headroom taken from the stripe
+         */
+        long takeAll(int stripe) {
+            int index = stripe * PADDING;
+            long available;
+            do {
+                available = headroom.get(index);
+                if (available <= 0) {
+                    return 0L;
+                }
+            } while (!headroom.compareAndSet(index, available, 0L));
+            return available;
+        }
+
+        void add(int stripe, long amount) {
+            headroom.getAndAdd(stripe * PADDING, amount);
+        }
+    }
+}
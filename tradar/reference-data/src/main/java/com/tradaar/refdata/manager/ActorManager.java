@@ -1,39 +1,84 @@
 package com.tradar.refdata.manager;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradar.refdata.limit.DailyLimitLedger;
 import com.tradar.refdata.model.Actor;
+import com.tradar.refdata.snapshot.RefDataSnapshot;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Manages trading actors and their limits. Each load publishes the loaded actors
+ * as a new {@link RefDataSnapshot}, swapped in whole, so lookups never see a load
+ * half applied and take no locks; a load that fails keeps the current snapshot.
+ * <p>
+ * Daily trading is accounted in a {@link DailyLimitLedger} in notionals of
+ * {@link #getNotionalScale()} decimal places, whose limits each load updates in
+ * place, keeping the day's accounting. The order path should reserve order values
+ * through the ledger's accounts, which cannot race past a limit;
+ * {@link #checkDailyLimit} and {@link #recordTrade} remain for callers outside it.
+ */
 @Slf4j
 public class ActorManager {
-    private final Map<String, Actor> actors;
-    private final Map<String, BigDecimal> dailyTrading;
+    /** Notional decimal places by default: hundredths of a cent. */
+    public static final int DEFAULT_NOTIONAL_SCALE = 4;
+
     private final ObjectMapper objectMapper;
+    private final int notionalScale;
+    private final DailyLimitLedger dailyLimits;
+    private volatile RefDataSnapshot<Actor> actors = RefDataSnapshot.empty();
 
     public ActorManager() {
-        this.actors = new ConcurrentHashMap<>();
-        this.dailyTrading = new ConcurrentHashMap<>();
+        this(DEFAULT_NOTIONAL_SCALE);
+    }
+
+    public ActorManager(int notionalScale) {
         this.objectMapper = new ObjectMapper();
+        this.notionalScale = notionalScale;
+        this.dailyLimits = new DailyLimitLedger(Map.of(), notionalScale);
     }
 
+    /**
+     * Loads actors from a classpath resource, replacing those currently loaded.
+     */
     public void loadActors(String configFile) {
         try (InputStream is = getClass().getResourceAsStream(configFile)) {
-            List<Actor> actorList = objectMapper.readValue(is,
-                objectMapper.getTypeFactory().constructCollectionType(List.class, Actor.class));
-            
-            actorList.forEach(actor -> actors.put(actor.getActorId(), actor));
-            log.info("Loaded {} actors from configuration", actorList.size());
+            publish(readActors(is));
         } catch (Exception e) {
             log.error("Error loading actors: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Loads actors from a file, replacing those currently loaded.
+     */
+    public void loadActors(Path configFile) {
+        try (InputStream is = Files.newInputStream(configFile)) {
+            publish(readActors(is));
+        } catch (Exception e) {
+            log.error("Error loading actors from {}: {}", configFile, e.getMessage(), e);
+        }
+    }
+
+    public Actor getActor(String actorId) {
+        return actors.get(actorId);
+    }
+
+    /**
+     * @return the current snapshot, for reading several actors from one version
+     */
+    public RefDataSnapshot<Actor> getSnapshot() {
+        return actors;
+    }
+
     public boolean canTradeSymbol(String actorId, String symbol) {
         Actor actor = actors.get(actorId);
         return actor != null && actor.isActive() && 
@@ -46,26 +91,57 @@ public class ActorManager {
                orderValue.compareTo(actor.getMaxOrderValue()) <= 0;
     }
 
+    /**
+     * @return whether the trade value fits the actor's remaining daily limit now;
+     *         use {@link DailyLimitLedger.Account#reserve(long)} to also claim it
+     */
     public boolean checkDailyLimit(String actorId, BigDecimal tradeValue) {
         Actor actor = actors.get(actorId);
-        if (actor == null || !actor.isActive()) {
+        DailyLimitLedger.Account account = dailyLimits.getAccount(actorId);
+        if (actor == null || !actor.isActive() || account == null) {
             return false;
         }
-
-        BigDecimal currentTotal = dailyTrading.getOrDefault(actorId, BigDecimal.ZERO);
-        return currentTotal.add(tradeValue).compareTo(actor.getDailyTradingLimit()) <= 0;
+        return dailyLimits.toNotional(tradeValue) <= account.getAvailable();
     }
 
     public void recordTrade(String actorId, BigDecimal tradeValue) {
-        dailyTrading.compute(actorId, (id, current) -> 
-            current == null ? tradeValue : current.add(tradeValue));
+        DailyLimitLedger.Account account = dailyLimits.getAccount(actorId);
+        if (account != null) {
+            account.record(dailyLimits.toNotional(tradeValue));
+        }
     }
 
     public void resetDailyLimits() {
-        dailyTrading.clear();
+        dailyLimits.reset();
+    }
+
+    public DailyLimitLedger getDailyLimits() {
+        return dailyLimits;
+    }
+
+    public int getNotionalScale() {
+        return notionalScale;
     }
 
     public List<Actor> getAllActors() {
-        return List.copyOf(actors.values());
+        return actors.values();
+    }
+
+    private List<Actor> readActors(InputStream is) throws IOException {
+        return objectMapper.readValue(is,
+            objectMapper.getTypeFactory().constructCollectionType(List.class, Actor.class));
+    }
+
+    /**
+     * Accounts are opened before the actors are published, so a published actor
+     * always has one.
+     */
+    private synchronized void publish(List<Actor> actorList) {
+        RefDataSnapshot<Actor> next = actors.next(actorList, Actor::getActorId);
+        Map<String, BigDecimal> limits = new HashMap<>();
+        actorList.forEach(actor -> limits.put(actor.getActorId(), actor.getDailyTradingLimit()));
+        dailyLimits.update(limits);
+        actors = next;
+        log.info("Loaded {} actors from configuration, version {}", actorList.size(), next.getVersion());
     }
-} 
\ No newline at end of file
+}
@@ -3,72 +3,157 @@ package com.tradar.refdata.manager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.tradar.refdata.model.TradingSession;
+import com.tradar.refdata.session.SessionCalendar;
+import com.tradar.refdata.session.SessionPhase;
+import com.tradar.refdata.snapshot.RefDataSnapshot;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Trading sessions, each compiled on load into a {@link SessionCalendar} in the
+ * manager's time zone. Phase queries ask the calendars of the active sessions,
+ * which answer from their cached current phase without allocating while it
+ * holds; times are in the manager's zone and phases are half-open, so a session
+ * is within trading hours from its start time up to its end time.
+ * <p>
+ * Each load publishes the sessions and their calendars together, swapped in
+ * whole, so queries never see a load half applied and take no locks; a load that
+ * fails, for example on a session with invalid times, keeps the current ones.
+ */
 @Slf4j
 public class SessionManager {
-    private final Map<String, TradingSession> sessions;
     private final ObjectMapper objectMapper;
+    @Getter
+    private final ZoneId zone;
+    private volatile Sessions sessions = new Sessions(RefDataSnapshot.empty(), new SessionCalendar[0]);
 
     public SessionManager() {
-        this.sessions = new ConcurrentHashMap<>();
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * @param zone the time zone of the sessions' times of day
+     */
+    public SessionManager(ZoneId zone) {
         this.objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule());
+        this.zone = zone;
     }
 
+    /**
+     * Loads sessions from a classpath resource, replacing those currently loaded.
+     */
     public void loadSessions(String configFile) {
         try (InputStream is = getClass().getResourceAsStream(configFile)) {
-            List<TradingSession> sessionList = objectMapper.readValue(is,
-                objectMapper.getTypeFactory().constructCollectionType(List.class, TradingSession.class));
-            
-            sessionList.forEach(session -> sessions.put(session.getSessionId(), session));
-            log.info("Loaded {} trading sessions from configuration", sessionList.size());
+            publish(readSessions(is));
         } catch (Exception e) {
             log.error("Error loading trading sessions: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Loads sessions from a file, replacing those currently loaded.
+     */
+    public void loadSessions(Path configFile) {
+        try (InputStream is = Files.newInputStream(configFile)) {
+            publish(readSessions(is));
+        } catch (Exception e) {
+            log.error("Error loading trading sessions from {}: {}", configFile, e.getMessage(), e);
+        }
+    }
+
     public boolean isWithinTradingHours(LocalDateTime timestamp) {
-        return sessions.values().stream()
-            .filter(TradingSession::isActive)
-            .anyMatch(session -> {
-                if (!session.getTradingDays().contains(timestamp.getDayOfWeek())) {
-                    return false;
-                }
-                
-                LocalDateTime sessionStart = timestamp.toLocalDate()
-                    .atTime(session.getStartTime());
-                LocalDateTime sessionEnd = timestamp.toLocalDate()
-                    .atTime(session.getEndTime());
-                
-                return !timestamp.isBefore(sessionStart) && !timestamp.isAfter(sessionEnd);
-            });
+        return isWithinTradingHours(toEpochMillis(timestamp));
+    }
+
+    public boolean isWithinTradingHours(long epochMillis) {
+        for (SessionCalendar calendar : sessions.active) {
+            if (calendar.phaseAt(epochMillis).isTrading()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean isPreOpen(LocalDateTime timestamp) {
-        return sessions.values().stream()
-            .filter(TradingSession::isActive)
-            .anyMatch(session -> {
-                if (!session.getTradingDays().contains(timestamp.getDayOfWeek())) {
-                    return false;
-                }
-                
-                LocalDateTime preOpen = timestamp.toLocalDate()
-                    .atTime(session.getPreOpen());
-                LocalDateTime start = timestamp.toLocalDate()
-                    .atTime(session.getStartTime());
-                
-                return !timestamp.isBefore(preOpen) && !timestamp.isAfter(start);
-            });
+        return isPreOpen(toEpochMillis(timestamp));
+    }
+
+    public boolean isPreOpen(long epochMillis) {
+        for (SessionCalendar calendar : sessions.active) {
+            if (calendar.phaseAt(epochMillis) == SessionPhase.PRE_OPEN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the session's calendar, or null for an unknown session
+     */
+    public SessionCalendar getCalendar(String sessionId) {
+        Sessions current = sessions;
+        int id = current.snapshot.idOf(sessionId);
+        return id >= 0 ? current.calendars[id] : null;
+    }
+
+    /**
+     * @return the calendars of the active sessions
+     */
+    public List<SessionCalendar> getActiveCalendars() {
+        return List.of(sessions.active);
     }
 
     public List<TradingSession> getAllSessions() {
-        return List.copyOf(sessions.values());
+        return sessions.snapshot.values();
+    }
+
+    private List<TradingSession> readSessions(InputStream is) throws IOException {
+        return objectMapper.readValue(is,
+            objectMapper.getTypeFactory().constructCollectionType(List.class, TradingSession.class));
+    }
+
+    /**
+     * Compiles every session before publishing any.
+     */
+    private synchronized void publish(List<TradingSession> sessionList) {
+        RefDataSnapshot<TradingSession> next = sessions.snapshot.next(sessionList, TradingSession::getSessionId);
+        SessionCalendar[] calendars = new SessionCalendar[next.idCount()];
+        for (TradingSession session : sessionList) {
+            calendars[next.idOf(session.getSessionId())] = SessionCalendar.compile(session, zone);
+        }
+        sessions = new Sessions(next, calendars);
+        log.info("Loaded {} trading sessions from configuration, version {}", sessionList.size(), next.getVersion());
+    }
+
+    private long toEpochMillis(LocalDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond(zone.getRules().getOffset(timestamp));
+        return seconds * 1000L + timestamp.getNano() / 1_000_000;
+    }
+
+    /**
+     * One version of the sessions with their calendars, indexed by session id.
+     */
+    private static final class Sessions {
+        final RefDataSnapshot<TradingSession> snapshot;
+        final SessionCalendar[] calendars;
+        final SessionCalendar[] active;
+
+        Sessions(RefDataSnapshot<TradingSession> snapshot, SessionCalendar[] calendars) {
+            this.snapshot = snapshot;
+            this.calendars = calendars;
+            this.active = snapshot.values().stream()
+                .filter(TradingSession::isActive)
+                .map(session -> calendars[snapshot.idOf(session.getSessionId())])
+                .toArray(SessionCalendar[]::new);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -2,51 +2,101 @@ package com.tradar.refdata.manager;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
+import com.tradar.core.symbol.SymbolDirectory;
 import com.tradar.refdata.model.Symbol;
+import com.tradar.refdata.snapshot.RefDataSnapshot;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages reference data for trading symbols including validation rules,
  * tick sizes, and quantity constraints. Loads symbol configurations from
  * external sources and provides validation methods for orders.
+ * Each load publishes the loaded symbols as a new {@link RefDataSnapshot}, swapped
+ * in whole, so lookups never see a load half applied and take no locks; a load
+ * that fails keeps the current snapshot. Symbol ids stay the same across loads.
+ * Ids come from the manager's {@link SymbolDirectory}, which every load seeds, so
+ * the ids of the order path and of reference data are one and the same.
  *
  * @author Vrushank Patel
  */
 @Slf4j
 public class SymbolManager {
-    private final Map<String, Symbol> symbols;
     private final ObjectMapper objectMapper;
+    private final SymbolDirectory directory;
+    private volatile RefDataSnapshot<Symbol> symbols = RefDataSnapshot.empty();
 
     public SymbolManager() {
-        this.symbols = new ConcurrentHashMap<>();
+        this(new SymbolDirectory());
+    }
+
+    /**
+     * @param directory the directory to intern loaded symbols into, shared with
+     *        the components that look symbols up by id
+     */
+    public SymbolManager(SymbolDirectory directory) {
         this.objectMapper = new ObjectMapper();
+        this.directory = directory;
     }
 
+    /**
+     * Loads symbols from a classpath resource, replacing those currently loaded.
+     */
     public void loadSymbols(String configFile) {
         try (InputStream is = getClass().getResourceAsStream(configFile)) {
-            CollectionType type = objectMapper.getTypeFactory()
-                .constructCollectionType(List.class, Symbol.class);
-            List<Symbol> symbolList = objectMapper.readValue(is, type);
-            
-            symbolList.forEach(symbol -> symbols.put(symbol.getSymbol(), symbol));
-            log.info("Loaded {} symbols from configuration", symbolList.size());
+            publish(readSymbols(is));
         } catch (Exception e) {
             log.error("Error loading symbols: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Loads symbols from a file, replacing those currently loaded.
+     */
+    public void loadSymbols(Path configFile) {
+        try (InputStream is = Files.newInputStream(configFile)) {
+            publish(readSymbols(is));
+        } catch (Exception e) {
+            log.error("Error loading symbols from {}: {}", configFile, e.getMessage(), e);
+        }
+    }
+
     public Symbol getSymbol(String symbol) {
         return symbols.get(symbol);
     }
 
+    /**
+     * @return the symbol of the id, or null if none is loaded under it
+     */
+    public Symbol getSymbol(int symbolId) {
+        return symbols.get(symbolId);
+    }
+
+    /**
+     * @return the symbol's id, or -1 if it is not loaded
+     */
+    public int getSymbolId(String symbol) {
+        return symbols.idOf(symbol);
+    }
+
+    /**
+     * @return the current snapshot, for reading several symbols from one version
+     */
+    public RefDataSnapshot<Symbol> getSnapshot() {
+        return symbols;
+    }
+
+    public SymbolDirectory getDirectory() {
+        return directory;
+    }
+
     public List<Symbol> getAllSymbols() {
-        return Collections.unmodifiableList(List.copyOf(symbols.values()));
+        return symbols.values();
     }
 
     public boolean isValidSymbol(String symbol) {
@@ -76,4 +126,18 @@ public class SymbolManager {
                quantity.remainder(sym.getLotSize())
                    .compareTo(java.math.BigDecimal.ZERO) == 0;
     }
-} 
\ No newline at end of file
+
+    private List<Symbol> readSymbols(InputStream is) throws IOException {
+        CollectionType type = objectMapper.getTypeFactory()
+            .constructCollectionType(List.class, Symbol.class);
+        return objectMapper.readValue(is, type);
+    }
+
+    private synchronized void publish(List<Symbol> symbolList) {
+        // Interned in one batch first, so a load copies the directory once
+        directory.internAll(symbolList.stream().map(Symbol::getSymbol).filter(s -> s != null).toList());
+        RefDataSnapshot<Symbol> next = symbols.next(symbolList, Symbol::getSymbol, directory::idOf);
+        symbols = next;
+        log.info("Loaded {} symbols from configuration, version {}", symbolList.size(), next.getVersion());
+    }
+}
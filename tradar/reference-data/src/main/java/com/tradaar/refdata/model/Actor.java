@@ -2,12 +2,14 @@ package com.tradar.refdata.model;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.math.BigDecimal;
 import java.util.Set;
 
 @Data
 @Builder
+@Jacksonized
 public class Actor {
     private final String actorId;
     private final String name;
@@ -2,11 +2,13 @@ package com.tradar.refdata.model;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.math.BigDecimal;
 
 @Data
 @Builder
+@Jacksonized
 public class Symbol {
     private final String symbol;
     private final String description;
@@ -2,6 +2,7 @@ package com.tradar.refdata.model;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -9,6 +10,7 @@ import java.util.Set;
 
 @Data
 @Builder
+@Jacksonized
 public class TradingSession {
     private final String sessionId;
     private final String description;
@@ -0,0 +1,236 @@
+package com.tradar.refdata.session;
+
+import com.tradar.refdata.model.TradingSession;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * The phases of one {@link TradingSession} compiled to epoch milliseconds in the
+ * session's time zone. Each trading day is a sorted array of phase transitions;
+ * non-trading days have none and are closed throughout. Days are built when they
+ * are asked for and kept in a small cache indexed by epoch day, which holds the
+ * week ahead of the current day and the day before it, so the calendar stays the
+ * same size however long it runs. Days outside the cache are built again.
+ * <p>
+ * Phases are half-open: a session is open from its start time up to, but not
+ * including, its end time. The phase of the latest query is cached with the
+ * interval it holds for, so asking again within the interval, as everything
+ * asking for the current phase does for minutes at a time, costs one volatile
+ * read and two comparisons and allocates nothing. Cached intervals never cross
+ * midnight in the session's zone.
+ * <p>
+ * Thread-safe.
+ */
+public final class SessionCalendar {
+    // Consecutive days map to distinct slots, so yesterday to a week ahead all fit
+    private static final int CACHED_DAYS = 16;
+
+    @Getter
+    private final String sessionId;
+    @Getter
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final boolean[] tradingDays = new boolean[DayOfWeek.values().length];
+    private final LocalTime preOpen;
+    private final LocalTime start;
+    private final LocalTime preClose;
+    private final LocalTime end;
+    // Days are immutable, so threads racing to fill a slot only build a day twice
+    private final Day[] days = new Day[CACHED_DAYS];
+    private volatile Window window = new Window(0L, 0L, SessionPhase.CLOSED);
+
+    private SessionCalendar(TradingSession session, ZoneId zone) {
+        this.sessionId = session.getSessionId();
+        this.zone = zone;
+        this.rules = zone.getRules();
+        if (session.getTradingDays() != null) {
+            for (DayOfWeek day : session.getTradingDays()) {
+                tradingDays[day.ordinal()] = true;
+            }
+        }
+        this.start = session.getStartTime();
+        this.end = session.getEndTime();
+        this.preOpen = session.getPreOpen() != null ? session.getPreOpen() : start;
+        this.preClose = session.getPreClose() != null ? session.getPreClose() : end;
+    }
+
+    /**
+     * Compiles a session whose times of day are in the given zone. A session
+     * without a pre-open or pre-close time has no such phase.
+     *
+     * @throws IllegalArgumentException if the session has no start or end time, or
+     *         its times are out of order; sessions spanning midnight are not
+     *         supported
+     */
+    public static SessionCalendar compile(TradingSession session, ZoneId zone) {
+        if (session.getStartTime() == null || session.getEndTime() == null) {
+            throw new IllegalArgumentException("Session " + session.getSessionId() + " has no start or end time");
+        }
+        SessionCalendar calendar = new SessionCalendar(session, zone);
+        if (calendar.preOpen.isAfter(calendar.start) || !calendar.start.isBefore(calendar.end)
+            || calendar.preClose.isBefore(calendar.start) || calendar.preClose.isAfter(calendar.end)) {
+            throw new IllegalArgumentException(String.format(
+                "Session %s times must run pre-open <= start < end with start <= pre-close <= end: %s",
+                session.getSessionId(), session));
+        }
+        return calendar;
+    }
+
+    /**
+     * @return the phase at the given instant
+     */
+    public SessionPhase phaseAt(long epochMillis) {
+        Window current = window;
+        if (epochMillis >= current.from && epochMillis < current.until) {
+            return current.phase;
+        }
+        current = locate(epochMillis);
+        window = current;
+        return current.phase;
+    }
+
+    /**
+     * @param time a date and time in the session's zone
+     */
+    public SessionPhase phaseAt(LocalDateTime time) {
+        return phaseAt(toEpochMillis(time));
+    }
+
+    public SessionPhase currentPhase() {
+        return phaseAt(System.currentTimeMillis());
+    }
+
+    /**
+     * @return epoch milliseconds of the first phase transition after the given
+     *         instant, or {@code Long.MAX_VALUE} for a session with no trading days
+     */
+    public long nextTransition(long epochMillis) {
+        long epochDay = epochDay(epochMillis);
+        // A week ahead reaches every trading day
+        for (int i = 0; i <= 7; i++) {
+            long[] times = day(epochDay + i).times;
+            for (long time : times) {
+                if (time > epochMillis) {
+                    return time;
+                }
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return epoch milliseconds of a date and time in the session's zone; times
+     *         in a daylight saving gap are taken at the offset before the gap
+     */
+    public long toEpochMillis(LocalDateTime time) {
+        ZoneOffset offset = rules.getOffset(time);
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(offset), 1000L), time.getNano() / 1_000_000);
+    }
+
+    private Window locate(long epochMillis) {
+        Day day = day(epochDay(epochMillis));
+        long[] times = day.times;
+        int i = times.length - 1;
+        while (i >= 0 && times[i] > epochMillis) {
+            i--;
+        }
+        long from = i >= 0 ? times[i] : day.start;
+        long until = i + 1 < times.length ? times[i + 1] : day.end;
+        return new Window(from, until, i >= 0 ? day.phases[i] : SessionPhase.CLOSED);
+    }
+
+    private long epochDay(long epochMillis) {
+        int offsetSeconds = rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        return Math.floorDiv(epochMillis + offsetSeconds * 1000L, 86_400_000L);
+    }
+
+    private Day day(long epochDay) {
+        int slot = (int) epochDay & (CACHED_DAYS - 1);
+        Day day = days[slot];
+        if (day == null || day.epochDay != epochDay) {
+            day = compileDay(epochDay);
+            days[slot] = day;
+        }
+        return day;
+    }
+
+    private Day compileDay(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        long dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        if (!tradingDays[date.getDayOfWeek().ordinal()]) {
+            return new Day(epochDay, dayStart, dayEnd, new long[0], new SessionPhase[0]);
+        }
+        long[] times = new long[4];
+        SessionPhase[] phases = new SessionPhase[4];
+        int count = 0;
+        if (preOpen.isBefore(start)) {
+            times[count] = toEpochMillis(date, preOpen);
+            phases[count++] = SessionPhase.PRE_OPEN;
+        }
+        times[count] = toEpochMillis(date, start);
+        phases[count++] = SessionPhase.OPEN;
+        if (preClose.isBefore(end)) {
+            times[count] = toEpochMillis(date, preClose);
+            phases[count++] = SessionPhase.PRE_CLOSE;
+        }
+        times[count] = toEpochMillis(date, end);
+        phases[count++] = SessionPhase.CLOSED;
+        return new Day(epochDay, dayStart, dayEnd, Arrays.copyOf(times, count), Arrays.copyOf(phases, count));
+    }
+
+    private long toEpochMillis(LocalDate date, LocalTime time) {
+        return ZonedDateTime.of(date, time, zone).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SessionCalendar{sessionId='%s', zone=%s, preOpen=%s, start=%s, preClose=%s, end=%s}",
+            sessionId, zone, preOpen, start, preClose, end);
+    }
+
+    /**
+     * A trading day's transitions, each the start of the phase at the same index;
+     * the day is closed before the first.
+     */
+    private static final class Day {
+        final long epochDay;
+        final long start;
+        final long end;
+        final long[] times;
+        final SessionPhase[] phases;
+
+        Day(long epochDay, long start, long end, long[] times, SessionPhase[] phases) {
+            this.epochDay = epochDay;
+            this.start = start;
+            this.end = end;
+            this.times = times;
+            this.phases = phases;
+        }
+    }
+
+    /**
+     * A phase and the interval {@code [from, until)} it holds for.
+     */
+    private static final class Window {
+        final long from;
+        final long until;
+        final SessionPhase phase;
+
+        Window(long from, long until, SessionPhase phase) {
+            this.from = from;
+            this.until = until;
+            this.phase = phase;
+        }
+    }
+}
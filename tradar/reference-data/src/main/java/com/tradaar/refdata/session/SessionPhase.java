@@ -0,0 +1,20 @@
+package com.tradar.refdata.session;
+
+/**
+ * Phase of a trading session. A session day runs through pre-open, open and
+ * pre-close before closing again; a session without a pre-open or pre-close time
+ * skips that phase.
+ */
+public enum SessionPhase {
+    CLOSED,
+    PRE_OPEN,
+    OPEN,
+    PRE_CLOSE;
+
+    /**
+     * @return true while orders trade: open and pre-close
+     */
+    public boolean isTrading() {
+        return this == OPEN || this == PRE_CLOSE;
+    }
+}
@@ -0,0 +1,15 @@
+package com.tradar.refdata.session;
+
+/**
+ * Observes the phase changes of the sessions a {@link SessionScheduler} follows.
+ * Called on the scheduler's thread, so implementations must be cheap or hand the
+ * change over, for example as a command to the engine's thread.
+ */
+@FunctionalInterface
+public interface SessionPhaseListener {
+    /**
+     * @param since epoch milliseconds of the transition into the phase, or of when
+     *        the calendar was first followed
+     */
+    void onPhaseChanged(SessionCalendar calendar, SessionPhase phase, long since);
+}
@@ -0,0 +1,86 @@
+package com.tradar.refdata.session;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls listeners back on the phase changes of session calendars, on one daemon
+ * thread that sleeps until each calendar's next transition, so nothing has to
+ * poll for the phase. Following a calendar reports its current phase straight
+ * away, then every change.
+ * <p>
+ * A callback woken early by clock adjustments finds the phase unchanged and waits
+ * for the transition again; one woken late, past several transitions, reports
+ * only the phase it finds. A scheduler keeps following the calendars it was given:
+ * after sessions are reloaded, follow the new calendars on a new scheduler and
+ * close the old one.
+ */
+@Slf4j
+public class SessionScheduler implements AutoCloseable {
+    private final ScheduledExecutorService executor;
+    private final List<SessionPhaseListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SessionScheduler() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addListener(SessionPhaseListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SessionPhaseListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts following a calendar's phase changes.
+     */
+    public void follow(SessionCalendar calendar) {
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            SessionPhase phase = calendar.phaseAt(now);
+            notify(calendar, phase, now);
+            schedule(calendar, phase, now);
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(SessionCalendar calendar, SessionPhase phase, long now) {
+        long next = calendar.nextTransition(now);
+        if (next == Long.MAX_VALUE || executor.isShutdown()) {
+            return;
+        }
+        executor.schedule(() -> {
+            long time = System.currentTimeMillis();
+            SessionPhase current = calendar.phaseAt(time);
+            if (current != phase) {
+                notify(calendar, current, next);
+            }
+            schedule(calendar, current, time);
+        }, next - now, TimeUnit.MILLISECONDS);
+    }
+
+    private void notify(SessionCalendar calendar, SessionPhase phase, long since) {
+        log.info("Session {} is {}", calendar.getSessionId(), phase);
+        for (SessionPhaseListener listener : listeners) {
+            try {
+                listener.onPhaseChanged(calendar, phase, since);
+            } catch (RuntimeException e) {
+                log.error("Session phase listener failed on {} {}", calendar.getSessionId(), phase, e);
+            }
+        }
+    }
+}
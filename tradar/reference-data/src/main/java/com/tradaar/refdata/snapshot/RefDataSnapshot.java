@@ -0,0 +1,214 @@
+package com.tradar.refdata.snapshot;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * One immutable version of a kind of reference data: entries in a dense array
+ * indexed by an id interned from their name, and a map from name to id. A
+ * manager publishes a new snapshot on every load and swaps it in with a single
+ * write, so readers see either the old version or the new one in full and read
+ * it without locks.
+ * <p>
+ * Ids are stable across the versions of a manager: a name keeps its id in every
+ * later snapshot, new names take the ids after the highest, and the id of a name
+ * left out of a load stays empty rather than being reused.
+ * <p>
+ * Names are looked up in an open-addressing table at most half full, which costs
+ * a hash, typically one probe and no allocation.
+ *
+ * @param <T> the entry type
+ */
+public final class RefDataSnapshot<T> {
+    private static final RefDataSnapshot<?> EMPTY = new RefDataSnapshot<>(0L, new Object[0], new String[0], 0);
+
+    @Getter
+    private final long version;
+    private final Object[] entries;
+    // Name of each id, including the ids of names left out of this version; null
+    // for ids assigned to no name of this kind
+    private final String[] names;
+    private final int size;
+    // Name table: slots hold an id plus one, zero marking a free slot
+    private final String[] slotNames;
+    private final int[] slotIds;
+    private final int mask;
+
+    private RefDataSnapshot(long version, Object[] entries, String[] names, int size) {
+        this.version = version;
+        this.entries = entries;
+        this.names = names;
+        this.size = size;
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+        this.slotNames = new String[capacity];
+        this.slotIds = new int[capacity];
+        this.mask = capacity - 1;
+        for (int id = 0; id < names.length; id++) {
+            if (names[id] == null) {
+                continue;
+            }
+            int slot = hash(names[id]) & mask;
+            while (slotIds[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotNames[slot] = names[id];
+            slotIds[slot] = id + 1;
+        }
+    }
+
+    /**
+     * @return version 0, holding nothing
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RefDataSnapshot<T> empty() {
+        return (RefDataSnapshot<T>) EMPTY;
+    }
+
+    /**
+     * Builds the next version, holding exactly the given entries.
+     *
+     * @throws IllegalArgumentException if an entry has no name or two share one
+     */
+    public RefDataSnapshot<T> next(Collection<? extends T> values, Function<? super T, String> nameOf) {
+        Map<String, Integer> added = new HashMap<>();
+        return next(values, nameOf, name -> {
+            int id = find(name);
+            return id >= 0 ? id : added.computeIfAbsent(name, n -> names.length + added.size());
+        });
+    }
+
+    /**
+     * Builds the next version, holding exactly the given entries, under ids
+     * assigned by the given function, for example to share the ids of a
+     * {@code SymbolDirectory}. The function must always give a name the same id
+     * and never give two names one id.
+     *
+     * @throws IllegalArgumentException if an entry has no name or two share one, or
+     *         the function assigns a negative id or one already taken by another name
+     */
+    public RefDataSnapshot<T> next(Collection<? extends T> values, Function<? super T, String> nameOf,
+                                   ToIntFunction<String> idOf) {
+        String[] nextNames = Arrays.copyOf(names, names.length + values.size());
+        Object[] nextEntries = new Object[nextNames.length];
+        int count = names.length;
+        for (T value : values) {
+            String name = nameOf.apply(value);
+            if (name == null) {
+                throw new IllegalArgumentException("Reference data entry has no name: " + value);
+            }
+            int id = idOf.applyAsInt(name);
+            if (id < 0) {
+                throw new IllegalArgumentException("No id for reference data entry " + name);
+            }
+            if (id >= nextNames.length) {
+                nextNames = Arrays.copyOf(nextNames, Math.max(id + 1, nextNames.length * 2));
+                nextEntries = Arrays.copyOf(nextEntries, nextNames.length);
+            }
+            if (nextNames[id] != null && !nextNames[id].equals(name)) {
+                throw new IllegalArgumentException(String.format("Id %d of %s is taken by %s", id, name, nextNames[id]));
+            }
+            if (nextEntries[id] != null) {
+                throw new IllegalArgumentException("Duplicate reference data entry " + name);
+            }
+            nextNames[id] = name;
+            nextEntries[id] = value;
+            count = Math.max(count, id + 1);
+        }
+        return new RefDataSnapshot<>(version + 1, Arrays.copyOf(nextEntries, count), Arrays.copyOf(nextNames, count),
+            values.size());
+    }
+
+    /**
+     * @return the entry of the name, or null if this version has none
+     */
+    public T get(String name) {
+        int id = find(name);
+        return id >= 0 ? entry(id) : null;
+    }
+
+    /**
+     * @return the entry of the id, or null if this version has none
+     */
+    public T get(int id) {
+        return id >= 0 && id < entries.length ? entry(id) : null;
+    }
+
+    /**
+     * @return the id of the name, or -1 if this version has no entry of that name
+     */
+    public int idOf(String name) {
+        int id = find(name);
+        return id >= 0 && entries[id] != null ? id : -1;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return one more than the highest id ever assigned, the bound of arrays
+     *         indexed by id
+     */
+    public int idCount() {
+        return entries.length;
+    }
+
+    /**
+     * @return the entries in id order
+     */
+    public List<T> values() {
+        List<T> values = new ArrayList<>(size);
+        for (int id = 0; id < entries.length; id++) {
+            if (entries[id] != null) {
+                values.add(entry(id));
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * @return the id ever assigned to the name, or -1
+     */
+    private int find(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int slot = hash(name) & mask;
+        int id;
+        while ((id = slotIds[slot]) != 0) {
+            String candidate = slotNames[slot];
+            if (candidate == name || candidate.equals(name)) {
+                return id - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T entry(int id) {
+        return (T) entries[id];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RefDataSnapshot{version=%d, size=%d, ids=%d}", version, size, entries.length);
+    }
+}
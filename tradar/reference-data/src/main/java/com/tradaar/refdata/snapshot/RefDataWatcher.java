@@ -0,0 +1,109 @@
+package com.tradar.refdata.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads reference data files when they change on disk, on a daemon thread of
+ * its own, so managers rebuild and publish their snapshots away from the order
+ * path. Changes are picked up once writes to a file have been quiet for a short
+ * while, and a file replaced by a rename, as editors and deployment tools do, is
+ * picked up like one written in place.
+ * <p>
+ * The loader is handed the changed file; a load that fails leaves the manager's
+ * current snapshot in place, see for example
+ * {@link com.tradar.refdata.manager.SymbolManager#loadSymbols(Path)}.
+ */
+@Slf4j
+public class RefDataWatcher implements AutoCloseable {
+    private static final long QUIET_MILLIS = 200L;
+
+    private final WatchService watchService;
+    private final Map<Path, Consumer<Path>> loaders = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    public RefDataWatcher() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::watchLoop, "refdata-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Calls the loader with the file whenever it changes. Does not load it now.
+     */
+    public void watch(Path file, Consumer<Path> loader) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path directory = absolute.getParent();
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, directory);
+        loaders.put(absolute, loader);
+        log.info("Watching {} for reference data changes", absolute);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                // Let the writer finish: wait until no events arrive for a while
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                for (Path file : changed) {
+                    reload(file);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.info("Stopped watching reference data");
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory != null && event.context() instanceof Path name) {
+                Path file = directory.resolve(name);
+                if (loaders.containsKey(file)) {
+                    changed.add(file);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void reload(Path file) {
+        log.info("Reloading reference data from {}", file);
+        try {
+            loaders.get(file).accept(file);
+        } catch (RuntimeException e) {
+            log.error("Error reloading reference data from {}: {}", file, e.getMessage(), e);
+        }
+    }
+}
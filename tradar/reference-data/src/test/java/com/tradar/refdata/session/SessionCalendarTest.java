@@ -0,0 +1,62 @@
+package com.tradar.refdata.session;
+
+import com.tradar.refdata.model.TradingSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Phases stay right as days move through the calendar's bounded day cache, in
+ * both directions and across daylight saving changes.
+ */
+class SessionCalendarTest {
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    private final SessionCalendar calendar = SessionCalendar.compile(TradingSession.builder()
+        .sessionId("REGULAR")
+        .tradingDays(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+        .preOpen(LocalTime.of(9, 0))
+        .startTime(LocalTime.of(9, 30))
+        .preClose(LocalTime.of(15, 50))
+        .endTime(LocalTime.of(16, 0))
+        .active(true)
+        .build(), ZONE);
+
+    @Test
+    void phasesAreRightForEveryDayOfAYear() {
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 366; i++) {
+                assertDay(pass == 0 ? first.plusDays(i) : first.plusDays(365 - i));
+            }
+        }
+    }
+
+    @Test
+    void nextTransitionLooksPastTheWeekend() {
+        long fridayClose = calendar.toEpochMillis(LocalDateTime.of(2024, 3, 8, 16, 0));
+        // Clocks go forward on Sunday 10 March; Monday opens at the new offset
+        assertEquals(calendar.toEpochMillis(LocalDateTime.of(2024, 3, 11, 9, 0)),
+            calendar.nextTransition(fridayClose));
+    }
+
+    private void assertDay(LocalDate date) {
+        boolean trading = date.getDayOfWeek().getValue() <= DayOfWeek.FRIDAY.getValue();
+        assertEquals(SessionPhase.CLOSED, phaseAt(date, 8, 59), date::toString);
+        assertEquals(trading ? SessionPhase.PRE_OPEN : SessionPhase.CLOSED, phaseAt(date, 9, 0), date::toString);
+        assertEquals(trading ? SessionPhase.OPEN : SessionPhase.CLOSED, phaseAt(date, 12, 0), date::toString);
+        assertEquals(trading ? SessionPhase.PRE_CLOSE : SessionPhase.CLOSED, phaseAt(date, 15, 55), date::toString);
+        assertEquals(SessionPhase.CLOSED, phaseAt(date, 16, 0), date::toString);
+    }
+
+    private SessionPhase phaseAt(LocalDate date, int hour, int minute) {
+        return calendar.phaseAt(date.atTime(hour, minute));
+    }
+}
@@ -0,0 +1,53 @@
+package com.tradar.reporting.analytics;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates a range of chunks, splitting it in halves across the fork-join pool
+ * while a half still holds enough trades to be worth a task of its own.
+ */
+final class ChunkAggregation extends RecursiveTask<TradeAggregate> {
+    /** Trades below which a range of chunks is aggregated in the current task. */
+    static final int SPLIT_THRESHOLD = 256 * 1024;
+
+    private final TradeChunk[] chunks;
+    private final int start;
+    private final int end;
+    private final long from;
+    private final long to;
+
+    ChunkAggregation(TradeChunk[] chunks, int start, int end, long from, long to) {
+        this.chunks = chunks;
+        this.start = start;
+        this.end = end;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected TradeAggregate compute() {
+        if (end - start > 1 && trades() > SPLIT_THRESHOLD) {
+            int mid = (start + end) >>> 1;
+            ChunkAggregation earlier = new ChunkAggregation(chunks, start, mid, from, to);
+            earlier.fork();
+            TradeAggregate later = new ChunkAggregation(chunks, mid, end, from, to).compute();
+            TradeAggregate result = earlier.join();
+            // Earlier chunks first, so ties in open and close resolve by arrival
+            result.merge(later);
+            return result;
+        }
+        TradeAggregate result = new TradeAggregate();
+        for (int i = start; i < end; i++) {
+            chunks[i].aggregate(from, to, result);
+        }
+        return result;
+    }
+
+    private long trades() {
+        long trades = 0;
+        for (int i = start; i < end; i++) {
+            trades += chunks[i].count();
+        }
+        return trades;
+    }
+}
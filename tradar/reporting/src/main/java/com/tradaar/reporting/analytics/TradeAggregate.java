@@ -0,0 +1,91 @@
+package com.tradar.reporting.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+
+/**
+ * Running aggregates over scaled trade columns. Notional is summed in 128 bits,
+ * so totals over any number of chunks cannot overflow; the open is the trade with
+ * the earliest time and the close the one with the latest, ties going to the
+ * trade added first and last respectively, provided aggregates are merged in the
+ * order their trades were added.
+ */
+final class TradeAggregate {
+    long count;
+    long volume;
+    long notionalHigh;
+    long notionalLow;
+    long high = Long.MIN_VALUE;
+    long low = Long.MAX_VALUE;
+    long open;
+    long openTime = Long.MAX_VALUE;
+    long close;
+    long closeTime = Long.MIN_VALUE;
+
+    void add(long time, long price, long quantity) {
+        addSums(1, quantity, price * quantity, price, price);
+        offerOpen(time, price);
+        offerClose(time, price);
+    }
+
+    /**
+     * Adds sums taken over trades whose open and close are offered separately.
+     */
+    void addSums(long trades, long quantity, long notional, long highPrice, long lowPrice) {
+        count += trades;
+        volume += quantity;
+        long sum = notionalLow + notional;
+        notionalHigh += (notional >> 63) + (Long.compareUnsigned(sum, notionalLow) < 0 ? 1 : 0);
+        notionalLow = sum;
+        high = Math.max(high, highPrice);
+        low = Math.min(low, lowPrice);
+    }
+
+    void offerOpen(long time, long price) {
+        if (time < openTime) {
+            openTime = time;
+            open = price;
+        }
+    }
+
+    void offerClose(long time, long price) {
+        if (time >= closeTime) {
+            closeTime = time;
+            close = price;
+        }
+    }
+
+    /**
+     * Adds the aggregates of trades added after this one's.
+     */
+    void merge(TradeAggregate other) {
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        volume += other.volume;
+        long sum = notionalLow + other.notionalLow;
+        notionalHigh += other.notionalHigh + (Long.compareUnsigned(sum, notionalLow) < 0 ? 1 : 0);
+        notionalLow = sum;
+        high = Math.max(high, other.high);
+        low = Math.min(low, other.low);
+        offerOpen(other.openTime, other.open);
+        offerClose(other.closeTime, other.close);
+    }
+
+    TradeStats toStats(String symbol, LocalDateTime from, LocalDateTime to, int priceScale, int quantityScale) {
+        BigDecimal totalVolume = BigDecimal.valueOf(volume, quantityScale);
+        BigInteger unscaled = BigInteger.valueOf(notionalHigh).shiftLeft(64)
+            .add(new BigInteger(Long.toUnsignedString(notionalLow)));
+        BigDecimal notional = new BigDecimal(unscaled, priceScale + quantityScale);
+        if (count == 0) {
+            return new TradeStats(symbol, from, to, 0, totalVolume, notional, null, null, null, null, null);
+        }
+        BigDecimal vwap = volume != 0 ? notional.divide(totalVolume, MathContext.DECIMAL64) : null;
+        return new TradeStats(symbol, from, to, count, totalVolume, notional, vwap,
+            BigDecimal.valueOf(open, priceScale), BigDecimal.valueOf(high, priceScale),
+            BigDecimal.valueOf(low, priceScale), BigDecimal.valueOf(close, priceScale));
+    }
+}
@@ -0,0 +1,261 @@
+package com.tradar.reporting.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Trades of one symbol in one time bucket, held as parallel primitive columns of
+ * epoch-nanosecond times and scaled prices and quantities. Trades arriving late
+ * for an earlier bucket join the open chunk, which then is no longer time-sorted.
+ * <p>
+ * A single writer appends while readers aggregate: the writer publishes each
+ * trade by bumping the volatile count, and columns that outgrow their arrays by
+ * publishing the copies before the count. Once sealed, a chunk also carries its
+ * time bounds and its aggregates, so readers skip it or take its aggregates
+ * whole unless the range cuts through it.
+ * <p>
+ * Appends are refused once the sum of absolute notionals would overflow a long,
+ * so the notional sum over any part of a chunk fits the long accumulators of the
+ * scan loops.
+ */
+final class TradeChunk {
+    private static final int INITIAL_CAPACITY = 64;
+
+    final long bucket;
+    private final int capacity;
+    private volatile Columns columns;
+    private volatile int count;
+    private volatile boolean sealed;
+
+    // Writer state, read by readers once sealed
+    private boolean sorted = true;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private long notionalBound;
+    private long volumeBound;
+    private final TradeAggregate summary = new TradeAggregate();
+
+    TradeChunk(long bucket, int capacity) {
+        this.bucket = bucket;
+        this.capacity = capacity;
+        this.columns = new Columns(Math.min(INITIAL_CAPACITY, capacity));
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Writer side.
+     *
+     * @param notional price times quantity, already checked to fit a long
+     * @return false if the chunk is full
+     */
+    boolean append(long time, long price, long quantity, long notional) {
+        int index = count;
+        long absNotional = Math.abs(notional);
+        long absQuantity = Math.abs(quantity);
+        if (index == capacity || absNotional > Long.MAX_VALUE - notionalBound
+            || absQuantity > Long.MAX_VALUE - volumeBound) {
+            return false;
+        }
+        Columns target = columns;
+        if (index == target.times.length) {
+            target = target.copy(Math.min(capacity, index * 2));
+            columns = target;
+        }
+        target.times[index] = time;
+        target.prices[index] = price;
+        target.quantities[index] = quantity;
+        notionalBound += absNotional;
+        volumeBound += absQuantity;
+        sorted &= time >= maxTime;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        count = index + 1;
+        return true;
+    }
+
+    /**
+     * Writer side. Aggregates the whole chunk once and trims the columns.
+     */
+    void seal() {
+        int trades = count;
+        Columns trimmed = columns.copy(trades);
+        scan(trimmed, trades, Long.MIN_VALUE, Long.MAX_VALUE, summary);
+        columns = trimmed;
+        sealed = true;
+    }
+
+    /**
+     * Adds the trades with a time in {@code [from, to)} to the aggregate.
+     */
+    void aggregate(long from, long to, TradeAggregate into) {
+        int trades = count;
+        if (trades == 0) {
+            return;
+        }
+        if (sealed) {
+            if (maxTime < from || minTime >= to) {
+                return;
+            }
+            if (minTime >= from && maxTime < to) {
+                into.merge(summary);
+                return;
+            }
+            if (sorted) {
+                Columns c = columns;
+                int start = lowerBound(c.times, trades, from);
+                int end = lowerBound(c.times, trades, to);
+                if (start < end) {
+                    sum(c, start, end, into);
+                }
+                return;
+            }
+        }
+        scan(columns, trades, from, to, into);
+    }
+
+    /**
+     * Adds each trade with a time in {@code [from, to)} to the aggregate of its bar,
+     * bar {@code i} starting at {@code from + i * barNanos}, creating bar aggregates
+     * as needed.
+     */
+    void aggregateBars(long from, long to, long barNanos, TradeAggregate[] bars) {
+        int trades = count;
+        if (trades == 0) {
+            return;
+        }
+        if (sealed) {
+            if (maxTime < from || minTime >= to) {
+                return;
+            }
+            long firstBar = Math.floorDiv(minTime - from, barNanos);
+            if (minTime >= from && maxTime < to && firstBar == Math.floorDiv(maxTime - from, barNanos)) {
+                bar(bars, (int) firstBar).merge(summary);
+                return;
+            }
+        }
+        Columns c = columns;
+        long[] times = c.times;
+        long[] prices = c.prices;
+        long[] quantities = c.quantities;
+        for (int i = 0; i < trades; i++) {
+            long time = times[i];
+            if (time >= from && time < to) {
+                bar(bars, (int) ((time - from) / barNanos)).add(time, prices[i], quantities[i]);
+            }
+        }
+    }
+
+    private static TradeAggregate bar(TradeAggregate[] bars, int index) {
+        TradeAggregate bar = bars[index];
+        if (bar == null) {
+            bar = bars[index] = new TradeAggregate();
+        }
+        return bar;
+    }
+
+    /**
+     * Aggregates a run of trades known to be in range and in time order.
+     */
+    private static void sum(Columns c, int start, int end, TradeAggregate into) {
+        long[] prices = c.prices;
+        long[] quantities = c.quantities;
+        long volume = 0;
+        long notional = 0;
+        long high = Long.MIN_VALUE;
+        long low = Long.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            long price = prices[i];
+            long quantity = quantities[i];
+            volume += quantity;
+            notional += price * quantity;
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+        }
+        into.addSums(end - start, volume, notional, high, low);
+        into.offerOpen(c.times[start], prices[start]);
+        into.offerClose(c.times[end - 1], prices[end - 1]);
+    }
+
+    /**
+     * Aggregates the trades in range among the first {@code trades}, in any order.
+     */
+    private static void scan(Columns c, int trades, long from, long to, TradeAggregate into) {
+        long[] times = c.times;
+        long[] prices = c.prices;
+        long[] quantities = c.quantities;
+        long matched = 0;
+        long volume = 0;
+        long notional = 0;
+        long high = Long.MIN_VALUE;
+        long low = Long.MAX_VALUE;
+        long openTime = Long.MAX_VALUE;
+        long open = 0;
+        long closeTime = Long.MIN_VALUE;
+        long close = 0;
+        for (int i = 0; i < trades; i++) {
+            long time = times[i];
+            if (time >= from && time < to) {
+                long price = prices[i];
+                long quantity = quantities[i];
+                matched++;
+                volume += quantity;
+                notional += price * quantity;
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+                if (time < openTime) {
+                    openTime = time;
+                    open = price;
+                }
+                if (time >= closeTime) {
+                    closeTime = time;
+                    close = price;
+                }
+            }
+        }
+        if (matched > 0) {
+            into.addSums(matched, volume, notional, high, low);
+            into.offerOpen(openTime, open);
+            into.offerClose(closeTime, close);
+        }
+    }
+
+    /**
+     * @return the index of the first of the sorted times at or after the given one
+     */
+    private static int lowerBound(long[] times, int length, long time) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Columns {
+        final long[] times;
+        final long[] prices;
+        final long[] quantities;
+
+        Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity]);
+        }
+
+        private Columns(long[] times, long[] prices, long[] quantities) {
+            this.times = times;
+            this.prices = prices;
+            this.quantities = quantities;
+        }
+
+        Columns copy(int length) {
+            return new Columns(Arrays.copyOf(times, length), Arrays.copyOf(prices, length),
+                Arrays.copyOf(quantities, length));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tradar.reporting.analytics;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates of one symbol's trades over a time window. Prices are null when the
+ * window holds no trades.
+ */
+@Value
+public class TradeStats {
+    String symbol;
+    /** Start of the window, inclusive. */
+    LocalDateTime from;
+    /** End of the window, exclusive. */
+    LocalDateTime to;
+    long tradeCount;
+    BigDecimal volume;
+    BigDecimal notional;
+    /** Volume-weighted average price, to 16 significant digits. */
+    BigDecimal vwap;
+    BigDecimal open;
+    BigDecimal high;
+    BigDecimal low;
+    BigDecimal close;
+}
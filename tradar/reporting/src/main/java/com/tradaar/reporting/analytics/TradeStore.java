@@ -0,0 +1,234 @@
+package com.tradar.reporting.analytics;
+
+import com.tradar.core.model.TradeCaptureReport;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Columnar in-memory store of trades for analytics: VWAP, volume, trade count
+ * and OHLC per symbol over arbitrary time ranges, and OHLC bars. Each symbol's
+ * trades are kept in {@link TradeChunk}s of one time bucket each, holding times,
+ * prices and quantities as primitive long columns, prices and quantities scaled
+ * to the configured decimal places.
+ * <p>
+ * Aggregation takes the precomputed aggregates of chunks wholly inside the range,
+ * scans the columns of those the range cuts through in tight loops, and splits
+ * the work across the common fork-join pool once enough trades are involved.
+ * Ranges are half-open, {@code [from, to)}, so consecutive windows and bars never
+ * share a trade.
+ * <p>
+ * Adds for a symbol are serialized; aggregation runs concurrently with them
+ * without locking.
+ */
+public class TradeStore {
+    private static final int MAX_BARS = 1_000_000;
+
+    private final long bucketNanos;
+    private final int chunkCapacity;
+    private final int priceScale;
+    private final int quantityScale;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public TradeStore() {
+        this(TradeStoreConfig.builder().build());
+    }
+
+    public TradeStore(TradeStoreConfig config) {
+        if (config.getBucket().isNegative() || config.getBucket().isZero()) {
+            throw new IllegalArgumentException("Bucket must be positive: " + config.getBucket());
+        }
+        if (config.getChunkCapacity() < 1) {
+            throw new IllegalArgumentException("Chunk capacity must be positive: " + config.getChunkCapacity());
+        }
+        this.bucketNanos = config.getBucket().toNanos();
+        this.chunkCapacity = config.getChunkCapacity();
+        this.priceScale = config.getPriceScale();
+        this.quantityScale = config.getQuantityScale();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the report lacks a symbol, price, quantity
+     *         or transact time, or its notional does not fit the configured scales
+     */
+    public void add(TradeCaptureReport report) {
+        if (report.getSymbol() == null || report.getPrice() == null || report.getQuantity() == null
+            || report.getTransactTime() == null) {
+            throw new IllegalArgumentException("Trade report is incomplete: " + report.getTradeReportId());
+        }
+        add(report.getSymbol(), toMantissa(report.getPrice(), priceScale), toMantissa(report.getQuantity(), quantityScale),
+            toNanos(report.getTransactTime()));
+    }
+
+    /**
+     * Adds a trade already in the store's units.
+     *
+     * @param price unscaled price at the configured price scale
+     * @param quantity unscaled quantity at the configured quantity scale
+     * @param epochNanos UTC epoch nanoseconds
+     */
+    public void add(String symbol, long price, long quantity, long epochNanos) {
+        long notional;
+        try {
+            notional = Math.multiplyExact(price, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format(
+                "Notional of %d x %d overflows at scales %d and %d", price, quantity, priceScale, quantityScale), e);
+        }
+        series.computeIfAbsent(symbol, s -> new Series()).add(epochNanos, price, quantity, notional);
+    }
+
+    /**
+     * @return the aggregates of the symbol's trades with a transact time in
+     *         {@code [from, to)}; a window without trades has a zero count
+     */
+    public TradeStats stats(String symbol, LocalDateTime from, LocalDateTime to) {
+        Series trades = series.get(symbol);
+        TradeAggregate aggregate = trades != null ? aggregate(trades.chunks, from, to) : new TradeAggregate();
+        return aggregate.toStats(symbol, from, to, priceScale, quantityScale);
+    }
+
+    /**
+     * @return the aggregates of every symbol with trades in {@code [from, to)},
+     *         by symbol in alphabetical order
+     */
+    public Map<String, TradeStats> statsBySymbol(LocalDateTime from, LocalDateTime to) {
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        List<String> symbols = new ArrayList<>();
+        List<ChunkAggregation> tasks = new ArrayList<>();
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            TradeChunk[] chunks = entry.getValue().chunks;
+            symbols.add(entry.getKey());
+            tasks.add(new ChunkAggregation(chunks, 0, chunks.length, fromNanos, toNanos));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        Map<String, TradeStats> stats = new TreeMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            TradeAggregate aggregate = tasks.get(i).join();
+            if (aggregate.count > 0) {
+                stats.put(symbols.get(i), aggregate.toStats(symbols.get(i), from, to, priceScale, quantityScale));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Splits {@code [from, to)} into consecutive bars of the given size, the last
+     * one cut short at {@code to}.
+     *
+     * @return the aggregates of each bar holding trades of the symbol, in time order
+     * @throws IllegalArgumentException if the bar size is not positive or the range
+     *         needs more than a million bars
+     */
+    public List<TradeStats> bars(String symbol, LocalDateTime from, LocalDateTime to, Duration barSize) {
+        if (barSize.isNegative() || barSize.isZero()) {
+            throw new IllegalArgumentException("Bar size must be positive: " + barSize);
+        }
+        List<TradeStats> result = new ArrayList<>();
+        Series trades = series.get(symbol);
+        if (trades == null || !from.isBefore(to)) {
+            return result;
+        }
+        long barNanos = barSize.toNanos();
+        long bars = (Duration.between(from, to).toNanos() + barNanos - 1) / barNanos;
+        if (bars > MAX_BARS) {
+            throw new IllegalArgumentException(String.format("%s to %s holds %d bars of %s, over %d",
+                from, to, bars, barSize, MAX_BARS));
+        }
+        TradeAggregate[] aggregates = new TradeAggregate[(int) bars];
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        for (TradeChunk chunk : trades.chunks) {
+            chunk.aggregateBars(fromNanos, toNanos, barNanos, aggregates);
+        }
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i] != null) {
+                LocalDateTime barFrom = from.plus(barSize.multipliedBy(i));
+                LocalDateTime barTo = i == aggregates.length - 1 ? to : barFrom.plus(barSize);
+                result.add(aggregates[i].toStats(symbol, barFrom, barTo, priceScale, quantityScale));
+            }
+        }
+        return result;
+    }
+
+    public long getTradeCount() {
+        long trades = 0;
+        for (Series s : series.values()) {
+            for (TradeChunk chunk : s.chunks) {
+                trades += chunk.count();
+            }
+        }
+        return trades;
+    }
+
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    public int getQuantityScale() {
+        return quantityScale;
+    }
+
+    private TradeAggregate aggregate(TradeChunk[] chunks, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return new TradeAggregate();
+        }
+        // Runs in the caller's thread, forking halves only for large ranges
+        return new ChunkAggregation(chunks, 0, chunks.length, toNanos(from), toNanos(to)).invoke();
+    }
+
+    private static long toMantissa(BigDecimal value, int scale) {
+        try {
+            return value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s does not fit scale %d", value, scale), e);
+        }
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, saturated at the ends of the long range
+     */
+    private static long toNanos(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, 1_000_000_000L), time.getNano());
+        } catch (ArithmeticException e) {
+            return seconds < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Chunks of one symbol, oldest first. Only the last chunk takes trades.
+     */
+    private final class Series {
+        volatile TradeChunk[] chunks = new TradeChunk[0];
+        // Guarded by this
+        private TradeChunk open;
+
+        synchronized void add(long time, long price, long quantity, long notional) {
+            long bucket = Math.floorDiv(time, bucketNanos);
+            if (open == null || bucket > open.bucket || !open.append(time, price, quantity, notional)) {
+                if (open != null) {
+                    open.seal();
+                    bucket = Math.max(bucket, open.bucket);
+                }
+                open = new TradeChunk(bucket, chunkCapacity);
+                open.append(time, price, quantity, notional);
+                TradeChunk[] next = Arrays.copyOf(chunks, chunks.length + 1);
+                next[next.length - 1] = open;
+                chunks = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tradar.reporting.analytics;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link TradeStore}.
+ */
+@Data
+@Builder
+public class TradeStoreConfig {
+    /** Time span of the chunks a symbol's trades are grouped into. */
+    @Builder.Default
+    private final Duration bucket = Duration.ofMinutes(1);
+    /** Most trades held by one chunk; a busier bucket spans several chunks. */
+    @Builder.Default
+    private final int chunkCapacity = 64 * 1024;
+    /**
+     * Decimal places prices are stored with. Price times quantity must fit a long
+     * at the two scales, which bounds a single trade's notional at about 9.2e8
+     * with the defaults.
+     */
+    @Builder.Default
+    private final int priceScale = 6;
+    @Builder.Default
+    private final int quantityScale = 4;
+}
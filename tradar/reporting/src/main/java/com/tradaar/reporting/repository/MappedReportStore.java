@@ -0,0 +1,233 @@
+package com.tradar.reporting.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only report storage in rolling memory-mapped {@link ReportSegment} files.
+ * Queries read the mapped records in place and decode only the reports they
+ * return, so the stored history is bounded by disk rather than heap, and
+ * reopening a directory only maps its segments: sealed segments carry their
+ * indexes on disk and only the last, unsealed one is scanned to rebuild its
+ * lookup table.
+ * <p>
+ * Appends take a lock and cost an encode into the mapped segment; they survive a
+ * process crash straight away and a machine crash once flushed, which happens
+ * when a segment fills up, on {@link #flush()} and on {@link #close()}. Queries
+ * take no locks. Unlike {@link ReportIndex}, reports are not unique by id: adding
+ * a report again stores it again.
+ */
+@Slf4j
+final class MappedReportStore<R> implements ReportStore<R> {
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+    private final String prefix;
+    private final ReportCodec<R> codec;
+    private final int recordsPerSegment;
+    private final int indexInterval;
+    private final ReportCodec.Cursor<R> writer;
+    private final CRC32 crc = new CRC32();
+
+    /** Oldest first, replaced on every roll. */
+    private volatile List<ReportSegment<R>> segments;
+    // Guarded by this
+    private ReportSegment<R> active;
+    private boolean closed;
+
+    /**
+     * Opens the store kept in the given directory under the given name, creating
+     * it if absent. Appends continue in the last segment if it is not full.
+     */
+    MappedReportStore(Path directory, String name, ReportCodec<R> codec,
+                      int recordsPerSegment, int indexInterval) throws IOException {
+        if (recordsPerSegment < 2) {
+            throw new IllegalArgumentException("Segments must hold at least 2 records: " + recordsPerSegment);
+        }
+        if (indexInterval < 1) {
+            throw new IllegalArgumentException("Index interval must be positive: " + indexInterval);
+        }
+        ReportSegment.fileLength(codec, recordsPerSegment, indexInterval);
+        this.directory = Files.createDirectories(directory);
+        this.prefix = name + "-";
+        this.codec = codec;
+        this.recordsPerSegment = recordsPerSegment;
+        this.indexInterval = indexInterval;
+        this.writer = codec.newCursor();
+
+        List<ReportSegment<R>> opened = new ArrayList<>();
+        for (Path file : files()) {
+            if (!opened.isEmpty() && !opened.get(opened.size() - 1).isSealed()) {
+                // Only the last segment may be left open; an earlier one was cut off mid-seal
+                opened.get(opened.size() - 1).seal();
+            }
+            opened.add(ReportSegment.open(file, codec, firstRecord(file)));
+        }
+        if (!opened.isEmpty() && !opened.get(opened.size() - 1).isSealed()) {
+            active = opened.get(opened.size() - 1);
+        }
+        this.segments = List.copyOf(opened);
+        log.info("Opened {} report store with {} segments and {} records", name, opened.size(), size());
+    }
+
+    @Override
+    public synchronized void add(R report) {
+        if (closed) {
+            throw new IllegalStateException("Report store is closed");
+        }
+        if (active == null || active.isFull()) {
+            roll();
+        }
+        active.append(report, writer, crc);
+    }
+
+    @Override
+    public List<R> range(LocalDateTime from, LocalDateTime to) {
+        List<R> reports = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return reports;
+        }
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        ReportCodec.Cursor<R> cursor = codec.newCursor();
+        for (ReportSegment<R> segment : segments) {
+            segment.range(fromNanos, toNanos, cursor, reports);
+        }
+        // Stable, so reports at the same instant stay in arrival order
+        reports.sort(codec.byTime);
+        return reports;
+    }
+
+    /**
+     * Null and empty keys are not indexed and match nothing.
+     */
+    @Override
+    public List<R> lookup(String key) {
+        List<R> reports = new ArrayList<>();
+        if (key == null || key.isEmpty()) {
+            return reports;
+        }
+        int hash = ReportSegment.hash(key);
+        ReportCodec.Cursor<R> cursor = codec.newCursor();
+        StringBuilder scratch = new StringBuilder(key.length());
+        for (ReportSegment<R> segment : segments) {
+            segment.lookup(key, hash, cursor, scratch, reports);
+        }
+        reports.sort(codec.byTime);
+        return reports;
+    }
+
+    @Override
+    public int size() {
+        long records = 0;
+        for (ReportSegment<R> segment : segments) {
+            records += segment.count();
+        }
+        return (int) Math.min(records, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #size()}: every add is stored.
+     */
+    @Override
+    public int logSize() {
+        return size();
+    }
+
+    @Override
+    public List<R> readLog(int from, int to) {
+        List<R> reports = new ArrayList<>(Math.max(Math.min(to - from, 1 << 16), 0));
+        ReportCodec.Cursor<R> cursor = codec.newCursor();
+        long start = 0;
+        for (ReportSegment<R> segment : segments) {
+            int records = segment.count();
+            if (start + records > from && start < to) {
+                segment.read((int) Math.max(from - start, 0), (int) Math.min(to - start, records), cursor, reports);
+            }
+            start += records;
+            if (start >= to) {
+                break;
+            }
+        }
+        return reports;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (active != null) {
+                active.force();
+                active.close();
+            }
+        }
+    }
+
+    private void roll() {
+        try {
+            long firstRecord = 0L;
+            List<ReportSegment<R>> current = segments;
+            if (!current.isEmpty()) {
+                ReportSegment<R> last = current.get(current.size() - 1);
+                if (!last.isSealed()) {
+                    last.seal();
+                }
+                firstRecord = last.firstRecord() + last.count();
+            }
+            Path file = directory.resolve(String.format("%s%020d%s", prefix, firstRecord, SEGMENT_SUFFIX));
+            ReportSegment<R> segment = ReportSegment.create(file, codec, firstRecord, recordsPerSegment, indexInterval);
+            List<ReportSegment<R>> next = new ArrayList<>(current);
+            next.add(segment);
+            segments = List.copyOf(next);
+            active = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll report segment", e);
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero-padded first record numbers sort lexicographically
+            return files
+                .filter(f -> f.getFileName().toString().startsWith(prefix))
+                .filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private long firstRecord(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * @return UTC epoch nanoseconds, saturated short of the null timestamp marker
+     */
+    private static long toNanos(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        try {
+            return Math.max(Math.addExact(Math.multiplyExact(seconds, 1_000_000_000L), time.getNano()),
+                Long.MIN_VALUE + 1);
+        } catch (ArithmeticException e) {
+            return seconds < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+        }
+    }
+}
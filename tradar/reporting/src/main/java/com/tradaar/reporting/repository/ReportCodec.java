@@ -0,0 +1,166 @@
+package com.tradar.reporting.repository;
+
+import com.tradar.core.codec.ExecutionReportDecoder;
+import com.tradar.core.codec.ExecutionReportEncoder;
+import com.tradar.core.codec.TemplateId;
+import com.tradar.core.codec.TradeCaptureReportDecoder;
+import com.tradar.core.codec.TradeCaptureReportEncoder;
+import com.tradar.core.model.ExecutionReport;
+import com.tradar.core.model.TradeCaptureReport;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Binary form of one kind of report in the report segments, which is its
+ * fixed-length wire message, together with the secondary key the segments index.
+ */
+abstract class ReportCodec<R> {
+    static final ReportCodec<ExecutionReport> EXECUTION_REPORTS = new ExecutionReports();
+    static final ReportCodec<TradeCaptureReport> TRADE_CAPTURE_REPORTS = new TradeCaptureReports();
+
+    final Comparator<R> byTime = Comparator.comparing(this::timeOf, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    abstract int templateId();
+
+    abstract int encodedLength();
+
+    abstract LocalDateTime timeOf(R report);
+
+    abstract String keyOf(R report);
+
+    abstract Cursor<R> newCursor();
+
+    /**
+     * Encodes reports into a buffer and reads them back in place. Not thread-safe.
+     */
+    interface Cursor<R> {
+
+        void encode(R report, ByteBuffer buffer, int offset);
+
+        /**
+         * @throws IllegalArgumentException if the buffer does not hold this kind of report
+         */
+        Cursor<R> wrap(ByteBuffer buffer, int offset);
+
+        /**
+         * @return UTC epoch nanoseconds, or {@code Long.MIN_VALUE} if absent
+         */
+        long transactTime();
+
+        void key(StringBuilder into);
+
+        R decode();
+    }
+
+    private static final class ExecutionReports extends ReportCodec<ExecutionReport> {
+        @Override
+        int templateId() {
+            return TemplateId.EXECUTION_REPORT;
+        }
+
+        @Override
+        int encodedLength() {
+            return ExecutionReportEncoder.ENCODED_LENGTH;
+        }
+
+        @Override
+        LocalDateTime timeOf(ExecutionReport report) {
+            return report.getTransactTime();
+        }
+
+        @Override
+        String keyOf(ExecutionReport report) {
+            return report.getOrderId();
+        }
+
+        @Override
+        Cursor<ExecutionReport> newCursor() {
+            ExecutionReportEncoder encoder = new ExecutionReportEncoder();
+            ExecutionReportDecoder decoder = new ExecutionReportDecoder();
+            return new Cursor<>() {
+                @Override
+                public void encode(ExecutionReport report, ByteBuffer buffer, int offset) {
+                    encoder.wrap(buffer, offset).encode(report);
+                }
+
+                @Override
+                public Cursor<ExecutionReport> wrap(ByteBuffer buffer, int offset) {
+                    decoder.wrap(buffer, offset);
+                    return this;
+                }
+
+                @Override
+                public long transactTime() {
+                    return decoder.transactTime();
+                }
+
+                @Override
+                public void key(StringBuilder into) {
+                    decoder.orderId(into);
+                }
+
+                @Override
+                public ExecutionReport decode() {
+                    return decoder.toExecutionReport();
+                }
+            };
+        }
+    }
+
+    private static final class TradeCaptureReports extends ReportCodec<TradeCaptureReport> {
+        @Override
+        int templateId() {
+            return TemplateId.TRADE_CAPTURE_REPORT;
+        }
+
+        @Override
+        int encodedLength() {
+            return TradeCaptureReportEncoder.ENCODED_LENGTH;
+        }
+
+        @Override
+        LocalDateTime timeOf(TradeCaptureReport report) {
+            return report.getTransactTime();
+        }
+
+        @Override
+        String keyOf(TradeCaptureReport report) {
+            return report.getSymbol();
+        }
+
+        @Override
+        Cursor<TradeCaptureReport> newCursor() {
+            TradeCaptureReportEncoder encoder = new TradeCaptureReportEncoder();
+            TradeCaptureReportDecoder decoder = new TradeCaptureReportDecoder();
+            return new Cursor<>() {
+                @Override
+                public void encode(TradeCaptureReport report, ByteBuffer buffer, int offset) {
+                    encoder.wrap(buffer, offset).encode(report);
+                }
+
+                @Override
+                public Cursor<TradeCaptureReport> wrap(ByteBuffer buffer, int offset) {
+                    decoder.wrap(buffer, offset);
+                    return this;
+                }
+
+                @Override
+                public long transactTime() {
+                    return decoder.transactTime();
+                }
+
+                @Override
+                public void key(StringBuilder into) {
+                    decoder.symbol(into);
+                }
+
+                @Override
+                public TradeCaptureReport decode() {
+                    return decoder.toTradeCaptureReport();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.tradar.reporting.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Concurrent storage for one kind of report: a primary index ordered by transact
+ * time and a secondary index by one key, such as the order id, each entry of
+ * which is itself time-ordered. Time ranges and key lookups cost O(log n + k)
+ * and return reports in time order.
+ * <p>
+ * Reports are unique by id; adding a report with the id of a stored one replaces
+ * it. Ingestion takes no locks: writers update the concurrent maps directly and
+ * a writer whose report was replaced concurrently takes it back out of the
+ * indexes itself, so they end up holding only the report current for each id.
+ * Every add is also kept in a log addressed by position, in arrival order.
+ */
+final class ReportIndex<R> implements ReportStore<R> {
+    private final Function<R, String> idOf;
+    private final Function<R, LocalDateTime> timeOf;
+    private final Function<R, String> keyOf;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReportLog<R> log = new ReportLog<>();
+    private final Map<String, Entry<R>> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<TimeKey, R> byTime = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<TimeKey, R>> byKey = new ConcurrentHashMap<>();
+
+    /**
+     * @param keyOf the secondary key; reports with a null key are left out of that index
+     */
+    ReportIndex(Function<R, String> idOf, Function<R, LocalDateTime> timeOf, Function<R, String> keyOf) {
+        this.idOf = idOf;
+        this.timeOf = timeOf;
+        this.keyOf = keyOf;
+    }
+
+    @Override
+    public void add(R report) {
+        String id = idOf.apply(report);
+        if (id == null) {
+            throw new IllegalArgumentException("Report has no id: " + report);
+        }
+        long position = sequence.incrementAndGet();
+        log.set(position - 1, report);
+        Entry<R> entry = new Entry<>(report, TimeKey.of(timeOf.apply(report), position));
+        Entry<R> previous = byId.put(id, entry);
+        index(entry);
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (byId.get(id) != entry) {
+            // Replaced by another writer before it was indexed
+            unindex(entry);
+        }
+    }
+
+    @Override
+    public List<R> range(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(byTime.subMap(TimeKey.lowest(from), true, TimeKey.highest(to), true).values());
+    }
+
+    @Override
+    public List<R> lookup(String key) {
+        ConcurrentSkipListMap<TimeKey, R> reports = key != null ? byKey.get(key) : null;
+        return reports != null ? new ArrayList<>(reports.values()) : new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Replaced reports stay in the log. A report still being added by another
+     * writer reads as null.
+     */
+    @Override
+    public int logSize() {
+        return (int) Math.min(sequence.get(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<R> readLog(int from, int to) {
+        int end = Math.min(to, logSize());
+        List<R> reports = new ArrayList<>(Math.max(end - from, 0));
+        for (int i = from; i < end; i++) {
+            reports.add(log.get(i));
+        }
+        return reports;
+    }
+
+    private void index(Entry<R> entry) {
+        byTime.put(entry.key, entry.report);
+        String key = keyOf.apply(entry.report);
+        if (key != null) {
+            ConcurrentSkipListMap<TimeKey, R> reports = byKey.get(key);
+            if (reports == null) {
+                reports = byKey.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+            }
+            reports.put(entry.key, entry.report);
+        }
+    }
+
+    private void unindex(Entry<R> entry) {
+        byTime.remove(entry.key, entry.report);
+        String key = keyOf.apply(entry.report);
+        ConcurrentSkipListMap<TimeKey, R> reports = key != null ? byKey.get(key) : null;
+        if (reports != null) {
+            reports.remove(entry.key, entry.report);
+        }
+    }
+
+    private static final class Entry<R> {
+        final R report;
+        final TimeKey key;
+
+        Entry(R report, TimeKey key) {
+            this.report = report;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tradar.reporting.repository;
+
+import com.tradar.core.model.ExecutionReport;
+import com.tradar.core.model.TradeCaptureReport;
+
+/**
+ * Notified on the adding thread once a report is stored and queryable. Called for
+ * every add, so implementations must be cheap and must not block it.
+ */
+public interface ReportListener {
+    default void onExecutionReport(ExecutionReport report) {}
+
+    default void onTradeCaptureReport(TradeCaptureReport report) {}
+}
@@ -0,0 +1,37 @@
+package com.tradar.reporting.repository;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reports in the order they were added, addressed by position. Positions are
+ * claimed by writers up front and filled in concurrently, so a position below the
+ * claimed count can read as null for the moment its writer takes to store it.
+ */
+final class ReportLog<R> {
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << 16;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<R>> pages = new AtomicReferenceArray<>(MAX_PAGES);
+
+    /**
+     * @throws IllegalStateException once the log holds about a billion reports
+     */
+    void set(long position, R report) {
+        int index = (int) (position >>> PAGE_BITS);
+        if (index >= MAX_PAGES) {
+            throw new IllegalStateException("Report log is full at " + position + " reports");
+        }
+        AtomicReferenceArray<R> page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get(index);
+        }
+        page.set((int) position & (PAGE_SIZE - 1), report);
+    }
+
+    R get(int position) {
+        AtomicReferenceArray<R> page = pages.get(position >>> PAGE_BITS);
+        return page != null ? page.get(position & (PAGE_SIZE - 1)) : null;
+    }
+}
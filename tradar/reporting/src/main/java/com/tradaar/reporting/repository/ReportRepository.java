@@ -2,62 +2,161 @@ package com.tradar.reporting.repository;
 
 import com.tradar.core.model.ExecutionReport;
 import com.tradar.core.model.TradeCaptureReport;
+import com.tradar.reporting.analytics.TradeStore;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Repository for storing and retrieving execution reports and trade capture reports.
  * Provides methods to query reports by various criteria and time ranges.
- * Implements thread-safe storage using concurrent collections.
+ * Reports are held in concurrent time-ordered indexes, with secondary indexes by
+ * order id for execution reports and by symbol for trade reports, so queries cost
+ * O(log n + k) in the number of stored and matching reports rather than a full
+ * scan, and return reports in transact time order. Ingestion is lock-free.
+ * <p>
+ * A repository created with a {@link ReportStoreConfig} instead appends reports
+ * to memory-mapped segment files and answers the same queries from them, reading
+ * records in place, so history is bounded by disk rather than heap and outlives
+ * restarts. Reopening the same directory makes earlier reports queryable again
+ * without loading them.
+ * <p>
+ * Trade capture reports also feed a columnar {@link TradeStore} for VWAP, volume
+ * and OHLC queries.
+ * <p>
+ * Besides the indexes, each kind of report can be read by position in the order
+ * reports were added, a page at a time, which lets a view over millions of
+ * reports fetch just the rows it shows. {@link ReportListener}s hear of each
+ * report as it is added.
  *
  * @author Vrushank Patel
  */
 @Slf4j
-public class ReportRepository {
-    private final ConcurrentHashMap<String, ExecutionReport> executionReports;
-    private final ConcurrentHashMap<String, TradeCaptureReport> tradeReports;
+public class ReportRepository implements AutoCloseable {
+    private final ReportStore<ExecutionReport> executionReports;
+    private final ReportStore<TradeCaptureReport> tradeReports;
+    private final TradeStore tradeStore = new TradeStore();
+    private final List<ReportListener> listeners = new CopyOnWriteArrayList<>();
 
     public ReportRepository() {
-        this.executionReports = new ConcurrentHashMap<>();
-        this.tradeReports = new ConcurrentHashMap<>();
+        this.executionReports = new ReportIndex<>(
+            ExecutionReport::getExecId, ExecutionReport::getTransactTime, ExecutionReport::getOrderId);
+        this.tradeReports = new ReportIndex<>(
+            TradeCaptureReport::getTradeReportId, TradeCaptureReport::getTransactTime, TradeCaptureReport::getSymbol);
+    }
+
+    /**
+     * Opens a persistent repository in the configured directory, creating it if absent.
+     */
+    public ReportRepository(ReportStoreConfig config) throws IOException {
+        this.executionReports = new MappedReportStore<>(config.getDirectory(), "execution-reports",
+            ReportCodec.EXECUTION_REPORTS, config.getRecordsPerSegment(), config.getIndexInterval());
+        this.tradeReports = new MappedReportStore<>(config.getDirectory(), "trade-reports",
+            ReportCodec.TRADE_CAPTURE_REPORTS, config.getRecordsPerSegment(), config.getIndexInterval());
     }
 
     public void addExecutionReport(ExecutionReport report) {
-        executionReports.put(report.getExecId(), report);
-        log.info("Added execution report: {}", report);
+        executionReports.add(report);
+        log.debug("Added execution report: {}", report);
+        for (ReportListener listener : listeners) {
+            listener.onExecutionReport(report);
+        }
     }
 
     public void addTradeCaptureReport(TradeCaptureReport report) {
-        tradeReports.put(report.getTradeReportId(), report);
-        log.info("Added trade capture report: {}", report);
+        tradeReports.add(report);
+        try {
+            tradeStore.add(report);
+        } catch (IllegalArgumentException e) {
+            log.warn("Trade report {} left out of trade analytics: {}", report.getTradeReportId(), e.getMessage());
+        }
+        log.debug("Added trade capture report: {}", report);
+        for (ReportListener listener : listeners) {
+            listener.onTradeCaptureReport(report);
+        }
     }
 
     public List<ExecutionReport> getExecutionReports(LocalDateTime from, LocalDateTime to) {
-        return executionReports.values().stream()
-                .filter(r -> !r.getTransactTime().isBefore(from) && !r.getTransactTime().isAfter(to))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return executionReports.range(from, to);
     }
 
     public List<TradeCaptureReport> getTradeReports(LocalDateTime from, LocalDateTime to) {
-        return tradeReports.values().stream()
-                .filter(r -> !r.getTransactTime().isBefore(from) && !r.getTransactTime().isAfter(to))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return tradeReports.range(from, to);
     }
 
     public List<ExecutionReport> getExecutionReportsByOrderId(String orderId) {
-        return executionReports.values().stream()
-                .filter(r -> r.getOrderId().equals(orderId))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return executionReports.lookup(orderId);
     }
 
     public List<TradeCaptureReport> getTradeReportsBySymbol(String symbol) {
-        return tradeReports.values().stream()
-                .filter(r -> r.getSymbol().equals(symbol))
-                .collect(Collectors.toCollection(ArrayList::new));
+        return tradeReports.lookup(symbol);
+    }
+
+    /**
+     * @return the execution reports at positions {@code [from, to)} in the order
+     *         they were added; an in-memory repository also keeps reports since
+     *         replaced by id, and reads a report still being added as null
+     */
+    public List<ExecutionReport> getExecutionReportLog(int from, int to) {
+        return executionReports.readLog(from, to);
+    }
+
+    /**
+     * @see #getExecutionReportLog(int, int)
+     */
+    public List<TradeCaptureReport> getTradeReportLog(int from, int to) {
+        return tradeReports.readLog(from, to);
+    }
+
+    public int getExecutionReportLogSize() {
+        return executionReports.logSize();
+    }
+
+    public int getTradeReportLogSize() {
+        return tradeReports.logSize();
+    }
+
+    public void addReportListener(ReportListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeReportListener(ReportListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return analytics over the trade reports added since this repository was
+     *         created; a persistent repository does not reload them on opening
+     */
+    public TradeStore getTradeStore() {
+        return tradeStore;
+    }
+
+    public int getExecutionReportCount() {
+        return executionReports.size();
+    }
+
+    public int getTradeReportCount() {
+        return tradeReports.size();
+    }
+
+    /**
+     * Forces reports added so far to disk; does nothing for an in-memory repository.
+     */
+    public void flush() {
+        executionReports.flush();
+        tradeReports.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            executionReports.close();
+        } finally {
+            tradeReports.close();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,455 @@
+package com.tradar.reporting.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of fixed-length report records, laid out as
+ * <pre>
+ * [header][time index][key index][record slots]
+ * </pre>
+ * Each slot is {@code [int crc32][int unused][message]}, the message being the
+ * report's wire encoding. The sparse time index holds the lowest and highest
+ * transact time of every run of {@code indexInterval} records, so time range
+ * queries read only the runs that overlap the range. The key index, written when
+ * the segment is sealed, is every record's key hash and slot number sorted by
+ * hash; until then lookups go through an in-memory hash table that is rebuilt
+ * from the records when an unsealed segment is reopened.
+ * <p>
+ * A single writer appends while any number of readers query, reading records in
+ * place from the mapped file. The writer publishes a record by bumping the
+ * volatile record count after writing it and its index entries.
+ */
+@Slf4j
+final class ReportSegment<R> {
+    private static final int MAGIC = 0x54524550;
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int TEMPLATE_ID_OFFSET = 8;
+    private static final int MESSAGE_LENGTH_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int INDEX_INTERVAL_OFFSET = 20;
+    /** Record count once sealed, {@link #UNSEALED} before. */
+    private static final int SEALED_COUNT_OFFSET = 24;
+    private static final int MIN_TIME_OFFSET = 32;
+    private static final int MAX_TIME_OFFSET = 40;
+    private static final int HEADER_LENGTH = 64;
+    private static final int UNSEALED = -1;
+
+    private static final int TIME_ENTRY_LENGTH = 16;
+    private static final int KEY_ENTRY_LENGTH = 8;
+    private static final int SLOT_HEADER_LENGTH = 8;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final Path file;
+    private final ReportCodec<R> codec;
+    private final long firstRecord;
+    private final int capacity;
+    private final int indexInterval;
+    private final int slotLength;
+    private final int keyIndexOffset;
+    private final int slotsOffset;
+    private final MappedByteBuffer buffer;
+    private FileChannel channel;
+
+    private volatile int count;
+    private volatile long minTime = Long.MAX_VALUE;
+    private volatile long maxTime = Long.MIN_VALUE;
+    /** Lookup table of the unsealed segment, null once sealed. */
+    private volatile KeyTable table;
+
+    private ReportSegment(Path file, ReportCodec<R> codec, long firstRecord, int capacity, int indexInterval,
+                          FileChannel channel, FileChannel.MapMode mode) throws IOException {
+        this.file = file;
+        this.codec = codec;
+        this.firstRecord = firstRecord;
+        this.capacity = capacity;
+        this.indexInterval = indexInterval;
+        this.slotLength = slotLength(codec);
+        this.keyIndexOffset = HEADER_LENGTH + blocks(capacity, indexInterval) * TIME_ENTRY_LENGTH;
+        this.slotsOffset = keyIndexOffset + capacity * KEY_ENTRY_LENGTH;
+        this.channel = channel;
+        this.buffer = channel.map(mode, 0, fileLength(codec, capacity, indexInterval));
+    }
+
+    /**
+     * @return the size of a segment file, which must fit a single mapping
+     * @throws IllegalArgumentException if it does not
+     */
+    static int fileLength(ReportCodec<?> codec, int capacity, int indexInterval) {
+        long length = HEADER_LENGTH + (long) blocks(capacity, indexInterval) * TIME_ENTRY_LENGTH
+            + (long) capacity * (KEY_ENTRY_LENGTH + slotLength(codec));
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "Segment of %d records needs %d bytes, over the 2GB mapping limit", capacity, length));
+        }
+        return (int) length;
+    }
+
+    static <R> ReportSegment<R> create(Path file, ReportCodec<R> codec, long firstRecord,
+                                       int capacity, int indexInterval) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ReportSegment<R> segment = new ReportSegment<>(file, codec, firstRecord, capacity, indexInterval,
+            channel, FileChannel.MapMode.READ_WRITE);
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(TEMPLATE_ID_OFFSET, codec.templateId());
+        buffer.putInt(MESSAGE_LENGTH_OFFSET, codec.encodedLength());
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(INDEX_INTERVAL_OFFSET, indexInterval);
+        buffer.putInt(SEALED_COUNT_OFFSET, UNSEALED);
+        segment.table = new KeyTable(capacity);
+        log.info("Opened report segment {}", file.getFileName());
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment with the geometry recorded in its header. A sealed
+     * segment is mapped read-only; an unsealed one is recovered up to its last
+     * intact record and stays writable.
+     */
+    static <R> ReportSegment<R> open(Path file, ReportCodec<R> codec, long firstRecord) throws IOException {
+        int capacity;
+        int indexInterval;
+        boolean sealed;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(in.size(), HEADER_LENGTH));
+            if (header.limit() < HEADER_LENGTH || header.getInt(MAGIC_OFFSET) != MAGIC
+                || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a report segment: " + file);
+            }
+            if (header.getInt(TEMPLATE_ID_OFFSET) != codec.templateId()
+                || header.getInt(MESSAGE_LENGTH_OFFSET) != codec.encodedLength()) {
+                throw new IOException(String.format("Segment %s holds template %d of length %d, expected %d of length %d",
+                    file, header.getInt(TEMPLATE_ID_OFFSET), header.getInt(MESSAGE_LENGTH_OFFSET),
+                    codec.templateId(), codec.encodedLength()));
+            }
+            capacity = header.getInt(CAPACITY_OFFSET);
+            indexInterval = header.getInt(INDEX_INTERVAL_OFFSET);
+            sealed = header.getInt(SEALED_COUNT_OFFSET) != UNSEALED;
+            if (in.size() < fileLength(codec, capacity, indexInterval)) {
+                throw new IOException("Truncated report segment: " + file);
+            }
+        }
+
+        if (sealed) {
+            ReportSegment<R> segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                segment = new ReportSegment<>(file, codec, firstRecord, capacity, indexInterval,
+                    channel, FileChannel.MapMode.READ_ONLY);
+            }
+            segment.channel = null;
+            segment.minTime = segment.buffer.getLong(MIN_TIME_OFFSET);
+            segment.maxTime = segment.buffer.getLong(MAX_TIME_OFFSET);
+            segment.count = segment.buffer.getInt(SEALED_COUNT_OFFSET);
+            return segment;
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ReportSegment<R> segment = new ReportSegment<>(file, codec, firstRecord, capacity, indexInterval,
+            channel, FileChannel.MapMode.READ_WRITE);
+        segment.recover();
+        return segment;
+    }
+
+    long firstRecord() {
+        return firstRecord;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    boolean isSealed() {
+        return table == null;
+    }
+
+    /**
+     * Writer side. The segment must not be full.
+     */
+    void append(R report, ReportCodec.Cursor<R> cursor, CRC32 crc) {
+        int record = count;
+        int slot = slotOffset(record);
+        cursor.encode(report, buffer, slot + SLOT_HEADER_LENGTH);
+        crc.reset();
+        crc.update(buffer.slice(slot + SLOT_HEADER_LENGTH, codec.encodedLength()));
+        buffer.putInt(slot, (int) crc.getValue());
+        indexTime(record, cursor.wrap(buffer, slot + SLOT_HEADER_LENGTH).transactTime());
+        table.add(record, hash(codec.keyOf(report)));
+        count = record + 1;
+    }
+
+    /**
+     * Writer side. Writes the key index and the final count, forces the segment to
+     * disk and drops the in-memory lookup table.
+     */
+    void seal() throws IOException {
+        KeyTable keys = table;
+        int records = count;
+        long[] entries = new long[records];
+        for (int i = 0; i < records; i++) {
+            entries[i] = (long) keys.hashes[i] << 32 | i;
+        }
+        Arrays.sort(entries);
+        for (int i = 0; i < records; i++) {
+            buffer.putLong(keyIndexOffset + i * KEY_ENTRY_LENGTH, entries[i]);
+        }
+        buffer.putLong(MIN_TIME_OFFSET, minTime);
+        buffer.putLong(MAX_TIME_OFFSET, maxTime);
+        buffer.putInt(SEALED_COUNT_OFFSET, records);
+        buffer.force();
+        // Readers that still hold the table finish with it; later ones use the key index
+        table = null;
+        close();
+        log.info("Sealed report segment {} with {} records", file.getFileName(), records);
+    }
+
+    void force() {
+        if (!isSealed()) {
+            buffer.force();
+        }
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Adds the records with a transact time within the range, both ends inclusive,
+     * in the order they were appended.
+     */
+    void range(long from, long to, ReportCodec.Cursor<R> cursor, List<R> into) {
+        int records = count;
+        if (records == 0 || maxTime < from || minTime > to) {
+            return;
+        }
+        for (int start = 0, entry = HEADER_LENGTH; start < records; start += indexInterval, entry += TIME_ENTRY_LENGTH) {
+            if (buffer.getLong(entry) > to || buffer.getLong(entry + 8) < from) {
+                continue;
+            }
+            int end = Math.min(records, start + indexInterval);
+            for (int record = start; record < end; record++) {
+                long time = cursor.wrap(buffer, messageOffset(record)).transactTime();
+                if (time >= from && time <= to) {
+                    into.add(cursor.decode());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds records {@code [from, to)} of this segment, in the order they were
+     * appended.
+     */
+    void read(int from, int to, ReportCodec.Cursor<R> cursor, List<R> into) {
+        int end = Math.min(to, count);
+        for (int record = Math.max(from, 0); record < end; record++) {
+            into.add(cursor.wrap(buffer, messageOffset(record)).decode());
+        }
+    }
+
+    /**
+     * Adds the records with the given key, in the order they were appended.
+     */
+    void lookup(String key, int hash, ReportCodec.Cursor<R> cursor, StringBuilder scratch, List<R> into) {
+        KeyTable keys = table;
+        if (keys != null) {
+            int start = into.size();
+            for (int record = keys.first(hash); record >= 0; record = keys.next(record)) {
+                if (keys.hashes[record] == hash && matches(record, key, cursor, scratch)) {
+                    into.add(cursor.decode());
+                }
+            }
+            // Chains run newest first
+            Collections.reverse(into.subList(start, into.size()));
+            return;
+        }
+
+        int records = count;
+        long target = (long) hash << 32;
+        int low = 0;
+        int high = records;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(keyIndexOffset + mid * KEY_ENTRY_LENGTH) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < records; i++) {
+            long entry = buffer.getLong(keyIndexOffset + i * KEY_ENTRY_LENGTH);
+            if ((int) (entry >>> 32) != hash) {
+                break;
+            }
+            int record = (int) entry;
+            if (matches(record, key, cursor, scratch)) {
+                into.add(cursor.decode());
+            }
+        }
+    }
+
+    /**
+     * Hash of a report key, as stored in the key indexes. Null and empty keys
+     * share a hash, as both are encoded as an empty field.
+     */
+    static int hash(CharSequence key) {
+        int h = 0;
+        if (key != null) {
+            for (int i = 0; i < key.length(); i++) {
+                h = 31 * h + key.charAt(i);
+            }
+        }
+        // Spread sequential ids across the table
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private boolean matches(int record, String key, ReportCodec.Cursor<R> cursor, StringBuilder scratch) {
+        scratch.setLength(0);
+        cursor.wrap(buffer, messageOffset(record)).key(scratch);
+        return key.contentEquals(scratch);
+    }
+
+    private void indexTime(int record, long time) {
+        int entry = HEADER_LENGTH + record / indexInterval * TIME_ENTRY_LENGTH;
+        if (record % indexInterval == 0) {
+            buffer.putLong(entry, Long.MAX_VALUE);
+            buffer.putLong(entry + 8, Long.MIN_VALUE);
+        }
+        // Reports without a time never match a range, so they widen nothing
+        if (time != NULL_TIME) {
+            buffer.putLong(entry, Math.min(buffer.getLong(entry), time));
+            buffer.putLong(entry + 8, Math.max(buffer.getLong(entry + 8), time));
+            if (time < minTime) {
+                minTime = time;
+            }
+            if (time > maxTime) {
+                maxTime = time;
+            }
+        }
+    }
+
+    /**
+     * Finds the intact records of a segment left unsealed, clears whatever follows
+     * them and rebuilds the time index and lookup table.
+     */
+    private void recover() {
+        CRC32 crc = new CRC32();
+        int records = 0;
+        while (records < capacity && intact(records, crc)) {
+            records++;
+        }
+        for (int record = records; record < capacity && buffer.getLong(messageOffset(record)) != 0L; record++) {
+            int slot = slotOffset(record);
+            for (int i = 0; i < slotLength; i += 8) {
+                buffer.putLong(slot + i, 0L);
+            }
+        }
+
+        ReportCodec.Cursor<R> cursor = codec.newCursor();
+        StringBuilder key = new StringBuilder();
+        KeyTable keys = new KeyTable(capacity);
+        for (int record = 0; record < records; record++) {
+            cursor.wrap(buffer, messageOffset(record));
+            indexTime(record, cursor.transactTime());
+            key.setLength(0);
+            cursor.key(key);
+            keys.add(record, hash(key));
+        }
+        table = keys;
+        count = records;
+        log.info("Recovered {} records from report segment {}", records, file.getFileName());
+    }
+
+    private boolean intact(int record, CRC32 crc) {
+        int slot = slotOffset(record);
+        if (buffer.getLong(slot + SLOT_HEADER_LENGTH) == 0L) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.slice(slot + SLOT_HEADER_LENGTH, codec.encodedLength()));
+        if ((int) crc.getValue() != buffer.getInt(slot)) {
+            log.warn("Torn record {} in report segment {}, ignoring the rest of the segment", record, file.getFileName());
+            return false;
+        }
+        return true;
+    }
+
+    private int slotOffset(int record) {
+        return slotsOffset + record * slotLength;
+    }
+
+    private int messageOffset(int record) {
+        return slotOffset(record) + SLOT_HEADER_LENGTH;
+    }
+
+    private static int slotLength(ReportCodec<?> codec) {
+        // Keep slots 8-byte aligned
+        return (SLOT_HEADER_LENGTH + codec.encodedLength() + 7) & ~7;
+    }
+
+    private static int blocks(int capacity, int indexInterval) {
+        return (capacity + indexInterval - 1) / indexInterval;
+    }
+
+    /**
+     * Chained hash table from key hash to record, safe for one writer and
+     * concurrent readers: a record's chain link is written before the volatile
+     * store of the bucket head that makes it reachable.
+     */
+    private static final class KeyTable {
+        final int[] hashes;
+        private final int[] next;
+        private final AtomicIntegerArray heads;
+        private final int mask;
+
+        KeyTable(int capacity) {
+            int buckets = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+            this.hashes = new int[capacity];
+            this.next = new int[capacity];
+            this.heads = new AtomicIntegerArray(buckets);
+            this.mask = buckets - 1;
+        }
+
+        void add(int record, int hash) {
+            int bucket = hash & mask;
+            hashes[record] = hash;
+            // Links hold record + 1, so zero ends a chain
+            next[record] = heads.get(bucket);
+            heads.set(bucket, record + 1);
+        }
+
+        int first(int hash) {
+            return heads.get(hash & mask) - 1;
+        }
+
+        int next(int record) {
+            return next[record] - 1;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.tradar.reporting.repository;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Storage for one kind of report, queried by transact time and by one secondary
+ * key. Both queries return reports in transact time order, reports at the same
+ * instant in the order they were added.
+ */
+interface ReportStore<R> extends AutoCloseable {
+
+    void add(R report);
+
+    /**
+     * @return reports with a transact time within the range, both ends inclusive
+     */
+    List<R> range(LocalDateTime from, LocalDateTime to);
+
+    List<R> lookup(String key);
+
+    int size();
+
+    /**
+     * @return the number of reports added, counting each add
+     */
+    int logSize();
+
+    /**
+     * @return the reports at positions {@code [from, to)} in the order they were
+     *         added, cut short at the end of the log
+     */
+    List<R> readLog(int from, int to);
+
+    /**
+     * Makes everything added so far durable, where the store keeps anything on disk.
+     */
+    default void flush() {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
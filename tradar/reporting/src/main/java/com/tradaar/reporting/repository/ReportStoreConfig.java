@@ -0,0 +1,22 @@
+package com.tradar.reporting.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for the memory-mapped report segments of a persistent
+ * {@link ReportRepository}.
+ */
+@Data
+@Builder
+public class ReportStoreConfig {
+    private final Path directory;
+    /** Records per segment file; a record takes up to 232 bytes plus 8 of key index. */
+    @Builder.Default
+    private final int recordsPerSegment = 1 << 20;
+    /** Records covered by each entry of a segment's sparse time index. */
+    @Builder.Default
+    private final int indexInterval = 256;
+}
@@ -0,0 +1,59 @@
+package com.tradar.reporting.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Key of the time-ordered report indexes: the transact time, with an insertion
+ * sequence to keep reports at the same instant apart and in arrival order.
+ * Reports without a transact time sort before all others.
+ */
+final class TimeKey implements Comparable<TimeKey> {
+    private final long epochSecond;
+    private final int nano;
+    private final long sequence;
+
+    private TimeKey(long epochSecond, int nano, long sequence) {
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+        this.sequence = sequence;
+    }
+
+    static TimeKey of(LocalDateTime time, long sequence) {
+        return time == null ? new TimeKey(Long.MIN_VALUE, 0, sequence)
+                            : new TimeKey(time.toEpochSecond(ZoneOffset.UTC), time.getNano(), sequence);
+    }
+
+    /**
+     * @return a key below every report at or after the given time
+     */
+    static TimeKey lowest(LocalDateTime time) {
+        return of(time, Long.MIN_VALUE);
+    }
+
+    /**
+     * @return a key above every report at or before the given time
+     */
+    static TimeKey highest(LocalDateTime time) {
+        return of(time, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(TimeKey other) {
+        int result = Long.compare(epochSecond, other.epochSecond);
+        if (result == 0) {
+            result = Integer.compare(nano, other.nano);
+        }
+        return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TimeKey other && compareTo(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(epochSecond) * 31 + Long.hashCode(sequence) + nano;
+    }
+}
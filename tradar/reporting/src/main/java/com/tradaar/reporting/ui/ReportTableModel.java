@@ -0,0 +1,151 @@
+package com.tradar.reporting.ui;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Table model over a source of reports that can be read by position, such as the
+ * repository's report log, holding none of the rows itself. Rows are read a page
+ * at a time when the table first paints them and a bounded number of pages stays
+ * cached, so the cost of a repaint depends on the visible rows only, not on how
+ * many reports the source holds.
+ * <p>
+ * Reports added to a growing source are announced with {@link #rowsAdded()} from
+ * any thread. Announcements are coalesced: the model picks up everything added
+ * at most once per frame with a single row insertion event.
+ * <p>
+ * Apart from {@link #rowsAdded()}, all methods must be called on the event
+ * dispatch thread.
+ */
+class ReportTableModel<R> extends AbstractTableModel {
+    static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 64;
+    private static final int FRAME_MILLIS = 16;
+
+    private final String[] columnNames;
+    private final ColumnReader<R> reader;
+    private final Map<Integer, List<R>> pages = new LinkedHashMap<>(CACHED_PAGES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<R>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Timer frame;
+    private Source<R> source;
+    private int rowCount;
+
+    ReportTableModel(String[] columnNames, ColumnReader<R> reader, Source<R> source) {
+        this.columnNames = columnNames.clone();
+        this.reader = reader;
+        this.source = source;
+        this.rowCount = source.size();
+        this.frame = new Timer(FRAME_MILLIS, e -> flush());
+        frame.setRepeats(false);
+    }
+
+    /**
+     * Shows another source, such as the result of a filter, from its first row.
+     */
+    void setSource(Source<R> source) {
+        this.source = source;
+        pages.clear();
+        rowCount = source.size();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Tells the model its source grew. Safe to call from any thread.
+     */
+    void rowsAdded() {
+        if (pending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frame::restart);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        R report = getReport(rowIndex);
+        return report != null ? reader.valueAt(report, columnIndex) : null;
+    }
+
+    /**
+     * @return the report at the row, or null if the source has not finished adding it
+     */
+    R getReport(int rowIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        int offset = rowIndex % PAGE_SIZE;
+        List<R> rows = pages.get(page);
+        if (rows == null || offset >= rows.size()) {
+            int first = page * PAGE_SIZE;
+            rows = source.read(first, Math.min(first + PAGE_SIZE, rowCount));
+            // A page with reports still being added is read again on the next paint
+            if (!rows.contains(null)) {
+                pages.put(page, rows);
+            }
+        }
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    private void flush() {
+        pending.set(false);
+        int size = source.size();
+        if (size > rowCount) {
+            int first = rowCount;
+            rowCount = size;
+            fireTableRowsInserted(first, size - 1);
+        }
+    }
+
+    @FunctionalInterface
+    interface ColumnReader<R> {
+        Object valueAt(R report, int column);
+    }
+
+    /**
+     * Reports addressed by position. A source may grow, but positions already
+     * counted keep their report.
+     */
+    interface Source<R> {
+        int size();
+
+        /**
+         * @return the reports at positions {@code [from, to)}
+         */
+        List<R> read(int from, int to);
+
+        static <R> Source<R> of(List<R> reports) {
+            return new Source<>() {
+                @Override
+                public int size() {
+                    return reports.size();
+                }
+
+                @Override
+                public List<R> read(int from, int to) {
+                    return reports.subList(Math.min(from, reports.size()), Math.min(to, reports.size()));
+                }
+            };
+        }
+    }
+}
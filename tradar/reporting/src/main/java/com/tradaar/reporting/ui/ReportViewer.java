@@ -2,11 +2,11 @@ package com.tradar.reporting.ui;
 
 import com.tradar.core.model.ExecutionReport;
 import com.tradar.core.model.TradeCaptureReport;
+import com.tradar.reporting.repository.ReportListener;
 import com.tradar.reporting.repository.ReportRepository;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -16,35 +16,47 @@ import java.util.List;
  * A comprehensive trade reporting interface that displays execution reports
  * and trade capture reports. Provides filtering and viewing capabilities
  * for historical trade data and real-time updates.
+ * <p>
+ * The tables page through the repository's report logs rather than copying
+ * reports into the table models, so they stay responsive with millions of
+ * reports, and pick up reports added live at most once per frame.
  *
  * @author Vrushank Patel
  */
 @Slf4j
 public class ReportViewer extends JFrame {
+    private static final String[] EXECUTION_COLUMNS = {
+        "Exec ID", "Order ID", "Symbol", "Side", "Type",
+        "Order Qty", "Leaves Qty", "Cum Qty", "Avg Price",
+        "Status", "Time", "Text"
+    };
+    private static final String[] TRADE_COLUMNS = {
+        "Trade Report ID", "Trade ID", "Symbol",
+        "Buy Order ID", "Sell Order ID",
+        "Price", "Quantity", "Trade Date", "Time"
+    };
+
     private final ReportRepository repository;
     private final JTabbedPane tabbedPane;
-    private final JTable executionTable;
-    private final JTable tradeTable;
+    private final ReportTableModel<ExecutionReport> executionModel;
+    private final ReportTableModel<TradeCaptureReport> tradeModel;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public ReportViewer(ReportRepository repository) {
         this.repository = repository;
-        
-        // Start listening for new reports
-        try {
-            repository.startListening("239.0.0.1", 5003);  // Listen for execution reports
-        } catch (Exception e) {
-            log.error("Failed to start listening for reports", e);
-        }
-
-        // Add report listener
-        repository.addReportListener(report -> {
-            if (report instanceof ExecutionReport) {
-                SwingUtilities.invokeLater(() -> 
-                    updateExecutionTable(List.of((ExecutionReport) report)));
-            } else if (report instanceof TradeCaptureReport) {
-                SwingUtilities.invokeLater(() -> 
-                    updateTradeTable(List.of((TradeCaptureReport) report)));
+        this.executionModel = new ReportTableModel<>(EXECUTION_COLUMNS, this::executionValue, executionLog());
+        this.tradeModel = new ReportTableModel<>(TRADE_COLUMNS, this::tradeValue, tradeLog());
+
+        // Filtered views are fixed query results and ignore new reports
+        repository.addReportListener(new ReportListener() {
+            @Override
+            public void onExecutionReport(ExecutionReport report) {
+                executionModel.rowsAdded();
+            }
+
+            @Override
+            public void onTradeCaptureReport(TradeCaptureReport report) {
+                tradeModel.rowsAdded();
             }
         });
 
@@ -55,43 +67,47 @@ public class ReportViewer extends JFrame {
         tabbedPane = new JTabbedPane();
         
         // Execution Reports Panel
-        executionTable = createExecutionReportTable();
         JPanel execPanel = new JPanel(new BorderLayout());
-        execPanel.add(new JScrollPane(executionTable), BorderLayout.CENTER);
+        execPanel.add(new JScrollPane(new JTable(executionModel)), BorderLayout.CENTER);
         execPanel.add(createExecutionFilterPanel(), BorderLayout.NORTH);
         
         // Trade Reports Panel
-        tradeTable = createTradeReportTable();
         JPanel tradePanel = new JPanel(new BorderLayout());
-        tradePanel.add(new JScrollPane(tradeTable), BorderLayout.CENTER);
+        tradePanel.add(new JScrollPane(new JTable(tradeModel)), BorderLayout.CENTER);
         tradePanel.add(createTradeFilterPanel(), BorderLayout.NORTH);
         
         tabbedPane.addTab("Execution Reports", execPanel);
         tabbedPane.addTab("Trade Reports", tradePanel);
         
         add(tabbedPane);
-        
-        // Refresh timer
-        Timer timer = new Timer(5000, e -> refreshTables());
-        timer.start();
     }
 
-    private JTable createExecutionReportTable() {
-        String[] columns = {
-            "Exec ID", "Order ID", "Symbol", "Side", "Type",
-            "Order Qty", "Leaves Qty", "Cum Qty", "Avg Price",
-            "Status", "Time", "Text"
+    private ReportTableModel.Source<ExecutionReport> executionLog() {
+        return new ReportTableModel.Source<>() {
+            @Override
+            public int size() {
+                return repository.getExecutionReportLogSize();
+            }
+
+            @Override
+            public List<ExecutionReport> read(int from, int to) {
+                return repository.getExecutionReportLog(from, to);
+            }
         };
-        return new JTable(new DefaultTableModel(columns, 0));
     }
 
-    private JTable createTradeReportTable() {
-        String[] columns = {
-            "Trade Report ID", "Trade ID", "Symbol",
-            "Buy Order ID", "Sell Order ID",
-            "Price", "Quantity", "Trade Date", "Time"
+    private ReportTableModel.Source<TradeCaptureReport> tradeLog() {
+        return new ReportTableModel.Source<>() {
+            @Override
+            public int size() {
+                return repository.getTradeReportLogSize();
+            }
+
+            @Override
+            public List<TradeCaptureReport> read(int from, int to) {
+                return repository.getTradeReportLog(from, to);
+            }
         };
-        return new JTable(new DefaultTableModel(columns, 0));
     }
 
     private JPanel createExecutionFilterPanel() {
@@ -99,11 +115,12 @@ public class ReportViewer extends JFrame {
         JTextField orderIdField = new JTextField(10);
         JButton filterButton = new JButton("Filter by Order ID");
         
+        // An empty order id shows all reports again
         filterButton.addActionListener(e -> {
             String orderId = orderIdField.getText().trim();
-            if (!orderId.isEmpty()) {
-                updateExecutionTable(repository.getExecutionReportsByOrderId(orderId));
-            }
+            executionModel.setSource(orderId.isEmpty()
+                ? executionLog()
+                : ReportTableModel.Source.of(repository.getExecutionReportsByOrderId(orderId)));
         });
         
         panel.add(new JLabel("Order ID:"));
@@ -117,11 +134,12 @@ public class ReportViewer extends JFrame {
         JTextField symbolField = new JTextField(10);
         JButton filterButton = new JButton("Filter by Symbol");
         
+        // An empty symbol shows all reports again
         filterButton.addActionListener(e -> {
             String symbol = symbolField.getText().trim();
-            if (!symbol.isEmpty()) {
-                updateTradeTable(repository.getTradeReportsBySymbol(symbol));
-            }
+            tradeModel.setSource(symbol.isEmpty()
+                ? tradeLog()
+                : ReportTableModel.Source.of(repository.getTradeReportsBySymbol(symbol)));
         });
         
         panel.add(new JLabel("Symbol:"));
@@ -130,53 +148,41 @@ public class ReportViewer extends JFrame {
         return panel;
     }
 
-    private void refreshTables() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime from = now.minusHours(24); // Last 24 hours
-        
-        updateExecutionTable(repository.getExecutionReports(from, now));
-        updateTradeTable(repository.getTradeReports(from, now));
+    private Object executionValue(ExecutionReport report, int column) {
+        return switch (column) {
+            case 0 -> report.getExecId();
+            case 1 -> report.getOrderId();
+            case 2 -> report.getSymbol();
+            case 3 -> report.getSide();
+            case 4 -> report.getOrderType();
+            case 5 -> report.getOrderQty();
+            case 6 -> report.getLeavesQty();
+            case 7 -> report.getCumQty();
+            case 8 -> report.getAvgPx();
+            case 9 -> report.getOrderStatus();
+            case 10 -> format(report.getTransactTime());
+            case 11 -> report.getText();
+            default -> throw new IllegalArgumentException("No such column: " + column);
+        };
     }
 
-    private void updateExecutionTable(List<ExecutionReport> reports) {
-        DefaultTableModel model = (DefaultTableModel) executionTable.getModel();
-        model.setRowCount(0);
-        
-        for (ExecutionReport report : reports) {
-            model.addRow(new Object[]{
-                report.getExecId(),
-                report.getOrderId(),
-                report.getSymbol(),
-                report.getSide(),
-                report.getOrderType(),
-                report.getOrderQty(),
-                report.getLeavesQty(),
-                report.getCumQty(),
-                report.getAvgPx(),
-                report.getOrderStatus(),
-                report.getTransactTime().format(formatter),
-                report.getText()
-            });
-        }
+    private Object tradeValue(TradeCaptureReport report, int column) {
+        return switch (column) {
+            case 0 -> report.getTradeReportId();
+            case 1 -> report.getTradeId();
+            case 2 -> report.getSymbol();
+            case 3 -> report.getBuyOrderId();
+            case 4 -> report.getSellOrderId();
+            case 5 -> report.getPrice();
+            case 6 -> report.getQuantity();
+            case 7 -> format(report.getTradeDate());
+            case 8 -> format(report.getTransactTime());
+            default -> throw new IllegalArgumentException("No such column: " + column);
+        };
     }
 
-    private void updateTradeTable(List<TradeCaptureReport> reports) {
-        DefaultTableModel model = (DefaultTableModel) tradeTable.getModel();
-        model.setRowCount(0);
-        
-        for (TradeCaptureReport report : reports) {
-            model.addRow(new Object[]{
-                report.getTradeReportId(),
-                report.getTradeId(),
-                report.getSymbol(),
-                report.getBuyOrderId(),
-                report.getSellOrderId(),
-                report.getPrice(),
-                report.getQuantity(),
-                report.getTradeDate().format(formatter),
-                report.getTransactTime().format(formatter)
-            });
-        }
+    private String format(LocalDateTime time) {
+        return time != null ? time.format(formatter) : null;
     }
 
     public static void main(String[] args) {
@@ -185,4 +191,4 @@ public class ReportViewer extends JFrame {
             viewer.setVisible(true);
         });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.tradar.reporting.repository;
+
+import com.tradar.core.model.ExecutionReport;
+import com.tradar.core.model.OrderSide;
+import com.tradar.core.model.OrderStatus;
+import com.tradar.core.model.OrderType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reports survive closing and reopening the store, a torn last record is dropped
+ * on reopen without losing the records before it, and queries span sealed
+ * segments, read through their on-disk key index, and the open one.
+ */
+class MappedReportStoreTest {
+    private static final String NAME = "execution-reports";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 2, 9, 30);
+    private static final ReportCodec<ExecutionReport> CODEC = ReportCodec.EXECUTION_REPORTS;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedStoreAnswersRangesAndLookups() throws IOException {
+        try (MappedReportStore<ExecutionReport> store = open(16, 4)) {
+            addReports(store, 0, 10, 3);
+        }
+
+        try (MappedReportStore<ExecutionReport> store = open(16, 4)) {
+            assertEquals(10, store.size());
+            assertEquals(List.of("E2", "E3", "E4", "E5"),
+                execIds(store.range(START.plusSeconds(2), START.plusSeconds(5))));
+            assertEquals(List.of("E1", "E4", "E7"), execIds(store.lookup("O1")));
+            assertEquals(List.of(), store.lookup("O9"));
+        }
+    }
+
+    @Test
+    void tornLastRecordIsDroppedAndAppendsContinue() throws IOException {
+        try (MappedReportStore<ExecutionReport> store = open(16, 4)) {
+            addReports(store, 0, 5, 5);
+        }
+        Path segment = segments().get(0);
+        byte[] content = Files.readAllBytes(segment);
+        int crc = slotOffset(16, 4, 4);
+        for (int i = crc; i < crc + 4; i++) {
+            content[i] = (byte) ~content[i];
+        }
+        Files.write(segment, content);
+
+        try (MappedReportStore<ExecutionReport> store = open(16, 4)) {
+            assertEquals(4, store.size());
+            assertEquals(List.of("E0", "E1", "E2", "E3"), execIds(store.readLog(0, 10)));
+            assertEquals(List.of(), store.lookup("O4"));
+
+            addReports(store, 5, 6, 5);
+            assertEquals(List.of("E0", "E1", "E2", "E3", "E5"), execIds(store.readLog(0, 10)));
+        }
+
+        try (MappedReportStore<ExecutionReport> store = open(16, 4)) {
+            assertEquals(5, store.size());
+            assertEquals(List.of("E0", "E5"), execIds(store.lookup("O0")));
+        }
+    }
+
+    @Test
+    void lookupsSpanSealedAndOpenSegments() throws IOException {
+        try (MappedReportStore<ExecutionReport> store = open(8, 4)) {
+            addReports(store, 0, 20, 6);
+            assertEquals(3, segments().size());
+            assertQueries(store);
+        }
+
+        // Sealed segments now answer from their key index on disk, the open one from its rebuilt table
+        try (MappedReportStore<ExecutionReport> store = open(8, 4)) {
+            assertQueries(store);
+            addReports(store, 20, 25, 6);
+            assertEquals(4, segments().size());
+            assertEquals(List.of("E0", "E6", "E12", "E18", "E24"), execIds(store.lookup("O0")));
+        }
+    }
+
+    private static void assertQueries(MappedReportStore<ExecutionReport> store) {
+        assertEquals(20, store.size());
+        assertEquals(List.of("E0", "E6", "E12", "E18"), execIds(store.lookup("O0")));
+        assertEquals(List.of("E5", "E11", "E17"), execIds(store.lookup("O5")));
+        assertEquals(List.of("E6", "E7", "E8", "E9", "E10", "E11", "E12", "E13", "E14", "E15", "E16", "E17"),
+            execIds(store.range(START.plusSeconds(6), START.plusSeconds(17))));
+    }
+
+    private MappedReportStore<ExecutionReport> open(int recordsPerSegment, int indexInterval) throws IOException {
+        return new MappedReportStore<>(directory, NAME, CODEC, recordsPerSegment, indexInterval);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Offset of a record's slot, which starts with its CRC, following the layout
+     * described on {@link ReportSegment}.
+     */
+    private static int slotOffset(int capacity, int indexInterval, int record) {
+        int blocks = (capacity + indexInterval - 1) / indexInterval;
+        int slotLength = (8 + CODEC.encodedLength() + 7) & ~7;
+        return 64 + blocks * 16 + capacity * 8 + record * slotLength;
+    }
+
+    /**
+     * Adds reports {@code [from, to)}, a second apart, spreading them over
+     * {@code orders} order ids.
+     */
+    private static void addReports(MappedReportStore<ExecutionReport> store, int from, int to, int orders) {
+        for (int i = from; i < to; i++) {
+            store.add(ExecutionReport.builder()
+                .execId("E" + i)
+                .orderId("O" + i % orders)
+                .symbol("RPT")
+                .side(OrderSide.BUY)
+                .orderType(OrderType.LIMIT)
+                .orderQty(BigDecimal.TEN)
+                .leavesQty(BigDecimal.TEN)
+                .cumQty(BigDecimal.ZERO)
+                .avgPx(BigDecimal.ZERO)
+                .orderStatus(OrderStatus.NEW)
+                .transactTime(START.plusSeconds(i))
+                .text("New order")
+                .build());
+        }
+    }
+
+    private static List<String> execIds(List<ExecutionReport> reports) {
+        return reports.stream().map(ExecutionReport::getExecId).toList();
+    }
+}